@@ -0,0 +1,413 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package algorithms.mdp.admm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import model.CMDP;
+import instances.CMDPInstance;
+import instances.ConstraintType;
+import solutions.mdp.MDPAgentSolutionPolicyBased;
+import solutions.mdp.MDPPolicyStochastic;
+import solutions.mdp.CMDPSolution;
+import solutions.mdp.CMDPSolutionPolicyBased;
+import util.ConfigFile;
+import algorithms.UnsupportedInstanceException;
+import algorithms.mdp.CMDPAlgorithm;
+
+/**
+ * Decomposes the occupancy LP by agent using a proximal Jacobian variant of ADMM on the resource constraints.
+ * In each iteration the workers perform a proximal step for their agents in parallel, given prices derived from the
+ * augmented Lagrangian, after which the coordinator updates the multipliers using the aggregated consumption.
+ * Workers run as threads in this JVM, or as separate JVMs on the same machine.
+ */
+public class ADMM implements CMDPAlgorithm {
+	private static final int BOUND_INTERVAL = 10;
+	
+	private Random rnd;
+	
+	private CMDP[] cmdps;
+	private CMDPInstance instance;
+	private int numDomainResources;
+	private int numAgents;
+	private int numDecisions;
+	private int numPeriods; // 1 for budget constraints, numDecisions for instantaneous constraints
+	
+	private boolean useBudgetConstraints = false;
+	
+	private int numWorkers;
+	private boolean useProcesses;
+	private double penalty;
+	private double stepSize;
+	private double tolerance;
+	private int maxIterations;
+	private double timelimit;
+	
+	// agents sharing the same CMDP object form a group, which is assigned to one worker
+	private CMDP[] groupCMDPs;
+	private int[] groupCount;
+	private int[] agentGroup;
+	private int[] groupWorker;
+	private int[] groupIndex; // index of the group within its worker
+	
+	public ADMM(Random rnd) {
+		this.rnd = rnd;
+		this.numWorkers = ConfigFile.getIntProperty("admm_workers");
+		this.useProcesses = ConfigFile.getBooleanProperty("admm_use_processes");
+		this.penalty = ConfigFile.getDoubleProperty("admm_penalty");
+		this.stepSize = ConfigFile.getDoubleProperty("admm_step_size");
+		this.tolerance = ConfigFile.getDoubleProperty("admm_convergence_tolerance");
+		this.maxIterations = ConfigFile.getIntProperty("admm_max_iterations");
+		this.timelimit = ConfigFile.getDoubleProperty("admm_time_limit");
+		
+		if(numWorkers <= 0) {
+			numWorkers = Runtime.getRuntime().availableProcessors();
+		}
+	}
+	
+	/**
+	 * Set whether workers run in separate JVMs
+	 * @param useProcesses true if each worker runs in its own process
+	 */
+	public void setUseProcesses(boolean useProcesses) {
+		this.useProcesses = useProcesses;
+	}
+	
+	/**
+	 * Set the number of workers
+	 * @param numWorkers number of workers
+	 */
+	public void setNumWorkers(int numWorkers) {
+		assert numWorkers > 0;
+		this.numWorkers = numWorkers;
+	}
+	
+	@Override
+	public void setInstance(CMDPInstance instance) throws UnsupportedInstanceException {
+		this.cmdps = instance.getCMDPs();
+		this.numAgents = cmdps.length;
+		this.instance = instance;
+		this.numDomainResources = instance.getNumDomainResources();
+		this.numDecisions = instance.getNumDecisions();
+		
+		useBudgetConstraints = (instance.getConstraintType() == ConstraintType.BUDGET);
+		numPeriods = useBudgetConstraints ? 1 : numDecisions;
+		
+		agentGroup = new int[numAgents];
+		List<CMDP> groups = new ArrayList<CMDP>();
+		List<Integer> counts = new ArrayList<Integer>();
+		IdentityHashMap<CMDP,Integer> groupMap = new IdentityHashMap<CMDP,Integer>();
+		
+		for(int i=0; i<numAgents; i++) {
+			Integer group = groupMap.get(cmdps[i]);
+			
+			if(group == null) {
+				group = groups.size();
+				groupMap.put(cmdps[i], group);
+				groups.add(cmdps[i]);
+				counts.add(0);
+			}
+			
+			agentGroup[i] = group;
+			counts.set(group, counts.get(group) + 1);
+		}
+		
+		groupCMDPs = groups.toArray(new CMDP[groups.size()]);
+		groupCount = new int[groupCMDPs.length];
+		for(int g=0; g<groupCMDPs.length; g++) {
+			groupCount[g] = counts.get(g);
+		}
+	}
+	
+	/**
+	 * Assigns groups to workers such that the amount of work of the workers is balanced
+	 */
+	private ADMMWorker[] createWorkers() {
+		int numGroups = groupCMDPs.length;
+		int workers = Math.min(numWorkers, numGroups);
+		
+		Integer[] order = new Integer[numGroups];
+		for(int g=0; g<numGroups; g++) {
+			order[g] = g;
+		}
+		Arrays.sort(order, (g1, g2) -> Long.compare(getWork(groupCMDPs[g2]), getWork(groupCMDPs[g1])));
+		
+		long[] load = new long[workers];
+		List<List<Integer>> workerGroups = new ArrayList<List<Integer>>();
+		for(int w=0; w<workers; w++) {
+			workerGroups.add(new ArrayList<Integer>());
+		}
+		
+		groupWorker = new int[numGroups];
+		groupIndex = new int[numGroups];
+		for(int g : order) {
+			int w = 0;
+			for(int v=1; v<workers; v++) {
+				if(load[v] < load[w]) {
+					w = v;
+				}
+			}
+			
+			groupWorker[g] = w;
+			groupIndex[g] = workerGroups.get(w).size();
+			workerGroups.get(w).add(g);
+			load[w] += getWork(groupCMDPs[g]);
+		}
+		
+		ADMMWorker[] workerArray = new ADMMWorker[workers];
+		IntStream.range(0, workers).parallel().forEach(w -> {
+			List<Integer> assigned = workerGroups.get(w);
+			CMDP[] workerCMDPs = new CMDP[assigned.size()];
+			int[] workerCounts = new int[assigned.size()];
+			
+			for(int j=0; j<assigned.size(); j++) {
+				workerCMDPs[j] = groupCMDPs[assigned.get(j)];
+				workerCounts[j] = groupCount[assigned.get(j)];
+			}
+			
+			if(useProcesses) {
+				workerArray[w] = new ProcessWorker(workerCMDPs, workerCounts, numDecisions, numDomainResources, useBudgetConstraints);
+			}
+			else {
+				workerArray[w] = new ThreadWorker(workerCMDPs, workerCounts, numDecisions, numDomainResources, useBudgetConstraints);
+			}
+		});
+		
+		return workerArray;
+	}
+	
+	private long getWork(CMDP cmdp) {
+		return (long) cmdp.getNumStates() * cmdp.getNumActions() * numDecisions;
+	}
+	
+	/**
+	 * Performs a step on all workers in parallel and sums the results
+	 */
+	private double[] step(ADMMWorker[] workers, double[] prices, double stepSize) {
+		double[][] results = new double[workers.length][];
+		IntStream.range(0, workers.length).parallel().forEach(w -> {
+			results[w] = workers[w].step(prices, stepSize);
+		});
+		
+		double[] aggregate = new double[results[0].length];
+		for(double[] result : results) {
+			for(int j=0; j<aggregate.length; j++) {
+				aggregate[j] += result[j];
+			}
+		}
+		
+		return aggregate;
+	}
+	
+	private double getLagrangianValue(ADMMWorker[] workers, double[] prices) {
+		double[] values = new double[workers.length];
+		IntStream.range(0, workers.length).parallel().forEach(w -> {
+			values[w] = workers[w].getLagrangianValue(prices);
+		});
+		
+		double value = 0.0;
+		for(double v : values) {
+			value += v;
+		}
+		
+		return value;
+	}
+	
+	@Override
+	public CMDPSolution solve() {
+		int numConstraints = numDomainResources * numPeriods;
+		
+		double[] limits = new double[numConstraints];
+		double[] scale = new double[numConstraints];
+		double rewardScale = 0.0;
+		for(int k=0; k<numDomainResources; k++) {
+			for(int p=0; p<numPeriods; p++) {
+				int j = k * numPeriods + p;
+				limits[j] = useBudgetConstraints ? instance.getCostLimit(k) : instance.getCostLimit(k, p);
+				
+				// largest possible consumption of the fleet
+				for(int g=0; g<groupCMDPs.length; g++) {
+					double maxCost = Math.max(Math.abs(groupCMDPs[g].getMinCost(k)), Math.abs(groupCMDPs[g].getMaxCost(k)));
+					scale[j] += groupCount[g] * maxCost * (useBudgetConstraints ? numDecisions : 1);
+				}
+				
+				if(scale[j] <= 0.0) {
+					scale[j] = 1.0;
+				}
+			}
+		}
+		
+		for(int g=0; g<groupCMDPs.length; g++) {
+			double maxReward = Math.max(Math.abs(groupCMDPs[g].getMinReward()), Math.abs(groupCMDPs[g].getMaxReward()));
+			rewardScale += groupCount[g] * maxReward * numDecisions;
+		}
+		rewardScale = Math.max(rewardScale, 1e-9);
+		
+		// the penalty is scaled by the consumption, and the step size keeps the simultaneous updates of all agents stable
+		double[] rho = new double[numConstraints];
+		for(int j=0; j<numConstraints; j++) {
+			rho[j] = penalty * rewardScale / (scale[j] * scale[j]);
+		}
+		double eta = stepSize * numAgents / (penalty * rewardScale * numConstraints);
+		
+		long startTime = System.currentTimeMillis();
+		
+		ADMMWorker[] workers = createWorkers();
+		MDPAgentSolutionPolicyBased[] solution = new MDPAgentSolutionPolicyBased[numAgents];
+		
+		try {
+			double[] lambda = new double[numConstraints];
+			double[] prices = new double[numConstraints];
+			double[] aggregate = step(workers, prices, 0.0);
+			
+			for(int iteration=0; iteration<maxIterations; iteration++) {
+				// prices are the gradient of the augmented Lagrangian with respect to the consumption
+				for(int j=0; j<numConstraints; j++) {
+					prices[j] = Math.max(0.0, lambda[j] + rho[j] * (aggregate[1+j] - limits[j]));
+				}
+				
+				double[] newAggregate = step(workers, prices, eta);
+				
+				double violation = 0.0;
+				double change = 0.0;
+				for(int j=0; j<numConstraints; j++) {
+					double consumption = newAggregate[1+j];
+					lambda[j] = Math.max(0.0, lambda[j] + rho[j] * (consumption - limits[j]));
+					
+					violation = Math.max(violation, (consumption - limits[j]) / Math.max(1.0, Math.abs(limits[j])));
+					change = Math.max(change, Math.abs(consumption - aggregate[1+j]) / scale[j]);
+				}
+				
+				aggregate = newAggregate;
+				
+				// the Lagrangian dual gives an upper bound, which is computed only when the consumption is nearly feasible
+				boolean converged = false;
+				if(violation <= tolerance && change <= tolerance && iteration % BOUND_INTERVAL == 0) {
+					double upperBound = getLagrangianValue(workers, lambda);
+					for(int j=0; j<numConstraints; j++) {
+						upperBound += lambda[j] * limits[j];
+					}
+					
+					converged = upperBound - aggregate[0] <= tolerance * Math.max(1.0, Math.abs(upperBound));
+				}
+				
+				double elapsedTime = (System.currentTimeMillis() - startTime) * 0.001;
+				
+				if(converged || elapsedTime > timelimit) {
+					break;
+				}
+			}
+			
+			// obtain solution
+			double[][][][] policies = new double[groupCMDPs.length][][][];
+			double[] rewards = new double[groupCMDPs.length];
+			for(int w=0; w<workers.length; w++) {
+				double[][][][] workerPolicies = workers[w].getPolicies();
+				double[] workerRewards = workers[w].getExpectedRewards();
+				
+				for(int g=0; g<groupCMDPs.length; g++) {
+					if(groupWorker[g] == w) {
+						policies[g] = workerPolicies[groupIndex[g]];
+						rewards[g] = workerRewards[groupIndex[g]];
+					}
+				}
+			}
+			
+			// the last iterate may violate the constraints in expectation, which is resolved by mixing with minimum cost policies
+			boolean feasible = true;
+			for(int j=0; j<numConstraints; j++) {
+				feasible = feasible && aggregate[1+j] <= limits[j];
+			}
+			
+			if(feasible) {
+				for(int i=0; i<numAgents; i++) {
+					int g = agentGroup[i];
+					solution[i] = new MDPPolicyStochastic(policies[g], rewards[g], rnd);
+				}
+			}
+			else {
+				restoreFeasibility(policies, rewards, aggregate, limits, scale, solution);
+			}
+		}
+		finally {
+			for(ADMMWorker worker : workers) {
+				worker.close();
+			}
+		}
+		
+		return new CMDPSolutionPolicyBased(solution);
+	}
+	
+	/**
+	 * Mixes the occupancy measures of the policies with the occupancy measures of policies minimizing the consumption,
+	 * using the largest weight for the policies such that the expected consumption respects the limits
+	 */
+	private void restoreFeasibility(double[][][][] policies, double[] rewards, double[] aggregate, double[] limits, double[] scale, MDPAgentSolutionPolicyBased[] solution) {
+		AgentBlock block = new AgentBlock(groupCMDPs, groupCount, numDecisions, numDomainResources, useBudgetConstraints);
+		
+		double[] weights = new double[limits.length];
+		for(int j=0; j<limits.length; j++) {
+			weights[j] = 1.0 / scale[j];
+		}
+		
+		double[] minimumAggregate = block.setMinimumCostPolicies(weights);
+		double[][][][] minimumOccupancies = block.getOccupancies();
+		double[] minimumRewards = block.getExpectedRewards();
+		
+		double mixingWeight = 1.0;
+		for(int j=0; j<limits.length; j++) {
+			if(aggregate[1+j] > limits[j]) {
+				double weight = (limits[j] - minimumAggregate[1+j]) / (aggregate[1+j] - minimumAggregate[1+j]);
+				mixingWeight = Math.max(0.0, Math.min(mixingWeight, weight));
+			}
+		}
+		
+		block.setPolicies(policies);
+		double[][][][] occupancies = block.getOccupancies();
+		
+		double[] expectedRewards = new double[groupCMDPs.length];
+		for(int g=0; g<groupCMDPs.length; g++) {
+			double[][][] x = occupancies[g];
+			for(int t=0; t<numDecisions; t++) {
+				for(int s=0; s<x[t].length; s++) {
+					for(int a=0; a<x[t][s].length; a++) {
+						x[t][s][a] = mixingWeight * x[t][s][a] + (1.0 - mixingWeight) * minimumOccupancies[g][t][s][a];
+					}
+				}
+			}
+			
+			expectedRewards[g] = mixingWeight * rewards[g] + (1.0 - mixingWeight) * minimumRewards[g];
+		}
+		
+		for(int i=0; i<numAgents; i++) {
+			int g = agentGroup[i];
+			solution[i] = new MDPPolicyStochastic(occupancies[g], expectedRewards[g], rnd);
+		}
+	}
+	
+	@Override
+	public String getName() {
+		return "ADMM";
+	}
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package algorithms.mdp.admm;
+
+/**
+ * Worker which owns a block of agents. Workers only exchange resource prices and aggregated consumption with the coordinator.
+ */
+public interface ADMMWorker {
+	/**
+	 * Performs a proximal step for all agents of the worker
+	 * @param prices price of each resource and period
+	 * @param stepSize step size of the proximal step
+	 * @return expected reward of the agents, followed by their expected consumption for each resource and period
+	 */
+	public double[] step(double[] prices, double stepSize);
+	
+	/**
+	 * Computes the optimal Lagrangian value of the agents of the worker
+	 * @param prices price of each resource and period
+	 * @return sum of the optimal expected reward minus priced consumption
+	 */
+	public double getLagrangianValue(double[] prices);
+	
+	/**
+	 * Get the current policies of the agents of the worker
+	 * @return policies[g][t][s][a] for each group of identical agents
+	 */
+	public double[][][][] getPolicies();
+	
+	/**
+	 * Get the expected reward of one agent of each group
+	 * @return expected reward
+	 */
+	public double[] getExpectedRewards();
+	
+	/**
+	 * Releases the resources used by the worker
+	 */
+	public void close();
+}
@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package algorithms.mdp.admm;
+
+import model.CMDP;
+
+/**
+ * Block of agents which is solved by one worker. Agents sharing the same CMDP are represented once, together with their
+ * number of copies. The policy of each agent is stored as log-probabilities, and a proximal step maximizes the Lagrangian
+ * reward minus a Kullback-Leibler penalty relative to the current policy, which is solved exactly by a soft Bellman recursion.
+ */
+public class AgentBlock {
+	private CMDP[] cmdps;
+	private int[] counts;
+	private int numDecisions;
+	private int numDomainResources;
+	private int numPeriods;
+	private boolean useBudgetConstraints;
+	
+	private double[][][][] logPolicy; // logPolicy[g][t][s][j] is the log-probability of the j-th feasible action
+	private double[] expectedReward;
+	private double[][] expectedConsumption; // expectedConsumption[g][k*numPeriods+p] for one agent of group g
+	
+	public AgentBlock(CMDP[] cmdps, int[] counts, int numDecisions, int numDomainResources, boolean useBudgetConstraints) {
+		assert cmdps.length == counts.length;
+		this.cmdps = cmdps;
+		this.counts = counts;
+		this.numDecisions = numDecisions;
+		this.numDomainResources = numDomainResources;
+		this.numPeriods = useBudgetConstraints ? 1 : numDecisions;
+		this.useBudgetConstraints = useBudgetConstraints;
+		
+		logPolicy = new double[cmdps.length][numDecisions][][];
+		expectedReward = new double[cmdps.length];
+		expectedConsumption = new double[cmdps.length][numDomainResources * numPeriods];
+		
+		// initial policies are uniform over the feasible actions
+		for(int g=0; g<cmdps.length; g++) {
+			CMDP cmdp = cmdps[g];
+			
+			for(int t=0; t<numDecisions; t++) {
+				logPolicy[g][t] = new double[cmdp.getNumStates()][];
+				
+				for(int s : cmdp.getReachableStates(t)) {
+					int numFeasible = cmdp.getFeasibleActions(t, s).length;
+					logPolicy[g][t][s] = new double[numFeasible];
+					
+					for(int j=0; j<numFeasible; j++) {
+						logPolicy[g][t][s][j] = -Math.log(numFeasible);
+					}
+				}
+			}
+			
+			evaluate(g);
+		}
+	}
+	
+	/**
+	 * Performs a proximal step for all agents in the block
+	 * @param prices price of each resource and period, indexed by k*numPeriods+p
+	 * @param stepSize weight of the Lagrangian reward relative to the Kullback-Leibler penalty, 0 keeps the current policies
+	 * @return expected reward of all agents, followed by the expected consumption of all agents for each resource and period
+	 */
+	public double[] step(double[] prices, double stepSize) {
+		if(stepSize > 0.0) {
+			for(int g=0; g<cmdps.length; g++) {
+				proximalStep(g, prices, stepSize);
+				evaluate(g);
+			}
+		}
+		
+		double[] aggregate = new double[1 + numDomainResources * numPeriods];
+		for(int g=0; g<cmdps.length; g++) {
+			aggregate[0] += counts[g] * expectedReward[g];
+			
+			for(int j=0; j<expectedConsumption[g].length; j++) {
+				aggregate[1+j] += counts[g] * expectedConsumption[g][j];
+			}
+		}
+		
+		return aggregate;
+	}
+	
+	/**
+	 * Computes the optimal Lagrangian value of all agents in the block, which is used to obtain an upper bound
+	 * @param prices price of each resource and period, indexed by k*numPeriods+p
+	 * @return sum of the optimal expected reward minus priced consumption of all agents
+	 */
+	public double getLagrangianValue(double[] prices) {
+		double lagrangianValue = 0.0;
+		
+		for(int g=0; g<cmdps.length; g++) {
+			CMDP cmdp = cmdps[g];
+			double[] nextValue = new double[cmdp.getNumStates()];
+			
+			for(int t=numDecisions-1; t>=0; t--) {
+				double[] value = new double[cmdp.getNumStates()];
+				int p = useBudgetConstraints ? 0 : t;
+				
+				for(int s : cmdp.getReachableStates(t)) {
+					value[s] = Double.NEGATIVE_INFINITY;
+					
+					for(int a : cmdp.getFeasibleActions(t, s)) {
+						value[s] = Math.max(value[s], getActionValue(cmdp, t, s, a, p, prices, nextValue));
+					}
+				}
+				
+				nextValue = value;
+			}
+			
+			lagrangianValue += counts[g] * nextValue[cmdp.getInitialState()];
+		}
+		
+		return lagrangianValue;
+	}
+	
+	private double getActionValue(CMDP cmdp, int t, int s, int a, int p, double[] prices, double[] nextValue) {
+		double q = cmdp.getReward(t, s, a);
+		
+		for(int k=0; k<numDomainResources; k++) {
+			q -= prices[k * numPeriods + p] * cmdp.getCost(k, s, a);
+		}
+		
+		if(t < numDecisions-1) {
+			int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
+			double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
+			
+			for(int d=0; d<transitionDestinations.length; d++) {
+				q += transitionProbabilities[d] * nextValue[transitionDestinations[d]];
+			}
+		}
+		
+		return q;
+	}
+	
+	private void proximalStep(int g, double[] prices, double stepSize) {
+		CMDP cmdp = cmdps[g];
+		double[] nextValue = new double[cmdp.getNumStates()];
+		
+		for(int t=numDecisions-1; t>=0; t--) {
+			double[] value = new double[cmdp.getNumStates()];
+			int p = useBudgetConstraints ? 0 : t;
+			
+			for(int s : cmdp.getReachableStates(t)) {
+				int[] actions = cmdp.getFeasibleActions(t, s);
+				double[] logProb = logPolicy[g][t][s];
+				double maxLogit = Double.NEGATIVE_INFINITY;
+				
+				// logits are the current log-probabilities plus the scaled action values
+				for(int j=0; j<actions.length; j++) {
+					double q = getActionValue(cmdp, t, s, actions[j], p, prices, nextValue);
+					logProb[j] += stepSize * q;
+					maxLogit = Math.max(maxLogit, logProb[j]);
+				}
+				
+				double sum = 0.0;
+				for(int j=0; j<actions.length; j++) {
+					sum += Math.exp(logProb[j] - maxLogit);
+				}
+				
+				double logNormalization = maxLogit + Math.log(sum);
+				for(int j=0; j<actions.length; j++) {
+					logProb[j] -= logNormalization;
+				}
+				
+				value[s] = logNormalization / stepSize;
+			}
+			
+			nextValue = value;
+		}
+	}
+	
+	/**
+	 * Computes expected reward and consumption of the current policy of group g using a forward pass
+	 */
+	private void evaluate(int g) {
+		CMDP cmdp = cmdps[g];
+		double[] stateProbabilities = new double[cmdp.getNumStates()];
+		stateProbabilities[cmdp.getInitialState()] = 1.0;
+		
+		expectedReward[g] = 0.0;
+		double[] consumption = expectedConsumption[g];
+		for(int j=0; j<consumption.length; j++) {
+			consumption[j] = 0.0;
+		}
+		
+		for(int t=0; t<numDecisions; t++) {
+			double[] nextStateProbabilities = new double[cmdp.getNumStates()];
+			int p = useBudgetConstraints ? 0 : t;
+			
+			for(int s : cmdp.getReachableStates(t)) {
+				if(stateProbabilities[s] == 0.0) {
+					continue;
+				}
+				
+				int[] actions = cmdp.getFeasibleActions(t, s);
+				for(int j=0; j<actions.length; j++) {
+					int a = actions[j];
+					double x = stateProbabilities[s] * Math.exp(logPolicy[g][t][s][j]);
+					
+					expectedReward[g] += x * cmdp.getReward(t, s, a);
+					for(int k=0; k<numDomainResources; k++) {
+						consumption[k * numPeriods + p] += x * cmdp.getCost(k, s, a);
+					}
+					
+					if(t < numDecisions-1) {
+						int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
+						double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
+						
+						for(int d=0; d<transitionDestinations.length; d++) {
+							nextStateProbabilities[transitionDestinations[d]] += x * transitionProbabilities[d];
+						}
+					}
+				}
+			}
+			
+			stateProbabilities = nextStateProbabilities;
+		}
+	}
+	
+	/**
+	 * Replaces the current policies by deterministic policies which minimize the weighted consumption, and break ties
+	 * by maximizing the reward. These policies are used to restore the feasibility of a solution.
+	 * @param weights weight of each resource and period, indexed by k*numPeriods+p
+	 * @return expected reward of all agents, followed by the expected consumption of all agents for each resource and period
+	 */
+	public double[] setMinimumCostPolicies(double[] weights) {
+		for(int g=0; g<cmdps.length; g++) {
+			CMDP cmdp = cmdps[g];
+			double[] nextCost = new double[cmdp.getNumStates()];
+			double[] nextReward = new double[cmdp.getNumStates()];
+			
+			for(int t=numDecisions-1; t>=0; t--) {
+				double[] cost = new double[cmdp.getNumStates()];
+				double[] reward = new double[cmdp.getNumStates()];
+				int p = useBudgetConstraints ? 0 : t;
+				
+				for(int s : cmdp.getReachableStates(t)) {
+					int[] actions = cmdp.getFeasibleActions(t, s);
+					int bestAction = -1;
+					
+					for(int j=0; j<actions.length; j++) {
+						int a = actions[j];
+						double c = 0.0;
+						double r = cmdp.getReward(t, s, a);
+						
+						for(int k=0; k<numDomainResources; k++) {
+							c += weights[k * numPeriods + p] * cmdp.getCost(k, s, a);
+						}
+						
+						if(t < numDecisions-1) {
+							int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
+							double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
+							
+							for(int d=0; d<transitionDestinations.length; d++) {
+								c += transitionProbabilities[d] * nextCost[transitionDestinations[d]];
+								r += transitionProbabilities[d] * nextReward[transitionDestinations[d]];
+							}
+						}
+						
+						double costTolerance = 0.000000001 * Math.max(1.0, Math.abs(c));
+						if(bestAction == -1 || c < cost[s] - costTolerance || (c <= cost[s] + costTolerance && r > reward[s])) {
+							bestAction = j;
+							cost[s] = c;
+							reward[s] = r;
+						}
+					}
+					
+					for(int j=0; j<actions.length; j++) {
+						logPolicy[g][t][s][j] = (j == bestAction) ? 0.0 : Double.NEGATIVE_INFINITY;
+					}
+				}
+				
+				nextCost = cost;
+				nextReward = reward;
+			}
+			
+			evaluate(g);
+		}
+		
+		return step(weights, 0.0);
+	}
+	
+	/**
+	 * Replaces the current policies
+	 * @param policies policies[g][t][s][a] in the form returned by getPolicies
+	 */
+	public void setPolicies(double[][][][] policies) {
+		for(int g=0; g<cmdps.length; g++) {
+			CMDP cmdp = cmdps[g];
+			
+			for(int t=0; t<numDecisions; t++) {
+				for(int s : cmdp.getReachableStates(t)) {
+					int[] actions = cmdp.getFeasibleActions(t, s);
+					for(int j=0; j<actions.length; j++) {
+						logPolicy[g][t][s][j] = Math.log(policies[g][t][s][actions[j]]);
+					}
+				}
+			}
+			
+			evaluate(g);
+		}
+	}
+	
+	/**
+	 * Get the occupancy measures of the current policies, which can be mixed linearly
+	 * @return occupancy[g][t][s][a], the probability that one agent of group g is in state s at time t and executes a
+	 */
+	public double[][][][] getOccupancies() {
+		double[][][][] occupancies = new double[cmdps.length][][][];
+		
+		for(int g=0; g<cmdps.length; g++) {
+			CMDP cmdp = cmdps[g];
+			occupancies[g] = new double[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
+			double[] stateProbabilities = new double[cmdp.getNumStates()];
+			stateProbabilities[cmdp.getInitialState()] = 1.0;
+			
+			for(int t=0; t<numDecisions; t++) {
+				double[] nextStateProbabilities = new double[cmdp.getNumStates()];
+				
+				for(int s : cmdp.getReachableStates(t)) {
+					if(stateProbabilities[s] == 0.0) {
+						continue;
+					}
+					
+					int[] actions = cmdp.getFeasibleActions(t, s);
+					for(int j=0; j<actions.length; j++) {
+						int a = actions[j];
+						double x = stateProbabilities[s] * Math.exp(logPolicy[g][t][s][j]);
+						occupancies[g][t][s][a] = x;
+						
+						if(t < numDecisions-1 && x > 0.0) {
+							int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
+							double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
+							
+							for(int d=0; d<transitionDestinations.length; d++) {
+								nextStateProbabilities[transitionDestinations[d]] += x * transitionProbabilities[d];
+							}
+						}
+					}
+				}
+				
+				stateProbabilities = nextStateProbabilities;
+			}
+		}
+		
+		return occupancies;
+	}
+	
+	/**
+	 * Get the current policies as action probabilities
+	 * @return policies[g][t][s][a], which is zero for states that cannot be reached
+	 */
+	public double[][][][] getPolicies() {
+		double[][][][] policies = new double[cmdps.length][][][];
+		
+		for(int g=0; g<cmdps.length; g++) {
+			CMDP cmdp = cmdps[g];
+			policies[g] = new double[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
+			
+			for(int t=0; t<numDecisions; t++) {
+				for(int s : cmdp.getReachableStates(t)) {
+					int[] actions = cmdp.getFeasibleActions(t, s);
+					for(int j=0; j<actions.length; j++) {
+						policies[g][t][s][actions[j]] = Math.exp(logPolicy[g][t][s][j]);
+					}
+				}
+			}
+		}
+		
+		return policies;
+	}
+	
+	/**
+	 * Get the expected reward of one agent of each group
+	 * @return expected reward
+	 */
+	public double[] getExpectedRewards() {
+		return expectedReward.clone();
+	}
+}
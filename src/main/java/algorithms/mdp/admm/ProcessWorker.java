@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package algorithms.mdp.admm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.lang.ProcessBuilder.Redirect;
+
+import model.CMDP;
+
+/**
+ * Worker which solves its block of agents in a separate JVM on the same machine. The CMDPs are sent to the child process
+ * once, after which each step only exchanges the prices and the aggregated reward and consumption through the standard
+ * input and output of the child process.
+ */
+public class ProcessWorker implements ADMMWorker {
+	private static final int STEP = 0;
+	private static final int POLICIES = 1;
+	private static final int REWARDS = 2;
+	private static final int LAGRANGIAN = 3;
+	private static final int CLOSE = 4;
+	
+	private Process process;
+	private ObjectOutputStream out;
+	private ObjectInputStream in;
+	
+	public ProcessWorker(CMDP[] cmdps, int[] counts, int numDecisions, int numDomainResources, boolean useBudgetConstraints) {
+		String javaPath = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		ProcessBuilder builder = new ProcessBuilder(javaPath, "-cp", System.getProperty("java.class.path"), ProcessWorker.class.getName());
+		builder.redirectError(Redirect.INHERIT);
+		
+		try {
+			process = builder.start();
+			
+			out = new ObjectOutputStream(new BufferedOutputStream(process.getOutputStream()));
+			out.writeObject(cmdps);
+			out.writeObject(counts);
+			out.writeInt(numDecisions);
+			out.writeInt(numDomainResources);
+			out.writeBoolean(useBudgetConstraints);
+			out.flush();
+			
+			in = new ObjectInputStream(new BufferedInputStream(process.getInputStream()));
+		} catch (IOException e) {
+			throw new RuntimeException("Could not start worker process", e);
+		}
+	}
+	
+	private Object request(int command, double[] prices, double stepSize) {
+		try {
+			out.writeInt(command);
+			
+			if(command == STEP || command == LAGRANGIAN) {
+				out.writeObject(prices);
+				out.writeDouble(stepSize);
+			}
+			
+			// arrays are written again in the next step, so references to earlier objects must not be reused
+			out.reset();
+			out.flush();
+			
+			return in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new RuntimeException("Communication with worker process failed", e);
+		}
+	}
+	
+	@Override
+	public double[] step(double[] prices, double stepSize) {
+		return (double[]) request(STEP, prices, stepSize);
+	}
+	
+	@Override
+	public double getLagrangianValue(double[] prices) {
+		return (Double) request(LAGRANGIAN, prices, 0.0);
+	}
+	
+	@Override
+	public double[][][][] getPolicies() {
+		return (double[][][][]) request(POLICIES, null, 0.0);
+	}
+	
+	@Override
+	public double[] getExpectedRewards() {
+		return (double[]) request(REWARDS, null, 0.0);
+	}
+	
+	@Override
+	public void close() {
+		try {
+			out.writeInt(CLOSE);
+			out.flush();
+			process.waitFor();
+		} catch (IOException | InterruptedException e) {
+			process.destroy();
+		}
+	}
+	
+	/**
+	 * Entry point of the child process
+	 */
+	public static void main(String[] args) throws Exception {
+		// the standard output is used for communication, so anything else printed is sent to the standard error
+		PrintStream stdout = System.out;
+		System.setOut(System.err);
+		
+		ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(System.in));
+		CMDP[] cmdps = (CMDP[]) in.readObject();
+		int[] counts = (int[]) in.readObject();
+		int numDecisions = in.readInt();
+		int numDomainResources = in.readInt();
+		boolean useBudgetConstraints = in.readBoolean();
+		
+		AgentBlock block = new AgentBlock(cmdps, counts, numDecisions, numDomainResources, useBudgetConstraints);
+		ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(stdout));
+		out.flush();
+		
+		while(true) {
+			int command = in.readInt();
+			
+			if(command == STEP) {
+				double[] prices = (double[]) in.readObject();
+				double stepSize = in.readDouble();
+				out.writeObject(block.step(prices, stepSize));
+			}
+			else if(command == LAGRANGIAN) {
+				double[] prices = (double[]) in.readObject();
+				in.readDouble();
+				out.writeObject(block.getLagrangianValue(prices));
+			}
+			else if(command == POLICIES) {
+				out.writeObject(block.getPolicies());
+			}
+			else if(command == REWARDS) {
+				out.writeObject(block.getExpectedRewards());
+			}
+			else {
+				break;
+			}
+			
+			out.reset();
+			out.flush();
+		}
+	}
+}
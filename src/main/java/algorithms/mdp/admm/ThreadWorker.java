@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package algorithms.mdp.admm;
+
+import model.CMDP;
+
+/**
+ * Worker which solves its block of agents in the current JVM
+ */
+public class ThreadWorker implements ADMMWorker {
+	private AgentBlock block;
+	
+	public ThreadWorker(CMDP[] cmdps, int[] counts, int numDecisions, int numDomainResources, boolean useBudgetConstraints) {
+		this.block = new AgentBlock(cmdps, counts, numDecisions, numDomainResources, useBudgetConstraints);
+	}
+	
+	@Override
+	public double[] step(double[] prices, double stepSize) {
+		return block.step(prices, stepSize);
+	}
+	
+	@Override
+	public double getLagrangianValue(double[] prices) {
+		return block.getLagrangianValue(prices);
+	}
+	
+	@Override
+	public double[][][][] getPolicies() {
+		return block.getPolicies();
+	}
+	
+	@Override
+	public double[] getExpectedRewards() {
+		return block.getExpectedRewards();
+	}
+	
+	@Override
+	public void close() {
+		block = null;
+	}
+}
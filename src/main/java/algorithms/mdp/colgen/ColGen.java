@@ -19,8 +19,12 @@
 package algorithms.mdp.colgen;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import lp.LPColumn;
 import lp.LPConstraint;
@@ -35,6 +39,7 @@ import instances.CMDPInstance;
 import instances.ConstraintType;
 import solutions.mdp.MDPAgentSolutionPolicyBased;
 import solutions.mdp.MDPPolicy;
+import solutions.mdp.MDPPolicyDeterministic;
 import solutions.mdp.MDPPolicySet;
 import solutions.mdp.CMDPSolution;
 import solutions.mdp.CMDPSolutionPolicyBased;
@@ -44,6 +49,8 @@ import algorithms.mdp.CMDPAlgorithm;
 import algorithms.mdp.ReducedLimitAlgorithm;
 
 public class ColGen implements CMDPAlgorithm, ReducedLimitAlgorithm {
+	private static final double INITIAL_LAMBDA_DECADES = 4.0;
+	
 	private LPSolver lpSolver;
 	private ValueIterationFiniteHorizon vi;
 	private Random rnd;
@@ -60,12 +67,43 @@ public class ColGen implements CMDPAlgorithm, ReducedLimitAlgorithm {
 	
 	private double timelimit;
 	
+	private int numThreads;
+	private int numInitialColumns;
+	
+	// agents sharing the same CMDP object form a group, and obtain the same policy for given lambda
+	private CMDP[] groupCMDPs;
+	private int[] agentGroup;
+	
 	public ColGen(LPSolver lpSolver, Random rnd) {
 		this.lpSolver = lpSolver;
 		this.vi = new ValueIterationFiniteHorizon();
 		this.rnd = rnd;
 		this.lambdaTolerance = ConfigFile.getDoubleProperty("colgen_dual_convergence_tolerance");
 		this.timelimit = ConfigFile.getDoubleProperty("colgen_time_limit");
+		this.numThreads = ConfigFile.getIntProperty("colgen_threads");
+		this.numInitialColumns = ConfigFile.getIntProperty("colgen_initial_columns");
+		
+		if(numThreads <= 0) {
+			numThreads = Runtime.getRuntime().availableProcessors();
+		}
+	}
+	
+	/**
+	 * Set the number of initial columns for each agent, which are computed before the first iteration
+	 * @param numInitialColumns number of initial columns, 0 disables the initial columns
+	 */
+	public void setNumInitialColumns(int numInitialColumns) {
+		assert numInitialColumns >= 0;
+		this.numInitialColumns = numInitialColumns;
+	}
+	
+	/**
+	 * Set the number of threads used to compute policies
+	 * @param numThreads number of threads
+	 */
+	public void setNumThreads(int numThreads) {
+		assert numThreads > 0;
+		this.numThreads = numThreads;
 	}
 
 	@Override
@@ -80,8 +118,29 @@ public class ColGen implements CMDPAlgorithm, ReducedLimitAlgorithm {
 			useBudgetConstraints = true;
 		}
 		
+		initializeGroups();
 		initializeModel();
 	}
+	
+	private void initializeGroups() {
+		agentGroup = new int[numAgents];
+		List<CMDP> groups = new ArrayList<CMDP>();
+		IdentityHashMap<CMDP,Integer> groupMap = new IdentityHashMap<CMDP,Integer>();
+		
+		for(int i=0; i<numAgents; i++) {
+			Integer group = groupMap.get(cmdps[i]);
+			
+			if(group == null) {
+				group = groups.size();
+				groupMap.put(cmdps[i], group);
+				groups.add(cmdps[i]);
+			}
+			
+			agentGroup[i] = group;
+		}
+		
+		groupCMDPs = groups.toArray(new CMDP[groups.size()]);
+	}
 
 	private LPModel model;
 	private double[][] lambdaInstantaneous;
@@ -133,37 +192,33 @@ public class ColGen implements CMDPAlgorithm, ReducedLimitAlgorithm {
 		
 		long startTime = System.currentTimeMillis();
 		
+		// if there are fewer groups than threads, the remaining threads are used by value iteration
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		vi.setParallelStates(groupCMDPs.length < numThreads);
+		
 		try {			
+			// subsequent calls continue with the existing columns, and may follow a change of the limits by modifyBudgetConstraints
+			// or modifyInstantaneousConstraints, such that the model is first re-solved to obtain the lambda for the new limits
+			boolean resolveModel = !vars.get(0).isEmpty();
+			
+			// the column pool is only seeded in the first call
+			if(numInitialColumns > 0 && !resolveModel) {
+				addInitialColumns(pool);
+			}
+			
 			while(true) {
-				// generate policies with lambda and generate the columns
-				for(int i=0; i<numAgents; i++) {
-					MDPAgentSolutionPolicyBased mdpSolution = null;
+				if(!resolveModel) {
+					// generate policies with lambda in parallel
+					MDPAgentSolutionPolicyBased[] groupSolutions = computePolicies(pool);
 					
-					if(this.useBudgetConstraints) {
-						mdpSolution = vi.solve(cmdps[i], numDecisions, lambdaBudget);
+					// generate the columns in agent order, such that the model does not depend on the order in which threads finish
+					for(int i=0; i<numAgents; i++) {
+						addColumn(i, groupSolutions[agentGroup[i]]);
 					}
-					else {
-						mdpSolution = vi.solve(cmdps[i], numDecisions, lambdaInstantaneous);
-					}
-					
-					
-					LPColumn col = model.createColumn();
-					for(int k=0; k<numDomainResources; k++) {
-						if(useBudgetConstraints) {
-							col.addTerm(mdpSolution.getExpectedTotalCost(k), costConstraints[k][0]);
-						}
-						else {
-							for(int t=0; t<numDecisions; t++) {
-								col.addTerm(mdpSolution.getExpectedInstantaneousCost(k, t), costConstraints[k][t]);
-							}
-						}
-					}
-					col.addTerm(1.0, probabilityConstraints[i]);
-					LPVariable newVar = model.addColumn(0.0, 1.0, mdpSolution.getExpectedReward(), LPVariableType.CONTINUOUS, col);
-					vars.get(i).add(newVar);
-					mdpSolutions.get(i).add(mdpSolution);
 				}
 				
+				resolveModel = false;
+				
 				// solve LP and check convergence
 				boolean solved = model.solve();
 				assert solved;
@@ -201,10 +256,154 @@ public class ColGen implements CMDPAlgorithm, ReducedLimitAlgorithm {
 		catch(LPException e) {
 			e.printStackTrace();
 		}
+		finally {
+			pool.shutdown();
+		}
 		
 		return new CMDPSolutionPolicyBased(solution);
 	}
 	
+	/**
+	 * Adds a column for the policy of an agent
+	 * @param i agent
+	 * @param mdpSolution policy
+	 * @throws LPException
+	 */
+	private void addColumn(int i, MDPAgentSolutionPolicyBased mdpSolution) throws LPException {
+		LPColumn col = model.createColumn();
+		for(int k=0; k<numDomainResources; k++) {
+			if(useBudgetConstraints) {
+				col.addTerm(mdpSolution.getExpectedTotalCost(k), costConstraints[k][0]);
+			}
+			else {
+				for(int t=0; t<numDecisions; t++) {
+					col.addTerm(mdpSolution.getExpectedInstantaneousCost(k, t), costConstraints[k][t]);
+				}
+			}
+		}
+		col.addTerm(1.0, probabilityConstraints[i]);
+		LPVariable newVar = model.addColumn(0.0, 1.0, mdpSolution.getExpectedReward(), LPVariableType.CONTINUOUS, col);
+		vars.get(i).add(newVar);
+		mdpSolutions.get(i).add(mdpSolution);
+	}
+	
+	/**
+	 * Adds initial columns for policies computed with a range of lambda values, such that the duals of the first
+	 * iterations are already close to the optimal duals. The largest lambda makes each unit of a resource more
+	 * expensive than the largest reward difference over the horizon, and the range also includes lambda zero.
+	 * @param pool pool in which the policies are computed
+	 * @throws LPException
+	 */
+	private void addInitialColumns(ForkJoinPool pool) throws LPException {
+		double rewardRange = 0.0;
+		double[] minPositiveCost = new double[numDomainResources];
+		Arrays.fill(minPositiveCost, Double.POSITIVE_INFINITY);
+		
+		for(CMDP cmdp : groupCMDPs) {
+			rewardRange = Math.max(rewardRange, cmdp.getMaxReward() - cmdp.getMinReward());
+			
+			for(int k=0; k<numDomainResources; k++) {
+				for(int s=0; s<cmdp.getNumStates(); s++) {
+					for(int a=0; a<cmdp.getNumActions(); a++) {
+						double cost = cmdp.getCost(k, s, a);
+						if(cost > 0.0) {
+							minPositiveCost[k] = Math.min(minPositiveCost[k], cost);
+						}
+					}
+				}
+			}
+		}
+		
+		// lambda zero, followed by lambda values that are spaced geometrically up to the largest lambda
+		double[][] initialLambdaBudget = new double[numInitialColumns][numDomainResources];
+		double[][][] initialLambdaInstantaneous = new double[numInitialColumns][numDomainResources][numDecisions];
+		for(int b=1; b<numInitialColumns; b++) {
+			double scale = numInitialColumns == 2 ? 1.0 : Math.pow(10.0, -INITIAL_LAMBDA_DECADES * (numInitialColumns-1-b) / (numInitialColumns-2));
+			
+			for(int k=0; k<numDomainResources; k++) {
+				double maxLambda = (minPositiveCost[k] < Double.POSITIVE_INFINITY) ? numDecisions * rewardRange / minPositiveCost[k] : 0.0;
+				initialLambdaBudget[b][k] = scale * maxLambda;
+				Arrays.fill(initialLambdaInstantaneous[b][k], scale * maxLambda);
+			}
+		}
+		
+		MDPPolicyDeterministic[][] groupSolutions = new MDPPolicyDeterministic[groupCMDPs.length][];
+		pool.submit(() -> IntStream.range(0, groupCMDPs.length).parallel().forEach(g -> {
+			if(useBudgetConstraints) {
+				groupSolutions[g] = vi.solveBatch(groupCMDPs[g], numDecisions, initialLambdaBudget);
+			}
+			else {
+				groupSolutions[g] = vi.solveBatch(groupCMDPs[g], numDecisions, initialLambdaInstantaneous);
+			}
+		})).join();
+		
+		// different lambda values often yield the same policy, which is added only once
+		List<List<MDPPolicyDeterministic>> distinctSolutions = new ArrayList<List<MDPPolicyDeterministic>>();
+		for(int g=0; g<groupCMDPs.length; g++) {
+			List<MDPPolicyDeterministic> distinct = new ArrayList<MDPPolicyDeterministic>();
+			
+			for(MDPPolicyDeterministic solution : groupSolutions[g]) {
+				boolean found = false;
+				for(MDPPolicyDeterministic other : distinct) {
+					found = found || hasSameValue(solution, other);
+				}
+				
+				if(!found) {
+					distinct.add(solution);
+				}
+			}
+			
+			distinctSolutions.add(distinct);
+		}
+		
+		for(int i=0; i<numAgents; i++) {
+			for(MDPPolicyDeterministic solution : distinctSolutions.get(agentGroup[i])) {
+				addColumn(i, solution);
+			}
+		}
+	}
+	
+	private boolean hasSameValue(MDPAgentSolutionPolicyBased s1, MDPAgentSolutionPolicyBased s2) {
+		if(s1.getExpectedReward() != s2.getExpectedReward()) {
+			return false;
+		}
+		
+		for(int k=0; k<numDomainResources; k++) {
+			if(s1.getExpectedTotalCost(k) != s2.getExpectedTotalCost(k)) {
+				return false;
+			}
+			
+			for(int t=0; t<numDecisions; t++) {
+				if(s1.getExpectedInstantaneousCost(k, t) != s2.getExpectedInstantaneousCost(k, t)) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Computes a policy for each group using the current lambda
+	 * @param pool pool in which the policies are computed
+	 * @return policy for each group
+	 */
+	private MDPAgentSolutionPolicyBased[] computePolicies(ForkJoinPool pool) {
+		MDPAgentSolutionPolicyBased[] groupSolutions = new MDPAgentSolutionPolicyBased[groupCMDPs.length];
+		
+		// parallel streams started from a task in the pool also run in this pool
+		pool.submit(() -> IntStream.range(0, groupCMDPs.length).parallel().forEach(g -> {
+			if(useBudgetConstraints) {
+				groupSolutions[g] = vi.solve(groupCMDPs[g], numDecisions, lambdaBudget);
+			}
+			else {
+				groupSolutions[g] = vi.solve(groupCMDPs[g], numDecisions, lambdaInstantaneous);
+			}
+		})).join();
+		
+		return groupSolutions;
+	}
+	
 	private MDPAgentSolutionPolicyBased[] extractSolution() {
 		MDPAgentSolutionPolicyBased[] solution = new MDPAgentSolutionPolicyBased[numAgents];
 		
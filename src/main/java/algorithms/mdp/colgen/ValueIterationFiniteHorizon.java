@@ -19,6 +19,11 @@
 package algorithms.mdp.colgen;
 
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 import solutions.mdp.MDPAgentSolutionPolicyBased;
 import solutions.mdp.MDPPolicyDeterministic;
 
@@ -29,11 +34,22 @@ import model.CMDP;
  */
 
 public class ValueIterationFiniteHorizon {	
+	private static final int MIN_PARALLEL_STATES = 2048;
+	
+	private boolean parallelStates = false;
 	
 	public ValueIterationFiniteHorizon() {
 		
 	}
 	
+	/**
+	 * Set whether the states of a time step are processed in parallel, which is useful for agents with many states
+	 * @param parallelStates true if states are processed in parallel
+	 */
+	public void setParallelStates(boolean parallelStates) {
+		this.parallelStates = parallelStates;
+	}
+	
 	/**
 	 * Solve for budget constraints
 	 * @param cmdp cmdp model
@@ -42,206 +58,352 @@ public class ValueIterationFiniteHorizon {
 	 * @return solution
 	 */
 	public MDPAgentSolutionPolicyBased solve(CMDP cmdp, int T, double[] lambda) {
+		// the same lambda applies to all time steps
+		double[][] lambdaTime = new double[lambda.length][1];
+		for(int k=0; k<lambda.length; k++) {
+			lambdaTime[k][0] = lambda[k];
+		}
+		
+		return solve(cmdp, T, lambdaTime, false);
+	}
+	
+	/**
+	 * Solve for instantaneous constraints
+	 * @param cmdp cmdp model
+	 * @param T horizon
+	 * @param lambda lambda for each resource-time combination
+	 * @return solution
+	 */
+	public MDPAgentSolutionPolicyBased solve(CMDP cmdp, int T, double[][] lambda) {
+		assert lambda[0].length == T;
+		return solve(cmdp, T, lambda, true);
+	}
+	
+	/**
+	 * Solve for budget constraints for several lambda vectors in one pass over the transitions
+	 * @param cmdp cmdp model
+	 * @param T horizon
+	 * @param lambdas array with lambda for each resource, for each lambda vector
+	 * @return solution for each lambda vector
+	 */
+	public MDPPolicyDeterministic[] solveBatch(CMDP cmdp, int T, double[][] lambdas) {
+		// the same lambda applies to all time steps
+		double[][][] lambdaTime = new double[lambdas.length][][];
+		for(int b=0; b<lambdas.length; b++) {
+			lambdaTime[b] = new double[lambdas[b].length][1];
+			for(int k=0; k<lambdas[b].length; k++) {
+				lambdaTime[b][k][0] = lambdas[b][k];
+			}
+		}
+		
+		return solveBatch(cmdp, T, lambdaTime, false);
+	}
+	
+	/**
+	 * Solve for instantaneous constraints for several lambda vectors in one pass over the transitions
+	 * @param cmdp cmdp model
+	 * @param T horizon
+	 * @param lambdas lambda for each resource-time combination, for each lambda vector
+	 * @return solution for each lambda vector
+	 */
+	public MDPPolicyDeterministic[] solveBatch(CMDP cmdp, int T, double[][][] lambdas) {
+		return solveBatch(cmdp, T, lambdas, true);
+	}
+	
+	/**
+	 * Solve for the Lagrangian reward R(s,a) - sum_k lambda_k C_k(s,a)
+	 * @param cmdp cmdp model
+	 * @param T horizon
+	 * @param lambda lambda for each resource, indexed by time if timeDependentLambda is true
+	 * @param timeDependentLambda true if lambda has an entry for each time step
+	 * @return solution
+	 */
+	private MDPAgentSolutionPolicyBased solve(CMDP cmdp, int T, double[][] lambda, boolean timeDependentLambda) {
 		int K = lambda.length;
+		int nStates = cmdp.getNumStates();
+		int nActions = cmdp.getNumActions();
+		double[][][] costFunctions = getCostFunctions(cmdp);
 		
-		// compute the time-dependent value function and time-dependent policy
-		double[][] Vvalue = new double[T][cmdp.getNumStates()];
-		double[][] Vreward = new double[T][cmdp.getNumStates()];
-		int[][] pi = new int[T][cmdp.getNumStates()];
+		boolean timeDependentReward = cmdp.hasTimeDependentReward();
+		boolean timeDependentTransitions = cmdp.hasTimeDependentTransitions();
+		int[][][] feasibleActions = cmdp.getFeasibleActions();
 		
+		// Lagrangian reward of each state-action pair, which is only recomputed if it changes over time
+		double[][] lagrangianReward = new double[nStates][nActions];
+		boolean timeDependentLagrangian = timeDependentReward || timeDependentLambda;
+		
+		// value and reward of the next time step, which are zero after the horizon
+		double[] nextValue = new double[nStates];
+		double[] nextReward = new double[nStates];
+		double[] currentValue = new double[nStates];
+		double[] currentReward = new double[nStates];
+		int[][] pi = new int[T][nStates];
+		
+		// compute the time-dependent value function and time-dependent policy
 		for(int t=T-1; t>=0; t--) {
-			for(int s=0; s<cmdp.getNumStates(); s++) {
+			double[][] rewardFunction = timeDependentReward ? cmdp.getTimeRewardFunction()[t] : cmdp.getRewardFunction();
+			int[][][] transitionDestinations = timeDependentTransitions ? cmdp.getTimeTransitionDestinations()[t] : cmdp.getTransitionDestinations();
+			double[][][] transitionProbabilities = timeDependentTransitions ? cmdp.getTimeTransitionProbabilities()[t] : cmdp.getTransitionProbabilities();
+			int[][] actions = feasibleActions[t];
+			int[] policy = pi[t];
+			boolean computeLagrangian = (t == T-1 || timeDependentLagrangian);
+			int lambdaTime = timeDependentLambda ? t : 0;
+			double[] nextV = nextValue;
+			double[] nextR = nextReward;
+			double[] currentV = currentValue;
+			double[] currentR = currentReward;
+			
+			IntConsumer backup = s -> {
+				if(computeLagrangian) {
+					// all actions are included, because the feasible actions may be different in the next time steps
+					for(int a=0; a<nActions; a++) {
+						double val = rewardFunction[s][a];
+						for(int k=0; k<K; k++) {
+							val -= lambda[k][lambdaTime] * costFunctions[k][s][a];
+						}
+						lagrangianReward[s][a] = val;
+					}
+				}
+				
 				double maxVal = Double.NEGATIVE_INFINITY;
 				double maxReward = 0.0; // this is the total reward corresponding to the max value
 				int maxAction = -1;
 				
-				for(int a : cmdp.getFeasibleActions(t, s)) {
-					double currentVal = 0.0;
-					double currentReward = 0.0;
+				for(int a : actions[s]) {
+					int[] destinations = transitionDestinations[s][a];
+					double[] probabilities = transitionProbabilities[s][a];
 					
-					int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
-					double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
+					double lagrangian = lagrangianReward[s][a];
+					double reward = rewardFunction[s][a];
 					
-					for(int j=0; j<transitionDestinations.length; j++) {
-						int sNext = transitionDestinations[j];
-						double prob = transitionProbabilities[j];
-						
-						if(t == T-1) {
-							double val = cmdp.getReward(t, s, a);
-							for(int k=0; k<K; k++) {
-								val += -1.0 * lambda[k] * cmdp.getCost(k, s, a);
-							}
-							
-							currentVal += prob * val;
-							currentReward += prob * cmdp.getReward(t, s, a);
-						}
-						else {
-							double val = cmdp.getReward(t, s, a);
-							for(int k=0; k<K; k++) {
-								val += -1.0 * lambda[k] * cmdp.getCost(k, s, a);
-							}
-							
-							currentVal += prob * (val + Vvalue[t+1][sNext]);
-							currentReward += prob * (cmdp.getReward(t, s, a) + Vreward[t+1][sNext]);
-						}
+					double currentVal = 0.0;
+					double currentRew = 0.0;
+					for(int j=0; j<destinations.length; j++) {
+						double prob = probabilities[j];
+						int sNext = destinations[j];
+						currentVal += prob * (lagrangian + nextV[sNext]);
+						currentRew += prob * (reward + nextR[sNext]);
 					}
 					
 					if(currentVal > maxVal) {
 						maxVal = currentVal;
-						maxReward = currentReward;
+						maxReward = currentRew;
 						maxAction = a;
 					}
 				}
 				
-				Vvalue[t][s] = maxVal;
-				Vreward[t][s] = maxReward;
-				pi[t][s] = maxAction;
+				currentV[s] = maxVal;
+				currentR[s] = maxReward;
+				policy[s] = maxAction;
+			};
+			
+			// states are independent within a time step
+			if(parallelStates && nStates >= MIN_PARALLEL_STATES) {
+				IntStream.range(0, nStates).parallel().forEach(backup);
 			}
-		}
-		
-		// compute time-dependent expected instantaneous reward and cost using a forward pass in the tree		
-		double[][] stateProbabilities = new double[T][cmdp.getNumStates()];
-		double[] expectedInstantaneousReward = new double[T];
-		double[][] expectedInstantaneousCost = new double[cmdp.getNumCostFunctions()][T];
-		double[] expectedTotalCost = new double[cmdp.getNumCostFunctions()];
-		stateProbabilities[0][cmdp.getInitialState()] = 1.0;
-		for(int t=0; t<T; t++) {
-			for(int s=0; s<cmdp.getNumStates(); s++) {
-				int a = pi[t][s];
-				
-				// compute instantaneous reward and cost
-				expectedInstantaneousReward[t] += stateProbabilities[t][s] * cmdp.getReward(t, s, a);
-				for(int k=0; k<cmdp.getNumCostFunctions(); k++) {
-					expectedInstantaneousCost[k][t] += stateProbabilities[t][s] * cmdp.getCost(k, s, a);
-					expectedTotalCost[k] += stateProbabilities[t][s] * cmdp.getCost(k, s, a);
-				}
-				
-				// compute probabilities for the next iteration
-				if(t<T-1) {					
-					int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
-					double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
-					
-					for(int j=0; j<transitionDestinations.length; j++) {
-						int sNext = transitionDestinations[j];
-						double prob = transitionProbabilities[j];
-						stateProbabilities[t+1][sNext] += stateProbabilities[t][s] * prob;
-					}
-					
-					for(int sNext=0; sNext<cmdp.getNumStates(); sNext++) {
-						if(stateProbabilities[t+1][sNext] < 0.0) stateProbabilities[t+1][sNext] = 0.0;
-						if(stateProbabilities[t+1][sNext] > 1.0) stateProbabilities[t+1][sNext] = 1.0;
-						assert stateProbabilities[t+1][sNext] >= 0.0 && stateProbabilities[t+1][sNext] <= 1.0 : stateProbabilities[t+1][sNext]+"";
-					}
+			else {
+				for(int s=0; s<nStates; s++) {
+					backup.accept(s);
 				}
 			}
+			
+			nextValue = currentV;
+			currentValue = nextV;
+			nextReward = currentR;
+			currentReward = nextR;
 		}
 		
-		return new MDPPolicyDeterministic(pi, Vreward[0][cmdp.getInitialState()], expectedInstantaneousCost, expectedTotalCost);
+		return evaluate(cmdp, T, pi, nextReward[cmdp.getInitialState()]);
 	}
 	
 	/**
-	 * Solve for instantaneous constraints
+	 * Solve for the Lagrangian reward for several lambda vectors. The values of all lambda vectors are stored next
+	 * to each other, such that each transition is read once for the entire batch.
 	 * @param cmdp cmdp model
 	 * @param T horizon
-	 * @param lambda lambda for each resource-time combination
-	 * @return solution
+	 * @param lambdas lambda for each lambda vector and resource, indexed by time if timeDependentLambda is true
+	 * @param timeDependentLambda true if lambda has an entry for each time step
+	 * @return solution for each lambda vector
 	 */
-	public MDPAgentSolutionPolicyBased solve(CMDP cmdp, int T, double[][] lambda) {
-		assert lambda[0].length == T;
-		int K = lambda.length;
+	private MDPPolicyDeterministic[] solveBatch(CMDP cmdp, int T, double[][][] lambdas, boolean timeDependentLambda) {
+		int B = lambdas.length;
+		int nStates = cmdp.getNumStates();
+		int nActions = cmdp.getNumActions();
+		double[][][] costFunctions = getCostFunctions(cmdp);
 		
-		// compute the time-dependent value function and time-dependent policy
-		double[][] Vvalue = new double[T][cmdp.getNumStates()];
-		double[][] Vreward = new double[T][cmdp.getNumStates()];
-		int[][] pi = new int[T][cmdp.getNumStates()];
+		boolean timeDependentReward = cmdp.hasTimeDependentReward();
+		boolean timeDependentTransitions = cmdp.hasTimeDependentTransitions();
+		int[][][] feasibleActions = cmdp.getFeasibleActions();
 		
+		// Lagrangian reward of lambda vector b for action a is stored at index a*B+b, and only recomputed if it changes over time
+		double[][] lagrangianReward = new double[nStates][nActions * B];
+		boolean timeDependentLagrangian = timeDependentReward || timeDependentLambda;
+		
+		// value and reward of lambda vector b in state s are stored at index s*B+b
+		double[] nextValue = new double[nStates * B];
+		double[] nextReward = new double[nStates * B];
+		double[] currentValue = new double[nStates * B];
+		double[] currentReward = new double[nStates * B];
+		int[][][] pi = new int[B][T][nStates];
+		
+		// compute the time-dependent value function and time-dependent policy
 		for(int t=T-1; t>=0; t--) {
-			for(int s=0; s<cmdp.getNumStates(); s++) {
-				double maxVal = Double.NEGATIVE_INFINITY;
-				double maxReward = 0.0; // this is the total reward corresponding to the max value
-				int maxAction = -1;
-				
-				for(int a : cmdp.getFeasibleActions(t, s)) {
-					double currentVal = 0.0;
-					double currentReward = 0.0;
-					
-					int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
-					double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
-					
-					for(int j=0; j<transitionDestinations.length; j++) {
-						int sNext = transitionDestinations[j];
-						double prob = transitionProbabilities[j];
-						
-						if(t == T-1) {
-							double val = cmdp.getReward(t, s, a);
-							for(int k=0; k<K; k++) {
-								val += -1.0 * lambda[k][t] * cmdp.getCost(k, s, a);
+			double[][] rewardFunction = timeDependentReward ? cmdp.getTimeRewardFunction()[t] : cmdp.getRewardFunction();
+			int[][][] transitionDestinations = timeDependentTransitions ? cmdp.getTimeTransitionDestinations()[t] : cmdp.getTransitionDestinations();
+			double[][][] transitionProbabilities = timeDependentTransitions ? cmdp.getTimeTransitionProbabilities()[t] : cmdp.getTransitionProbabilities();
+			int[][] actions = feasibleActions[t];
+			int time = t;
+			boolean computeLagrangian = (t == T-1 || timeDependentLagrangian);
+			int lambdaTime = timeDependentLambda ? t : 0;
+			double[] nextV = nextValue;
+			double[] nextR = nextReward;
+			double[] currentV = currentValue;
+			double[] currentR = currentReward;
+			
+			IntConsumer backup = s -> {
+				double[] lagrangian = lagrangianReward[s];
+				if(computeLagrangian) {
+					// all actions are included, because the feasible actions may be different in the next time steps
+					for(int a=0; a<nActions; a++) {
+						for(int b=0; b<B; b++) {
+							double l = rewardFunction[s][a];
+							for(int k=0; k<lambdas[b].length; k++) {
+								l -= lambdas[b][k][lambdaTime] * costFunctions[k][s][a];
 							}
-							
-							currentVal += prob * val;
-							currentReward += prob * cmdp.getReward(t, s, a);
-						}
-						else {
-							double val = cmdp.getReward(t, s, a);
-							for(int k=0; k<K; k++) {
-								val += -1.0 * lambda[k][t] * cmdp.getCost(k, s, a);
-							}
-							
-							currentVal += prob * (val + Vvalue[t+1][sNext]);
-							currentReward += prob * (cmdp.getReward(t, s, a) + Vreward[t+1][sNext]);
+							lagrangian[a*B+b] = l;
 						}
 					}
+				}
+				
+				int stateOffset = s * B;
+				for(int b=0; b<B; b++) {
+					currentV[stateOffset+b] = Double.NEGATIVE_INFINITY;
+					currentR[stateOffset+b] = 0.0;
+					pi[b][time][s] = -1;
+				}
+				
+				// the transitions of an action are read from memory once, and remain in the cache for the other lambda vectors
+				for(int a : actions[s]) {
+					double reward = rewardFunction[s][a];
+					int[] destinations = transitionDestinations[s][a];
+					double[] probabilities = transitionProbabilities[s][a];
 					
-					if(currentVal > maxVal) {
-						maxVal = currentVal;
-						maxReward = currentReward;
-						maxAction = a;
+					for(int b=0; b<B; b++) {
+						double l = lagrangian[a*B+b];
+						double currentVal = 0.0;
+						double currentRew = 0.0;
+						for(int j=0; j<destinations.length; j++) {
+							double prob = probabilities[j];
+							int offset = destinations[j] * B + b;
+							currentVal += prob * (l + nextV[offset]);
+							currentRew += prob * (reward + nextR[offset]);
+						}
+						
+						if(currentVal > currentV[stateOffset+b]) {
+							currentV[stateOffset+b] = currentVal;
+							currentR[stateOffset+b] = currentRew;
+							pi[b][time][s] = a;
+						}
 					}
 				}
-				
-				Vvalue[t][s] = maxVal;
-				Vreward[t][s] = maxReward;
-				pi[t][s] = maxAction;
+			};
+			
+			// states are independent within a time step
+			if(parallelStates && nStates >= MIN_PARALLEL_STATES) {
+				IntStream.range(0, nStates).parallel().forEach(backup);
+			}
+			else {
+				for(int s=0; s<nStates; s++) {
+					backup.accept(s);
+				}
 			}
+			
+			nextValue = currentV;
+			currentValue = nextV;
+			nextReward = currentR;
+			currentReward = nextR;
 		}
 		
-		// compute time-dependent expected instantaneous reward and cost using a forward pass in the tree		
-		double[][] stateProbabilities = new double[T][cmdp.getNumStates()];
-		double[] expectedInstantaneousReward = new double[T];
-		double[][] expectedInstantaneousCost = new double[cmdp.getNumCostFunctions()][T];
-		double[] expectedTotalCost = new double[cmdp.getNumCostFunctions()];
-		stateProbabilities[0][cmdp.getInitialState()] = 1.0;
+		MDPPolicyDeterministic[] solutions = new MDPPolicyDeterministic[B];
+		for(int b=0; b<B; b++) {
+			solutions[b] = evaluate(cmdp, T, pi[b], nextReward[cmdp.getInitialState() * B + b]);
+		}
+		
+		return solutions;
+	}
+	
+	/**
+	 * Computes the expected cost of a policy
+	 * @param cmdp cmdp model
+	 * @param T horizon
+	 * @param pi time-dependent policy
+	 * @param expectedReward expected reward of the policy
+	 * @return solution
+	 */
+	private MDPPolicyDeterministic evaluate(CMDP cmdp, int T, int[][] pi, double expectedReward) {
+		int nStates = cmdp.getNumStates();
+		int nCostFunctions = cmdp.getNumCostFunctions();
+		double[][][] costFunctions = getCostFunctions(cmdp);
+		boolean timeDependentTransitions = cmdp.hasTimeDependentTransitions();
+		
+		// compute time-dependent expected instantaneous cost using a forward pass, which only visits states with positive probability
+		double[][] expectedInstantaneousCost = new double[nCostFunctions][T];
+		double[] expectedTotalCost = new double[nCostFunctions];
+		double[] stateProbabilities = new double[nStates];
+		double[] nextStateProbabilities = new double[nStates];
+		stateProbabilities[cmdp.getInitialState()] = 1.0;
 		for(int t=0; t<T; t++) {
-			for(int s=0; s<cmdp.getNumStates(); s++) {
+			int[][][] transitionDestinations = timeDependentTransitions ? cmdp.getTimeTransitionDestinations()[t] : cmdp.getTransitionDestinations();
+			double[][][] transitionProbabilities = timeDependentTransitions ? cmdp.getTimeTransitionProbabilities()[t] : cmdp.getTransitionProbabilities();
+			
+			for(int s=0; s<nStates; s++) {
+				double stateProb = stateProbabilities[s];
+				if(stateProb == 0.0) {
+					continue;
+				}
+				
 				int a = pi[t][s];
 				
-				// compute instantaneous reward and cost
-				expectedInstantaneousReward[t] += stateProbabilities[t][s] * cmdp.getReward(t, s, a);
-				for(int k=0; k<cmdp.getNumCostFunctions(); k++) {
-					expectedInstantaneousCost[k][t] += stateProbabilities[t][s] * cmdp.getCost(k, s, a);
-					expectedTotalCost[k] += stateProbabilities[t][s] * cmdp.getCost(k, s, a);
+				// compute instantaneous cost
+				for(int k=0; k<nCostFunctions; k++) {
+					double cost = stateProb * costFunctions[k][s][a];
+					expectedInstantaneousCost[k][t] += cost;
+					expectedTotalCost[k] += cost;
 				}
 				
 				// compute probabilities for the next iteration
-				if(t<T-1) {					
-					int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
-					double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
+				if(t < T-1) {
+					int[] destinations = transitionDestinations[s][a];
+					double[] probabilities = transitionProbabilities[s][a];
 					
-					for(int j=0; j<transitionDestinations.length; j++) {
-						int sNext = transitionDestinations[j];
-						double prob = transitionProbabilities[j];
-						stateProbabilities[t+1][sNext] += stateProbabilities[t][s] * prob;
-					}
-					
-					for(int sNext=0; sNext<cmdp.getNumStates(); sNext++) {
-						if(stateProbabilities[t+1][sNext] < 0.0) stateProbabilities[t+1][sNext] = 0.0;
-						if(stateProbabilities[t+1][sNext] > 1.0) stateProbabilities[t+1][sNext] = 1.0;
-						assert stateProbabilities[t+1][sNext] >= 0.0 && stateProbabilities[t+1][sNext] <= 1.0 : stateProbabilities[t+1][sNext]+"";
+					for(int j=0; j<destinations.length; j++) {
+						nextStateProbabilities[destinations[j]] += stateProb * probabilities[j];
 					}
 				}
 			}
+			
+			for(int sNext=0; sNext<nStates; sNext++) {
+				if(nextStateProbabilities[sNext] < 0.0) nextStateProbabilities[sNext] = 0.0;
+				if(nextStateProbabilities[sNext] > 1.0) nextStateProbabilities[sNext] = 1.0;
+				assert nextStateProbabilities[sNext] >= 0.0 && nextStateProbabilities[sNext] <= 1.0 : nextStateProbabilities[sNext]+"";
+			}
+			
+			double[] swap = stateProbabilities;
+			stateProbabilities = nextStateProbabilities;
+			nextStateProbabilities = swap;
+			Arrays.fill(nextStateProbabilities, 0.0);
+		}
+		
+		return new MDPPolicyDeterministic(pi, expectedReward, expectedInstantaneousCost, expectedTotalCost);
+	}
+	
+	private static double[][][] getCostFunctions(CMDP cmdp) {
+		List<double[][]> costFunctionList = cmdp.getCostFunctions();
+		double[][][] costFunctions = new double[costFunctionList.size()][][];
+		for(int k=0; k<costFunctions.length; k++) {
+			costFunctions[k] = costFunctionList.get(k);
 		}
 		
-		return new MDPPolicyDeterministic(pi, Vreward[0][cmdp.getInitialState()], expectedInstantaneousCost, expectedTotalCost);
+		return costFunctions;
 	}
 }
@@ -21,6 +21,10 @@ package algorithms.mdp.constrainedmdp;
 import instances.CMDPInstance;
 import instances.ConstraintType;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Random;
 
 import algorithms.UnsupportedInstanceException;
@@ -32,14 +36,13 @@ import solutions.mdp.MDPPolicyStochastic;
 import solutions.mdp.CMDPSolution;
 import solutions.mdp.CMDPSolutionPolicyBased;
 
-import lp.LPConstraint;
+import lp.LPConstraintBatch;
 import lp.LPConstraintType;
 import lp.LPException;
-import lp.LPExpression;
 import lp.LPModel;
 import lp.LPSolver;
-import lp.LPVariable;
 import lp.LPVariableType;
+import lp.presolve.LPSolverPresolve;
 import model.CMDP;
 
 public class ConstrainedMDP implements CMDPAlgorithm, ReducedLimitAlgorithm {
@@ -55,11 +58,18 @@ public class ConstrainedMDP implements CMDPAlgorithm, ReducedLimitAlgorithm {
 	private int numDecisions;
 
 	private boolean useBudgetConstraints = true;
+	private boolean aggregateIdenticalAgents = true;
+	
+	// agents with equivalent CMDPs share one set of occupancy variables
+	private int numTypes;
+	private CMDP[] typeCMDPs;
+	private int[] typeCount;
+	private int[] agentType;
 	
 	private LPModel model;
-	private LPVariable[][][][] xVar;
-	private LPConstraint[] budgetConstraints;
-	private LPConstraint[][] instantaneousConstraints;
+	private int[][][][] xVar;
+	private int[] budgetConstraints;
+	private int[][] instantaneousConstraints;
 	
 	public ConstrainedMDP(LPSolver lpSolver, Random rnd) {
 		this.lpSolver = lpSolver;
@@ -75,120 +85,230 @@ public class ConstrainedMDP implements CMDPAlgorithm, ReducedLimitAlgorithm {
 		
 		this.useBudgetConstraints = (instance.getConstraintType() == ConstraintType.BUDGET);
 		
+		initializeAgentTypes();
 		initializeModel();
 	}
 	
+	/**
+	 * Enables or disables aggregation of identical agents, which must be set before setInstance
+	 * @param aggregateIdenticalAgents true if agents with equivalent CMDPs share one set of variables
+	 */
+	public void setAggregateIdenticalAgents(boolean aggregateIdenticalAgents) {
+		this.aggregateIdenticalAgents = aggregateIdenticalAgents;
+	}
+	
+	/**
+	 * Groups agents into types. Agents are identical if they share the same CMDP object or
+	 * if their CMDPs are equivalent, which is checked for CMDPs with the same fingerprint.
+	 */
+	private void initializeAgentTypes() {
+		agentType = new int[numAgents];
+		List<CMDP> types = new ArrayList<CMDP>();
+		List<Integer> counts = new ArrayList<Integer>();
+		
+		IdentityHashMap<CMDP,Integer> identityTypes = new IdentityHashMap<CMDP,Integer>();
+		HashMap<Long,List<Integer>> fingerprintTypes = new HashMap<Long,List<Integer>>();
+		
+		for(int i=0; i<numAgents; i++) {
+			CMDP cmdp = cmdps[i];
+			Integer type = aggregateIdenticalAgents ? identityTypes.get(cmdp) : null;
+			
+			if(type == null && aggregateIdenticalAgents) {
+				long fingerprint = cmdp.getFingerprint();
+				List<Integer> candidates = fingerprintTypes.get(fingerprint);
+				
+				if(candidates == null) {
+					candidates = new ArrayList<Integer>();
+					fingerprintTypes.put(fingerprint, candidates);
+				}
+				
+				for(int candidate : candidates) {
+					if(types.get(candidate).isEquivalent(cmdp)) {
+						type = candidate;
+						break;
+					}
+				}
+				
+				if(type == null) {
+					candidates.add(types.size());
+				}
+				
+				identityTypes.put(cmdp, type == null ? types.size() : type);
+			}
+			
+			if(type == null) {
+				type = types.size();
+				types.add(cmdp);
+				counts.add(0);
+			}
+			
+			agentType[i] = type;
+			counts.set(type, counts.get(type) + 1);
+		}
+		
+		numTypes = types.size();
+		typeCMDPs = types.toArray(new CMDP[numTypes]);
+		typeCount = new int[numTypes];
+		for(int j=0; j<numTypes; j++) {
+			typeCount[j] = counts.get(j);
+		}
+	}
+	
 	private void initializeModel() {		
 		try {
-			model = lpSolver.createModel();
+			// presolve removes redundant rows and columns before the model is solved
+			model = new LPSolverPresolve(lpSolver).createModel();
+			
+			// create variables for states that are reachable from the initial state, which are added to the model at once
+			int numVars = 0;
+			for(int j=0; j<numTypes; j++) {
+				for(int t=0; t<numDecisions; t++) {
+					for(int s : typeCMDPs[j].getReachableStates(t)) {
+						numVars += typeCMDPs[j].getFeasibleActions(t, s).length;
+					}
+				}
+			}
 			
-			// create variables
-			xVar = new LPVariable[numAgents][][][];
-			for(int i=0; i<numAgents; i++) {
-				CMDP cmdp = cmdps[i];
-				xVar[i] = new LPVariable[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
+			double[] lb = new double[numVars];
+			double[] ub = new double[numVars];
+			double[] obj = new double[numVars];
+			LPVariableType[] types = new LPVariableType[numVars];
+			int varIndex = 0;
+			for(int j=0; j<numTypes; j++) {
+				CMDP cmdp = typeCMDPs[j];
 				
 				for(int t=0; t<numDecisions; t++) {
-					for(int s=0; s<cmdp.getNumStates(); s++) {
-						for(int a : cmdp.getFeasibleActions(t, s)) {							
-							LPVariable newVar = model.addVariable(0.0, 1.0, cmdp.getReward(t, s, a), LPVariableType.CONTINUOUS);
-							xVar[i][t][s][a] = newVar;
+					for(int s : cmdp.getReachableStates(t)) {
+						for(int a : cmdp.getFeasibleActions(t, s)) {
+							ub[varIndex] = typeCount[j];
+							obj[varIndex] = cmdp.getReward(t, s, a);
+							types[varIndex] = LPVariableType.CONTINUOUS;
+							varIndex++;
 						}
 					}
 				}
 			}
 			
+			varIndex = model.addVariableRange(lb, ub, obj, types);
+			
+			xVar = new int[numTypes][][][];
+			for(int j=0; j<numTypes; j++) {
+				CMDP cmdp = typeCMDPs[j];
+				xVar[j] = new int[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
+				
+				for(int t=0; t<numDecisions; t++) {
+					for(int s : cmdp.getReachableStates(t)) {
+						for(int a : cmdp.getFeasibleActions(t, s)) {
+							xVar[j][t][s][a] = varIndex;
+							varIndex++;
+						}
+					}
+				}
+			}
+			
+			// all constraints are collected in a batch, which is added to the model at once
+			LPConstraintBatch constraints = new LPConstraintBatch();
+			
 			// create flow conservation constraints
-			for(int i=0; i<numAgents; i++) {
-				CMDP cmdp = cmdps[i];
+			for(int j=0; j<numTypes; j++) {
+				CMDP cmdp = typeCMDPs[j];
 				
 				for(int t=0; t<numDecisions-1; t++) {
-					LPExpression[] expr = new LPExpression[cmdp.getNumStates()];
-					for(int sPrime=0; sPrime<cmdp.getNumStates(); sPrime++) {
-						expr[sPrime] = model.createExpression();
+					int[] row = new int[cmdp.getNumStates()];
+					for(int sPrime : cmdp.getReachableStates(t+1)) {
+						row[sPrime] = constraints.addConstraint(LPConstraintType.EQUAL, 0.0);
 					}
 					
 					// LHS
-					for(int sPrime=0; sPrime<cmdp.getNumStates(); sPrime++) {
+					for(int sPrime : cmdp.getReachableStates(t+1)) {
 						for(int aPrime : cmdp.getFeasibleActions(t+1, sPrime)) {
-							expr[sPrime].addTerm(1.0, xVar[i][t+1][sPrime][aPrime]);
+							constraints.addTerm(row[sPrime], 1.0, xVar[j][t+1][sPrime][aPrime]);
 						}
 					}
 					
 					// RHS
-					for(int s=0; s<cmdp.getNumStates(); s++) {
+					for(int s : cmdp.getReachableStates(t)) {
 						for(int a : cmdp.getFeasibleActions(t, s)) {
 							int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
 							double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
 							
-							for(int j=0; j<transitionDestinations.length; j++) {
-								int sPrime = transitionDestinations[j];
-								double prob = transitionProbabilities[j];
-								expr[sPrime].addTerm(-1.0 * prob, xVar[i][t][s][a]);
+							for(int d=0; d<transitionDestinations.length; d++) {
+								int sPrime = transitionDestinations[d];
+								double prob = transitionProbabilities[d];
+								constraints.addTerm(row[sPrime], -1.0 * prob, xVar[j][t][s][a]);
 							}
 						}
 					}
-					
-					for(int sPrime=0; sPrime<cmdp.getNumStates(); sPrime++) {
-						model.addConstraint(expr[sPrime], LPConstraintType.EQUAL, 0.0);
-					}
 				}
 			}
 			
-			// create initial state constraints
-			for(int i=0; i<numAgents; i++) {
-				CMDP cmdp = cmdps[i];
+			// create initial state constraints, the initial mass of a type equals the number of agents of that type
+			for(int j=0; j<numTypes; j++) {
+				CMDP cmdp = typeCMDPs[j];
 				int initialState = cmdp.getInitialState();
 				
-				for(int s=0; s<cmdp.getNumStates(); s++) {
-					LPExpression expr = model.createExpression();
+				for(int s : cmdp.getReachableStates(0)) {
+					int row = constraints.addConstraint(LPConstraintType.EQUAL, (s==initialState) ? typeCount[j] : 0.0);
 					
 					for(int a : cmdp.getFeasibleActions(0, s)) {
-						expr.addTerm(1.0, xVar[i][0][s][a]);
+						constraints.addTerm(row, 1.0, xVar[j][0][s][a]);
 					}
-					
-					model.addConstraint(expr, LPConstraintType.EQUAL, (s==initialState) ? 1.0 : 0.0);
 				}
 			}
 			
 			// CMDP constraints
+			int[] budgetRows = null;
+			int[][] instantaneousRows = null;
 			if(useBudgetConstraints) {
-				budgetConstraints = new LPConstraint[numDomainResources];
+				budgetRows = new int[numDomainResources];
 				
 				for(int k=0; k<numDomainResources; k++) {
-					LPExpression expr = model.createExpression();
+					budgetRows[k] = constraints.addConstraint(LPConstraintType.LESS_EQUAL, instance.getCostLimit(k));
 					
-					for(int i=0; i<numAgents; i++) {
-						CMDP cmdp = cmdps[i];
+					for(int j=0; j<numTypes; j++) {
+						CMDP cmdp = typeCMDPs[j];
 						for(int t=0; t<numDecisions; t++) {
-							for(int s=0; s<cmdp.getNumStates(); s++) {
+							for(int s : cmdp.getReachableStates(t)) {
 								for(int a : cmdp.getFeasibleActions(t, s)) {
-									expr.addTerm(cmdp.getCost(k, s, a), xVar[i][t][s][a]);
+									constraints.addTerm(budgetRows[k], cmdp.getCost(k, s, a), xVar[j][t][s][a]);
 								}
 							}
 						}
 					}
-					
-					budgetConstraints[k] = model.addConstraint(expr, LPConstraintType.LESS_EQUAL, instance.getCostLimit(k));
 				}
 			}
 			else {
-				instantaneousConstraints = new LPConstraint[numDomainResources][numDecisions];
+				instantaneousRows = new int[numDomainResources][numDecisions];
 				
 				for(int k=0; k<numDomainResources; k++) {
 					for(int t=0; t<numDecisions; t++) {
-						LPExpression expr = model.createExpression();
+						instantaneousRows[k][t] = constraints.addConstraint(LPConstraintType.LESS_EQUAL, instance.getCostLimit(k, t));
 						
-						for(int i=0; i<numAgents; i++) {
-							CMDP cmdp = cmdps[i];
-							for(int s=0; s<cmdp.getNumStates(); s++) {
+						for(int j=0; j<numTypes; j++) {
+							CMDP cmdp = typeCMDPs[j];
+							for(int s : cmdp.getReachableStates(t)) {
 								for(int a : cmdp.getFeasibleActions(t, s)) {
-									expr.addTerm(cmdp.getCost(k, s, a), xVar[i][t][s][a]);
+									constraints.addTerm(instantaneousRows[k][t], cmdp.getCost(k, s, a), xVar[j][t][s][a]);
 								}
 							}
 						}
-						
-						instantaneousConstraints[k][t] = model.addConstraint(expr, LPConstraintType.LESS_EQUAL, instance.getCostLimit(k, t));
+					}
+				}
+			}
+			
+			int firstConstraint = constraints.addToModel(model);
+			
+			if(useBudgetConstraints) {
+				budgetConstraints = new int[numDomainResources];
+				for(int k=0; k<numDomainResources; k++) {
+					budgetConstraints[k] = firstConstraint + budgetRows[k];
+				}
+			}
+			else {
+				instantaneousConstraints = new int[numDomainResources][numDecisions];
+				for(int k=0; k<numDomainResources; k++) {
+					for(int t=0; t<numDecisions; t++) {
+						instantaneousConstraints[k][t] = firstConstraint + instantaneousRows[k][t];
 					}
 				}
 			}
@@ -239,19 +359,24 @@ public class ConstrainedMDP implements CMDPAlgorithm, ReducedLimitAlgorithm {
 		// solve the model
 		boolean status = model.solve();
 		assert status : status+"";
+		
+		double[] values = new double[model.getNumVariables()];
+		model.getVariableValues(0, values.length, values, 0);
 					
 		// return solution
+		// the occupancy measure of a type is divided equally among the agents of that type
 		retSolution = new MDPAgentSolutionPolicyBased[numAgents];
 		for(int i=0; i<numAgents; i++) {
-			CMDP cmdp = cmdps[i];
+			int j = agentType[i];
+			CMDP cmdp = typeCMDPs[j];
 			
 			double[][][] x = new double[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
 			double expectedReward = 0.0;
 			for(int t=0; t<numDecisions; t++) {
-				for(int s=0; s<cmdp.getNumStates(); s++) {
+				for(int s : cmdp.getReachableStates(t)) {
 					
 					for(int a : cmdp.getFeasibleActions(t, s)) {
-						x[t][s][a] = model.getVariableValue(xVar[i][t][s][a]);
+						x[t][s][a] = values[xVar[j][t][s][a]] / typeCount[j];
 						assert x[t][s][a] >= -0.0001 && x[t][s][a] <= 1.0001 : x[t][s][a]+"";
 						expectedReward += x[t][s][a] * cmdp.getReward(t, s, a);
 					}
@@ -31,13 +31,13 @@ import solutions.mdp.MDPPolicyStochastic;
 import solutions.mdp.CMDPSolution;
 import solutions.mdp.CMDPSolutionPolicyBased;
 
+import lp.LPConstraintBatch;
 import lp.LPConstraintType;
 import lp.LPException;
-import lp.LPExpression;
 import lp.LPModel;
 import lp.LPSolver;
-import lp.LPVariable;
 import lp.LPVariableType;
+import lp.presolve.LPSolverPresolve;
 import model.CMDP;
 
 public class DeterministicPreallocation implements CMDPAlgorithm {
@@ -86,37 +86,75 @@ public class DeterministicPreallocation implements CMDPAlgorithm {
 		MDPAgentSolutionPolicyBased[] retSolution = null;
 		
 		try {
-			LPModel model = lpSolver.createModel();
+			// presolve removes redundant rows and columns before the model is solved
+			LPModel model = new LPSolverPresolve(lpSolver).createModel();
 			
-			// create variables
-			LPVariable[][][][] xVar = new LPVariable[numAgents][][][];
-			LPVariable[][][][] xBarVar = new LPVariable[numAgents][][][];
+			// create variables for states that are reachable from the initial state, which are added to the model at once
+			int numVars = 0;
+			for(int i=0; i<numAgents; i++) {
+				for(int t=0; t<numDecisions; t++) {
+					for(int s : cmdps[i].getReachableStates(t)) {
+						numVars += 2 * cmdps[i].getFeasibleActions(t, s).length;
+					}
+				}
+			}
+			
+			double[] lb = new double[numVars];
+			double[] ub = new double[numVars];
+			double[] obj = new double[numVars];
+			LPVariableType[] types = new LPVariableType[numVars];
+			int varIndex = 0;
 			for(int i=0; i<numAgents; i++) {
 				CMDP cmdp = cmdps[i];
-				xVar[i] = new LPVariable[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
-				xBarVar[i] = new LPVariable[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
 				
 				for(int t=0; t<numDecisions; t++) {
-					for(int s=0; s<cmdp.getNumStates(); s++) {
+					for(int s : cmdp.getReachableStates(t)) {
 						for(int a : cmdp.getFeasibleActions(t, s)) {
-							xVar[i][t][s][a] = model.addVariable(0.0, 1.0, cmdp.getReward(t, s, a), LPVariableType.CONTINUOUS);
-							xBarVar[i][t][s][a] = model.addVariable(0.0, 1.0, cmdp.getReward(t, s, a), LPVariableType.INTEGER);
+							ub[varIndex] = 1.0;
+							obj[varIndex] = cmdp.getReward(t, s, a);
+							types[varIndex] = LPVariableType.CONTINUOUS;
+							ub[varIndex+1] = 1.0;
+							obj[varIndex+1] = cmdp.getReward(t, s, a);
+							types[varIndex+1] = LPVariableType.INTEGER;
+							varIndex += 2;
 						}
 					}
 				}
 			}
 			
+			varIndex = model.addVariableRange(lb, ub, obj, types);
+			
+			int[][][][] xVar = new int[numAgents][][][];
+			int[][][][] xBarVar = new int[numAgents][][][];
+			for(int i=0; i<numAgents; i++) {
+				CMDP cmdp = cmdps[i];
+				xVar[i] = new int[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
+				xBarVar[i] = new int[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
+				
+				for(int t=0; t<numDecisions; t++) {
+					for(int s : cmdp.getReachableStates(t)) {
+						for(int a : cmdp.getFeasibleActions(t, s)) {
+							xVar[i][t][s][a] = varIndex;
+							xBarVar[i][t][s][a] = varIndex+1;
+							varIndex += 2;
+						}
+					}
+				}
+			}
+			
+			// all constraints are collected in a batch, which is added to the model at once
+			LPConstraintBatch constraints = new LPConstraintBatch();
+			
 			// add constraints with binary vars
 			for(int i=0; i<numAgents; i++) {
 				CMDP cmdp = cmdps[i];
 				
 				for(int t=0; t<numDecisions; t++) {
-					for(int s=0; s<cmdp.getNumStates(); s++) {
+					for(int s : cmdp.getReachableStates(t)) {
 						for(int a : cmdp.getFeasibleActions(t, s)) {
-							LPExpression expr = model.createExpression();
-							expr.addTerm(1.0, xVar[i][t][s][a]);
-							expr.addTerm(-1.0, xBarVar[i][t][s][a]);
-							model.addConstraint(expr, LPConstraintType.LESS_EQUAL, 0.0);
+							int row = constraints.addConstraint(LPConstraintType.LESS_EQUAL, 0.0);
+							constraints.addTerm(row, 1.0, xVar[i][t][s][a]);
+							constraints.addTerm(row, -1.0, xBarVar[i][t][s][a]);
 						}
 					}
 				}
@@ -127,20 +165,20 @@ public class DeterministicPreallocation implements CMDPAlgorithm {
 				CMDP cmdp = cmdps[i];
 				
 				for(int t=0; t<numDecisions-1; t++) {
-					LPExpression[] expr = new LPExpression[cmdp.getNumStates()];
-					for(int sPrime=0; sPrime<cmdp.getNumStates(); sPrime++) {
-						expr[sPrime] = model.createExpression();
+					int[] row = new int[cmdp.getNumStates()];
+					for(int sPrime : cmdp.getReachableStates(t+1)) {
+						row[sPrime] = constraints.addConstraint(LPConstraintType.EQUAL, 0.0);
 					}
 					
 					// LHS
-					for(int sPrime=0; sPrime<cmdp.getNumStates(); sPrime++) {
+					for(int sPrime : cmdp.getReachableStates(t+1)) {
 						for(int aPrime : cmdp.getFeasibleActions(t+1, sPrime)) {
-							expr[sPrime].addTerm(1.0, xVar[i][t+1][sPrime][aPrime]);
+							constraints.addTerm(row[sPrime], 1.0, xVar[i][t+1][sPrime][aPrime]);
 						}
 					}
 					
 					// RHS
-					for(int s=0; s<cmdp.getNumStates(); s++) {
+					for(int s : cmdp.getReachableStates(t)) {
 						for(int a : cmdp.getFeasibleActions(t, s)) {
 							int[] transitionDestinations = cmdp.getTransitionDestinations(t, s, a);
 							double[] transitionProbabilities = cmdp.getTransitionProbabilities(t, s, a);
@@ -148,14 +186,10 @@ public class DeterministicPreallocation implements CMDPAlgorithm {
 							for(int j=0; j<transitionDestinations.length; j++) {
 								int sPrime = transitionDestinations[j];
 								double prob = transitionProbabilities[j];
-								expr[sPrime].addTerm(-1.0 * prob, xVar[i][t][s][a]);
+								constraints.addTerm(row[sPrime], -1.0 * prob, xVar[i][t][s][a]);
 							}
 						}
 					}
-					
-					for(int sPrime=0; sPrime<cmdp.getNumStates(); sPrime++) {
-						model.addConstraint(expr[sPrime], LPConstraintType.EQUAL, 0.0);
-					}
 				}
 			}
 			
@@ -164,59 +198,58 @@ public class DeterministicPreallocation implements CMDPAlgorithm {
 				CMDP cmdp = cmdps[i];
 				int initialState = cmdp.getInitialState();
 				
-				for(int s=0; s<cmdp.getNumStates(); s++) {
-					LPExpression expr = model.createExpression();
+				for(int s : cmdp.getReachableStates(0)) {
+					int row = constraints.addConstraint(LPConstraintType.EQUAL, (s==initialState) ? 1.0 : 0.0);
 					
 					for(int a : cmdp.getFeasibleActions(0, s)) {
-						expr.addTerm(1.0, xVar[i][0][s][a]);
+						constraints.addTerm(row, 1.0, xVar[i][0][s][a]);
 					}
-					
-					model.addConstraint(expr, LPConstraintType.EQUAL, (s==initialState) ? 1.0 : 0.0);
 				}
 			}
 			
 			// CMDP constraints
 			if(useBudgetConstraints) {
 				for(int k=0; k<numDomainResources; k++) {
-					LPExpression expr = model.createExpression();
+					int row = constraints.addConstraint(LPConstraintType.LESS_EQUAL, instance.getCostLimit(k));
 					
 					for(int i=0; i<numAgents; i++) {
 						CMDP cmdp = cmdps[i];
 						for(int t=0; t<numDecisions; t++) {
-							for(int s=0; s<cmdp.getNumStates(); s++) {
+							for(int s : cmdp.getReachableStates(t)) {
 								for(int a : cmdp.getFeasibleActions(t, s)) {
-									expr.addTerm(cmdp.getCost(k, s, a), xBarVar[i][t][s][a]);
+									constraints.addTerm(row, cmdp.getCost(k, s, a), xBarVar[i][t][s][a]);
 								}
 							}
 						}
 					}
-					
-					model.addConstraint(expr, LPConstraintType.LESS_EQUAL, instance.getCostLimit(k));
 				}
 			}
 			else {
 				for(int k=0; k<numDomainResources; k++) {
 					for(int t=0; t<numDecisions; t++) {
-						LPExpression expr = model.createExpression();
+						int row = constraints.addConstraint(LPConstraintType.LESS_EQUAL, instance.getCostLimit(k, t));
 						
 						for(int i=0; i<numAgents; i++) {
 							CMDP cmdp = cmdps[i];
-							for(int s=0; s<cmdp.getNumStates(); s++) {
+							for(int s : cmdp.getReachableStates(t)) {
 								for(int a : cmdp.getFeasibleActions(t, s)) {
-									expr.addTerm(cmdp.getCost(k, s, a), xBarVar[i][t][s][a]);
+									constraints.addTerm(row, cmdp.getCost(k, s, a), xBarVar[i][t][s][a]);
 								}
 							}
 						}
-						
-						model.addConstraint(expr, LPConstraintType.LESS_EQUAL, instance.getCostLimit(k, t));
 					}
 				}
 			}
 			
+			constraints.addToModel(model);
+			
 			// solve the model
 			boolean status = model.solve();
 			assert status : status+"";
 			
+			double[] values = new double[model.getNumVariables()];
+			model.getVariableValues(0, values.length, values, 0);
+			
 			// return solution
 			retSolution = new MDPAgentSolutionPolicyBased[numAgents];
 			for(int i=0; i<numAgents; i++) {
@@ -225,9 +258,9 @@ public class DeterministicPreallocation implements CMDPAlgorithm {
 				double[][][] x = new double[numDecisions][cmdp.getNumStates()][cmdp.getNumActions()];
 				double expectedReward = 0.0;
 				for(int t=0; t<numDecisions; t++) {
-					for(int s=0; s<cmdp.getNumStates(); s++) {
+					for(int s : cmdp.getReachableStates(t)) {
 						for(int a : cmdp.getFeasibleActions(t, s)) {
-							x[t][s][a] = model.getVariableValue(xVar[i][t][s][a]);
+							x[t][s][a] = values[xVar[i][t][s][a]];
 							assert x[t][s][a] >= -0.0001 && x[t][s][a] <= 1.0001 : x[t][s][a]+"";
 							expectedReward += x[t][s][a] * cmdp.getReward(t, s, a);
 						}
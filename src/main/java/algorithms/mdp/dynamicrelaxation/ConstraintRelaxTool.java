@@ -16,279 +16,412 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  *
  *******************************************************************************/
-package algorithms.mdp.dynamicrelaxation;
-
-import instances.CMDPInstance;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
-
-import solutions.mdp.CMDPSolution;
-import util.ProbabilitySample;
-import util.StatisticsCalculator;
-
-import model.CMDP;
-
-
-public class ConstraintRelaxTool {
-	// simulation variables
-	private Random rnd;
-	private int nRuns;
-	
-	// instance variables
-	private CMDP[] cmdps;
-	private int numDecisions;
-	private CMDPInstance instance;
-	private int numDomainResources;
-	
-	private boolean useBudgetConstraints;
-	
-	protected ConstraintRelaxTool(CMDPInstance instance, Random rnd, int nRuns, boolean useBudgetConstraints) {
-		this.cmdps = instance.getCMDPs();
-		this.rnd = rnd;
-		this.nRuns = nRuns;
-		this.numDecisions = instance.getNumDecisions();
-		this.useBudgetConstraints = useBudgetConstraints;
-		this.numDomainResources = instance.getNumDomainResources();
-		this.instance = instance;
-	}
-
-	protected double updateReduction(CMDPSolution solution, double[][] reduction, double maxViolations, double factor) {
-		// evaluate the solution to obtain violation statistics.
-		ConsumptionList[][] resourceConsumptions = evaluateSolution(solution);
-
-		// determine how much of a resource may be used at most
-		double[][] maxConsumption = useBudgetConstraints ? new double[numDomainResources][1] : new double[numDomainResources][numDecisions];
-		if(useBudgetConstraints) {
-			for(int k=0; k<numDomainResources; k++) {
-				for (CMDP cmdp : cmdps) {
-					maxConsumption[k][0] += cmdp.getMaxCost(k);
-				}
-			}
-		}
-		else {
-			for(int k=0; k<numDomainResources; k++) {
-				for(int t=0; t<numDecisions; t++) {
-					for (CMDP cmdp : cmdps) {
-						maxConsumption[k][t] += cmdp.getMaxCost(k);
-					}
-				}
-			}
-		}
-		
-
-		double maxDifference = 0;
-
-		// determine if any resources are already overconsumed?
-		boolean notOverconsumed = true;
-		if(useBudgetConstraints) {
-			for (int k = 0; k < numDomainResources && notOverconsumed; k++) {
-				int numOver = 0;
-
-				List<Double> consumptions = resourceConsumptions[k][0].getConsumptions();
-				for (Double consumption : consumptions) {
-					if (consumption > instance.getCostLimit(k)) {
-						numOver++;
-					}
-				}
-
-				notOverconsumed = notOverconsumed && (numOver < maxViolations*consumptions.size());
-			}
-		}
-		else {
-			for (int k = 0; k < numDomainResources && notOverconsumed; k++) {
-				for(int t=0; t<numDecisions; t++) {
-					int numOver = 0;
-
-					List<Double> consumptions = resourceConsumptions[k][t].getConsumptions();
-					for (Double consumption : consumptions) {
-						if (consumption > instance.getCostLimit(k, t)) {
-							numOver++;
-						}
-					}
-
-					notOverconsumed = notOverconsumed && (numOver < maxViolations*consumptions.size());
-				}
-			}
-		}
-
-		if(useBudgetConstraints) {
-			for(int k=0; k<numDomainResources && notOverconsumed; k++) {
-				if (reduction[k][0] > 0) {
-					// get the consumptions associated with this resource.
-					List<Double> consumptions = resourceConsumptions[k][0].getConsumptions();
-
-					double mean = StatisticsCalculator.getMean(consumptions);
-					double std = StatisticsCalculator.getStd(consumptions);
-
-					// determine the sigma that allows the desired tolerance.
-					double meanLow = 0;
-					double meanHigh = instance.getCostLimit(k);
-					double meanMid = 0;
-					while (Math.abs(meanHigh - meanLow) > 0.01) {
-						meanMid = (meanHigh + meanLow) / 2;
-
-						double pMid = StatisticsCalculator.getViolationProbability(meanMid, std, instance.getCostLimit(k));
-
-						if (pMid > maxViolations) {
-							meanHigh = meanMid;
-						} else {
-							meanLow = meanMid;
-						}
-					}
-
-					// determine the reduction you would require to have the consumption at index be equal to the budget.
-					double gaussSlack = meanMid - mean;
-
-					double reductionSlack = gaussSlack;
-
-					// if we need to slacken the constraint,
-					if (reductionSlack > 0) {
-						// move the current reduction to the midpoint of the current slack and the ideal slack.
-						double slackening = Math.max(0, reduction[k][0] - reductionSlack / factor);
-
-						// determine the maximum change in resource reduction.
-						maxDifference = Math.max(maxDifference, (reduction[k][0] - slackening) / instance.getCostLimit(k));
-
-						// set the level of reduction
-						reduction[k][0] = slackening;
-					}
-				}
-			}
-		}
-		else {
-			for(int k=0; k<numDomainResources && notOverconsumed; k++) {
-				for(int t=0; t<numDecisions; t++) {
-					if (reduction[k][t] > 0) {
-						// get the consumptions associated with this resource.
-						List<Double> consumptions = resourceConsumptions[k][t].getConsumptions();
-
-						double mean = StatisticsCalculator.getMean(consumptions);
-						double std = StatisticsCalculator.getStd(consumptions);
-
-						// determine the sigma that allows the desired tolerance.
-						double meanLow = 0;
-						double meanHigh = instance.getCostLimit(k, t);
-						double meanMid = 0;
-						while (Math.abs(meanHigh - meanLow) > 0.01) {
-							meanMid = (meanHigh + meanLow) / 2;
-
-							double pMid = StatisticsCalculator.getViolationProbability(meanMid, std, instance.getCostLimit(k, t));
-
-							if (pMid > maxViolations) {
-								meanHigh = meanMid;
-							} else {
-								meanLow = meanMid;
-							}
-						}
-
-						// determine the reduction you would require to have the consumption at index be equal to the budget.
-						double gaussSlack = meanMid - mean;
-
-						double reductionSlack = gaussSlack;
-
-						// if we need to slacken the constraint,
-						if (reductionSlack > 0) {
-							// move the current reduction to the midpoint of the current slack and the ideal slack.
-							double slackening = Math.max(0, reduction[k][t] - reductionSlack / factor);
-
-							// determine the maximum change in resource reduction.
-							maxDifference = Math.max(maxDifference, (reduction[k][t] - slackening) / instance.getCostLimit(k, t));
-
-							// set the level of reduction
-							reduction[k][t] = slackening;
-						}
-					}
-				}
-			}
-		}
-		
-		return maxDifference;
-	}
-	
-	private class ConsumptionList {
-		private List<Double> consumptions = new ArrayList<Double>();
-		
-		public List<Double> getConsumptions() {
-			return consumptions;
-		}
-		
-		public void addConsumption(double consumption) {
-			consumptions.add(consumption);
-		}
-	}
-
-	private ConsumptionList[][] evaluateSolution(CMDPSolution solution) {
-		ConsumptionList[][] resourceConsumptions = useBudgetConstraints ? new ConsumptionList[numDomainResources][1] : new ConsumptionList[numDomainResources][numDecisions];
-		
-		if(useBudgetConstraints) {
-			for(int k=0; k<numDomainResources; k++) {
-				resourceConsumptions[k][0] = new ConsumptionList();
-			}
-		}
-		else {
-			for(int k=0; k<numDomainResources; k++) {
-				for(int t=0; t<numDecisions; t++) {
-					resourceConsumptions[k][t] = new ConsumptionList();
-				}
-			}
-		}
-		
-		for(int run=0; run<nRuns; run++) {
-			double[][] currentConsumption = useBudgetConstraints ? new double[numDomainResources][1] : new double[numDomainResources][numDecisions];
-
-			// get initial states
-			int[] state = new int[cmdps.length];
-			for(int i=0; i<cmdps.length; i++) {
-				state[i] = cmdps[i].getInitialState();
-			}
-			
-			for(int t=0; t<numDecisions; t++) {
-				int[] actions = solution.getActions(t, state);
-				
-				for(int i=0; i<cmdps.length; i++) {
-					CMDP cmdp = cmdps[i];
-					int a = actions[i];
-					
-					// update current consumption
-					for(int k=0; k<numDomainResources; k++) {
-						if(useBudgetConstraints) {
-							currentConsumption[k][0] += cmdp.getCost(k, state[i], a);
-						}
-						else {
-							currentConsumption[k][t] += cmdp.getCost(k, state[i], a);
-						}
-					}
-					
-					state[i] = sampleNextState(cmdp, state[i], a);
-				}
-			}
-			
-			if(useBudgetConstraints) {
-				for(int k=0; k<numDomainResources; k++) {
-					resourceConsumptions[k][0].addConsumption(currentConsumption[k][0]);
-				}
-			}
-			else {
-				for(int k=0; k<numDomainResources; k++) {
-					for(int t=0; t<numDecisions; t++) {
-						resourceConsumptions[k][t].addConsumption(currentConsumption[k][t]);
-					}
-				}
-			}
-			
-		}
-		
-		return resourceConsumptions;
-	}
-	
-	private int sampleNextState(CMDP cmdp, int s, int a) {
-		assert s >= 0 && s < cmdp.getNumStates() : "Invalid state action pair";
-
-		int[] destinations = cmdp.getTransitionDestinations(s, a);
-		double[] probabilities = cmdp.getTransitionProbabilities(s, a);
-
-		return ProbabilitySample.sampleItemInline(destinations, probabilities, rnd);
-	}
-}
+package algorithms.mdp.dynamicrelaxation;
+
+import instances.CMDPInstance;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import evaluation.CMDPConsumptionDistribution;
+
+import solutions.mdp.CMDPSolution;
+import solutions.mdp.CMDPSolutionPolicyBased;
+import solutions.mdp.MDPAgentSolutionPolicyBased;
+import solutions.mdp.MDPPolicy;
+import util.ProbabilitySample;
+import util.StatisticsCalculator;
+
+import model.CMDP;
+
+
+public class ConstraintRelaxTool {
+	// number of random number streams, which does not depend on the number of threads to make results reproducible
+	private static final int NUM_STREAMS = 64;
+	
+	// simulation variables
+	private Random rnd;
+	private int nRuns;
+	private boolean useExactDistribution;
+	
+	// instance variables
+	private CMDP[] cmdps;
+	private int numDecisions;
+	private CMDPInstance instance;
+	private int numDomainResources;
+	
+	private boolean useBudgetConstraints;
+	
+	protected ConstraintRelaxTool(CMDPInstance instance, Random rnd, int nRuns, boolean useExactDistribution, boolean useBudgetConstraints) {
+		this.cmdps = instance.getCMDPs();
+		this.rnd = rnd;
+		this.nRuns = nRuns;
+		this.useExactDistribution = useExactDistribution;
+		this.numDecisions = instance.getNumDecisions();
+		this.useBudgetConstraints = useBudgetConstraints;
+		this.numDomainResources = instance.getNumDomainResources();
+		this.instance = instance;
+	}
+	
+	protected double updateReduction(CMDPSolution solution, double[][] reduction, double maxViolations, double factor) {
+		// evaluate the solution to obtain violation statistics, which are exact for a policy-based solution of independent agents
+		ConsumptionEstimate statistics = null;
+		if(useExactDistribution && solution instanceof CMDPSolutionPolicyBased) {
+			CMDPConsumptionDistribution distribution = new CMDPConsumptionDistribution(instance, (CMDPSolutionPolicyBased) solution);
+			boolean supported = useBudgetConstraints ? distribution.supportsTotalDistributions() : distribution.supportsInstantaneousDistributions();
+			
+			if(supported) {
+				statistics = new ConsumptionDistribution(distribution);
+			}
+		}
+		
+		// the solution is simulated if its distribution is not supported, e.g. due to negative costs or memory
+		if(statistics == null) {
+			statistics = evaluateSolution(solution);
+		}
+		
+		// determine how much of a resource may be used at most
+		double[][] maxConsumption = useBudgetConstraints ? new double[numDomainResources][1] : new double[numDomainResources][numDecisions];
+		if(useBudgetConstraints) {
+			for(int k=0; k<numDomainResources; k++) {
+				for (CMDP cmdp : cmdps) {
+					maxConsumption[k][0] += cmdp.getMaxCost(k);
+				}
+			}
+		}
+		else {
+			for(int k=0; k<numDomainResources; k++) {
+				for(int t=0; t<numDecisions; t++) {
+					for (CMDP cmdp : cmdps) {
+						maxConsumption[k][t] += cmdp.getMaxCost(k);
+					}
+				}
+			}
+		}
+		
+		
+		double maxDifference = 0;
+		
+		// determine if any resources are already overconsumed?
+		boolean notOverconsumed = true;
+		if(useBudgetConstraints) {
+			for (int k = 0; k < numDomainResources && notOverconsumed; k++) {
+				notOverconsumed = notOverconsumed && (statistics.getViolationFraction(k, 0) < maxViolations);
+			}
+		}
+		else {
+			for (int k = 0; k < numDomainResources && notOverconsumed; k++) {
+				for(int t=0; t<numDecisions; t++) {
+					notOverconsumed = notOverconsumed && (statistics.getViolationFraction(k, t) < maxViolations);
+				}
+			}
+		}
+		
+		if(useBudgetConstraints) {
+			for(int k=0; k<numDomainResources && notOverconsumed; k++) {
+				if (reduction[k][0] > 0) {
+					// get the consumption statistics associated with this resource.
+					double mean = statistics.getMean(k, 0);
+					double std = statistics.getStd(k, 0);
+					
+					// determine the sigma that allows the desired tolerance.
+					double meanLow = 0;
+					double meanHigh = instance.getCostLimit(k);
+					double meanMid = 0;
+					while (Math.abs(meanHigh - meanLow) > 0.01) {
+						meanMid = (meanHigh + meanLow) / 2;
+						
+						double pMid = StatisticsCalculator.getViolationProbability(meanMid, std, instance.getCostLimit(k));
+						
+						if (pMid > maxViolations) {
+							meanHigh = meanMid;
+						} else {
+							meanLow = meanMid;
+						}
+					}
+					
+					// determine the reduction you would require to have the consumption at index be equal to the budget.
+					double gaussSlack = meanMid - mean;
+					
+					double reductionSlack = gaussSlack;
+					
+					// if we need to slacken the constraint,
+					if (reductionSlack > 0) {
+						// move the current reduction to the midpoint of the current slack and the ideal slack.
+						double slackening = Math.max(0, reduction[k][0] - reductionSlack / factor);
+						
+						// determine the maximum change in resource reduction.
+						maxDifference = Math.max(maxDifference, (reduction[k][0] - slackening) / instance.getCostLimit(k));
+						
+						// set the level of reduction
+						reduction[k][0] = slackening;
+					}
+				}
+			}
+		}
+		else {
+			for(int k=0; k<numDomainResources && notOverconsumed; k++) {
+				for(int t=0; t<numDecisions; t++) {
+					if (reduction[k][t] > 0) {
+						// get the consumption statistics associated with this resource.
+						double mean = statistics.getMean(k, t);
+						double std = statistics.getStd(k, t);
+						
+						// determine the sigma that allows the desired tolerance.
+						double meanLow = 0;
+						double meanHigh = instance.getCostLimit(k, t);
+						double meanMid = 0;
+						while (Math.abs(meanHigh - meanLow) > 0.01) {
+							meanMid = (meanHigh + meanLow) / 2;
+							
+							double pMid = StatisticsCalculator.getViolationProbability(meanMid, std, instance.getCostLimit(k, t));
+							
+							if (pMid > maxViolations) {
+								meanHigh = meanMid;
+							} else {
+								meanLow = meanMid;
+							}
+						}
+						
+						// determine the reduction you would require to have the consumption at index be equal to the budget.
+						double gaussSlack = meanMid - mean;
+						
+						double reductionSlack = gaussSlack;
+						
+						// if we need to slacken the constraint,
+						if (reductionSlack > 0) {
+							// move the current reduction to the midpoint of the current slack and the ideal slack.
+							double slackening = Math.max(0, reduction[k][t] - reductionSlack / factor);
+							
+							// determine the maximum change in resource reduction.
+							maxDifference = Math.max(maxDifference, (reduction[k][t] - slackening) / instance.getCostLimit(k, t));
+							
+							// set the level of reduction
+							reduction[k][t] = slackening;
+						}
+					}
+				}
+			}
+		}
+		
+		return maxDifference;
+	}
+	
+	
+	private double getCostLimit(int k, int column) {
+		return useBudgetConstraints ? instance.getCostLimit(k) : instance.getCostLimit(k, column);
+	}
+	
+	private interface ConsumptionEstimate {
+		public double getViolationFraction(int k, int c);
+		public double getMean(int k, int c);
+		public double getStd(int k, int c);
+	}
+	
+	private class ConsumptionDistribution implements ConsumptionEstimate {
+		private CMDPConsumptionDistribution distribution;
+		
+		public ConsumptionDistribution(CMDPConsumptionDistribution distribution) {
+			this.distribution = distribution;
+		}
+		
+		public double getViolationFraction(int k, int c) {
+			return useBudgetConstraints ? distribution.getViolationProbabilityTotal(k) : distribution.getViolationProbabilityInstantaneous(k, c);
+		}
+		
+		public double getMean(int k, int c) {
+			return useBudgetConstraints ? distribution.getMeanTotalCost(k) : distribution.getMeanInstantaneousCost(k, c);
+		}
+		
+		public double getStd(int k, int c) {
+			return useBudgetConstraints ? distribution.getStdTotalCost(k) : distribution.getStdInstantaneousCost(k, c);
+		}
+	}
+	
+	private class ConsumptionStatistics implements ConsumptionEstimate {
+		private int numRuns = 0;
+		private int[][] numViolations;
+		
+		// sums are taken over the consumption minus the limit, which keeps the sum of squares small
+		private double[][] sum;
+		private double[][] sumSquares;
+		
+		public ConsumptionStatistics(int numColumns) {
+			numViolations = new int[numDomainResources][numColumns];
+			sum = new double[numDomainResources][numColumns];
+			sumSquares = new double[numDomainResources][numColumns];
+		}
+		
+		public void addRun(double[][] consumption, double[][] limits) {
+			for(int k=0; k<numDomainResources; k++) {
+				for(int c=0; c<consumption[k].length; c++) {
+					double excess = consumption[k][c] - limits[k][c];
+					
+					if(excess > 0.0) {
+						numViolations[k][c]++;
+					}
+					
+					sum[k][c] += excess;
+					sumSquares[k][c] += excess * excess;
+				}
+			}
+			
+			numRuns++;
+		}
+		
+		public void addStatistics(ConsumptionStatistics other) {
+			for(int k=0; k<numDomainResources; k++) {
+				for(int c=0; c<sum[k].length; c++) {
+					numViolations[k][c] += other.numViolations[k][c];
+					sum[k][c] += other.sum[k][c];
+					sumSquares[k][c] += other.sumSquares[k][c];
+				}
+			}
+			
+			numRuns += other.numRuns;
+		}
+		
+		public double getViolationFraction(int k, int c) {
+			return numViolations[k][c] / ((double) numRuns);
+		}
+		
+		public double getMean(int k, int c) {
+			return getCostLimit(k, c) + sum[k][c] / ((double) numRuns);
+		}
+		
+		public double getStd(int k, int c) {
+			double meanExcess = sum[k][c] / ((double) numRuns);
+			double variance = sumSquares[k][c] / ((double) numRuns) - meanExcess * meanExcess;
+			return Math.sqrt(Math.max(0.0, variance));
+		}
+	}
+	
+	private ConsumptionStatistics evaluateSolution(CMDPSolution solution) {
+		int numColumns = useBudgetConstraints ? 1 : numDecisions;
+		
+		// each stream simulates a fixed share of the runs using its own random number generator
+		long[] seeds = new long[NUM_STREAMS];
+		for(int c=0; c<NUM_STREAMS; c++) {
+			seeds[c] = rnd.nextLong();
+		}
+		
+		ConsumptionStatistics[] streamStatistics = new ConsumptionStatistics[NUM_STREAMS];
+		if(solution instanceof CMDPSolutionPolicyBased) {
+			MDPAgentSolutionPolicyBased[] agentSolutions = ((CMDPSolutionPolicyBased) solution).getAgentSolutions();
+			IntStream.range(0, NUM_STREAMS).parallel().forEach(c -> {
+				streamStatistics[c] = simulateRuns(agentSolutions, solution, getNumStreamRuns(c), numColumns, new StreamRandom(seeds[c]));
+			});
+		}
+		else {
+			// actions of other solutions depend on the state of the solution itself, so runs are simulated sequentially
+			for(int c=0; c<NUM_STREAMS; c++) {
+				streamStatistics[c] = simulateRuns(null, solution, getNumStreamRuns(c), numColumns, new StreamRandom(seeds[c]));
+			}
+		}
+		
+		// merge the statistics of the streams in a fixed order
+		ConsumptionStatistics statistics = new ConsumptionStatistics(numColumns);
+		for(int c=0; c<NUM_STREAMS; c++) {
+			statistics.addStatistics(streamStatistics[c]);
+		}
+		
+		return statistics;
+	}
+	
+	private int getNumStreamRuns(int c) {
+		return nRuns / NUM_STREAMS + (c < nRuns % NUM_STREAMS ? 1 : 0);
+	}
+	
+	private ConsumptionStatistics simulateRuns(MDPAgentSolutionPolicyBased[] agentSolutions, CMDPSolution solution, int numRuns, int numColumns, Random rnd) {
+		int numAgents = cmdps.length;
+		ConsumptionStatistics statistics = new ConsumptionStatistics(numColumns);
+		
+		double[][] limits = new double[numDomainResources][numColumns];
+		for(int k=0; k<numDomainResources; k++) {
+			for(int c=0; c<numColumns; c++) {
+				limits[k][c] = getCostLimit(k, c);
+			}
+		}
+		
+		double[][] currentConsumption = new double[numDomainResources][numColumns];
+		int[] state = new int[numAgents];
+		int[] actions = new int[numAgents];
+		MDPPolicy[] policies = new MDPPolicy[numAgents];
+		
+		for(int run=0; run<numRuns; run++) {
+			for(int k=0; k<numDomainResources; k++) {
+				Arrays.fill(currentConsumption[k], 0.0);
+			}
+			
+			// get initial states, and select the policies for this run
+			for(int i=0; i<numAgents; i++) {
+				state[i] = cmdps[i].getInitialState();
+				
+				if(agentSolutions != null) {
+					policies[i] = agentSolutions[i].getPolicy(rnd);
+				}
+			}
+			
+			for(int t=0; t<numDecisions; t++) {
+				int column = useBudgetConstraints ? 0 : t;
+				
+				if(agentSolutions != null) {
+					for(int i=0; i<numAgents; i++) {
+						actions[i] = policies[i].getAction(t, state[i], rnd);
+					}
+				}
+				else {
+					actions = solution.getActions(t, state);
+				}
+				
+				for(int i=0; i<numAgents; i++) {
+					CMDP cmdp = cmdps[i];
+					int a = actions[i];
+					
+					// update current consumption
+					for(int k=0; k<numDomainResources; k++) {
+						currentConsumption[k][column] += cmdp.getCost(k, state[i], a);
+					}
+					
+					state[i] = sampleNextState(cmdp, t, state[i], a, rnd);
+				}
+			}
+			
+			statistics.addRun(currentConsumption, limits);
+		}
+		
+		return statistics;
+	}
+	
+	/**
+	 * Random number generator for a single stream, which produces the same numbers as Random.
+	 * A stream is only used by one thread, which means that the seed does not need to be updated atomically.
+	 */
+	private static class StreamRandom extends Random {
+		private static final long serialVersionUID = 1L;
+		private static final long MULTIPLIER = 0x5DEECE66DL;
+		private static final long MASK = (1L << 48) - 1;
+		
+		private long seed;
+		
+		public StreamRandom(long seed) {
+			this.seed = (seed ^ MULTIPLIER) & MASK;
+		}
+		
+		@Override
+		protected int next(int bits) {
+			seed = (seed * MULTIPLIER + 0xBL) & MASK;
+			return (int) (seed >>> (48 - bits));
+		}
+	}
+	
+	private int sampleNextState(CMDP cmdp, int t, int s, int a, Random rnd) {
+		assert s >= 0 && s < cmdp.getNumStates() : "Invalid state action pair";
+		
+		int[] destinations = cmdp.getTransitionDestinations(t, s, a);
+		double[] probabilities = cmdp.getTransitionProbabilities(t, s, a);
+		
+		return ProbabilitySample.sampleItemInline(destinations, probabilities, rnd);
+	}
+}
@@ -33,6 +33,7 @@ import algorithms.mdp.ReducedLimitAlgorithm;
 public class DynamicRelaxation implements CMDPAlgorithm {
 	
 	private double convergenceTolerance;
+	private boolean useExactDistribution;
 	
 	private ReducedLimitAlgorithm alg;
 	private double tolerance;
@@ -56,6 +57,7 @@ public class DynamicRelaxation implements CMDPAlgorithm {
 		this.beta = beta;
 		this.rnd = rnd;
 		this.convergenceTolerance = ConfigFile.getDoubleProperty("dynamicrelaxation_convergence_tolerance");
+		this.useExactDistribution = ConfigFile.getBooleanProperty("dynamicrelaxation_exact_distribution");
 		this.timeLimit = ConfigFile.getDoubleProperty("dynamicrelaxation_time_limit");
 	}
 	
@@ -86,7 +88,7 @@ public class DynamicRelaxation implements CMDPAlgorithm {
 	public CMDPSolution solve() {
 		long startTime = System.currentTimeMillis();
 		
-		ConstraintRelaxTool crt = new ConstraintRelaxTool(instance, rnd, 100000, useBudgetConstraints);
+		ConstraintRelaxTool crt = new ConstraintRelaxTool(instance, rnd, 100000, useExactDistribution, useBudgetConstraints);
 		
 		// obtain initial limits using Hoeffding bound
 		double[][] reductions = useBudgetConstraints ? new double[numDomainResources][1] : new double[numDomainResources][numDecisions];
@@ -0,0 +1,527 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package algorithms.mdp.lagrangian;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import lp.LPColumn;
+import lp.LPConstraint;
+import lp.LPConstraintType;
+import lp.LPException;
+import lp.LPModel;
+import lp.LPSolver;
+import lp.LPVariable;
+import lp.LPVariableType;
+import model.CMDP;
+import instances.CMDPInstance;
+import instances.ConstraintType;
+import solutions.mdp.MDPAgentSolutionPolicyBased;
+import solutions.mdp.MDPPolicy;
+import solutions.mdp.MDPPolicySet;
+import solutions.mdp.CMDPSolution;
+import solutions.mdp.CMDPSolutionPolicyBased;
+import util.ConfigFile;
+import algorithms.UnsupportedInstanceException;
+import algorithms.mdp.CMDPAlgorithm;
+import algorithms.mdp.ReducedLimitAlgorithm;
+import algorithms.mdp.colgen.ValueIterationFiniteHorizon;
+
+/**
+ * Optimizes the Lagrangian dual of the resource constraints using projected subgradient steps with Polyak step sizes.
+ * For fixed multipliers the agents are independent, and each agent is solved using finite-horizon value iteration.
+ * The policies of all agents in an iteration are combined into one column of a mixing LP, which has a row for each
+ * resource constraint and a convexity row. The size of this LP does not depend on the number of agents, and its
+ * solution randomizes between the policies of at most a few iterations, which makes the solution feasible in expectation.
+ */
+public class LagrangianDualAscent implements CMDPAlgorithm, ReducedLimitAlgorithm {
+	private LPSolver lpSolver;
+	private ValueIterationFiniteHorizon vi;
+	private Random rnd;
+	
+	private CMDP[] cmdps;
+	private CMDPInstance instance;
+	private int numDomainResources;
+	private int numAgents;
+	private int numDecisions;
+	private int numPeriods; // 1 for budget constraints, numDecisions for instantaneous constraints
+	
+	private boolean useBudgetConstraints = false;
+	
+	// agents sharing the same CMDP object are solved once in each iteration
+	private int[] agentGroup;
+	private int[] groupAgent;
+	
+	private double tolerance;
+	private int maxIterations;
+	private double timelimit;
+	
+	public LagrangianDualAscent(LPSolver lpSolver, Random rnd) {
+		this.lpSolver = lpSolver;
+		this.vi = new ValueIterationFiniteHorizon();
+		this.rnd = rnd;
+		this.tolerance = ConfigFile.getDoubleProperty("lagrangian_convergence_tolerance");
+		this.maxIterations = ConfigFile.getIntProperty("lagrangian_max_iterations");
+		this.timelimit = ConfigFile.getDoubleProperty("lagrangian_time_limit");
+	}
+	
+	@Override
+	public void setInstance(CMDPInstance instance) throws UnsupportedInstanceException {
+		this.cmdps = instance.getCMDPs();
+		this.numAgents = cmdps.length;
+		this.instance = instance;
+		this.numDomainResources = instance.getNumDomainResources();
+		this.numDecisions = instance.getNumDecisions();
+		
+		useBudgetConstraints = (instance.getConstraintType() == ConstraintType.BUDGET);
+		numPeriods = useBudgetConstraints ? 1 : numDecisions;
+		
+		agentGroup = new int[numAgents];
+		IdentityHashMap<CMDP,Integer> groups = new IdentityHashMap<CMDP,Integer>();
+		for(int i=0; i<numAgents; i++) {
+			Integer group = groups.get(cmdps[i]);
+			
+			if(group == null) {
+				group = groups.size();
+				groups.put(cmdps[i], group);
+			}
+			
+			agentGroup[i] = group;
+		}
+		
+		groupAgent = new int[groups.size()];
+		for(int i=numAgents-1; i>=0; i--) {
+			groupAgent[agentGroup[i]] = i;
+		}
+		
+		limits = new double[numDomainResources][numPeriods];
+		lambda = new double[numDomainResources][numPeriods];
+		for(int k=0; k<numDomainResources; k++) {
+			for(int p=0; p<numPeriods; p++) {
+				limits[k][p] = useBudgetConstraints ? instance.getCostLimit(k) : instance.getCostLimit(k, p);
+			}
+		}
+		
+		initializeModel();
+	}
+	
+	private LPModel model;
+	private double[][] limits;
+	private double[][] lambda;
+	private LPConstraint[][] costConstraints;
+	private LPConstraint probabilityConstraint;
+	private ArrayList<LPVariable> vars;
+	private ArrayList<MDPAgentSolutionPolicyBased[]> iterationSolutions;
+	private ArrayList<double[][]> iterationCosts;
+	
+	private void initializeModel() {
+		try {
+			model = lpSolver.createModel();
+			vars = new ArrayList<LPVariable>();
+			iterationSolutions = new ArrayList<MDPAgentSolutionPolicyBased[]>();
+			iterationCosts = new ArrayList<double[][]>();
+			
+			costConstraints = new LPConstraint[numDomainResources][numPeriods];
+			for(int k=0; k<numDomainResources; k++) {
+				for(int p=0; p<numPeriods; p++) {
+					costConstraints[k][p] = model.addConstraint(model.createExpression(), LPConstraintType.LESS_EQUAL, limits[k][p]);
+				}
+			}
+			
+			probabilityConstraint = model.addConstraint(model.createExpression(), LPConstraintType.EQUAL, 1.0);
+		}
+		catch(LPException e) {
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Solves the agents for the given multipliers, in parallel
+	 * @param lambda multipliers for each resource and period
+	 * @return solution for each agent
+	 */
+	private MDPAgentSolutionPolicyBased[] solveAgents(double[][] lambda) {
+		MDPAgentSolutionPolicyBased[] groupSolutions = new MDPAgentSolutionPolicyBased[groupAgent.length];
+		
+		double[] lambdaBudget = new double[numDomainResources];
+		for(int k=0; k<numDomainResources; k++) {
+			lambdaBudget[k] = lambda[k][0];
+		}
+		
+		IntStream.range(0, groupAgent.length).parallel().forEach(g -> {
+			CMDP cmdp = cmdps[groupAgent[g]];
+			
+			if(useBudgetConstraints) {
+				groupSolutions[g] = vi.solve(cmdp, numDecisions, lambdaBudget);
+			}
+			else {
+				groupSolutions[g] = vi.solve(cmdp, numDecisions, lambda);
+			}
+		});
+		
+		MDPAgentSolutionPolicyBased[] solutions = new MDPAgentSolutionPolicyBased[numAgents];
+		for(int i=0; i<numAgents; i++) {
+			solutions[i] = groupSolutions[agentGroup[i]];
+		}
+		
+		return solutions;
+	}
+	
+	@Override
+	public CMDPSolution solve() {
+		MDPAgentSolutionPolicyBased[] solution = null;
+		
+		long startTime = System.currentTimeMillis();
+		
+		try {
+			double bestUpperBound = Double.POSITIVE_INFINITY;
+			double lowerBound = Double.NEGATIVE_INFINITY;
+			boolean converged = false;
+			double targetGap = Double.POSITIVE_INFINITY;
+			int roundsWithoutImprovement = 0;
+			
+			for(int iteration=0; iteration<maxIterations; iteration++) {
+				MDPAgentSolutionPolicyBased[] solutions = solveAgents(lambda);
+				
+				// expected reward and cost of the fleet
+				double reward = 0.0;
+				double[][] cost = new double[numDomainResources][numPeriods];
+				for(int i=0; i<numAgents; i++) {
+					reward += solutions[i].getExpectedReward();
+					
+					for(int k=0; k<numDomainResources; k++) {
+						for(int p=0; p<numPeriods; p++) {
+							cost[k][p] += useBudgetConstraints ? solutions[i].getExpectedTotalCost(k) : solutions[i].getExpectedInstantaneousCost(k, p);
+						}
+					}
+				}
+				
+				// the Lagrangian dual value is an upper bound, and the subgradient is projected on the feasible multipliers
+				double dualValue = reward;
+				double[][] subgradient = new double[numDomainResources][numPeriods];
+				double subgradientNormSquared = 0.0;
+				for(int k=0; k<numDomainResources; k++) {
+					for(int p=0; p<numPeriods; p++) {
+						dualValue += lambda[k][p] * (limits[k][p] - cost[k][p]);
+						
+						subgradient[k][p] = cost[k][p] - limits[k][p];
+						if(lambda[k][p] <= 0.0 && subgradient[k][p] < 0.0) {
+							subgradient[k][p] = 0.0;
+						}
+						
+						subgradientNormSquared += subgradient[k][p] * subgradient[k][p];
+					}
+				}
+				
+				// add the policies of this iteration to the mixing LP, which gives a lower bound
+				LPColumn col = model.createColumn();
+				for(int k=0; k<numDomainResources; k++) {
+					for(int p=0; p<numPeriods; p++) {
+						col.addTerm(cost[k][p], costConstraints[k][p]);
+					}
+				}
+				col.addTerm(1.0, probabilityConstraint);
+				vars.add(model.addColumn(0.0, 1.0, reward, LPVariableType.CONTINUOUS, col));
+				iterationSolutions.add(solutions);
+				iterationCosts.add(cost);
+				
+				if(model.solve()) {
+					lowerBound = model.getObjectiveValue();
+				}
+				
+				// the distance between the target and the dual bound is reduced if the dual bound does not improve, but it is bounded
+				// from below such that the multipliers keep moving and the mixing LP receives different policies
+				double minTargetGap = tolerance * Math.max(1.0, Math.abs(dualValue));
+				targetGap = Math.min(targetGap, 0.1 * Math.max(1.0, Math.abs(dualValue)));
+				
+				if(dualValue < bestUpperBound) {
+					bestUpperBound = dualValue;
+					roundsWithoutImprovement = 0;
+				}
+				else {
+					roundsWithoutImprovement++;
+					
+					if(roundsWithoutImprovement >= 5) {
+						targetGap = Math.max(0.5 * targetGap, minTargetGap);
+						roundsWithoutImprovement = 0;
+					}
+				}
+				
+				double gap = bestUpperBound - lowerBound;
+				double elapsedTime = (System.currentTimeMillis() - startTime) * 0.001;
+				
+				converged = gap <= tolerance * Math.max(1.0, Math.abs(bestUpperBound));
+				
+				if(converged || subgradientNormSquared == 0.0 || elapsedTime > timelimit) {
+					break;
+				}
+				
+				// Polyak step towards a target value between the lower bound and the best dual bound
+				double target = Math.max(lowerBound, bestUpperBound - targetGap);
+				double step = (dualValue - target) / subgradientNormSquared;
+				
+				for(int k=0; k<numDomainResources; k++) {
+					for(int p=0; p<numPeriods; p++) {
+						lambda[k][p] = Math.max(0.0, lambda[k][p] + step * subgradient[k][p]);
+					}
+				}
+			}
+			
+			// obtain solution, agents with different CMDPs are mixed separately if the common mixture did not converge
+			if(converged) {
+				solution = extractSolution();
+			}
+			else {
+				solution = extractGroupSolution();
+				
+				if(solution == null) {
+					solution = (lowerBound > Double.NEGATIVE_INFINITY) ? extractSolution() : extractLeastViolatingSolution();
+				}
+			}
+		}
+		catch(LPException e) {
+			e.printStackTrace();
+		}
+		
+		return new CMDPSolutionPolicyBased(solution);
+	}
+	
+	/**
+	 * Randomizes between the policies of the iterations used by the mixing LP
+	 * @return solution for each agent
+	 */
+	private MDPAgentSolutionPolicyBased[] extractSolution() {
+		List<Integer> iterations = new ArrayList<Integer>();
+		List<Double> probs = new ArrayList<Double>();
+		
+		for(int j=0; j<vars.size(); j++) {
+			double prob = model.getVariableValue(vars.get(j));
+			if(prob > 0.000001) {
+				iterations.add(j);
+				probs.add(prob);
+			}
+		}
+		
+		MDPAgentSolutionPolicyBased[] solution = new MDPAgentSolutionPolicyBased[numAgents];
+		
+		for(int i=0; i<numAgents; i++) {
+			List<MDPPolicy> sol = new ArrayList<MDPPolicy>();
+			double expectedReward = 0.0;
+			double[] expectedTotalCost = new double[numDomainResources];
+			double[][] expectedInstantaneousCost = new double[numDomainResources][numDecisions];
+			
+			for(int j=0; j<iterations.size(); j++) {
+				MDPAgentSolutionPolicyBased mdpSol = iterationSolutions.get(iterations.get(j))[i];
+				double prob = probs.get(j);
+				
+				sol.add(mdpSol.getPolicy());
+				expectedReward += prob * mdpSol.getExpectedReward();
+				
+				for(int k=0; k<numDomainResources; k++) {
+					expectedTotalCost[k] += prob * mdpSol.getExpectedTotalCost(k);
+					for(int t=0; t<numDecisions; t++) {
+						expectedInstantaneousCost[k][t] += prob * mdpSol.getExpectedInstantaneousCost(k, t);
+					}
+				}
+			}
+			
+			solution[i] = new MDPPolicySet(sol, probs, expectedReward, expectedInstantaneousCost, expectedTotalCost, rnd);
+		}
+		
+		return solution;
+	}
+	
+	/**
+	 * Solves a mixing LP in which agents sharing the same CMDP object have their own probabilities for the distinct
+	 * policies found during the iterations. The LP has a row for each resource constraint and each group of agents.
+	 * @return solution for each agent, or null if the LP is infeasible
+	 */
+	private MDPAgentSolutionPolicyBased[] extractGroupSolution() throws LPException {
+		int numGroups = groupAgent.length;
+		int[] groupSize = new int[numGroups];
+		for(int i=0; i<numAgents; i++) {
+			groupSize[agentGroup[i]]++;
+		}
+		
+		LPModel groupModel = lpSolver.createModel();
+		LPConstraint[][] groupCostConstraints = new LPConstraint[numDomainResources][numPeriods];
+		for(int k=0; k<numDomainResources; k++) {
+			for(int p=0; p<numPeriods; p++) {
+				groupCostConstraints[k][p] = groupModel.addConstraint(groupModel.createExpression(), LPConstraintType.LESS_EQUAL, limits[k][p]);
+			}
+		}
+		
+		List<List<LPVariable>> groupVars = new ArrayList<List<LPVariable>>();
+		List<List<MDPAgentSolutionPolicyBased>> groupSolutions = new ArrayList<List<MDPAgentSolutionPolicyBased>>();
+		
+		for(int g=0; g<numGroups; g++) {
+			LPConstraint groupConstraint = groupModel.addConstraint(groupModel.createExpression(), LPConstraintType.EQUAL, 1.0);
+			groupVars.add(new ArrayList<LPVariable>());
+			groupSolutions.add(new ArrayList<MDPAgentSolutionPolicyBased>());
+			
+			// policies with the same expected reward and cost are identical from the perspective of the LP
+			HashSet<String> seen = new HashSet<String>();
+			
+			for(MDPAgentSolutionPolicyBased[] solutions : iterationSolutions) {
+				MDPAgentSolutionPolicyBased mdpSol = solutions[groupAgent[g]];
+				
+				double[] signature = new double[1 + numDomainResources * numPeriods];
+				signature[0] = mdpSol.getExpectedReward();
+				for(int k=0; k<numDomainResources; k++) {
+					for(int p=0; p<numPeriods; p++) {
+						signature[1 + k * numPeriods + p] = useBudgetConstraints ? mdpSol.getExpectedTotalCost(k) : mdpSol.getExpectedInstantaneousCost(k, p);
+					}
+				}
+				
+				if(!seen.add(Arrays.toString(signature))) {
+					continue;
+				}
+				
+				LPColumn col = groupModel.createColumn();
+				for(int k=0; k<numDomainResources; k++) {
+					for(int p=0; p<numPeriods; p++) {
+						col.addTerm(groupSize[g] * signature[1 + k * numPeriods + p], groupCostConstraints[k][p]);
+					}
+				}
+				col.addTerm(1.0, groupConstraint);
+				
+				groupVars.get(g).add(groupModel.addColumn(0.0, 1.0, groupSize[g] * signature[0], LPVariableType.CONTINUOUS, col));
+				groupSolutions.get(g).add(mdpSol);
+			}
+		}
+		
+		if(!groupModel.solve()) {
+			groupModel.dispose();
+			return null;
+		}
+		
+		MDPAgentSolutionPolicyBased[] groupSolution = new MDPAgentSolutionPolicyBased[numGroups];
+		for(int g=0; g<numGroups; g++) {
+			List<MDPPolicy> sol = new ArrayList<MDPPolicy>();
+			List<Double> probs = new ArrayList<Double>();
+			double expectedReward = 0.0;
+			double[] expectedTotalCost = new double[numDomainResources];
+			double[][] expectedInstantaneousCost = new double[numDomainResources][numDecisions];
+			
+			for(int j=0; j<groupVars.get(g).size(); j++) {
+				double prob = groupModel.getVariableValue(groupVars.get(g).get(j));
+				if(prob > 0.000001) {
+					MDPAgentSolutionPolicyBased mdpSol = groupSolutions.get(g).get(j);
+					
+					sol.add(mdpSol.getPolicy());
+					probs.add(prob);
+					expectedReward += prob * mdpSol.getExpectedReward();
+					
+					for(int k=0; k<numDomainResources; k++) {
+						expectedTotalCost[k] += prob * mdpSol.getExpectedTotalCost(k);
+						for(int t=0; t<numDecisions; t++) {
+							expectedInstantaneousCost[k][t] += prob * mdpSol.getExpectedInstantaneousCost(k, t);
+						}
+					}
+				}
+			}
+			
+			groupSolution[g] = new MDPPolicySet(sol, probs, expectedReward, expectedInstantaneousCost, expectedTotalCost, rnd);
+		}
+		
+		groupModel.dispose();
+		
+		MDPAgentSolutionPolicyBased[] solution = new MDPAgentSolutionPolicyBased[numAgents];
+		for(int i=0; i<numAgents; i++) {
+			solution[i] = groupSolution[agentGroup[i]];
+		}
+		
+		return solution;
+	}
+	
+	/**
+	 * Returns the policies of the iteration with the smallest constraint violation, which is used if no feasible mixture exists
+	 * @return solution for each agent
+	 */
+	private MDPAgentSolutionPolicyBased[] extractLeastViolatingSolution() {
+		int bestIteration = 0;
+		double bestViolation = Double.POSITIVE_INFINITY;
+		
+		for(int j=0; j<iterationCosts.size(); j++) {
+			double[][] cost = iterationCosts.get(j);
+			double violation = 0.0;
+			
+			for(int k=0; k<numDomainResources; k++) {
+				for(int p=0; p<numPeriods; p++) {
+					violation += Math.max(0.0, cost[k][p] - limits[k][p]);
+				}
+			}
+			
+			if(violation < bestViolation) {
+				bestViolation = violation;
+				bestIteration = j;
+			}
+		}
+		
+		return iterationSolutions.get(bestIteration).clone();
+	}
+	
+	@Override
+	public String getName() {
+		return "LagrangianDualAscent";
+	}
+	
+	@Override
+	public void modifyBudgetConstraints(double[] newLimits) {
+		assert useBudgetConstraints;
+		
+		if(!useBudgetConstraints) {
+			throw new RuntimeException("Can't change limits because instance does not have budget constraints");
+		}
+		
+		for(int k=0; k<numDomainResources; k++) {
+			try {
+				model.changeConstraintRHS(costConstraints[k][0], newLimits[k]);
+				limits[k][0] = newLimits[k];
+			} catch (LPException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+	
+	@Override
+	public void modifyInstantaneousConstraints(double[][] newLimits) {
+		assert !useBudgetConstraints;
+		
+		if(useBudgetConstraints) {
+			throw new RuntimeException("Can't change limits because instance does not have instantaneous constraints");
+		}
+		
+		for(int k=0; k<numDomainResources; k++) {
+			for(int t=0; t<numDecisions; t++) {
+				try {
+					model.changeConstraintRHS(costConstraints[k][t], newLimits[k][t]);
+					limits[k][t] = newLimits[k][t];
+				} catch (LPException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+}
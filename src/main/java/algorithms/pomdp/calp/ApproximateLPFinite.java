@@ -19,7 +19,9 @@
 package algorithms.pomdp.calp;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import util.ConsoleOutput;
 
@@ -31,8 +33,11 @@ import lp.LPSolver;
 import lp.LPVariable;
 import lp.LPConstraintType;
 import lp.LPVariableType;
+import lp.presolve.LPSolverPresolve;
 import model.BeliefPoint;
 import model.CPOMDP;
+import solutions.pomdp.InterpolationWeights;
+import util.VantagePointTree;
 
 public class ApproximateLPFinite {
 	// LP environment
@@ -47,8 +52,10 @@ public class ApproximateLPFinite {
 	private LPModel cmdpModel;
 	private LPConstraint cmdpCostConstraint;
 	
-	private final double binarySearchTolerance = 0.001;
+	private final double costLimitSearchTolerance = 0.001;
+	private final int maxCostLimitSearchIterations = 50;
 	private final double policyEvaluationTolerance = 0.00001;
+	private final double dualCertificateTolerance = 0.000001;
 	
 	// variables below are set during solving
 	private double approximateExpectedReward;
@@ -57,7 +64,7 @@ public class ApproximateLPFinite {
 	private double exactExpectedCost;
 	private double[][][] policy;
 	private boolean[][] policyActionOptions;
-	private double[][][][] weights;
+	private InterpolationWeights weights;
 	
 	private List<BeliefPoint> lastB;
 	private double[][] apxRewardModel;
@@ -130,7 +137,10 @@ public class ApproximateLPFinite {
 	}
 	
 	private double getEuclideanNorm(BeliefPoint b, List<BeliefPoint> B, int i) {
-		BeliefPoint bi = B.get(i);
+		return getEuclideanNorm(b, B.get(i));
+	}
+	
+	private double getEuclideanNorm(BeliefPoint b, BeliefPoint bi) {
 		assert b.getBelief().length == bi.getBelief().length;
 		int nEntries = b.getBelief().length;
 		
@@ -152,26 +162,21 @@ public class ApproximateLPFinite {
 		int nStates = cpomdp.getNumStates();
 		int nActions = cpomdp.getNumActions();
 		int nObservations = cpomdp.getNumObservations();
-		double[][][][] w = new double[nBeliefs][nBeliefs][nActions][nObservations]; // w[bPrime][b][a][o] = w(b', b^{a,o})
+		InterpolationWeights w = new InterpolationWeights(nBeliefs, nActions, nObservations); // w(b', b^{a,o}), only nonzero weights are stored
 		
 		for(int bIndex=0; bIndex<B.size(); bIndex++) {
 			BeliefPoint b = B.get(bIndex);
 			cpomdp.prepareBelief(b);
 			
 			for(int a=0; a<nActions; a++) {
-				for(int o=0; o<nObservations; o++) {					
+				for(int o=0; o<nObservations; o++) {
 					if(b.getActionObservationProbability(a, o) > policyEvaluationTolerance) {
 						BeliefPoint bao = cpomdp.updateBelief(b, a, o);
 						double [] weights = getWeights(B, bao);
 						assert weights.length == B.size();
 						
-						double sum = 0.0;
-						for(int bPrimeIndex=0; bPrimeIndex<B.size(); bPrimeIndex++) {
-							w[bPrimeIndex][bIndex][a][o] = weights[bPrimeIndex];
-							sum += w[bPrimeIndex][bIndex][a][o];
-						}
-						
-						assert Math.abs(sum-1.0) < 0.01 : "Weights do not sum to 1: "+sum;
+						w.setWeights(bIndex, a, o, weights);
+						assert Math.abs(w.getWeightSum(bIndex, a, o)-1.0) < 0.01 : "Weights do not sum to 1: "+w.getWeightSum(bIndex, a, o);
 					}
 					else {
 						/*
@@ -180,35 +185,79 @@ public class ApproximateLPFinite {
 						 * action a in belief b. In the computation of the transition model,
 						 * it will by multiplied by zero anyway.
 						 */
-						for(int bPrimeIndex=0; bPrimeIndex<B.size(); bPrimeIndex++) {
-							w[bPrimeIndex][bIndex][a][o] = 1.0 / ((double) B.size());
-						}
+						w.setUniform(bIndex, a, o);
 					}
 				}
 			}
 		}
 		weights = w;
 		
-		// compute approximate transition model (Algorithm 1, line 6)
-		double[][][] newTransitionModel = new double[nBeliefs][nActions][nBeliefs];
+		// compute approximate transition model (Algorithm 1, line 6), only destinations with nonzero probability are stored
+		int[][][] newTransitionDestinations = new int[nBeliefs][nActions][];
+		double[][][] newTransitionProbabilities = new double[nBeliefs][nActions][];
+		double[] prob = new double[nBeliefs];
+		boolean[] reached = new boolean[nBeliefs];
+		int[] reachedList = new int[nBeliefs];
 		
 		for(int bIndex=0; bIndex<B.size(); bIndex++) {
 			BeliefPoint b = B.get(bIndex);
 			
 			for(int a=0; a<nActions; a++) {
-				double probSum = 0.0;
+				int nReached = 0;
 				
-				for(int bPrimeIndex=0; bPrimeIndex<B.size(); bPrimeIndex++) {
-					double prob = 0.0;
+				for(int o=0; o<nObservations; o++) {
+					double aoProb = b.getActionObservationProbability(a, o);
+					
+					if(aoProb == 0.0) {
+						continue;
+					}
 					
-					for(int o=0; o<nObservations; o++) {
-						prob += b.getActionObservationProbability(a, o) * w[bPrimeIndex][bIndex][a][o];
+					if(w.isUniform(bIndex, a, o)) {
+						for(int bPrimeIndex=0; bPrimeIndex<nBeliefs; bPrimeIndex++) {
+							if(!reached[bPrimeIndex]) {
+								reached[bPrimeIndex] = true;
+								reachedList[nReached++] = bPrimeIndex;
+							}
+							
+							prob[bPrimeIndex] += aoProb * (1.0 / ((double) nBeliefs));
+						}
+					}
+					else {
+						int[] nodes = w.getNodes(bIndex, a, o);
+						double[] values = w.getValues(bIndex, a, o);
+						
+						for(int i=0; i<nodes.length; i++) {
+							int bPrimeIndex = nodes[i];
+							
+							if(!reached[bPrimeIndex]) {
+								reached[bPrimeIndex] = true;
+								reachedList[nReached++] = bPrimeIndex;
+							}
+							
+							prob[bPrimeIndex] += aoProb * values[i];
+						}
 					}
+				}
+				
+				Arrays.sort(reachedList, 0, nReached);
+				
+				int[] destinations = new int[nReached];
+				double[] probabilities = new double[nReached];
+				double probSum = 0.0;
+				
+				for(int i=0; i<nReached; i++) {
+					int bPrimeIndex = reachedList[i];
+					destinations[i] = bPrimeIndex;
+					probabilities[i] = prob[bPrimeIndex];
+					probSum += prob[bPrimeIndex];
 					
-					newTransitionModel[bIndex][a][bPrimeIndex] = prob;
-					probSum += prob;
+					prob[bPrimeIndex] = 0.0;
+					reached[bPrimeIndex] = false;
 				}
 				
+				newTransitionDestinations[bIndex][a] = destinations;
+				newTransitionProbabilities[bIndex][a] = probabilities;
+				
 				assert Math.abs(1.0-probSum) < 0.01 : "New reward model seems to be wrong, probability sum "+probSum;
 			}
 		}
@@ -226,7 +275,7 @@ public class ApproximateLPFinite {
 		}
 		
 		// solve new model using CMDP linear program
-		double[][][] x = solveCMDP(newTransitionModel, apxRewardModel, apxCostModel);
+		double[][][] x = solveCMDP(newTransitionDestinations, newTransitionProbabilities, apxRewardModel, apxCostModel);
 		
 		// compute V_R^*(b_0) using Equation 10
 		double[][] beliefFlow = new double[T+1][B.size()];
@@ -275,54 +324,178 @@ public class ApproximateLPFinite {
 		// we are done
 	}
 	
-	private void evaluateExact(int numNodes, double[][][][] weights, double[][][] policy) {
+	private void evaluateExact(int numNodes, InterpolationWeights weights, double[][][] policy) {
 		CPOMDP cpomdp = cpomdps[0];
+		int nStates = cpomdp.getNumStates();
+		int nActions = cpomdp.getNumActions();
+		int nObservations = cpomdp.getNumObservations();
 		
-		int t = T;
+		double[][] Vreward = new double[numNodes][nStates];
+		double[][] Vcost = new double[numNodes][nStates];
 		
-		double[][] Vreward = new double[numNodes][cpomdp.getNumStates()];
-		double[][] Vcost = new double[numNodes][cpomdp.getNumStates()];
+		int[][][][] kernelStates = null;
+		double[][][][] kernelProbabilities = null;
 		
-		while(t > 0) {
-			t--;
+		for(int t=T-1; t>=0; t--) {
+			// kernel[a][o][s] contains the states sNext with probability T(s,a,sNext) * O(a,sNext,o) > 0
+			if(kernelStates == null || cpomdp.hasTimeDependentTransitions()) {
+				kernelStates = new int[nActions][nObservations][nStates][];
+				kernelProbabilities = new double[nActions][nObservations][nStates][];
+				computeKernel(t, kernelStates, kernelProbabilities);
+			}
 			
-			double[][] VrewardNext = new double[numNodes][cpomdp.getNumStates()];
-			double[][] VcostNext = new double[numNodes][cpomdp.getNumStates()];
+			// determine for which combinations of a, o and qNext the expected future value is required
+			boolean[][][] required = new boolean[nActions][nObservations][numNodes];
+			boolean[][] requiredUniform = new boolean[nActions][nObservations];
+			int nRequired = 0;
+			for(int q=0; q<numNodes; q++) {
+				for(int a=0; a<nActions; a++) {
+					if(policy[t][q][a] > policyEvaluationTolerance) {
+						for(int o=0; o<nObservations; o++) {
+							if(weights.isUniform(q, a, o)) {
+								if(policy[t][q][a] * (1.0 / ((double) numNodes)) > policyEvaluationTolerance && !requiredUniform[a][o]) {
+									requiredUniform[a][o] = true;
+									nRequired++;
+								}
+							}
+							else {
+								int[] nodes = weights.getNodes(q, a, o);
+								double[] values = weights.getValues(q, a, o);
+								
+								for(int i=0; i<nodes.length; i++) {
+									if(policy[t][q][a] * values[i] > policyEvaluationTolerance && !required[a][o][nodes[i]]) {
+										required[a][o][nodes[i]] = true;
+										nRequired++;
+									}
+								}
+							}
+						}
+					}
+				}
+			}
 			
+			// uniform weights only require the value averaged over all nodes
+			double[] VrewardAverage = new double[nStates];
+			double[] VcostAverage = new double[nStates];
 			for(int q=0; q<numNodes; q++) {
-				for(int s=0; s<cpomdp.getNumStates(); s++){
-					// expected immediate cost
-					for(int a=0; a<cpomdp.getNumActions(); a++) {
-						double prob = policy[t][q][a];
-						VrewardNext[q][s] += prob * cpomdp.getReward(s, a);
-						VcostNext[q][s] += prob * cpomdp.getCost(0, s, a);
+				for(int s=0; s<nStates; s++) {
+					VrewardAverage[s] += Vreward[q][s] * (1.0 / ((double) numNodes));
+					VcostAverage[s] += Vcost[q][s] * (1.0 / ((double) numNodes));
+				}
+			}
+			
+			int[] requiredA = new int[nRequired];
+			int[] requiredO = new int[nRequired];
+			int[] requiredQ = new int[nRequired]; // -1 denotes the average over all nodes
+			int k = 0;
+			for(int a=0; a<nActions; a++) {
+				for(int o=0; o<nObservations; o++) {
+					for(int qNext=0; qNext<numNodes; qNext++) {
+						if(required[a][o][qNext]) {
+							requiredA[k] = a;
+							requiredO[k] = o;
+							requiredQ[k] = qNext;
+							k++;
+						}
+					}
+					
+					if(requiredUniform[a][o]) {
+						requiredA[k] = a;
+						requiredO[k] = o;
+						requiredQ[k] = -1;
+						k++;
 					}
+				}
+			}
+			assert k == nRequired;
+			
+			// compute G[a][o][qNext][s] = sum_{sNext} T(s,a,sNext) * O(a,sNext,o) * V[qNext][sNext]
+			double[][][][] Greward = new double[nActions][nObservations][numNodes][];
+			double[][][][] Gcost = new double[nActions][nObservations][numNodes][];
+			double[][][] GrewardUniform = new double[nActions][nObservations][];
+			double[][][] GcostUniform = new double[nActions][nObservations][];
+			
+			final int[][][][] ks = kernelStates;
+			final double[][][][] kp = kernelProbabilities;
+			final double[][] Vr = Vreward;
+			final double[][] Vc = Vcost;
+			
+			IntStream.range(0, nRequired).parallel().forEach(i -> {
+				int a = requiredA[i];
+				int o = requiredO[i];
+				int qNext = requiredQ[i];
+				double[] vr = (qNext == -1) ? VrewardAverage : Vr[qNext];
+				double[] vc = (qNext == -1) ? VcostAverage : Vc[qNext];
+				
+				double[] gr = new double[nStates];
+				double[] gc = new double[nStates];
+				for(int s=0; s<nStates; s++) {
+					int[] sNext = ks[a][o][s];
+					double[] prob = kp[a][o][s];
 					
-					// expected future cost
-					for(int a=0; a<cpomdp.getNumActions(); a++) {
-						if(policy[t][q][a] > policyEvaluationTolerance) {
-							for(int o=0; o<cpomdp.getNumObservations(); o++) {
-								for(int qNext=0; qNext<numNodes; qNext++) {
-									double prob = policy[t][q][a] * weights[qNext][q][a][o];
+					for(int j=0; j<sNext.length; j++) {
+						gr[s] += prob[j] * vr[sNext[j]];
+						gc[s] += prob[j] * vc[sNext[j]];
+					}
+				}
+				
+				if(qNext == -1) {
+					GrewardUniform[a][o] = gr;
+					GcostUniform[a][o] = gc;
+				}
+				else {
+					Greward[a][o][qNext] = gr;
+					Gcost[a][o][qNext] = gc;
+				}
+			});
+			
+			// compute the values of the nodes, each node only writes its own row
+			double[][] VrewardNext = new double[numNodes][nStates];
+			double[][] VcostNext = new double[numNodes][nStates];
+			final int tCurrent = t;
+			
+			IntStream.range(0, numNodes).parallel().forEach(q -> {
+				double[] vr = VrewardNext[q];
+				double[] vc = VcostNext[q];
+				
+				// expected immediate reward and cost
+				for(int s=0; s<nStates; s++) {
+					for(int a=0; a<nActions; a++) {
+						double prob = policy[tCurrent][q][a];
+						vr[s] += prob * cpomdp.getReward(s, a);
+						vc[s] += prob * cpomdp.getCost(0, s, a);
+					}
+				}
+				
+				// expected future reward and cost
+				for(int a=0; a<nActions; a++) {
+					double actionProb = policy[tCurrent][q][a];
+					
+					if(actionProb > policyEvaluationTolerance) {
+						for(int o=0; o<nObservations; o++) {
+							if(weights.isUniform(q, a, o)) {
+								if(actionProb * (1.0 / ((double) numNodes)) > policyEvaluationTolerance) {
+									addScaled(vr, actionProb, GrewardUniform[a][o]);
+									addScaled(vc, actionProb, GcostUniform[a][o]);
+								}
+							}
+							else {
+								int[] nodes = weights.getNodes(q, a, o);
+								double[] values = weights.getValues(q, a, o);
+								
+								for(int i=0; i<nodes.length; i++) {
+									double prob = actionProb * values[i];
 									
 									if(prob > policyEvaluationTolerance) {
-										int[] transitionDestinations = cpomdp.getTransitionDestinations(t, s, a);
-										double[] transitionProbabilities = cpomdp.getTransitionProbabilities(t, s, a);
-										
-										for(int j=0; j<transitionDestinations.length; j++) {
-											int sNext = transitionDestinations[j];
-											double transitionProb = transitionProbabilities[j];
-											
-											VrewardNext[q][s] += prob * transitionProb * cpomdp.getObservationProbability(a, sNext, o) * Vreward[qNext][sNext];
-											VcostNext[q][s] += prob * transitionProb * cpomdp.getObservationProbability(a, sNext, o) * Vcost[qNext][sNext];											
-										}
+										addScaled(vr, prob, Greward[a][o][nodes[i]]);
+										addScaled(vc, prob, Gcost[a][o][nodes[i]]);
 									}
 								}
 							}
 						}
 					}
 				}
-			}
+			});
 			
 			Vreward = VrewardNext;
 			Vcost = VcostNext;
@@ -330,7 +503,7 @@ public class ApproximateLPFinite {
 		
 		double expectedReward = 0.0;
 		double expectedCost = 0.0;
-		for(int s=0; s<cpomdp.getNumStates(); s++) {
+		for(int s=0; s<nStates; s++) {
 			expectedReward += Vreward[0][s] * cpomdp.getInitialBelief().getBelief(s);
 			expectedCost += Vcost[0][s] * cpomdp.getInitialBelief().getBelief(s);
 		}
@@ -339,14 +512,93 @@ public class ApproximateLPFinite {
 		exactExpectedCost = expectedCost;
 	}
 	
-	private double[][][] solveCMDP(double[][][] transitionModel, double[][] rewardModel, double[][] costModel) {
-		int nBeliefs = transitionModel.length;
-		int nActions = transitionModel[0].length;
+	private void computeKernel(int t, int[][][][] kernelStates, double[][][][] kernelProbabilities) {
+		CPOMDP cpomdp = cpomdps[0];
+		int nStates = cpomdp.getNumStates();
+		int nActions = cpomdp.getNumActions();
+		int nObservations = cpomdp.getNumObservations();
+		
+		for(int s=0; s<nStates; s++) {
+			for(int a=0; a<nActions; a++) {
+				int[] transitionDestinations = cpomdp.getTransitionDestinations(t, s, a);
+				double[] transitionProbabilities = cpomdp.getTransitionProbabilities(t, s, a);
+				
+				for(int o=0; o<nObservations; o++) {
+					int nNonzero = 0;
+					for(int j=0; j<transitionDestinations.length; j++) {
+						if(cpomdp.getObservationProbability(a, transitionDestinations[j], o) > 0.0) {
+							nNonzero++;
+						}
+					}
+					
+					int[] states = new int[nNonzero];
+					double[] probabilities = new double[nNonzero];
+					int i = 0;
+					for(int j=0; j<transitionDestinations.length; j++) {
+						int sNext = transitionDestinations[j];
+						double obsProb = cpomdp.getObservationProbability(a, sNext, o);
+						
+						if(obsProb > 0.0) {
+							states[i] = sNext;
+							probabilities[i] = transitionProbabilities[j] * obsProb;
+							i++;
+						}
+					}
+					
+					kernelStates[a][o][s] = states;
+					kernelProbabilities[a][o][s] = probabilities;
+				}
+			}
+		}
+	}
+	
+	private static void addScaled(double[] target, double scale, double[] v) {
+		for(int s=0; s<target.length; s++) {
+			target[s] += scale * v[s];
+		}
+	}
+	
+	private double[][][] solveCMDP(int[][][] transitionDestinations, double[][][] transitionProbabilities, double[][] rewardModel, double[][] costModel) {
+		int nBeliefs = transitionDestinations.length;
+		int nActions = transitionDestinations[0].length;
+		
+		// for each belief bPrime, collect the pairs (b,a) from which it can be reached
+		int[] nPredecessors = new int[nBeliefs];
+		for(int bIndex=0; bIndex<nBeliefs; bIndex++) {
+			for(int a=0; a<nActions; a++) {
+				for(int bPrimeIndex : transitionDestinations[bIndex][a]) {
+					nPredecessors[bPrimeIndex]++;
+				}
+			}
+		}
+		
+		int[][] predecessorBelief = new int[nBeliefs][];
+		int[][] predecessorAction = new int[nBeliefs][];
+		double[][] predecessorProbability = new double[nBeliefs][];
+		for(int bPrimeIndex=0; bPrimeIndex<nBeliefs; bPrimeIndex++) {
+			predecessorBelief[bPrimeIndex] = new int[nPredecessors[bPrimeIndex]];
+			predecessorAction[bPrimeIndex] = new int[nPredecessors[bPrimeIndex]];
+			predecessorProbability[bPrimeIndex] = new double[nPredecessors[bPrimeIndex]];
+			nPredecessors[bPrimeIndex] = 0;
+		}
+		
+		for(int bIndex=0; bIndex<nBeliefs; bIndex++) {
+			for(int a=0; a<nActions; a++) {
+				for(int i=0; i<transitionDestinations[bIndex][a].length; i++) {
+					int bPrimeIndex = transitionDestinations[bIndex][a][i];
+					int j = nPredecessors[bPrimeIndex]++;
+					predecessorBelief[bPrimeIndex][j] = bIndex;
+					predecessorAction[bPrimeIndex][j] = a;
+					predecessorProbability[bPrimeIndex][j] = transitionProbabilities[bIndex][a][i];
+				}
+			}
+		}
 		
 		double[][][] retX = null;
 		
 		try {
-			cmdpModel = lpSolver.createModel();
+			// presolve removes the rows and columns of unreachable beliefs before the model is solved
+			cmdpModel = new LPSolverPresolve(lpSolver).createModel();
 			
 			// create variables
 			cmdpXVar = new LPVariable[T+1][nBeliefs][nActions];
@@ -369,10 +621,10 @@ public class ApproximateLPFinite {
 						expr.addTerm(1.0, cmdpXVar[t+1][bPrimeIndex][aPrime]);
 					}
 					
-					for(int bIndex=0; bIndex<nBeliefs; bIndex++) {
-						for(int a=0; a<nActions; a++) {
-							expr.addTerm(-1.0 * transitionModel[bIndex][a][bPrimeIndex], cmdpXVar[t][bIndex][a]);
-						}
+					for(int j=0; j<predecessorBelief[bPrimeIndex].length; j++) {
+						int bIndex = predecessorBelief[bPrimeIndex][j];
+						int a = predecessorAction[bPrimeIndex][j];
+						expr.addTerm(-1.0 * predecessorProbability[bPrimeIndex][j], cmdpXVar[t][bIndex][a]);
 					}
 					
 					cmdpModel.addConstraint(expr, LPConstraintType.EQUAL, 0.0);
@@ -424,109 +676,104 @@ public class ApproximateLPFinite {
 		return retX;
 	}
 	
-	public void runBinarySearch() {
-		double minLimit = 0.0;
-		double maxLimit = costLimit;
+	/**
+	 * Searches for a cost limit of the approximate LP such that the exact expected cost of the resulting
+	 * policy is close to the real cost limit. The exact cost is treated as a function of the limit, and
+	 * its root is found using regula falsi with the Illinois modification. Bisection is used if the next
+	 * limit would not be strictly inside the bracket, or if the LP cannot be solved for the current limit.
+	 */
+	public void runCostLimitSearch() {
+		// the exact cost for the real cost limit is known from the last call to solve
+		double lowerLimit = 0.0;
+		double upperLimit = costLimit;
+		double lowerError = Double.NaN; // exact cost minus cost limit, NaN if not evaluated
+		double upperError = exactExpectedCost - costLimit;
+		int retainedSide = 0; // -1 if the lower bound was retained in the last iteration, 1 if the upper bound
 		
-		int nActions = cpomdps[0].getNumActions();
-		int numNodes = lastB.size();
+		// best limit found for which the exact cost does not exceed the real limit
+		double bestLimit = Double.NaN;
+		double bestReward = Double.NEGATIVE_INFINITY;
 		
-		double[][][] x;
+		// assume that the exact cost grows proportionally with the limit
+		double currentLimit = costLimit * (costLimit / exactExpectedCost);
 		
-		try {			
-			while(true) {
-				double currentLimit = (maxLimit + minLimit) / 2.0;
-				cmdpModel.changeConstraintRHS(cmdpCostConstraint, currentLimit);
-				boolean solved = cmdpModel.solve();
+		boolean converged = false;
+		int iter = 0;
+		
+		try {
+			while(iter < maxCostLimitSearchIterations) {
+				// make sure that the new limit is strictly inside the bracket
+				double margin = 0.000001 * (upperLimit - lowerLimit);
+				if(!(currentLimit > lowerLimit + margin && currentLimit < upperLimit - margin)) {
+					currentLimit = (lowerLimit + upperLimit) / 2.0;
+				}
+				
+				boolean solved = solveWithCostLimit(currentLimit);
+				iter++;
 				
-				ConsoleOutput.println(minLimit+" "+maxLimit+", current: "+currentLimit);
+				ConsoleOutput.println(lowerLimit+" "+upperLimit+", current: "+currentLimit);
 				
 				if(solved) {
-					// get x
-					x = new double[T+1][numNodes][nActions];
-					for(int t=0; t<=T; t++) {
-						for(int bIndex=0; bIndex<numNodes; bIndex++) {
-							for(int a=0; a<nActions; a++) {
-								x[t][bIndex][a] = cmdpModel.getVariableValue(cmdpXVar[t][bIndex][a]);
-							}
-						}
-					}
+					ConsoleOutput.println("Exact expected cost: "+exactExpectedCost);
+					double error = exactExpectedCost - costLimit;
 					
-					// derive current policy from the model
-					double[][] beliefFlow = new double[T+1][lastB.size()];
-					approximateExpectedReward = 0.0;
-					approximateExpectedCost = 0.0;
-					for(int t=0; t<=T; t++) {
-						for(int bIndex=0; bIndex<numNodes; bIndex++) {
-							beliefFlow[t][bIndex] = 0.0;
-							
-							for(int a=0; a<nActions; a++) {
-								approximateExpectedReward += x[t][bIndex][a] * apxRewardModel[bIndex][a];
-								approximateExpectedCost += x[t][bIndex][a] * apxCostModel[bIndex][a];
-								beliefFlow[t][bIndex] += x[t][bIndex][a];
-							}
-						}
+					if(error <= 0.0 && exactExpectedReward > bestReward) {
+						bestLimit = currentLimit;
+						bestReward = exactExpectedReward;
 					}
 					
-					// compute policy using Equation 9
-					policy = new double[T+1][numNodes][nActions];
-					policyActionOptions = new boolean[numNodes][nActions];
-					for(int t=0; t<=T; t++) {
-						for(int bIndex=0; bIndex<numNodes; bIndex++) {
-							for(int a=0; a<nActions; a++) {
-								if(beliefFlow[t][bIndex] > 0.001) { // FIXME we encounter tiny numbers here, which causes problems
-									policy[t][bIndex][a] = x[t][bIndex][a] / beliefFlow[t][bIndex];
-									//assert x[t][bIndex][a] <= beliefFlow[t][bIndex] : bIndex+" "+a+" "+x[t][bIndex][a]+" "+beliefFlow[t][bIndex];
-									assert policy[t][bIndex][a] >= -0.01 && policy[t][bIndex][a] <= 1.01 : "prob: "+policy[t][bIndex][a];
-								
-									if(policy[t][bIndex][a] > policyEvaluationTolerance) {
-										policyActionOptions[bIndex][a] = true;
-									}
-								}
-								else {
-									// apparently the belief corresponding to bIndex is never reached, define uniform
-									policy[t][bIndex][a] = 1.0 / ((double) nActions);
-									assert policy[t][bIndex][a] >= -0.01 && policy[t][bIndex][a] <= 1.01 : "prob: "+policy[t][bIndex][a];
-								}
-							}
-						}
+					// check if we can stop
+					if(Math.abs(error) < costLimitSearchTolerance) {
+						converged = true;
+						break;
 					}
 					
-					// perform exact policy evaluation
-					evaluateExact(numNodes, weights, policy);
-					
-					// update binary search bound
-					ConsoleOutput.println("Exact expected cost: "+exactExpectedCost);
-					
-					if(exactExpectedCost > costLimit) {
-						maxLimit = currentLimit;
+					// update bracket, and halve the error of a bound that is retained twice (Illinois)
+					if(error > 0.0) {
+						upperLimit = currentLimit;
+						upperError = error;
+						
+						if(retainedSide == -1 && !Double.isNaN(lowerError)) {
+							lowerError /= 2.0;
+						}
+						retainedSide = -1;
 					}
 					else {
-						minLimit = currentLimit;
+						lowerLimit = currentLimit;
+						lowerError = error;
+						
+						if(retainedSide == 1) {
+							upperError /= 2.0;
+						}
+						retainedSide = 1;
 					}
 					
-					// check if we can stop
-					if(Math.abs(exactExpectedCost - costLimit) < binarySearchTolerance) {
-						break;
+					if(Double.isNaN(lowerError)) {
+						// no feasible limit known yet, scale the upper limit
+						currentLimit = upperLimit * (costLimit / (costLimit + upperError));
+					}
+					else {
+						currentLimit = upperLimit - upperError * (upperLimit - lowerLimit) / (upperError - lowerError);
 					}
 				}
 				else {
-					// constraint too tight, search in upper half
-					minLimit = currentLimit;
+					// constraint too tight, search in upper part
+					lowerLimit = currentLimit;
+					lowerError = Double.NaN;
+					retainedSide = 0;
+					currentLimit = (lowerLimit + upperLimit) / 2.0;
 				}
 				
 				ConsoleOutput.println();
 			}
 			
-			// compute approximate reward and cost
-			approximateExpectedReward = 0.0;
-			approximateExpectedCost = 0.0;
-			for(int t=0; t<T; t++) {
-				for(int bIndex=0; bIndex<numNodes; bIndex++) {
-					for(int a=0; a<cpomdps[0].getNumActions(); a++) {
-						approximateExpectedReward += x[t][bIndex][a] * apxRewardModel[bIndex][a];
-						approximateExpectedCost += x[t][bIndex][a] * apxCostModel[bIndex][a];
-					}
+			if(!converged) {
+				ConsoleOutput.println("Cost limit search did not converge within "+maxCostLimitSearchIterations+" iterations");
+				
+				if(!Double.isNaN(bestLimit)) {
+					// restore the best feasible solution we found
+					boolean solved = solveWithCostLimit(bestLimit);
+					assert solved;
 				}
 			}
 			
@@ -536,6 +783,83 @@ public class ApproximateLPFinite {
 		}
 	}
 	
+	/**
+	 * Solves the approximate LP with the given cost limit, and updates the policy and its approximate and exact values
+	 */
+	private boolean solveWithCostLimit(double limit) throws LPException {
+		int nActions = cpomdps[0].getNumActions();
+		int numNodes = lastB.size();
+		
+		cmdpModel.changeConstraintRHS(cmdpCostConstraint, limit);
+		boolean solved = cmdpModel.solve();
+		
+		if(!solved) {
+			return false;
+		}
+		
+		// get x
+		double[][][] x = new double[T+1][numNodes][nActions];
+		for(int t=0; t<=T; t++) {
+			for(int bIndex=0; bIndex<numNodes; bIndex++) {
+				for(int a=0; a<nActions; a++) {
+					x[t][bIndex][a] = cmdpModel.getVariableValue(cmdpXVar[t][bIndex][a]);
+				}
+			}
+		}
+		
+		// derive current policy from the model
+		double[][] beliefFlow = new double[T+1][numNodes];
+		for(int t=0; t<=T; t++) {
+			for(int bIndex=0; bIndex<numNodes; bIndex++) {
+				beliefFlow[t][bIndex] = 0.0;
+				
+				for(int a=0; a<nActions; a++) {
+					beliefFlow[t][bIndex] += x[t][bIndex][a];
+				}
+			}
+		}
+		
+		// compute policy using Equation 9
+		policy = new double[T+1][numNodes][nActions];
+		policyActionOptions = new boolean[numNodes][nActions];
+		for(int t=0; t<=T; t++) {
+			for(int bIndex=0; bIndex<numNodes; bIndex++) {
+				for(int a=0; a<nActions; a++) {
+					if(beliefFlow[t][bIndex] > 0.001) { // FIXME we encounter tiny numbers here, which causes problems
+						policy[t][bIndex][a] = x[t][bIndex][a] / beliefFlow[t][bIndex];
+						assert policy[t][bIndex][a] >= -0.01 && policy[t][bIndex][a] <= 1.01 : "prob: "+policy[t][bIndex][a];
+						
+						if(policy[t][bIndex][a] > policyEvaluationTolerance) {
+							policyActionOptions[bIndex][a] = true;
+						}
+					}
+					else {
+						// apparently the belief corresponding to bIndex is never reached, define uniform
+						policy[t][bIndex][a] = 1.0 / ((double) nActions);
+						assert policy[t][bIndex][a] >= -0.01 && policy[t][bIndex][a] <= 1.01 : "prob: "+policy[t][bIndex][a];
+					}
+				}
+			}
+		}
+		
+		// compute approximate reward and cost
+		approximateExpectedReward = 0.0;
+		approximateExpectedCost = 0.0;
+		for(int t=0; t<T; t++) {
+			for(int bIndex=0; bIndex<numNodes; bIndex++) {
+				for(int a=0; a<nActions; a++) {
+					approximateExpectedReward += x[t][bIndex][a] * apxRewardModel[bIndex][a];
+					approximateExpectedCost += x[t][bIndex][a] * apxCostModel[bIndex][a];
+				}
+			}
+		}
+		
+		// perform exact policy evaluation
+		evaluateExact(numNodes, weights, policy);
+		
+		return true;
+	}
+	
 	public double getDistance(List<BeliefPoint> existingBeliefs, List<BeliefPoint> newBeliefs, int candidateID) {
 		// find the belief point for which we want to compute the distance
 		BeliefPoint b = newBeliefs.get(candidateID);
@@ -550,10 +874,54 @@ public class ApproximateLPFinite {
 			}
 		}
 		
+		return computeDistance(b, B).getDistance();
+	}
+	
+	/**
+	 * Checks whether the distance LP of belief b with respect to B has a positive objective. The
+	 * distance LP is only solved if this cannot be decided based on the nearest belief in B, which
+	 * is found using the index. Since the weights sum to 1, the distance is at least the distance to
+	 * the nearest belief if none of the objective coefficients is discarded.
+	 */
+	public boolean hasPositiveDistance(List<BeliefPoint> B, VantagePointTree index, BeliefPoint b) {
+		double nearestDistance = index.getNearestDistance(b.getBelief());
+		
+		if(nearestDistance > 1.0001 * objectiveCoefficientTolerance) {
+			return true;
+		}
+		
+		if(nearestDistance == 0.0 && !hasDiscardedCoefficients(b)) {
+			// b is already contained in B
+			return false;
+		}
+		
+		List<BeliefPoint> tmpList = new ArrayList<BeliefPoint>();
+		tmpList.add(b);
+		return getDistance(B, tmpList, 0) > 0.0;
+	}
+	
+	private boolean hasDiscardedCoefficients(BeliefPoint b) {
+		for(int s=0; s<b.getBelief().length; s++) {
+			if(getCoefficient(b.getBelief(s)) != b.getBelief(s)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Solves the distance LP of belief b with respect to the beliefs in B. Besides the distance, the
+	 * result contains the optimal weights and the dual prices of the constraints, which can be used
+	 * to check whether the distance remains the same if beliefs are added to B.
+	 */
+	public BeliefDistance computeDistance(BeliefPoint b, List<BeliefPoint> B) {
 		int nBeliefs = B.size();
 		int nStates = b.getBelief().length;
 		
 		double distance = 0.0;
+		double[] weights = null;
+		double[] duals = null;
 		
 		try {
 			LPModel model = lpSolver.createModel();
@@ -561,12 +929,11 @@ public class ApproximateLPFinite {
 			// create variables
 			LPVariable[] wVar = new LPVariable[nBeliefs];
 			for(int i=0; i<nBeliefs; i++) {
-				double norm = getCoefficient(getEuclideanNorm(b, B, i));
-				double obj = Math.abs(norm) > objectiveCoefficientTolerance ? -1.0*norm : 0.0; // minimize
-				wVar[i] = model.addVariable(0.0, 1.0, obj, LPVariableType.CONTINUOUS);
+				wVar[i] = model.addVariable(0.0, 1.0, getDistanceObjective(b, B.get(i)), LPVariableType.CONTINUOUS);
 			}
 			
 			// add constraint for each state variable
+			LPConstraint[] constraints = new LPConstraint[nStates+1];
 			for(int s=0; s<nStates; s++) {
 				LPExpression expr = model.createExpression();
 				
@@ -575,7 +942,7 @@ public class ApproximateLPFinite {
 					expr.addTerm(coefficient, wVar[i]);
 				}
 				
-				model.addConstraint(expr, LPConstraintType.EQUAL, b.getBelief(s));
+				constraints[s] = model.addConstraint(expr, LPConstraintType.EQUAL, b.getBelief(s));
 			}
 			
 			// add constraint to ensure that sum of weights equals 1
@@ -583,13 +950,32 @@ public class ApproximateLPFinite {
 			for(int i=0; i<nBeliefs; i++) {
 				expr.addTerm(1.0, wVar[i]);
 			}
-			model.addConstraint(expr, LPConstraintType.EQUAL, 1.0);
+			constraints[nStates] = model.addConstraint(expr, LPConstraintType.EQUAL, 1.0);
 			
 			// solve the model
 			boolean solved = model.solve();
 			
 			if(solved) {
 				distance = model.getObjectiveValue() * -1.0;
+				
+				weights = new double[nBeliefs];
+				for(int i=0; i<nBeliefs; i++) {
+					weights[i] = model.getVariableValue(wVar[i]);
+				}
+				
+				duals = new double[nStates+1];
+				for(int s=0; s<=nStates; s++) {
+					duals[s] = model.getDualPrice(constraints[s]);
+				}
+				
+				// the duals can only be used if they certify optimality of the weights
+				for(int i=0; i<nBeliefs && duals!=null; i++) {
+					double reducedCost = getDistanceReducedCost(b, B.get(i), duals);
+					
+					if((weights[i] < 1.0 - dualCertificateTolerance && reducedCost > dualCertificateTolerance) || (weights[i] > dualCertificateTolerance && reducedCost < -dualCertificateTolerance)) {
+						duals = null;
+					}
+				}
 			}
 			else {
 				// LP could not be solved, return 0 such that belief point is discarded
@@ -602,7 +988,28 @@ public class ApproximateLPFinite {
 			e.printStackTrace();
 		}
 		
-		return distance;
+		return new BeliefDistance(distance, weights, duals);
+	}
+	
+	private double getDistanceObjective(BeliefPoint b, BeliefPoint bi) {
+		double norm = getCoefficient(getEuclideanNorm(b, bi));
+		return Math.abs(norm) > objectiveCoefficientTolerance ? -1.0*norm : 0.0; // minimize
+	}
+	
+	/**
+	 * Computes the reduced cost of belief bi in the distance LP of belief b, given the dual prices.
+	 * If it is not positive, then adding bi to the belief set does not change the distance of b.
+	 */
+	public double getDistanceReducedCost(BeliefPoint b, BeliefPoint bi, double[] duals) {
+		int nStates = b.getBelief().length;
+		assert duals.length == nStates+1;
+		
+		double reducedCost = getDistanceObjective(b, bi) - duals[nStates];
+		for(int s=0; s<nStates; s++) {
+			reducedCost -= duals[s] * getCoefficient(bi.getBelief(s));
+		}
+		
+		return reducedCost;
 	}
 	
 	public double getApproximateExpectedReward() {
@@ -630,7 +1037,7 @@ public class ApproximateLPFinite {
 		return policyActionOptions[bIndex][a];
 	}
 	
-	public double[][][][] getWeights() {
+	public InterpolationWeights getWeights() {
 		return weights;
 	}
 	
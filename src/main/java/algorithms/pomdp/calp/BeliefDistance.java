@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package algorithms.pomdp.calp;
+
+/**
+ * Result of the distance LP of a belief with respect to a belief set
+ */
+public class BeliefDistance {
+	private double distance;
+	private double[] weights; // null if the LP could not be solved
+	private double[] duals; // null if the duals do not certify optimality of the weights
+	
+	public BeliefDistance(double distance, double[] weights, double[] duals) {
+		this.distance = distance;
+		this.weights = weights;
+		this.duals = duals;
+	}
+	
+	public double getDistance() {
+		return distance;
+	}
+	
+	public double[] getWeights() {
+		return weights;
+	}
+	
+	public double[] getDuals() {
+		return duals;
+	}
+	
+	public boolean hasWeights() {
+		return weights != null;
+	}
+	
+	public boolean hasDuals() {
+		return duals != null;
+	}
+}
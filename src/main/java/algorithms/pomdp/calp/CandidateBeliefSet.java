@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package algorithms.pomdp.calp;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import model.BeliefPoint;
+
+/**
+ * Set of candidate beliefs found during the belief search of CALP. For each candidate it keeps
+ * the distance to the existing beliefs and the other candidates, which is only recomputed if
+ * adding or removing a candidate can change it. Removing a candidate only affects candidates
+ * which use it in their interpolation, and adding a candidate only affects candidates for which
+ * the dual prices of the distance LP do not prove that the new candidate is not improving.
+ */
+public class CandidateBeliefSet {
+	private ApproximateLPFinite alp;
+	private List<BeliefPoint> B;
+	
+	private final double reducedCostTolerance = 0.000001;
+	
+	private List<Candidate> candidates = new ArrayList<Candidate>(); // in the order in which they have been added
+	private PriorityQueue<QueueEntry> queue = new PriorityQueue<QueueEntry>();
+	private int nextID = 0;
+	
+	private int numDistanceComputations = 0;
+	
+	public CandidateBeliefSet(ApproximateLPFinite alp, List<BeliefPoint> B) {
+		this.alp = alp;
+		this.B = B;
+	}
+	
+	public void add(BeliefPoint b) {
+		// invalidate the candidates for which b may reduce the distance
+		for(Candidate c : candidates) {
+			if(c.distance != null) {
+				if(!c.distance.hasDuals() || alp.getDistanceReducedCost(c.belief, b, c.distance.getDuals()) > reducedCostTolerance) {
+					c.invalidate();
+				}
+			}
+		}
+		
+		candidates.add(new Candidate(b, nextID));
+		nextID++;
+	}
+	
+	public int size() {
+		return candidates.size();
+	}
+	
+	/**
+	 * Removes the candidate with the smallest distance. If there are multiple, the candidate added first is removed.
+	 */
+	public void removeClosest() {
+		assert candidates.size() > 0;
+		
+		// compute distances which are unknown
+		for(int i=0; i<candidates.size(); i++) {
+			Candidate c = candidates.get(i);
+			
+			if(c.distance == null) {
+				computeDistance(i);
+				queue.add(new QueueEntry(c));
+			}
+		}
+		
+		// find the candidate with the smallest distance, skipping outdated entries
+		QueueEntry entry = queue.poll();
+		while(!entry.isValid()) {
+			entry = queue.poll();
+		}
+		
+		Candidate removed = entry.candidate;
+		candidates.remove(removed);
+		removed.invalidate();
+		
+		// candidates which use the removed candidate in their interpolation need to be recomputed
+		for(Candidate c : candidates) {
+			if(c.distance != null && (!c.distance.hasWeights() || c.support.contains(removed.id))) {
+				c.invalidate();
+			}
+		}
+	}
+	
+	private void computeDistance(int candidateIndex) {
+		Candidate c = candidates.get(candidateIndex);
+		
+		// merge the belief sets, except the candidate itself
+		List<BeliefPoint> points = new ArrayList<BeliefPoint>(B);
+		List<Candidate> pointCandidates = new ArrayList<Candidate>();
+		for(int i=0; i<candidates.size(); i++) {
+			if(i != candidateIndex) {
+				points.add(candidates.get(i).belief);
+				pointCandidates.add(candidates.get(i));
+			}
+		}
+		
+		c.distance = alp.computeDistance(c.belief, points);
+		c.support = new HashSet<Integer>();
+		numDistanceComputations++;
+		
+		if(c.distance.hasWeights()) {
+			double[] weights = c.distance.getWeights();
+			
+			for(int i=0; i<pointCandidates.size(); i++) {
+				if(weights[B.size()+i] != 0.0) {
+					c.support.add(pointCandidates.get(i).id);
+				}
+			}
+		}
+	}
+	
+	public List<BeliefPoint> getBeliefs() {
+		List<BeliefPoint> beliefs = new ArrayList<BeliefPoint>();
+		
+		for(Candidate c : candidates) {
+			beliefs.add(c.belief);
+		}
+		
+		return beliefs;
+	}
+	
+	public int getNumDistanceComputations() {
+		return numDistanceComputations;
+	}
+	
+	private class Candidate {
+		private BeliefPoint belief;
+		private int id;
+		private int version = 0;
+		private BeliefDistance distance = null; // null if the distance needs to be computed
+		private Set<Integer> support = null; // candidates with nonzero weight in the distance LP
+		
+		public Candidate(BeliefPoint belief, int id) {
+			this.belief = belief;
+			this.id = id;
+		}
+		
+		public void invalidate() {
+			distance = null;
+			support = null;
+			version++;
+		}
+	}
+	
+	private class QueueEntry implements Comparable<QueueEntry> {
+		private Candidate candidate;
+		private double distance;
+		private int version;
+		
+		public QueueEntry(Candidate candidate) {
+			this.candidate = candidate;
+			this.distance = candidate.distance.getDistance();
+			this.version = candidate.version;
+		}
+		
+		public boolean isValid() {
+			return candidate.version == version;
+		}
+		
+		@Override
+		public int compareTo(QueueEntry other) {
+			if(distance != other.distance) {
+				return Double.compare(distance, other.distance);
+			}
+			
+			return Integer.compare(candidate.id, other.candidate.id);
+		}
+	}
+}
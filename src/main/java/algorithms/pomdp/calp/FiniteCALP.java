@@ -31,6 +31,7 @@ import solutions.pomdp.CPOMDPSolution;
 import solutions.pomdp.CPOMDPSolutionPolicyBased;
 import util.ConfigFile;
 import util.ConsoleOutput;
+import util.VantagePointTree;
 
 import lp.LPSolver;
 import model.BeliefPoint;
@@ -137,10 +138,10 @@ public class FiniteCALP implements CPOMDPAlgorithm {
 			B.addAll(newBeliefs);
 		}
 		
-		// perform binary search in case exact expected cost exceeds the limit
+		// search for a different limit of the approximate LP in case exact expected cost exceeds the limit
 		if(exactExpectedCost > costLimit) {
-			ConsoleOutput.println("Start binary search: cost is "+exactExpectedCost+" instead of "+costLimit+"!");
-			alp.runBinarySearch();
+			ConsoleOutput.println("Start cost limit search: cost is "+exactExpectedCost+" instead of "+costLimit+"!");
+			alp.runCostLimitSearch();
 			exactExpectedReward = alp.getExactExpectedReward();
 			exactExpectedCost = alp.getExactExpectedCost();
 			
@@ -159,7 +160,7 @@ public class FiniteCALP implements CPOMDPAlgorithm {
 	}
 	
 	private List<BeliefPoint> getNewBeliefs(CPOMDP cpomdp, List<BeliefPoint> B, double[][][] policy) {
-		List<BeliefPoint> newBeliefs = new ArrayList<BeliefPoint>();
+		CandidateBeliefSet candidates = new CandidateBeliefSet(alp, B);
 		
 		long t0 = System.currentTimeMillis();
 		
@@ -167,6 +168,13 @@ public class FiniteCALP implements CPOMDPAlgorithm {
 		int nActions = cpomdp.getNumActions();
 		int nObservations = cpomdp.getNumObservations();
 		
+		// index used to avoid solving distance LPs for beliefs close to or far from B
+		List<double[]> beliefVectors = new ArrayList<double[]>();
+		for(BeliefPoint b : B) {
+			beliefVectors.add(b.getBelief());
+		}
+		VantagePointTree beliefIndex = new VantagePointTree(beliefVectors);
+		
 		// add new beliefs
 		for(int bIndex=0; bIndex<nBeliefs; bIndex++) {
 			BeliefPoint b = B.get(bIndex);
@@ -185,18 +193,14 @@ public class FiniteCALP implements CPOMDPAlgorithm {
 						
 						BeliefPoint newB = cpomdp.updateBelief(b, a, o);
 						
-						ArrayList<BeliefPoint> tmpList = new ArrayList<BeliefPoint>();
-						tmpList.add(newB);
-						double dist = alp.getDistance(B, tmpList, 0);
-						
-						if(dist > 0.0) {
-							newBeliefs.add(newB);
+						if(alp.hasPositiveDistance(B, beliefIndex, newB)) {
+							candidates.add(newB);
 						}
 						
 						// compress the belief set
-						if(newBeliefs.size() > n) {
-							newBeliefs = compressBeliefSet(B, newBeliefs);
-							assert newBeliefs.size() <= n : n+" "+newBeliefs.size();
+						if(candidates.size() > n) {
+							candidates.removeClosest();
+							assert candidates.size() <= n : n+" "+candidates.size();
 						}
 					}
 				}
@@ -206,42 +210,17 @@ public class FiniteCALP implements CPOMDPAlgorithm {
 		}
 		
 		// initialize action observation probabilities of the new belief points
+		List<BeliefPoint> newBeliefs = candidates.getBeliefs();
 		for(BeliefPoint b : newBeliefs) {
 			cpomdp.prepareBelief(b);
 		}
 		
 		long t1 = System.currentTimeMillis();
-		ConsoleOutput.println("  Runtime belief search: "+((t1-t0)*0.001)+"s");
+		ConsoleOutput.println("  Runtime belief search: "+((t1-t0)*0.001)+"s, distance LPs solved for compression: "+candidates.getNumDistanceComputations());
 		
 		return newBeliefs;
 	}
 	
-	private List<BeliefPoint> compressBeliefSet(List<BeliefPoint> B, List<BeliefPoint> newBeliefs) {
-		double minDistance = Double.POSITIVE_INFINITY;
-		double candidate = -1;
-		
-		// find the belief with the smallest distance
-		for(int i=0; i<newBeliefs.size(); i++) {
-			double distance = alp.getDistance(B, newBeliefs, i);
-			
-			if(distance < minDistance) {
-				minDistance = distance;
-				candidate = i;
-			}
-		}
-		assert candidate != -1;
-		
-		// create new belief set without the candidate we found
-		List<BeliefPoint> compressedBeliefs = new ArrayList<BeliefPoint>();
-		for(int i=0; i<newBeliefs.size(); i++) {
-			if(i != candidate) {
-				compressedBeliefs.add(newBeliefs.get(i));
-			}
-		}
-		
-		return compressedBeliefs;
-	}
-
 	public double getValueUpperBound() {
 		return objectiveUpperbound;
 	}
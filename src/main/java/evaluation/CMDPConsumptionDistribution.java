@@ -0,0 +1,761 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package evaluation;
+
+import instances.CMDPInstance;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.CMDP;
+import solutions.mdp.CMDPSolutionPolicyBased;
+import solutions.mdp.MDPAgentSolutionPolicyBased;
+import solutions.mdp.MDPPolicy;
+import solutions.mdp.MDPPolicySet;
+
+/**
+ * Computes the distribution of the resource consumption of independent agents that execute a policy-based solution,
+ * without simulation. The distribution of each agent follows from its policy and transition function, and the
+ * distributions of the agents are combined by convolution using the fast Fourier transform.
+ *
+ * Consumption is represented by bins of equal width. If all costs are multiples of the smallest cost and the consumption
+ * of the fleet fits in MAX_BINS bins, then this cost is used as width and the distribution is exact. Otherwise the
+ * probability of a cost is divided over the two nearest bins, which preserves the mean.
+ *
+ * Distributions require non-negative costs and agents executing a policy or a set of policies, and the dynamic program
+ * for the total consumption stores at most MAX_CELLS bins. Callers should check this using the supports methods, and
+ * simulate the solution otherwise.
+ */
+public class CMDPConsumptionDistribution {
+	// maximum number of bins used to represent the consumption of all agents
+	private static final int MAX_BINS = 1 << 14;
+	
+	// maximum number of bins stored for all states while computing the total consumption of an agent
+	private static final long MAX_CELLS = 1L << 24;
+	
+	// tolerance used to decide whether costs are multiples of a unit, and whether a consumption exceeds a limit
+	private static final double TOLERANCE = 0.000000001;
+	
+	private CMDP[] cmdps;
+	private MDPAgentSolutionPolicyBased[] solutions;
+	private CMDPInstance instance;
+	private int nAgents;
+	private int numDecisions;
+	private int numDomainResources;
+	
+	// distributions are computed when they are requested for the first time
+	private Distribution[] totalDistributions;
+	private Distribution[][] instantaneousDistributions;
+	
+	public CMDPConsumptionDistribution(CMDPInstance instance, CMDPSolutionPolicyBased solution) {
+		this.cmdps = instance.getCMDPs();
+		this.solutions = solution.getAgentSolutions();
+		this.instance = instance;
+		this.nAgents = cmdps.length;
+		this.numDecisions = instance.getNumDecisions();
+		this.numDomainResources = instance.getNumDomainResources();
+		this.totalDistributions = new Distribution[numDomainResources];
+		this.instantaneousDistributions = new Distribution[numDomainResources][];
+	}
+	
+	/**
+	 * Checks whether the distributions of the consumption at each time step can be computed
+	 * @return true if the costs are non-negative and all agents execute a policy or a set of policies
+	 */
+	public boolean supportsInstantaneousDistributions() {
+		for(int i=0; i<nAgents; i++) {
+			if(!(solutions[i] instanceof MDPPolicy) && !(solutions[i] instanceof MDPPolicySet)) {
+				return false;
+			}
+			
+			for(int k=0; k<numDomainResources; k++) {
+				if(cmdps[i].getMinCost(k) < 0.0) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Checks whether the distributions of the total consumption can be computed within the memory bound
+	 * @return true if the instantaneous distributions are supported and the dynamic program stores at most MAX_CELLS bins
+	 */
+	public boolean supportsTotalDistributions() {
+		if(!supportsInstantaneousDistributions()) {
+			return false;
+		}
+		
+		for(int k=0; k<numDomainResources; k++) {
+			double binWidth = getBinWidth(k, numDecisions);
+			
+			IdentityHashMap<CMDP,Boolean> visited = new IdentityHashMap<CMDP,Boolean>();
+			for(CMDP cmdp : cmdps) {
+				if(visited.put(cmdp, Boolean.TRUE) == null && getMaxCells(cmdp, k, binWidth) > MAX_CELLS) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Computes an upper bound on the number of bins stored by computeTotalDistribution, which is the largest number of
+	 * bins of two consecutive time steps together with the bins of the distribution
+	 */
+	private long getMaxCells(CMDP cmdp, int k, double binWidth) {
+		int binsPerStep = getBinsPerStep(cmdp, k, binWidth);
+		long maxCells = 0;
+		
+		for(int t=0; t<numDecisions; t++) {
+			long cells = (long) cmdp.getReachableStates(t).length * (t * binsPerStep + 1);
+			if(t < numDecisions-1) {
+				cells += (long) cmdp.getReachableStates(t+1).length * ((t+1) * binsPerStep + 1);
+			}
+			
+			maxCells = Math.max(maxCells, cells);
+		}
+		
+		return maxCells + (long) numDecisions * binsPerStep + 1;
+	}
+	
+	/**
+	 * Get the largest number of bins by which one step can increase the consumption, including the bin that receives
+	 * the part of a cost that is divided over two bins
+	 */
+	private static int getBinsPerStep(CMDP cmdp, int k, double binWidth) {
+		return (int) Math.floor(cmdp.getMaxCost(k) / binWidth + TOLERANCE) + 1;
+	}
+	
+	/**
+	 * Get mean total cost for resource k
+	 * @param k resource id
+	 * @return mean total cost
+	 */
+	public double getMeanTotalCost(int k) {
+		return getTotalDistribution(k).getMean();
+	}
+	
+	/**
+	 * Get standard deviation of the total cost for resource k
+	 * @param k resource id
+	 * @return standard deviation
+	 */
+	public double getStdTotalCost(int k) {
+		return getTotalDistribution(k).getStd();
+	}
+	
+	/**
+	 * Get probability that the total cost for resource k exceeds its limit
+	 * @param k resource id
+	 * @return violation probability
+	 */
+	public double getViolationProbabilityTotal(int k) {
+		return getTotalDistribution(k).getViolationProbability(instance.getCostLimit(k));
+	}
+	
+	/**
+	 * Get the smallest total cost for resource k that is not exceeded with probability q
+	 * @param k resource id
+	 * @param q probability
+	 * @return quantile
+	 */
+	public double getQuantileTotalCost(int k, double q) {
+		return getTotalDistribution(k).getQuantile(q);
+	}
+	
+	/**
+	 * Get the mean cost for resource k obtained at time t
+	 * @param k resource id
+	 * @param t time step
+	 * @return mean cost
+	 */
+	public double getMeanInstantaneousCost(int k, int t) {
+		return getInstantaneousDistribution(k, t).getMean();
+	}
+	
+	/**
+	 * Get standard deviation of the cost for resource k obtained at time t
+	 * @param k resource id
+	 * @param t time step
+	 * @return standard deviation
+	 */
+	public double getStdInstantaneousCost(int k, int t) {
+		return getInstantaneousDistribution(k, t).getStd();
+	}
+	
+	/**
+	 * Get probability that the cost for resource k at time t exceeds its limit
+	 * @param k resource id
+	 * @param t time step
+	 * @return violation probability
+	 */
+	public double getViolationProbabilityInstantaneous(int k, int t) {
+		return getInstantaneousDistribution(k, t).getViolationProbability(instance.getCostLimit(k, t));
+	}
+	
+	/**
+	 * Get the smallest cost for resource k at time t that is not exceeded with probability q
+	 * @param k resource id
+	 * @param t time step
+	 * @param q probability
+	 * @return quantile
+	 */
+	public double getQuantileInstantaneousCost(int k, int t, double q) {
+		return getInstantaneousDistribution(k, t).getQuantile(q);
+	}
+	
+	private Distribution getTotalDistribution(int k) {
+		assert k>=0 && k<numDomainResources;
+		
+		if(totalDistributions[k] == null) {
+			if(!supportsTotalDistributions()) {
+				throw new RuntimeException("Distribution of the total consumption is not supported for this solution");
+			}
+			
+			double binWidth = getBinWidth(k, numDecisions);
+			double[][][] agentDistributions = getAgentDistributions(k, binWidth, true);
+			
+			double[][] distributions = new double[nAgents][];
+			for(int i=0; i<nAgents; i++) {
+				distributions[i] = agentDistributions[i][0];
+			}
+			
+			totalDistributions[k] = new Distribution(convolve(distributions), binWidth);
+		}
+		
+		return totalDistributions[k];
+	}
+	
+	private Distribution getInstantaneousDistribution(int k, int t) {
+		assert k>=0 && k<numDomainResources && t>=0 && t<numDecisions;
+		
+		if(instantaneousDistributions[k] == null) {
+			if(!supportsInstantaneousDistributions()) {
+				throw new RuntimeException("Distribution of the consumption is not supported for this solution");
+			}
+			
+			double binWidth = getBinWidth(k, 1);
+			double[][][] agentDistributions = getAgentDistributions(k, binWidth, false);
+			
+			instantaneousDistributions[k] = new Distribution[numDecisions];
+			for(int tPrime=0; tPrime<numDecisions; tPrime++) {
+				double[][] distributions = new double[nAgents][];
+				for(int i=0; i<nAgents; i++) {
+					distributions[i] = agentDistributions[i][tPrime];
+				}
+				
+				instantaneousDistributions[k][tPrime] = new Distribution(convolve(distributions), binWidth);
+			}
+		}
+		
+		return instantaneousDistributions[k][t];
+	}
+	
+	/**
+	 * Determines the bin width for resource k, such that the maximum consumption of all agents during numSteps steps fits
+	 * in MAX_BINS bins. The smallest cost is used if all costs are a multiple of this cost.
+	 * @param k resource id
+	 * @param numSteps number of steps in which the agents consume the resource
+	 * @return bin width
+	 */
+	private double getBinWidth(int k, int numSteps) {
+		double maxConsumption = 0.0;
+		double unit = Double.POSITIVE_INFINITY;
+		
+		IdentityHashMap<CMDP,Boolean> visited = new IdentityHashMap<CMDP,Boolean>();
+		for(CMDP cmdp : cmdps) {
+			maxConsumption += numSteps * cmdp.getMaxCost(k);
+			
+			if(visited.put(cmdp, Boolean.TRUE) == null) {
+				for(int s=0; s<cmdp.getNumStates(); s++) {
+					for(int a=0; a<cmdp.getNumActions(); a++) {
+						double cost = cmdp.getCost(k, s, a);
+						if(cost > 0.0) {
+							unit = Math.min(unit, cost);
+						}
+					}
+				}
+			}
+		}
+		
+		if(maxConsumption <= 0.0) {
+			return 1.0;
+		}
+		
+		double minBinWidth = maxConsumption / (MAX_BINS - 1);
+		if(unit < minBinWidth) {
+			return minBinWidth;
+		}
+		
+		for(CMDP cmdp : visited.keySet()) {
+			for(int s=0; s<cmdp.getNumStates(); s++) {
+				for(int a=0; a<cmdp.getNumActions(); a++) {
+					double multiple = cmdp.getCost(k, s, a) / unit;
+					if(Math.abs(multiple - Math.rint(multiple)) > TOLERANCE * Math.max(1.0, multiple)) {
+						return minBinWidth;
+					}
+				}
+			}
+		}
+		
+		return unit;
+	}
+	
+	/**
+	 * Computes the consumption distribution of each agent, in which policies that are used by multiple agents with the
+	 * same CMDP are evaluated once
+	 * @param k resource id
+	 * @param binWidth bin width
+	 * @param total true for the distribution of the total consumption, false for the consumption at each time step
+	 * @return distribution of agent i in column c, with c=0 for the total consumption and c=t otherwise
+	 */
+	private double[][][] getAgentDistributions(int k, double binWidth, boolean total) {
+		IdentityHashMap<CMDP,IdentityHashMap<MDPPolicy,double[][]>> policyDistributions = new IdentityHashMap<CMDP,IdentityHashMap<MDPPolicy,double[][]>>();
+		double[][][] agentDistributions = new double[nAgents][][];
+		
+		for(int i=0; i<nAgents; i++) {
+			CMDP cmdp = cmdps[i];
+			IdentityHashMap<MDPPolicy,double[][]> cmdpDistributions = policyDistributions.get(cmdp);
+			if(cmdpDistributions == null) {
+				cmdpDistributions = new IdentityHashMap<MDPPolicy,double[][]>();
+				policyDistributions.put(cmdp, cmdpDistributions);
+			}
+			
+			if(solutions[i] instanceof MDPPolicySet) {
+				// the policy is selected once at the start of a run, which gives a mixture of the policy distributions
+				MDPPolicySet policySet = (MDPPolicySet) solutions[i];
+				List<MDPPolicy> policies = policySet.getPolicies();
+				List<Double> probabilities = policySet.getProbabilities();
+				
+				int numColumns = total ? 1 : numDecisions;
+				double[][] mixture = new double[numColumns][0];
+				for(int j=0; j<policies.size(); j++) {
+					double prob = Math.min(1.0, Math.max(0.0, probabilities.get(j)));
+					if(prob > 0.0) {
+						double[][] distribution = getPolicyDistribution(cmdp, policies.get(j), k, binWidth, total, cmdpDistributions);
+						
+						for(int c=0; c<numColumns; c++) {
+							if(mixture[c].length < distribution[c].length) {
+								mixture[c] = Arrays.copyOf(mixture[c], distribution[c].length);
+							}
+							
+							for(int b=0; b<distribution[c].length; b++) {
+								mixture[c][b] += prob * distribution[c][b];
+							}
+						}
+					}
+				}
+				
+				agentDistributions[i] = mixture;
+			}
+			else if(solutions[i] instanceof MDPPolicy) {
+				agentDistributions[i] = getPolicyDistribution(cmdp, (MDPPolicy) solutions[i], k, binWidth, total, cmdpDistributions);
+			}
+			else {
+				throw new RuntimeException("Consumption distributions are not supported for solutions of type "+solutions[i].getClass().getSimpleName());
+			}
+		}
+		
+		return agentDistributions;
+	}
+	
+	private double[][] getPolicyDistribution(CMDP cmdp, MDPPolicy policy, int k, double binWidth, boolean total, IdentityHashMap<MDPPolicy,double[][]> cmdpDistributions) {
+		double[][] distribution = cmdpDistributions.get(policy);
+		
+		if(distribution == null) {
+			distribution = total ? computeTotalDistribution(cmdp, policy, k, binWidth) : computeInstantaneousDistributions(cmdp, policy, k, binWidth);
+			cmdpDistributions.put(policy, distribution);
+		}
+		
+		return distribution;
+	}
+	
+	/**
+	 * Computes the distribution of the total consumption of resource k of an agent, using dynamic programming over the
+	 * states and the consumption so far
+	 * @param cmdp cmdp of the agent
+	 * @param policy policy of the agent
+	 * @param k resource id
+	 * @param binWidth bin width
+	 * @return array containing the distribution
+	 */
+	private double[][] computeTotalDistribution(CMDP cmdp, MDPPolicy policy, int k, double binWidth) {
+		int nStates = cmdp.getNumStates();
+		
+		// each step can move the consumption to the next bin when a cost is divided over two bins
+		int binsPerStep = getBinsPerStep(cmdp, k, binWidth);
+		double[] distribution = new double[numDecisions * binsPerStep + 1];
+		
+		// mass[s][b] is the probability to be in state s with consumption in bin b, and maxBin[s] is the highest bin with mass
+		double[][] mass = new double[nStates][];
+		int[] maxBin = new int[nStates];
+		mass[cmdp.getInitialState()] = new double[1];
+		mass[cmdp.getInitialState()][0] = 1.0;
+		
+		for(int t=0; t<numDecisions; t++) {
+			double[][] nextMass = new double[nStates][];
+			int[] nextMaxBin = new int[nStates];
+			
+			for(int s=0; s<nStates; s++) {
+				if(mass[s] == null) {
+					continue;
+				}
+				
+				for(int a : cmdp.getFeasibleActions(t, s)) {
+					double actionProb = policy.getActionProbability(t, s, a);
+					if(actionProb <= 0.0) {
+						continue;
+					}
+					
+					double position = cmdp.getCost(k, s, a) / binWidth;
+					int shift = (int) Math.floor(position + TOLERANCE);
+					double fraction = (position - shift > TOLERANCE) ? position - shift : 0.0;
+					int lastBin = maxBin[s] + shift + (fraction > 0.0 ? 1 : 0);
+					
+					if(t == numDecisions-1) {
+						// the consumption is final after the last step, such that transitions are not required
+						addShifted(mass[s], maxBin[s], actionProb, shift, fraction, distribution);
+					}
+					else {
+						int[] destinations = cmdp.getTransitionDestinations(t, s, a);
+						double[] probabilities = cmdp.getTransitionProbabilities(t, s, a);
+						
+						for(int j=0; j<destinations.length; j++) {
+							int sNext = destinations[j];
+							double prob = actionProb * probabilities[j];
+							if(prob <= 0.0) {
+								continue;
+							}
+							
+							// bins are only stored up to the highest bin with mass, which is at most (t+1)*binsPerStep
+							if(nextMass[sNext] == null || nextMass[sNext].length <= lastBin) {
+								nextMass[sNext] = grow(nextMass[sNext], lastBin+1, (t+1) * binsPerStep + 1);
+							}
+							
+							addShifted(mass[s], maxBin[s], prob, shift, fraction, nextMass[sNext]);
+							nextMaxBin[sNext] = Math.max(nextMaxBin[sNext], lastBin);
+						}
+					}
+				}
+			}
+			
+			mass = nextMass;
+			maxBin = nextMaxBin;
+		}
+		
+		return new double[][]{trim(distribution)};
+	}
+	
+	/**
+	 * Computes the distribution of the consumption of resource k of an agent at each time step, using the probability
+	 * to be in each state
+	 * @param cmdp cmdp of the agent
+	 * @param policy policy of the agent
+	 * @param k resource id
+	 * @param binWidth bin width
+	 * @return array containing the distribution for each time step
+	 */
+	private double[][] computeInstantaneousDistributions(CMDP cmdp, MDPPolicy policy, int k, double binWidth) {
+		int nStates = cmdp.getNumStates();
+		int numBins = (int) Math.ceil(cmdp.getMaxCost(k) / binWidth) + 2;
+		double[][] distributions = new double[numDecisions][numBins];
+		
+		double[] stateProb = new double[nStates];
+		stateProb[cmdp.getInitialState()] = 1.0;
+		
+		for(int t=0; t<numDecisions; t++) {
+			double[] nextStateProb = new double[nStates];
+			
+			for(int s=0; s<nStates; s++) {
+				if(stateProb[s] <= 0.0) {
+					continue;
+				}
+				
+				for(int a : cmdp.getFeasibleActions(t, s)) {
+					double prob = stateProb[s] * policy.getActionProbability(t, s, a);
+					if(prob <= 0.0) {
+						continue;
+					}
+					
+					double position = cmdp.getCost(k, s, a) / binWidth;
+					int bin = (int) Math.floor(position + TOLERANCE);
+					double fraction = (position - bin > TOLERANCE) ? position - bin : 0.0;
+					distributions[t][bin] += prob * (1.0 - fraction);
+					if(fraction > 0.0) {
+						distributions[t][bin+1] += prob * fraction;
+					}
+					
+					if(t < numDecisions-1) {
+						int[] destinations = cmdp.getTransitionDestinations(t, s, a);
+						double[] probabilities = cmdp.getTransitionProbabilities(t, s, a);
+						
+						for(int j=0; j<destinations.length; j++) {
+							nextStateProb[destinations[j]] += prob * probabilities[j];
+						}
+					}
+				}
+			}
+			
+			stateProb = nextStateProb;
+		}
+		
+		for(int t=0; t<numDecisions; t++) {
+			distributions[t] = trim(distributions[t]);
+		}
+		
+		return distributions;
+	}
+	
+	/**
+	 * Adds prob times the mass in bins 0, ..., maxBin to target, after moving it by shift+fraction bins
+	 */
+	private static void addShifted(double[] mass, int maxBin, double prob, int shift, double fraction, double[] target) {
+		double lowerProb = prob * (1.0 - fraction);
+		double upperProb = prob * fraction;
+		
+		for(int b=0; b<=maxBin; b++) {
+			double m = mass[b];
+			if(m > 0.0) {
+				target[b+shift] += m * lowerProb;
+				if(upperProb > 0.0) {
+					target[b+shift+1] += m * upperProb;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Returns an array of at least the given length containing the bins, which doubles the length to limit copying
+	 */
+	private static double[] grow(double[] bins, int length, int maxLength) {
+		if(bins == null) {
+			return new double[length];
+		}
+		
+		return Arrays.copyOf(bins, Math.max(length, Math.min(2 * bins.length, maxLength)));
+	}
+	
+	/**
+	 * Removes the bins after the last bin with positive probability
+	 */
+	private static double[] trim(double[] distribution) {
+		int length = distribution.length;
+		while(length > 1 && distribution[length-1] <= 0.0) {
+			length--;
+		}
+		
+		return Arrays.copyOf(distribution, length);
+	}
+	
+	/**
+	 * Computes the distribution of the sum of independent consumptions. Agents with the same distribution are combined
+	 * by raising its transform to the number of agents.
+	 * @param distributions distribution of each agent
+	 * @return distribution of the sum
+	 */
+	private static double[] convolve(double[][] distributions) {
+		Map<DistributionKey,Integer> counts = new LinkedHashMap<DistributionKey,Integer>();
+		int length = 1;
+		for(double[] distribution : distributions) {
+			DistributionKey key = new DistributionKey(distribution);
+			Integer count = counts.get(key);
+			counts.put(key, (count == null) ? 1 : count+1);
+			length += distribution.length - 1;
+		}
+		
+		// the transform length is large enough to prevent wrap-around of the sum
+		int n = 1;
+		while(n < length) {
+			n *= 2;
+		}
+		
+		double[] productRe = new double[n];
+		double[] productIm = new double[n];
+		Arrays.fill(productRe, 1.0);
+		
+		for(Map.Entry<DistributionKey,Integer> entry : counts.entrySet()) {
+			double[] distribution = entry.getKey().distribution;
+			int count = entry.getValue();
+			
+			double[] re = Arrays.copyOf(distribution, n);
+			double[] im = new double[n];
+			fft(re, im, false);
+			
+			for(int w=0; w<n; w++) {
+				double valueRe = re[w];
+				double valueIm = im[w];
+				
+				if(count > 1) {
+					double magnitude = Math.pow(Math.sqrt(valueRe * valueRe + valueIm * valueIm), count);
+					double angle = count * Math.atan2(valueIm, valueRe);
+					valueRe = magnitude * Math.cos(angle);
+					valueIm = magnitude * Math.sin(angle);
+				}
+				
+				double newRe = productRe[w] * valueRe - productIm[w] * valueIm;
+				productIm[w] = productRe[w] * valueIm + productIm[w] * valueRe;
+				productRe[w] = newRe;
+			}
+		}
+		
+		fft(productRe, productIm, true);
+		
+		// rounding errors of the transform can give small negative probabilities
+		double[] sum = new double[length];
+		for(int b=0; b<length; b++) {
+			sum[b] = Math.max(0.0, productRe[b] / n);
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * In-place radix-2 fast Fourier transform of a sequence of which the length is a power of two
+	 * @param re real parts
+	 * @param im imaginary parts
+	 * @param inverse true for the inverse transform, which is not divided by the length
+	 */
+	private static void fft(double[] re, double[] im, boolean inverse) {
+		int n = re.length;
+		
+		// bit reversal permutation
+		for(int i=1, j=0; i<n; i++) {
+			int bit = n >> 1;
+			for(; (j & bit) != 0; bit >>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			
+			if(i < j) {
+				double tmp = re[i];
+				re[i] = re[j];
+				re[j] = tmp;
+				tmp = im[i];
+				im[i] = im[j];
+				im[j] = tmp;
+			}
+		}
+		
+		double[] cos = new double[n/2];
+		double[] sin = new double[n/2];
+		for(int i=0; i<n/2; i++) {
+			double angle = (inverse ? 2.0 : -2.0) * Math.PI * i / n;
+			cos[i] = Math.cos(angle);
+			sin[i] = Math.sin(angle);
+		}
+		
+		for(int size=2; size<=n; size*=2) {
+			int half = size / 2;
+			int step = n / size;
+			
+			for(int start=0; start<n; start+=size) {
+				for(int j=0; j<half; j++) {
+					int u = start + j;
+					int v = u + half;
+					double wRe = cos[j*step];
+					double wIm = sin[j*step];
+					double tRe = re[v] * wRe - im[v] * wIm;
+					double tIm = re[v] * wIm + im[v] * wRe;
+					re[v] = re[u] - tRe;
+					im[v] = im[u] - tIm;
+					re[u] += tRe;
+					im[u] += tIm;
+				}
+			}
+		}
+	}
+	
+	private static class DistributionKey {
+		private double[] distribution;
+		private int hash;
+		
+		public DistributionKey(double[] distribution) {
+			this.distribution = distribution;
+			this.hash = Arrays.hashCode(distribution);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object other) {
+			return (other instanceof DistributionKey) && Arrays.equals(distribution, ((DistributionKey) other).distribution);
+		}
+	}
+	
+	private static class Distribution {
+		private double[] probabilities;
+		private double binWidth;
+		
+		public Distribution(double[] probabilities, double binWidth) {
+			this.probabilities = probabilities;
+			this.binWidth = binWidth;
+		}
+		
+		public double getMean() {
+			double mean = 0.0;
+			for(int b=0; b<probabilities.length; b++) {
+				mean += probabilities[b] * b * binWidth;
+			}
+			
+			return mean;
+		}
+		
+		public double getStd() {
+			double mean = getMean();
+			double variance = 0.0;
+			for(int b=0; b<probabilities.length; b++) {
+				double deviation = b * binWidth - mean;
+				variance += probabilities[b] * deviation * deviation;
+			}
+			
+			return Math.sqrt(variance);
+		}
+		
+		public double getViolationProbability(double limit) {
+			double threshold = limit + TOLERANCE * Math.max(1.0, Math.abs(limit));
+			double prob = 0.0;
+			for(int b=probabilities.length-1; b>=0 && b * binWidth > threshold; b--) {
+				prob += probabilities[b];
+			}
+			
+			return Math.min(1.0, prob);
+		}
+		
+		public double getQuantile(double q) {
+			double cumulative = 0.0;
+			for(int b=0; b<probabilities.length; b++) {
+				cumulative += probabilities[b];
+				if(cumulative >= q - TOLERANCE) {
+					return b * binWidth;
+				}
+			}
+			
+			return (probabilities.length - 1) * binWidth;
+		}
+	}
+}
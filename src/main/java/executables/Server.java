@@ -30,8 +30,10 @@ import java.util.Random;
 
 import algorithms.UnsupportedInstanceException;
 import algorithms.mdp.CMDPAlgorithm;
+import algorithms.mdp.admm.ADMM;
 import algorithms.mdp.colgen.ColGen;
 import algorithms.mdp.colgen.ValueIterationFiniteHorizon;
+import algorithms.mdp.lagrangian.LagrangianDualAscent;
 import algorithms.mdp.constrainedmdp.ConstrainedMDP;
 import algorithms.mdp.deterministicpreallocation.DeterministicPreallocation;
 import algorithms.mdp.dynamicrelaxation.DynamicRelaxation;
@@ -49,6 +51,7 @@ import instances.CPOMDPInstance;
 import lp.LPSolver;
 import lp.gurobi.LPSolverGurobi;
 import lp.lpsolve.LPSolverLPSolve;
+import lp.pdlp.LPSolverPDLP;
 import lp.simplex.LPSolverSimplex;
 import model.BeliefPoint;
 import model.CPOMDP;
@@ -116,6 +119,7 @@ public class Server {
 			
 			System.out.println("server shutting down");
 			server.close();
+			lpSolver.dispose();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -326,6 +330,12 @@ public class Server {
 		else if(algName.equals("deterministicpreallocation")) {
 			alg = new DeterministicPreallocation(lpSolver, rnd);
 		}
+		else if(algName.equals("lagrangian")) {
+			alg = new LagrangianDualAscent(lpSolver, rnd);
+		}
+		else if(algName.equals("admm")) {
+			alg = new ADMM(rnd);
+		}
 		else if(algName.startsWith("dynamicrelaxation")) {
 			String[] algSplit = algName.split("|");
 			double tolerance = Double.parseDouble(algSplit[1]);
@@ -434,6 +444,12 @@ public class Server {
 			else if(algName.equals("deterministicpreallocation")) {
 				alg = new DeterministicPreallocation(lpSolver, rnd);
 			}
+			else if(algName.equals("lagrangian")) {
+				alg = new LagrangianDualAscent(lpSolver, rnd);
+			}
+			else if(algName.equals("admm")) {
+				alg = new ADMM(rnd);
+			}
 			else if(algName.startsWith("dynamicrelaxation")) {
 				String[] algSplit = algName.split("|");
 				double tolerance = Double.parseDouble(algSplit[1]);
@@ -519,7 +535,7 @@ public class Server {
 			System.out.println("The server requires four arguments: port, lpsolver, verbose, clientdir");
 			System.out.println();
 			System.out.println("1. port is the port where the server waits for a connection");
-			System.out.println("2. lpsolver is the name of the LP solver to use (gurobi, lpsolve or simplex)");
+			System.out.println("2. lpsolver is the name of the LP solver to use (gurobi, lpsolve, simplex or pdlp)");
 			System.out.println("3. verbose indicates whether algorithms should print output (true or false)");
 			System.out.println("4. clientdir is the full path of the client directory");
 			System.out.println();
@@ -544,8 +560,11 @@ public class Server {
 		else if(lpSolverName.equals("simplex")) {
 			lpSolver = new LPSolverSimplex();
 		}
+		else if(lpSolverName.equals("pdlp")) {
+			lpSolver = new LPSolverPDLP();
+		}
 		else {
-			System.out.println("LP solver should be gurobi, lpsolve or simplex");
+			System.out.println("LP solver should be gurobi, lpsolve, simplex or pdlp");
 			System.exit(0);
 		}
 		
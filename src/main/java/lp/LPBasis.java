@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp;
+
+/**
+ * Simplex basis of an LP model, which can be used to warm start another solve. Variables and
+ * constraints are indexed in the order in which they have been added to the model.
+ */
+public class LPBasis {
+	private LPBasisStatus[] variableStatus;
+	private LPBasisStatus[] constraintStatus;
+	
+	public LPBasis(LPBasisStatus[] variableStatus, LPBasisStatus[] constraintStatus) {
+		this.variableStatus = variableStatus;
+		this.constraintStatus = constraintStatus;
+	}
+	
+	public int getNumVariables() {
+		return variableStatus.length;
+	}
+	
+	public int getNumConstraints() {
+		return constraintStatus.length;
+	}
+	
+	public LPBasisStatus getVariableStatus(int index) {
+		return variableStatus[index];
+	}
+	
+	public LPBasisStatus getConstraintStatus(int index) {
+		return constraintStatus[index];
+	}
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp;
+
+/**
+ * Status of a variable or constraint in a simplex basis. For constraints, the bound refers to
+ * the value of the left-hand side, such that a binding LESS_EQUAL constraint is AT_UPPER.
+ */
+public enum LPBasisStatus {
+	BASIC, AT_LOWER, AT_UPPER, FREE
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp;
+
+import java.util.Arrays;
+
+/**
+ * Collects a set of constraints, such that they can be added to a model at once using
+ * addConstraintRange. Terms can be added to the constraints in any order, and refer to
+ * variables by their index in the model.
+ */
+public class LPConstraintBatch {
+	private int numRows = 0;
+	private LPConstraintType[] types = new LPConstraintType[16];
+	private double[] rhs = new double[16];
+	
+	private int numTerms = 0;
+	private int[] termRows = new int[64];
+	private int[] termVars = new int[64];
+	private double[] termCoefficients = new double[64];
+	
+	/**
+	 * Adds a constraint without terms, and returns its index in the batch
+	 */
+	public int addConstraint(LPConstraintType type, double rhs) {
+		if(numRows == types.length) {
+			types = Arrays.copyOf(types, 2 * numRows);
+			this.rhs = Arrays.copyOf(this.rhs, 2 * numRows);
+		}
+		
+		types[numRows] = type;
+		this.rhs[numRows] = rhs;
+		numRows++;
+		
+		return numRows - 1;
+	}
+	
+	public void addTerm(int row, double coefficient, int var) {
+		assert row >= 0 && row < numRows;
+		
+		if(numTerms == termRows.length) {
+			termRows = Arrays.copyOf(termRows, 2 * numTerms);
+			termVars = Arrays.copyOf(termVars, 2 * numTerms);
+			termCoefficients = Arrays.copyOf(termCoefficients, 2 * numTerms);
+		}
+		
+		termRows[numTerms] = row;
+		termVars[numTerms] = var;
+		termCoefficients[numTerms] = coefficient;
+		numTerms++;
+	}
+	
+	public int getNumConstraints() {
+		return numRows;
+	}
+	
+	/**
+	 * Adds the constraints to the model in the order in which they were created, and returns the
+	 * index of the first constraint in the model
+	 */
+	public int addToModel(LPModel model) throws LPException {
+		// counting sort of the terms by row, which keeps the order of the terms within a row
+		int[] rowStart = new int[numRows+1];
+		for(int p=0; p<numTerms; p++) {
+			rowStart[termRows[p]+1]++;
+		}
+		for(int r=0; r<numRows; r++) {
+			rowStart[r+1] += rowStart[r];
+		}
+		
+		int[] next = Arrays.copyOf(rowStart, numRows);
+		int[] vars = new int[numTerms];
+		double[] coefficients = new double[numTerms];
+		for(int p=0; p<numTerms; p++) {
+			int pos = next[termRows[p]];
+			vars[pos] = termVars[p];
+			coefficients[pos] = termCoefficients[p];
+			next[termRows[p]]++;
+		}
+		
+		return model.addConstraintRange(rowStart, vars, coefficients, Arrays.copyOf(types, numRows), Arrays.copyOf(rhs, numRows));
+	}
+}
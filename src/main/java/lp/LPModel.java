@@ -30,12 +30,77 @@ public interface LPModel {
 	public LPVariable addColumn(double lowerbound, double upperbound, double obj, LPVariableType type, LPColumn column) throws LPException;
 	public void changeConstraintRHS(LPConstraint constraint, double rhs) throws LPException;
 	
+	/**
+	 * Adds variable j with bounds lowerbounds[j] and upperbounds[j], objective coefficient obj[j]
+	 * and type types[j]. The variables are returned in the same order.
+	 */
+	public LPVariable[] addVariables(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types) throws LPException;
+	
+	/**
+	 * Adds constraints in compressed sparse row format. Constraint r consists of the terms
+	 * coefficients[p] * vars[p] for rowStart[r] <= p < rowStart[r+1], and has type types[r] and
+	 * right-hand side rhs[r]. A variable may occur at most once in each constraint.
+	 */
+	public LPConstraint[] addConstraints(int[] rowStart, LPVariable[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException;
+	
+	/**
+	 * Adds variables in compressed sparse column format. Variable j has the coefficients
+	 * coefficients[p] in constraints[p] for colStart[j] <= p < colStart[j+1].
+	 */
+	public LPVariable[] addColumns(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types, int[] colStart, LPConstraint[] constraints, double[] coefficients) throws LPException;
+	
+	/*
+	 * Index-based interface. Variables and constraints are numbered 0, 1, 2, ... in the order in which they have
+	 * been added, both for the methods below and the methods above. Models built using this interface do not
+	 * require an LPVariable or LPConstraint object for each variable and constraint.
+	 */
+	
+	public int getNumVariables();
+	public int getNumConstraints();
+	
+	/**
+	 * Adds variables in the same way as addVariables, and returns the index of the first variable
+	 */
+	public int addVariableRange(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types) throws LPException;
+	
+	/**
+	 * Adds constraints in the same way as addConstraints, in which vars contains variable indices,
+	 * and returns the index of the first constraint
+	 */
+	public int addConstraintRange(int[] rowStart, int[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException;
+	
+	public void changeConstraintRHS(int constraint, double rhs) throws LPException;
+	
+	/**
+	 * Copies the values of the variables from, ..., from+length-1 to values[offset], ..., values[offset+length-1]
+	 */
+	public void getVariableValues(int from, int length, double[] values, int offset);
+	
+	/**
+	 * Copies the dual prices of the constraints from, ..., from+length-1 to duals[offset], ..., duals[offset+length-1]
+	 */
+	public void getDualPrices(int from, int length, double[] duals, int offset);
+	
+	public LPVariable getVariable(int index);
+	public LPConstraint getConstraint(int index);
+	
 	public boolean solve();
 	
 	public double getObjectiveValue();
 	public double getVariableValue(LPVariable var);
 	public double getDualPrice(LPConstraint constr);
 	
+	/**
+	 * Returns the basis of the last solve, or null if no basis is available. Re-solving a model
+	 * after changing right-hand sides or adding columns starts from this basis automatically.
+	 */
+	public LPBasis getBasis();
+	
+	/**
+	 * Sets the basis from which the next solve starts
+	 */
+	public void setBasis(LPBasis basis) throws LPException;
+	
 	public double getInfinite();
 	
 	public void dispose();
@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp;
+
+import java.util.Arrays;
+
+/**
+ * Model of the built-in solvers, which store the constraint matrix as sparse columns. Subclasses create
+ * expressions and columns of their own type, and pass their terms to this class.
+ */
+public abstract class LPModelColumnStore implements LPModel {
+	private final int modelID;
+	private final String solverName;
+	
+	protected int numVariables = 0;
+	protected int numConstraints = 0;
+	
+	// variable data, including the sparse columns of the constraint matrix
+	protected double[] varLowerBounds = new double[16];
+	protected double[] varUpperBounds = new double[16];
+	protected double[] varObjectiveCoefficients = new double[16];
+	protected int[][] columnIndices = new int[16][];
+	protected double[][] columnValues = new double[16][];
+	protected int[] columnLengths = new int[16];
+	
+	// constraint data
+	protected LPConstraintType[] constraintType = new LPConstraintType[16];
+	protected double[] constraintRHS = new double[16];
+	
+	private final double coefficientTolerance = 0.000000001;
+	
+	protected LPModelColumnStore(int modelID, String solverName) {
+		this.modelID = modelID;
+		this.solverName = solverName;
+	}
+	
+	@Override
+	public int getModelID() {
+		return modelID;
+	}
+	
+	@Override
+	public LPVariable addVariable(double lowerbound, double upperbound, double obj, LPVariableType type) throws LPException {
+		return new LPVariable(addVariableIndex(lowerbound, upperbound, obj, type), modelID);
+	}
+	
+	private int addVariableIndex(double lowerbound, double upperbound, double obj, LPVariableType type) throws LPException {
+		if(type == LPVariableType.INTEGER) {
+			throw new LPException("Integer variables not supported by "+solverName);
+		}
+		
+		if(numVariables == varLowerBounds.length) {
+			int newLength = 2 * numVariables;
+			varLowerBounds = Arrays.copyOf(varLowerBounds, newLength);
+			varUpperBounds = Arrays.copyOf(varUpperBounds, newLength);
+			varObjectiveCoefficients = Arrays.copyOf(varObjectiveCoefficients, newLength);
+			columnIndices = Arrays.copyOf(columnIndices, newLength);
+			columnValues = Arrays.copyOf(columnValues, newLength);
+			columnLengths = Arrays.copyOf(columnLengths, newLength);
+		}
+		
+		varLowerBounds[numVariables] = lowerbound;
+		varUpperBounds[numVariables] = upperbound;
+		varObjectiveCoefficients[numVariables] = obj;
+		columnIndices[numVariables] = new int[4];
+		columnValues[numVariables] = new double[4];
+		columnLengths[numVariables] = 0;
+		numVariables++;
+		
+		return numVariables-1;
+	}
+	
+	/**
+	 * Adds a constraint containing the terms of an expression created by the subclass
+	 */
+	protected LPConstraint addConstraint(SparseTerms terms, LPConstraintType type, double rhs) throws LPException {
+		int[] indices = terms.getIndices();
+		double[] values = terms.getValues();
+		
+		for(int k=0; k<terms.size(); k++) {
+			if(indices[k] >= numVariables) {
+				throw new LPException("Expression contains a variable which does not belong to this model");
+			}
+		}
+		
+		int id = addConstraintIndex(type, rhs);
+		for(int k=0; k<terms.size(); k++) {
+			addEntry(indices[k], id, values[k]);
+		}
+		
+		return new LPConstraint(id, modelID);
+	}
+	
+	/**
+	 * Adds a variable with the terms of a column created by the subclass
+	 */
+	protected LPVariable addColumn(double lowerbound, double upperbound, double obj, LPVariableType type, SparseTerms terms) throws LPException {
+		int[] indices = terms.getIndices();
+		double[] values = terms.getValues();
+		
+		LPVariable lpVar = addVariable(lowerbound, upperbound, obj, type);
+		
+		for(int k=0; k<terms.size(); k++) {
+			assert indices[k] < numConstraints;
+			addEntry(lpVar.getID(), indices[k], values[k]);
+		}
+		
+		return lpVar;
+	}
+	
+	@Override
+	public LPVariable[] addVariables(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types) throws LPException {
+		int first = addVariableRange(lowerbounds, upperbounds, obj, types);
+		
+		LPVariable[] lpVars = new LPVariable[obj.length];
+		for(int j=0; j<obj.length; j++) {
+			lpVars[j] = new LPVariable(first+j, modelID);
+		}
+		
+		return lpVars;
+	}
+	
+	@Override
+	public int addVariableRange(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types) throws LPException {
+		int first = numVariables;
+		
+		for(int j=0; j<obj.length; j++) {
+			addVariableIndex(lowerbounds[j], upperbounds[j], obj[j], types[j]);
+		}
+		
+		return first;
+	}
+	
+	@Override
+	public LPConstraint[] addConstraints(int[] rowStart, LPVariable[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException {
+		int[] varIndices = new int[rowStart[types.length]];
+		for(int p=0; p<varIndices.length; p++) {
+			if(vars[p].getModelID() != modelID) {
+				throw new LPException("Variable does not belong to this model");
+			}
+			
+			varIndices[p] = vars[p].getID();
+		}
+		
+		int first = addConstraintRange(rowStart, varIndices, coefficients, types, rhs);
+		
+		LPConstraint[] lpConstraints = new LPConstraint[types.length];
+		for(int r=0; r<types.length; r++) {
+			lpConstraints[r] = new LPConstraint(first+r, modelID);
+		}
+		
+		return lpConstraints;
+	}
+	
+	@Override
+	public int addConstraintRange(int[] rowStart, int[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException {
+		for(int p=0; p<rowStart[types.length]; p++) {
+			if(vars[p] < 0 || vars[p] >= numVariables) {
+				throw new LPException("Variable does not belong to this model");
+			}
+		}
+		
+		int first = numConstraints;
+		
+		for(int r=0; r<types.length; r++) {
+			int id = addConstraintIndex(types[r], rhs[r]);
+			for(int p=rowStart[r]; p<rowStart[r+1]; p++) {
+				if(Math.abs(coefficients[p]) > coefficientTolerance) {
+					addEntry(vars[p], id, coefficients[p]);
+				}
+			}
+		}
+		
+		return first;
+	}
+	
+	@Override
+	public LPVariable[] addColumns(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types, int[] colStart, LPConstraint[] constraints, double[] coefficients) throws LPException {
+		for(int p=0; p<colStart[obj.length]; p++) {
+			if(constraints[p].getModelID() != modelID) {
+				throw new LPException("Constraint does not belong to this model");
+			}
+		}
+		
+		LPVariable[] lpVars = new LPVariable[obj.length];
+		
+		for(int j=0; j<obj.length; j++) {
+			lpVars[j] = addVariable(lowerbounds[j], upperbounds[j], obj[j], types[j]);
+			
+			for(int p=colStart[j]; p<colStart[j+1]; p++) {
+				addEntry(lpVars[j].getID(), constraints[p].getID(), coefficients[p]);
+			}
+		}
+		
+		return lpVars;
+	}
+	
+	private int addConstraintIndex(LPConstraintType type, double rhs) {
+		if(numConstraints == constraintType.length) {
+			constraintType = Arrays.copyOf(constraintType, 2 * numConstraints);
+			constraintRHS = Arrays.copyOf(constraintRHS, 2 * numConstraints);
+		}
+		
+		constraintType[numConstraints] = type;
+		constraintRHS[numConstraints] = rhs;
+		numConstraints++;
+		
+		return numConstraints-1;
+	}
+	
+	private void addEntry(int varID, int constraintID, double value) {
+		int length = columnLengths[varID];
+		
+		if(length == columnIndices[varID].length) {
+			columnIndices[varID] = Arrays.copyOf(columnIndices[varID], 2 * length);
+			columnValues[varID] = Arrays.copyOf(columnValues[varID], 2 * length);
+		}
+		
+		columnIndices[varID][length] = constraintID;
+		columnValues[varID][length] = value;
+		columnLengths[varID]++;
+	}
+	
+	@Override
+	public void changeConstraintRHS(LPConstraint constraint, double rhs) throws LPException {
+		if(constraint.getModelID() != modelID) {
+			throw new LPException("Expression has not been created for this model");
+		}
+		
+		constraintRHS[constraint.getID()] = rhs;
+	}
+	
+	@Override
+	public void changeConstraintRHS(int constraint, double rhs) throws LPException {
+		if(constraint < 0 || constraint >= numConstraints) {
+			throw new LPException("Constraint does not belong to this model");
+		}
+		
+		constraintRHS[constraint] = rhs;
+	}
+	
+	/**
+	 * Computes the bounds of the variables, in which bounds beyond the infinite value are treated as infinite
+	 */
+	protected void getVariableBounds(double[] lower, double[] upper) {
+		for(int j=0; j<numVariables; j++) {
+			lower[j] = (varLowerBounds[j] <= -getInfinite()) ? Double.NEGATIVE_INFINITY : varLowerBounds[j];
+			upper[j] = (varUpperBounds[j] >= getInfinite()) ? Double.POSITIVE_INFINITY : varUpperBounds[j];
+		}
+	}
+	
+	@Override
+	public LPVariable getVariable(int index) {
+		assert index >= 0 && index < numVariables;
+		return new LPVariable(index, modelID);
+	}
+	
+	@Override
+	public LPConstraint getConstraint(int index) {
+		assert index >= 0 && index < numConstraints;
+		return new LPConstraint(index, modelID);
+	}
+	
+	@Override
+	public double getInfinite() {
+		return 100000000.0;
+	}
+	
+	@Override
+	public void dispose() {
+		varLowerBounds = null;
+		varUpperBounds = null;
+		varObjectiveCoefficients = null;
+		columnIndices = null;
+		columnValues = null;
+		columnLengths = null;
+		constraintType = null;
+		constraintRHS = null;
+	}
+	
+	@Override
+	public int getNumVariables() {
+		return numVariables;
+	}
+	
+	@Override
+	public int getNumConstraints() {
+		return numConstraints;
+	}
+}
@@ -18,7 +18,21 @@
  *******************************************************************************/
 package lp;
 
+/**
+ * Creates models of one LP backend. Thread-safety contract of the backends:
+ * <ul>
+ * <li>Creating models is thread-safe for all backends, and model IDs are unique within a backend.</li>
+ * <li>A model is not thread-safe. It must be built, solved and queried by one thread at a time,
+ * together with the expressions and columns created for it.</li>
+ * <li>lpsolve and simplex: distinct models can be used by different threads concurrently.</li>
+ * <li>Gurobi: all models created by a solver share the Gurobi environment of that solver, which is not thread-safe.
+ * Threads should use their own solver, e.g. leased from an {@link LPSolverPool}.</li>
+ * </ul>
+ * A solver should be disposed when it is no longer used, after its models have been disposed. This releases
+ * resources that belong to the solver, such as the Gurobi environment and its license.
+ */
 public interface LPSolver {
 	public LPModel createModel();
 	public boolean supportsMILP();
+	public void dispose();
 }
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Pool of LP solvers which can be used by several threads. A thread leases a solver using acquire,
+ * creates and solves its models with that solver, and returns it using release:
+ * <pre>
+ * LPSolver lpSolver = pool.acquire();
+ * try {
+ *     ...
+ * } finally {
+ *     pool.release(lpSolver);
+ * }
+ * </pre>
+ * Solvers are created on demand, up to the size of the pool. A solver is never leased to two threads
+ * at the same time, so backends with a solver-level environment such as Gurobi are safe to use in parallel.
+ * Models should be disposed before their solver is released. The pool should be disposed when it is no
+ * longer used, which disposes the solvers it has created.
+ */
+public class LPSolverPool {
+	private final Supplier<LPSolver> solverFactory;
+	private final int size;
+	
+	private final List<LPSolver> solvers = new ArrayList<LPSolver>();
+	private final LinkedBlockingQueue<LPSolver> idleSolvers = new LinkedBlockingQueue<LPSolver>();
+	
+	public LPSolverPool(Supplier<LPSolver> solverFactory, int size) {
+		assert size > 0;
+		this.solverFactory = solverFactory;
+		this.size = size;
+	}
+	
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * Leases a solver, and blocks if all solvers have been leased
+	 */
+	public LPSolver acquire() throws InterruptedException {
+		LPSolver lpSolver = idleSolvers.poll();
+		
+		if(lpSolver == null) {
+			synchronized(solvers) {
+				if(solvers.size() < size) {
+					lpSolver = solverFactory.get();
+					solvers.add(lpSolver);
+				}
+			}
+		}
+		
+		if(lpSolver == null) {
+			lpSolver = idleSolvers.take();
+		}
+		
+		return lpSolver;
+	}
+	
+	public void release(LPSolver lpSolver) {
+		synchronized(solvers) {
+			if(!solvers.contains(lpSolver)) {
+				throw new IllegalArgumentException("Solver does not belong to this pool");
+			}
+		}
+		
+		idleSolvers.add(lpSolver);
+	}
+	
+	/**
+	 * Disposes the solvers created by the pool, which should all have been released
+	 */
+	public void dispose() {
+		synchronized(solvers) {
+			assert idleSolvers.size() == solvers.size() : "Solvers are still leased";
+			
+			for(LPSolver lpSolver : solvers) {
+				lpSolver.dispose();
+			}
+			
+			solvers.clear();
+			idleSolvers.clear();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp;
+
+import java.util.Arrays;
+
+/**
+ * Sparse list of terms, used by the solver backends to store expressions and columns. If an index is
+ * added multiple times, the coefficient added last is used.
+ */
+public class SparseTerms {
+	private int[] indices = new int[8];
+	private double[] values = new double[8];
+	private int size = 0;
+	private boolean sorted = true; // true if indices are strictly increasing
+	
+	public void add(int index, double value) {
+		if(size == indices.length) {
+			indices = Arrays.copyOf(indices, 2 * size);
+			values = Arrays.copyOf(values, 2 * size);
+		}
+		
+		if(size > 0 && indices[size-1] >= index) {
+			sorted = false;
+		}
+		
+		indices[size] = index;
+		values[size] = value;
+		size++;
+	}
+	
+	/**
+	 * Sorts the terms by index and removes duplicate indices, keeping the coefficient added last
+	 */
+	private void compact() {
+		if(sorted) {
+			return;
+		}
+		
+		// stable sort of the positions by index, such that the last occurrence of an index comes last
+		Integer[] order = new Integer[size];
+		for(int i=0; i<size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (i, j) -> Integer.compare(indices[i], indices[j]));
+		
+		int[] newIndices = new int[size];
+		double[] newValues = new double[size];
+		int newSize = 0;
+		for(int i=0; i<size; i++) {
+			int pos = order[i];
+			
+			if(newSize > 0 && newIndices[newSize-1] == indices[pos]) {
+				newValues[newSize-1] = values[pos];
+			}
+			else {
+				newIndices[newSize] = indices[pos];
+				newValues[newSize] = values[pos];
+				newSize++;
+			}
+		}
+		
+		indices = newIndices;
+		values = newValues;
+		size = newSize;
+		sorted = true;
+	}
+	
+	public int size() {
+		compact();
+		return size;
+	}
+	
+	public int[] getIndices() {
+		compact();
+		return indices;
+	}
+	
+	public double[] getValues() {
+		compact();
+		return values;
+	}
+}
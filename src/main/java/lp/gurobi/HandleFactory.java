@@ -18,6 +18,10 @@
  *******************************************************************************/
 package lp.gurobi;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import lp.LPConstraintType;
@@ -27,60 +31,192 @@ import lp.LPVariable;
 import lp.LPVariableType;
 import util.DynamicLinker;
 
+/**
+ * Bridge to the Gurobi classes, which are loaded from the Gurobi jar at runtime. All methods and constants
+ * are resolved once when this class is initialized. The method handles are adapted to signatures in which
+ * Gurobi objects are passed as Object and Gurobi arrays as Object[], while primitives keep their exact type.
+ * The handles can therefore be called with invokeExact, without boxing and without argument arrays.
+ */
 public class HandleFactory {
 
 	// Unique ID of the model.
 	private static final AtomicInteger modelCounter = new AtomicInteger(0);
 
-	// Singleton of the factory.
-	private static HandleFactory singletonFactory;
+	// Class loader of the Gurobi jar.
+	private static final ClassLoader loader = DynamicLinker.getGurobiClassLoader();
 
 	// All the loaded functional classes.
-	private final Class<?> grbEnvClass;
-	private final Class<?> grbModelClass;
-	private final Class<?> grbVarClass;
-	private final Class<?> grbExprClass;
-	private final Class<?> grbLinExprClass;
-	private final Class<?> grbConstrClass;
-	private final Class<?> grbColumnClass;
+	private static final Class<?> grbEnvClass		= load("gurobi.GRBEnv");
+	private static final Class<?> grbModelClass		= load("gurobi.GRBModel");
+	private static final Class<?> grbVarClass		= load("gurobi.GRBVar");
+	private static final Class<?> grbExprClass		= load("gurobi.GRBExpr");
+	private static final Class<?> grbLinExprClass	= load("gurobi.GRBLinExpr");
+	private static final Class<?> grbConstrClass	= load("gurobi.GRBConstr");
+	private static final Class<?> grbColumnClass	= load("gurobi.GRBColumn");
+	static final Class<?> grbExceptionClass			= load("gurobi.GRBException");
 
 	// All the loaded constants classes.
-	private final Class<?> grbDataClass;
-	private final Class<?> grbStatusClass;
-	private final Class<?> intAttrClass;
-	private final Class<?> intParamClass;
-	private final Class<?> doubleAttrClass;
-	private final Class<?> doubleParamClass;
+	private static final Class<?> grbDataClass		= load("gurobi.GRB");
+	private static final Class<?> grbStatusClass	= load("gurobi.GRB$Status");
+	private static final Class<?> intAttrClass		= load("gurobi.GRB$IntAttr");
+	private static final Class<?> intParamClass		= load("gurobi.GRB$IntParam");
+	private static final Class<?> doubleAttrClass	= load("gurobi.GRB$DoubleAttr");
+	private static final Class<?> doubleParamClass	= load("gurobi.GRB$DoubleParam");
+
+	// Constants.
+	static final int MAXIMIZE			= (Integer) constant(grbDataClass, "MAXIMIZE");
+	static final char CONTINUOUS		= (Character) constant(grbDataClass, "CONTINUOUS");
+	static final char INTEGER			= (Character) constant(grbDataClass, "INTEGER");
+	static final char LESS_EQUAL		= (Character) constant(grbDataClass, "LESS_EQUAL");
+	static final char EQUAL				= (Character) constant(grbDataClass, "EQUAL");
+	static final char GREATER_EQUAL		= (Character) constant(grbDataClass, "GREATER_EQUAL");
+	static final int OPTIMAL			= (Integer) constant(grbStatusClass, "OPTIMAL");
+	static final Object STATUS			= constant(intAttrClass, "Status");
+	static final Object V_BASIS			= constant(intAttrClass, "VBasis");
+	static final Object C_BASIS			= constant(intAttrClass, "CBasis");
+	static final Object OBJ_VAL			= constant(doubleAttrClass, "ObjVal");
+	static final Object X				= constant(doubleAttrClass, "X");
+	static final Object RHS				= constant(doubleAttrClass, "RHS");
+	static final Object PI				= constant(doubleAttrClass, "Pi");
+	static final Object MIP_GAP			= constant(doubleParamClass, "MIPGap");
+	static final Object OUTPUT_FLAG		= constant(intParamClass, "OutputFlag");
+	static final Object THREADS			= constant(intParamClass, "Threads");
+
+	// GRBEnv.
+	static final MethodHandle ENV_NEW				= constructor(grbEnvClass);
+	static final MethodHandle ENV_SET_DOUBLE		= method(grbEnvClass, "set", void.class, doubleParamClass, double.class);
+	static final MethodHandle ENV_SET_INT			= method(grbEnvClass, "set", void.class, intParamClass, int.class);
+	static final MethodHandle ENV_DISPOSE			= method(grbEnvClass, "dispose", void.class);
+
+	// GRBModel.
+	static final MethodHandle MODEL_NEW				= constructor(grbModelClass, grbEnvClass);
+	static final MethodHandle MODEL_GET_OBJECTIVE	= method(grbModelClass, "getObjective", grbExprClass);
+	static final MethodHandle MODEL_SET_OBJECTIVE	= method(grbModelClass, "setObjective", void.class, grbExprClass, int.class);
+	static final MethodHandle MODEL_ADD_VAR			= method(grbModelClass, "addVar", grbVarClass, double.class, double.class, double.class, char.class, String.class);
+	static final MethodHandle MODEL_ADD_COLUMN		= method(grbModelClass, "addVar", grbVarClass, double.class, double.class, double.class, char.class, grbColumnClass, String.class);
+	static final MethodHandle MODEL_ADD_CONSTR		= method(grbModelClass, "addConstr", grbConstrClass, grbLinExprClass, char.class, double.class, String.class);
+	static final MethodHandle MODEL_ADD_VARS		= method(grbModelClass, "addVars", arrayOf(grbVarClass), double[].class, double[].class, double[].class, char[].class, String[].class);
+	static final MethodHandle MODEL_ADD_COLUMNS		= method(grbModelClass, "addVars", arrayOf(grbVarClass), double[].class, double[].class, double[].class, char[].class, String[].class, arrayOf(grbColumnClass));
+	static final MethodHandle MODEL_ADD_CONSTRS		= method(grbModelClass, "addConstrs", arrayOf(grbConstrClass), arrayOf(grbLinExprClass), char[].class, double[].class, String[].class);
+	static final MethodHandle MODEL_GET_INT			= method(grbModelClass, "get", int.class, intAttrClass);
+	static final MethodHandle MODEL_GET_DOUBLE		= method(grbModelClass, "get", double.class, doubleAttrClass);
+	static final MethodHandle MODEL_GET_VARS_DOUBLE	= method(grbModelClass, "get", double[].class, doubleAttrClass, arrayOf(grbVarClass));
+	static final MethodHandle MODEL_GET_CONSTRS_DOUBLE	= method(grbModelClass, "get", double[].class, doubleAttrClass, arrayOf(grbConstrClass));
+	static final MethodHandle MODEL_GET_VARS_INT		= method(grbModelClass, "get", int[].class, intAttrClass, arrayOf(grbVarClass));
+	static final MethodHandle MODEL_SET_VARS_INT		= method(grbModelClass, "set", void.class, intAttrClass, arrayOf(grbVarClass), int[].class);
+	static final MethodHandle MODEL_GET_CONSTRS_INT	= method(grbModelClass, "get", int[].class, intAttrClass, arrayOf(grbConstrClass));
+	static final MethodHandle MODEL_SET_CONSTRS_INT	= method(grbModelClass, "set", void.class, intAttrClass, arrayOf(grbConstrClass), int[].class);
+	static final MethodHandle MODEL_UPDATE			= method(grbModelClass, "update", void.class);
+	static final MethodHandle MODEL_OPTIMIZE		= method(grbModelClass, "optimize", void.class);
+	static final MethodHandle MODEL_DISPOSE			= method(grbModelClass, "dispose", void.class);
+
+	// GRBLinExpr and GRBColumn.
+	static final MethodHandle LIN_EXPR_NEW			= constructor(grbLinExprClass);
+	static final MethodHandle LIN_EXPR_ADD_TERM		= method(grbLinExprClass, "addTerm", void.class, double.class, grbVarClass);
+	static final MethodHandle LIN_EXPR_ADD_TERMS	= method(grbLinExprClass, "addTerms", void.class, double[].class, arrayOf(grbVarClass));
+	static final MethodHandle COLUMN_NEW			= constructor(grbColumnClass);
+	static final MethodHandle COLUMN_ADD_TERM		= method(grbColumnClass, "addTerm", void.class, double.class, grbConstrClass);
+	static final MethodHandle COLUMN_ADD_TERMS		= method(grbColumnClass, "addTerms", void.class, double[].class, arrayOf(grbConstrClass));
+
+	// GRBVar and GRBConstr.
+	static final MethodHandle VAR_GET_DOUBLE		= method(grbVarClass, "get", double.class, doubleAttrClass);
+	static final MethodHandle CONSTR_GET_DOUBLE		= method(grbConstrClass, "get", double.class, doubleAttrClass);
+	static final MethodHandle CONSTR_SET_DOUBLE		= method(grbConstrClass, "set", void.class, doubleAttrClass, double.class);
+
+	// Singleton of the factory.
+	private static final HandleFactory singletonFactory = new HandleFactory();
+
+	private HandleFactory() {
+	}
+
+	private static Class<?> load(String name) {
+
+		try {
+			return Class.forName(name, true, loader);
+		} catch (Exception ex) {
+			throw new RuntimeException("Reflection to Gurobi failed, JAR interface unsupported.", ex);
+		}
+	}
 
-	private HandleFactory(ClassLoader loader) {
+	private static Object constant(Class<?> owner, String name) {
 
 		try {
+			return owner.getField(name).get(null);
+		} catch (Exception ex) {
+			throw new RuntimeException("Reflection to Gurobi failed, JAR interface unsupported.", ex);
+		}
+	}
+
+	private static Class<?> arrayOf(Class<?> componentClass) {
+		return Array.newInstance(componentClass, 0).getClass();
+	}
+
+	private static MethodHandle constructor(Class<?> owner, Class<?>... parameterTypes) {
+
+		try {
+			MethodHandle handle = MethodHandles.publicLookup().findConstructor(owner, MethodType.methodType(void.class, parameterTypes));
+			return handle.asType(erase(handle.type()));
+		} catch (Exception ex) {
+			throw new RuntimeException("Reflection to Gurobi failed, JAR interface unsupported.", ex);
+		}
+	}
 
-			// Load and store all the used (sub-)classes.
-			grbEnvClass		= Class.forName("gurobi.GRBEnv", true, loader);
-			grbModelClass	= Class.forName("gurobi.GRBModel", true, loader);
-			grbVarClass		= Class.forName("gurobi.GRBVar", true, loader);
-			grbExprClass	= Class.forName("gurobi.GRBExpr", true, loader);
-			grbLinExprClass	= Class.forName("gurobi.GRBLinExpr", true, loader);
-			grbConstrClass	= Class.forName("gurobi.GRBConstr", true, loader);
-			grbColumnClass	= Class.forName("gurobi.GRBColumn", true, loader);
-
-			grbDataClass	 = Class.forName("gurobi.GRB", true, loader);
-			grbStatusClass	 = Class.forName("gurobi.GRB$Status", true, loader);
-			intAttrClass	 = Class.forName("gurobi.GRB$IntAttr", true, loader);
-			intParamClass	 = Class.forName("gurobi.GRB$IntParam", true, loader);
-			doubleAttrClass	 = Class.forName("gurobi.GRB$DoubleAttr", true, loader);
-			doubleParamClass = Class.forName("gurobi.GRB$DoubleParam", true, loader);
+	private static MethodHandle method(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
 
+		try {
+			MethodHandle handle = MethodHandles.publicLookup().findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+			return handle.asType(erase(handle.type()));
 		} catch (Exception ex) {
 			throw new RuntimeException("Reflection to Gurobi failed, JAR interface unsupported.", ex);
 		}
 	}
 
+	/**
+	 * Replaces Gurobi classes by Object and arrays of Gurobi classes by Object[] in the given method type
+	 */
+	private static MethodType erase(MethodType type) {
+
+		MethodType erased = type.changeReturnType(erase(type.returnType()));
+		for (int i = 0; i < type.parameterCount(); i++) {
+			erased = erased.changeParameterType(i, erase(type.parameterType(i)));
+		}
+
+		return erased;
+	}
+
+	private static Class<?> erase(Class<?> type) {
+
+		if (type.isPrimitive() || type == String.class || type == String[].class) {
+			return type;
+		} else if (type.isArray() && !type.getComponentType().isPrimitive()) {
+			return Object[].class;
+		} else if (type.isArray()) {
+			return type;
+		} else {
+			return Object.class;
+		}
+	}
+
+	static Object[] newGRBVarArray(int length) {
+		return (Object[]) Array.newInstance(grbVarClass, length);
+	}
+
+	static Object[] newGRBConstrArray(int length) {
+		return (Object[]) Array.newInstance(grbConstrClass, length);
+	}
+
+	static Object[] newGRBLinExprArray(int length) {
+		return (Object[]) Array.newInstance(grbLinExprClass, length);
+	}
+
+	static Object[] newGRBColumnArray(int length) {
+		return (Object[]) Array.newInstance(grbColumnClass, length);
+	}
+
 	public HandleGRBEnv newGRBEnvironment() {
 
 		// Construct new environment handle.
-		return new HandleGRBEnv(grbEnvClass, doubleParamClass, intParamClass);
+		return new HandleGRBEnv();
 	}
 
 	public HandleGRBModel newGRBModel(HandleGRBEnv environment) {
@@ -89,66 +225,34 @@ public class HandleFactory {
 		int modelID = modelCounter.getAndIncrement();
 
 		// Construct new model handle.
-		return new HandleGRBModel(grbModelClass,
-								  grbEnvClass,
-								  grbExprClass,
-								  grbLinExprClass,
-								  grbColumnClass,
-								  grbDataClass,
-								  grbStatusClass,
-								  intAttrClass,
-								  doubleAttrClass,
-								  environment,
-								  modelID);
+		return new HandleGRBModel(environment, modelID);
 	}
 
 	public HandleGRBLinExpr newGRBLinExpr(int modelID) {
 
 		// Construct new expression handle.
-		return new HandleGRBLinExpr(grbLinExprClass,
-									grbVarClass,
-									modelID);
+		return new HandleGRBLinExpr(modelID);
 	}
 
 	public HandleGRBColumn newGRBColumn(int modelID) {
 
 		// Construct new column handle.
-		return new HandleGRBColumn(grbColumnClass,
-								   grbConstrClass,
-								   modelID);
+		return new HandleGRBColumn(modelID);
 	}
 
 	public HandleGRBVar wrapGRBVar(Object theGRBVar, int modelID, int varID) {
 
 		// Construct new variable handle.
-		return new HandleGRBVar(theGRBVar,
-								grbVarClass,
-								doubleAttrClass,
-								modelID,
-								varID);
+		return new HandleGRBVar(theGRBVar, modelID, varID);
 	}
 
 	public HandleGRBConstr wrapGRBConstr(Object theGRBConstr, int modelID, int constrID) {
 
 		// Construct new constraint handle.
-		return new HandleGRBConstr(theGRBConstr,
-									grbConstrClass,
-									doubleAttrClass,
-									modelID,
-									constrID);
+		return new HandleGRBConstr(theGRBConstr, modelID, constrID);
 	}
 
 	public static HandleFactory getFactory() {
-
-		if (singletonFactory == null) {
-
-			// Obtain the Gurobi class loader.
-			ClassLoader loader = DynamicLinker.getGurobiClassLoader();
-
-			// Create class loader.
-			singletonFactory = new HandleFactory(loader);
-		}
-
 		return singletonFactory;
 	}
 
@@ -18,8 +18,6 @@
  *******************************************************************************/
 package lp.gurobi;
 
-import java.lang.reflect.Method;
-
 import lp.LPColumn;
 import lp.LPConstraint;
 import lp.LPException;
@@ -28,26 +26,19 @@ public class HandleGRBColumn implements LPColumn {
 
 	private final Object theGRBColumn;
 
-	private Method addTerm;
-
 	private final int modelID;
 
-	public HandleGRBColumn(Class<?> grbColumnClass,
-						   Class<?> grbConstrClass,
-						   int modelID) {
+	public HandleGRBColumn(int modelID) {
 
 		// Store model ID.
 		this.modelID = modelID;
 
 		try {
-			
+
 			// Call the empty constructor.
-			theGRBColumn = grbColumnClass.getConstructor().newInstance();
-	
-			// Extract the required method.
-			addTerm = grbColumnClass.getMethod("addTerm", double.class, grbConstrClass);
-			
-		} catch (Exception ex) {
+			theGRBColumn = (Object) HandleFactory.COLUMN_NEW.invokeExact();
+
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBColumn.", ex);
 		}
 	}
@@ -71,12 +62,12 @@ public class HandleGRBColumn implements LPColumn {
 		}
 	}
 
-	private void internalAddTerm(Double coeff, HandleGRBConstr constr) {
+	private void internalAddTerm(double coeff, HandleGRBConstr constr) {
 
 		try {
-			addTerm.invoke(theGRBColumn, coeff, constr.getGRBConstr());
-		} catch (Exception ex) {
+			HandleFactory.COLUMN_ADD_TERM.invokeExact(theGRBColumn, coeff, constr.getGRBConstr());
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBColumn.", ex);
-		}		
+		}
 	}
 }
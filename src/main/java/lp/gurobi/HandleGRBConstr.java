@@ -18,69 +18,34 @@
  *******************************************************************************/
 package lp.gurobi;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-
 import lp.LPConstraint;
 
 public class HandleGRBConstr extends LPConstraint {
 
 	private final Object theGRBConstr;
 
-	private Field fieldRHS;
-	private Field fieldPi;
-
-	private Method setDoubleAttr;
-	private Method getDoubleAttr;
-
-	public HandleGRBConstr(Object myGRBConstr,
-						   Class<?> grbConstrClass,
-						   Class<?> doubleAttrClass,
-						   int modelID,
-						   int constrID) {
+	public HandleGRBConstr(Object myGRBConstr, int modelID, int constrID) {
 
 		super(constrID, modelID);
 
-		try {
-			
-			// Store the object handle.
-			theGRBConstr = myGRBConstr;
-	
-			// Extract the required fields.
-			fieldRHS = doubleAttrClass.getField("RHS");
-			fieldPi = doubleAttrClass.getField("Pi");
-	
-			// Extract the required methods.
-			setDoubleAttr = grbConstrClass.getMethod("set", doubleAttrClass, double.class);
-			getDoubleAttr = grbConstrClass.getMethod("get", doubleAttrClass);
-			
-		} catch (Exception ex) {
-			throw new RuntimeException("Reflection failed, interface error in GRBConstr.", ex);
-		}
+		// Store the object handle.
+		theGRBConstr = myGRBConstr;
 	}
 
 	public void setRHS(double newRHS) {
 
 		try {
-
-			Object doubleAttrRHS = fieldRHS.get(null);
-	
-			setDoubleAttr(doubleAttrRHS, newRHS);
-
-		} catch (Exception ex) {
+			HandleFactory.CONSTR_SET_DOUBLE.invokeExact(theGRBConstr, HandleFactory.RHS, newRHS);
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBConstr.", ex);
-		}		
+		}
 	}
 
-	public Double getPi() {
+	public double getPi() {
 
 		try {
-
-			Object doubleAttrPi = fieldPi.get(null);
-	
-			return getDoubleAttr(doubleAttrPi);
-
-		} catch (Exception ex) {
+			return (double) HandleFactory.CONSTR_GET_DOUBLE.invokeExact(theGRBConstr, HandleFactory.PI);
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBConstr.", ex);
 		}
 	}
@@ -88,12 +53,4 @@ public class HandleGRBConstr extends LPConstraint {
 	protected Object getGRBConstr() {
 		return theGRBConstr;
 	}
-
-	private void setDoubleAttr(Object attr, Double newValue) throws Exception {
-		setDoubleAttr.invoke(theGRBConstr, attr, newValue);
-	}
-
-	private Double getDoubleAttr(Object attr) throws Exception {
-		return (Double) getDoubleAttr.invoke(theGRBConstr, attr);
-	}
 }
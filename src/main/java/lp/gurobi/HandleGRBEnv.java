@@ -18,37 +18,18 @@
  *******************************************************************************/
 package lp.gurobi;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-
 public class HandleGRBEnv {
 
 	private final Object theGRBEnv;
 
-	private Field mipGap;
-	private Field outputFlag;
-
-	private Method setDoubleParam;
-	private Method setIntParam;
-
-	public HandleGRBEnv(Class<?> grbEnvClass,
-						Class<?> doubleParamClass,
-						Class<?> intParamClass) {
+	public HandleGRBEnv() {
 
 		try {
-			
+
 			// Call the empty constructor.
-			theGRBEnv = grbEnvClass.getConstructor().newInstance();
-	
-			// Extract the required fields.
-			mipGap = doubleParamClass.getField("MIPGap");
-			outputFlag = intParamClass.getField("OutputFlag");
+			theGRBEnv = (Object) HandleFactory.ENV_NEW.invokeExact();
 
-			// Extract the required methods.
-			setDoubleParam = grbEnvClass.getMethod("set", doubleParamClass, double.class);
-			setIntParam = grbEnvClass.getMethod("set", intParamClass, int.class);
-			
-		} catch (Exception ex) {
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBEnv.", ex);
 		}
 	}
@@ -60,12 +41,8 @@ public class HandleGRBEnv {
 	public void setMIPgap(double newGap) {
 
 		try {
-
-			Object doubleParamMIPgap = mipGap.get(null);
-	
-			setDoubleParam(doubleParamMIPgap, newGap);
-
-		} catch (Exception ex) {
+			HandleFactory.ENV_SET_DOUBLE.invokeExact(theGRBEnv, HandleFactory.MIP_GAP, newGap);
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBEnv.", ex);
 		}
 	}
@@ -73,21 +50,27 @@ public class HandleGRBEnv {
 	public void setOutputFlag(int newFlag) {
 
 		try {
+			HandleFactory.ENV_SET_INT.invokeExact(theGRBEnv, HandleFactory.OUTPUT_FLAG, newFlag);
+		} catch (Throwable ex) {
+			throw new RuntimeException("Reflection failed, interface error in GRBEnv.", ex);
+		}
+	}
 
-			Object intParamOutputFlag = outputFlag.get(null);
-	
-			setIntParam(intParamOutputFlag, newFlag);
+	public void dispose() {
 
-		} catch (Exception ex) {
+		try {
+			HandleFactory.ENV_DISPOSE.invokeExact(theGRBEnv);
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBEnv.", ex);
-		}		
+		}
 	}
 
-	private void setDoubleParam(Object param, Double newValue) throws Exception {
-		setDoubleParam.invoke(theGRBEnv, param, newValue);
-	}
+	public void setThreads(int numThreads) {
 
-	private void setIntParam(Object param, Integer newValue) throws Exception {
-		setIntParam.invoke(theGRBEnv, param, newValue);
+		try {
+			HandleFactory.ENV_SET_INT.invokeExact(theGRBEnv, HandleFactory.THREADS, numThreads);
+		} catch (Throwable ex) {
+			throw new RuntimeException("Reflection failed, interface error in GRBEnv.", ex);
+		}
 	}
 }
@@ -18,8 +18,6 @@
  *******************************************************************************/
 package lp.gurobi;
 
-import java.lang.reflect.Method;
-
 import lp.LPException;
 import lp.LPExpression;
 import lp.LPVariable;
@@ -28,26 +26,19 @@ public class HandleGRBLinExpr implements LPExpression {
 
 	private final Object theGRBLinExpr;
 
-	private Method addTerm;
-
 	private final int modelID;
 
-	public HandleGRBLinExpr(Class<?> grbLinExprClass,
-							Class<?> grbVarClass,
-							int modelID) {
+	public HandleGRBLinExpr(int modelID) {
 
 		// Store model ID.
 		this.modelID = modelID;
 
 		try {
-			
+
 			// Call the empty constructor.
-			theGRBLinExpr = grbLinExprClass.getConstructor().newInstance();
-	
-			// Extract the required method.
-			addTerm = grbLinExprClass.getMethod("addTerm", double.class, grbVarClass);
-			
-		} catch (Exception ex) {
+			theGRBLinExpr = (Object) HandleFactory.LIN_EXPR_NEW.invokeExact();
+
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBLinExpr.", ex);
 		}
 	}
@@ -74,9 +65,9 @@ public class HandleGRBLinExpr implements LPExpression {
 
 	private void internalAddTerm(double coefficient, HandleGRBVar var) {
 		try {
-			addTerm.invoke(theGRBLinExpr, coefficient, var.getGRBVar());
-		} catch (Exception ex) {
+			HandleFactory.LIN_EXPR_ADD_TERM.invokeExact(theGRBLinExpr, coefficient, var.getGRBVar());
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBLinExpr.", ex);
-		}		
+		}
 	}
 }
@@ -18,11 +18,12 @@
  *******************************************************************************/
 package lp.gurobi;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import lp.LPBasis;
+import lp.LPBasisStatus;
 import lp.LPColumn;
 import lp.LPConstraint;
 import lp.LPConstraintType;
@@ -36,83 +37,31 @@ public class HandleGRBModel implements LPModel {
 
 	private static final double BIG_M = 100000000D;
 
-	// Reflection fields.
+	// Gurobi model.
 	private final Object theGRBModel;
 
-	private final Field maximize;
-	private final Field lessEqual;
-	private final Field equal;
-	private final Field greaterEqual;
-	private final Field continuous;
-	private final Field integer;
-	private final Field optimal;
-	private final Field status;
-	private final Field objVal;
-
-	private final Method getObjective;
-	private final Method setObjective;
-	private final Method addVar;
-	private final Method addColumn;
-	private final Method addConstr;
-	private final Method getIntAttr;
-	private final Method getDoubleAttr;
-	private final Method update;
-	private final Method optimize;
-	private final Method dispose;
-
 	// Logic fields.
 	private final int modelID;
-	private final List<HandleGRBVar> variables;
-	private final List<HandleGRBConstr> constraints;
-
-	protected HandleGRBModel(Class<?> grbModelClass,
-							 Class<?> grbEnvClass,
-							 Class<?> grbExprClass,
-							 Class<?> grbLinExprClass,
-							 Class<?> grbColumnClass,
-							 Class<?> grbClass,
-							 Class<?> grbStatusClass,
-							 Class<?> intAttrClass,
-							 Class<?> doubleAttrClass,
-							 HandleGRBEnv grbEnvHandle,
-							 int modelID) {
+	private final List<Object> grbVars;
+	private final List<Object> grbConstrs;
+	private final List<LPConstraintType> constraintTypes;
+
+	protected HandleGRBModel(HandleGRBEnv grbEnvHandle, int modelID) {
 
 		// Store model ID.
 		this.modelID = modelID;
 
 		// Create lists.
-		this.variables = new ArrayList<>();
-		this.constraints = new ArrayList<>();
+		this.grbVars = new ArrayList<>();
+		this.grbConstrs = new ArrayList<>();
+		this.constraintTypes = new ArrayList<>();
 
 		try {
-			
+
 			// Call the constructor with environment.
-			theGRBModel = grbModelClass.getConstructor(grbEnvClass).newInstance(grbEnvHandle.getEnvironment());
-	
-			// Extract the required fields.
-			maximize	 = grbClass.getField("MAXIMIZE");
-			continuous	 = grbClass.getField("CONTINUOUS");
-			integer		 = grbClass.getField("INTEGER");
-			lessEqual	 = grbClass.getField("LESS_EQUAL");
-			equal		 = grbClass.getField("EQUAL");
-			greaterEqual = grbClass.getField("GREATER_EQUAL");
-			optimal		 = grbStatusClass.getField("OPTIMAL");
-			status		 = intAttrClass.getField("Status");
-			objVal		 = doubleAttrClass.getField("ObjVal");
-
-			// Extract the required methods.
-			getObjective  = grbModelClass.getMethod("getObjective");
-			setObjective  = grbModelClass.getMethod("setObjective", grbExprClass, int.class);
-			addVar		  = grbModelClass.getMethod("addVar", double.class, double.class, double.class, char.class, String.class);
-			addColumn	  = grbModelClass.getMethod("addVar", double.class, double.class, double.class, char.class, grbColumnClass, String.class);
-			addConstr	  = grbModelClass.getMethod("addConstr", grbLinExprClass, char.class, double.class, String.class);
-			getIntAttr	  = grbModelClass.getMethod("get", intAttrClass);
-			getDoubleAttr = grbModelClass.getMethod("get", doubleAttrClass);
-			update		  = grbModelClass.getMethod("update");
-			optimize	  = grbModelClass.getMethod("optimize");
-			dispose		  = grbModelClass.getMethod("dispose");
-			
-		} catch (Exception ex) {
+			theGRBModel = (Object) HandleFactory.MODEL_NEW.invokeExact(grbEnvHandle.getEnvironment());
+
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
 
@@ -124,11 +73,10 @@ public class HandleGRBModel implements LPModel {
 
 		try {
 
-			setObjective.invoke(theGRBModel, 
-								getObjective.invoke(theGRBModel),
-								maximize.get(null));
+			Object objective = (Object) HandleFactory.MODEL_GET_OBJECTIVE.invokeExact(theGRBModel);
+			HandleFactory.MODEL_SET_OBJECTIVE.invokeExact(theGRBModel, objective, HandleFactory.MAXIMIZE);
 
-		} catch (Exception ex) {
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
 	}
@@ -149,36 +97,65 @@ public class HandleGRBModel implements LPModel {
 		try {
 
 			// Create the actual GRB variable.
-			Object theGRBVar = addVar.invoke(theGRBModel, lowerbound, upperbound, obj, grbType, "");
+			Object theGRBVar = (Object) HandleFactory.MODEL_ADD_VAR.invokeExact(theGRBModel, lowerbound, upperbound, obj, grbType, "");
 
 			// Wrap the variable in a handle.
-			grbVarHandle = HandleFactory.getFactory().wrapGRBVar(theGRBVar, modelID, variables.size());
+			grbVarHandle = HandleFactory.getFactory().wrapGRBVar(theGRBVar, modelID, grbVars.size());
 
 			// Store the variable.
-			variables.add(grbVarHandle);
+			grbVars.add(theGRBVar);
 
-		} catch (Exception ex) {
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
 
 		return grbVarHandle;
 	}
 
-	private char convertVariableType(LPVariableType lpType) {
+	@Override
+	public LPVariable[] addVariables(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] lpTypes) {
+
+		int first = addVariableRange(lowerbounds, upperbounds, obj, lpTypes);
+
+		LPVariable[] grbVarHandles = new LPVariable[obj.length];
+		for (int j = 0; j < obj.length; j++) {
+			grbVarHandles[j] = getVariable(first + j);
+		}
+
+		return grbVarHandles;
+	}
 
-		char grbType;
+	@Override
+	public int addVariableRange(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] lpTypes) {
+
+		int first = grbVars.size();
+		char[] grbTypes = new char[lpTypes.length];
+		for (int j = 0; j < lpTypes.length; j++) {
+			grbTypes[j] = convertVariableType(lpTypes[j]);
+		}
 
 		try {
-			if (lpType == LPVariableType.CONTINUOUS) {
-				grbType = continuous.getChar(null);
-			} else {
-				grbType = integer.getChar(null);
-			}
-		} catch (Exception ex) {
+
+			// Create all variables in a single call.
+			Object[] theGRBVars = (Object[]) HandleFactory.MODEL_ADD_VARS.invokeExact(theGRBModel, lowerbounds, upperbounds, obj, grbTypes, (String[]) null);
+
+			// Store the variables.
+			Collections.addAll(grbVars, theGRBVars);
+
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
 
-		return grbType;
+		return first;
+	}
+
+	private char convertVariableType(LPVariableType lpType) {
+
+		if (lpType == LPVariableType.CONTINUOUS) {
+			return HandleFactory.CONTINUOUS;
+		} else {
+			return HandleFactory.INTEGER;
+		}
 	}
 
 	@Override
@@ -212,43 +189,111 @@ public class HandleGRBModel implements LPModel {
 			update();
 
 			try {
-				
+
 				// Create and add the actual constraint.
-				Object theGRBConstr = addConstr.invoke(theGRBModel, theGRBLinExpr, grbType, rhs, "");
+				Object theGRBConstr = (Object) HandleFactory.MODEL_ADD_CONSTR.invokeExact(theGRBModel, theGRBLinExpr, grbType, rhs, "");
 
 				// Wrap the constraint in a handle.
-				grbConstrHandle = HandleFactory.getFactory().wrapGRBConstr(theGRBConstr, modelID, constraints.size());
+				grbConstrHandle = HandleFactory.getFactory().wrapGRBConstr(theGRBConstr, modelID, grbConstrs.size());
 
 				// Store the constraint.
-				constraints.add(grbConstrHandle);
+				grbConstrs.add(theGRBConstr);
+				constraintTypes.add(type);
 
-			} catch (Exception ex) {
+			} catch (Throwable ex) {
 				throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 			}
 		}
-		
+
 		return grbConstrHandle;
 	}
-	
-	private char convertConstraintType(LPConstraintType lpType) {
-		char grbType;
+
+	@Override
+	public LPConstraint[] addConstraints(int[] rowStart, LPVariable[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException {
+
+		// Map the variables to their indices.
+		int[] varIndices = new int[rowStart[types.length]];
+		for (int p = 0; p < varIndices.length; p++) {
+			if (vars[p].getModelID() != modelID || !(vars[p] instanceof HandleGRBVar)) {
+				throw new LPException("Variable does not belong to this model");
+			}
+
+			varIndices[p] = vars[p].getID();
+		}
+
+		int first = addConstraintRange(rowStart, varIndices, coefficients, types, rhs);
+
+		LPConstraint[] grbConstrHandles = new LPConstraint[types.length];
+		for (int r = 0; r < types.length; r++) {
+			grbConstrHandles[r] = getConstraint(first + r);
+		}
+
+		return grbConstrHandles;
+	}
+
+	@Override
+	public int addConstraintRange(int[] rowStart, int[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException {
+
+		int first = grbConstrs.size();
+		int numConstrs = types.length;
+		Object[] theGRBLinExprs = HandleFactory.newGRBLinExprArray(numConstrs);
+		char[] grbTypes = new char[numConstrs];
+
+		// Check the variables before calling Gurobi.
+		for (int p = 0; p < rowStart[numConstrs]; p++) {
+			if (vars[p] < 0 || vars[p] >= grbVars.size()) {
+				throw new LPException("Variable does not belong to this model");
+			}
+		}
 
 		try {
-			switch(lpType) {
-				case LESS_EQUAL:
-					grbType = lessEqual.getChar(null); break;
-				case EQUAL:
-					grbType = equal.getChar(null); break;
-				case GREATER_EQUAL:
-					grbType = greaterEqual.getChar(null); break;
-				default:
-					grbType = lessEqual.getChar(null); break;
+
+			// Build each left-hand side using a single call.
+			for (int r = 0; r < numConstrs; r++) {
+				int length = rowStart[r+1] - rowStart[r];
+				double[] rowCoefficients = new double[length];
+				Object[] rowVars = HandleFactory.newGRBVarArray(length);
+
+				for (int p = rowStart[r]; p < rowStart[r+1]; p++) {
+					rowCoefficients[p-rowStart[r]] = coefficients[p];
+					rowVars[p-rowStart[r]] = grbVars.get(vars[p]);
+				}
+
+				Object theGRBLinExpr = (Object) HandleFactory.LIN_EXPR_NEW.invokeExact();
+				HandleFactory.LIN_EXPR_ADD_TERMS.invokeExact(theGRBLinExpr, rowCoefficients, rowVars);
+				theGRBLinExprs[r] = theGRBLinExpr;
+				grbTypes[r] = convertConstraintType(types[r]);
 			}
-		} catch (Exception ex) {
+
+			// Update model.
+			update();
+
+			// Create all constraints in a single call.
+			Object[] theGRBConstrs = (Object[]) HandleFactory.MODEL_ADD_CONSTRS.invokeExact(theGRBModel, theGRBLinExprs, grbTypes, rhs, (String[]) null);
+
+			// Store the constraints.
+			Collections.addAll(grbConstrs, theGRBConstrs);
+			Collections.addAll(constraintTypes, types);
+
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
 
-		return grbType;
+		return first;
+	}
+
+	private char convertConstraintType(LPConstraintType lpType) {
+
+		switch(lpType) {
+			case LESS_EQUAL:
+				return HandleFactory.LESS_EQUAL;
+			case EQUAL:
+				return HandleFactory.EQUAL;
+			case GREATER_EQUAL:
+				return HandleFactory.GREATER_EQUAL;
+			default:
+				return HandleFactory.LESS_EQUAL;
+		}
 	}
 
 	@Override
@@ -269,15 +314,15 @@ public class HandleGRBModel implements LPModel {
 			try {
 
 				// Create the actual GRB variable.
-				Object theGRBVar = addColumn.invoke(theGRBModel, lowerbound, upperbound, obj, grbType, theGRBColumn, "");
-	
+				Object theGRBVar = (Object) HandleFactory.MODEL_ADD_COLUMN.invokeExact(theGRBModel, lowerbound, upperbound, obj, grbType, theGRBColumn, "");
+
 				// Wrap the variable in a handle.
-				grbVarHandle = HandleFactory.getFactory().wrapGRBVar(theGRBVar, modelID, variables.size());
-	
+				grbVarHandle = HandleFactory.getFactory().wrapGRBVar(theGRBVar, modelID, grbVars.size());
+
 				// Store the variable.
-				variables.add(grbVarHandle);
-	
-			} catch (Exception ex) {
+				grbVars.add(theGRBVar);
+
+			} catch (Throwable ex) {
 				throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 			}
 		}
@@ -285,6 +330,61 @@ public class HandleGRBModel implements LPModel {
 		return grbVarHandle;
 	}
 
+	@Override
+	public LPVariable[] addColumns(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] lpTypes, int[] colStart, LPConstraint[] constrs, double[] coefficients) throws LPException {
+
+		int numVars = obj.length;
+		Object[] theGRBColumns = HandleFactory.newGRBColumnArray(numVars);
+		char[] grbTypes = new char[numVars];
+
+		// Check the constraints before calling Gurobi.
+		for (int p = 0; p < colStart[numVars]; p++) {
+			if (constrs[p].getModelID() != modelID || !(constrs[p] instanceof HandleGRBConstr)) {
+				throw new LPException("Constraint does not belong to this model");
+			}
+		}
+
+		try {
+
+			// Build each column using a single call.
+			for (int j = 0; j < numVars; j++) {
+				int length = colStart[j+1] - colStart[j];
+				double[] colCoefficients = new double[length];
+				Object[] colConstrs = HandleFactory.newGRBConstrArray(length);
+
+				for (int p = colStart[j]; p < colStart[j+1]; p++) {
+					colCoefficients[p-colStart[j]] = coefficients[p];
+					colConstrs[p-colStart[j]] = ((HandleGRBConstr) constrs[p]).getGRBConstr();
+				}
+
+				Object theGRBColumn = (Object) HandleFactory.COLUMN_NEW.invokeExact();
+				HandleFactory.COLUMN_ADD_TERMS.invokeExact(theGRBColumn, colCoefficients, colConstrs);
+				theGRBColumns[j] = theGRBColumn;
+				grbTypes[j] = convertVariableType(lpTypes[j]);
+			}
+
+			// Update model.
+			update();
+
+			// Create all variables in a single call.
+			Object[] theGRBVars = (Object[]) HandleFactory.MODEL_ADD_COLUMNS.invokeExact(theGRBModel, lowerbounds, upperbounds, obj, grbTypes, (String[]) null, theGRBColumns);
+
+			// Store the variables.
+			int first = grbVars.size();
+			Collections.addAll(grbVars, theGRBVars);
+
+			LPVariable[] grbVarHandles = new LPVariable[numVars];
+			for (int j = 0; j < numVars; j++) {
+				grbVarHandles[j] = getVariable(first + j);
+			}
+
+			return grbVarHandles;
+
+		} catch (Throwable ex) {
+			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
+		}
+	}
+
 	@Override
 	public void changeConstraintRHS(LPConstraint constraint, double rhs) throws LPException {
 
@@ -302,26 +402,66 @@ public class HandleGRBModel implements LPModel {
 		}
 	}
 
+	@Override
+	public void changeConstraintRHS(int constraint, double rhs) throws LPException {
+
+		if (constraint < 0 || constraint >= grbConstrs.size()) {
+			throw new LPException("Constraint does not belong to this model");
+		}
+
+		// Update model.
+		update();
+
+		try {
+
+			// Update constraint right-hand-side.
+			HandleFactory.CONSTR_SET_DOUBLE.invokeExact(grbConstrs.get(constraint), HandleFactory.RHS, rhs);
+
+		} catch (Throwable ex) {
+			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
+		}
+	}
+
+	@Override
+	public int getNumVariables() {
+		return grbVars.size();
+	}
+
+	@Override
+	public int getNumConstraints() {
+		return grbConstrs.size();
+	}
+
+	@Override
+	public LPVariable getVariable(int index) {
+		return HandleFactory.getFactory().wrapGRBVar(grbVars.get(index), modelID, index);
+	}
+
+	@Override
+	public LPConstraint getConstraint(int index) {
+		return HandleFactory.getFactory().wrapGRBConstr(grbConstrs.get(index), modelID, index);
+	}
+
 	@Override
 	public boolean solve() {
 
 		boolean solved = false;
-		
+
 		try {
 
 			// Call the optimize function.
-			optimize.invoke(theGRBModel);
+			HandleFactory.MODEL_OPTIMIZE.invokeExact(theGRBModel);
 
 			// Determine the model status.
-			int solverStatus = (int) getIntAttr.invoke(theGRBModel, status.get(null));
+			int solverStatus = (int) HandleFactory.MODEL_GET_INT.invokeExact(theGRBModel, HandleFactory.STATUS);
 
 			// Test for success.
-			solved = (solverStatus == optimal.getInt(null));
+			solved = (solverStatus == HandleFactory.OPTIMAL);
 
-		} catch (Exception ex) {
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
-		
+
 		return solved;
 	}
 
@@ -329,16 +469,16 @@ public class HandleGRBModel implements LPModel {
 	public double getObjectiveValue() {
 
 		double objective = Double.NEGATIVE_INFINITY;
-		
+
 		try {
 
 			// Determine solution objective.
-			objective = (double) getDoubleAttr.invoke(theGRBModel, objVal.get(null));
+			objective = (double) HandleFactory.MODEL_GET_DOUBLE.invokeExact(theGRBModel, HandleFactory.OBJ_VAL);
 
-		} catch (Exception ex) {
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
-		
+
 		return objective;
 	}
 
@@ -374,11 +514,141 @@ public class HandleGRBModel implements LPModel {
 		return dualLambda;
 	}
 
+
+	@Override
+	public void getVariableValues(int from, int length, double[] values, int offset) {
+
+		Object[] theGRBVars = grbVars.subList(from, from + length).toArray(HandleFactory.newGRBVarArray(length));
+
+		try {
+
+			// Retrieve the values of all variables in a single call.
+			double[] x = (double[]) HandleFactory.MODEL_GET_VARS_DOUBLE.invokeExact(theGRBModel, HandleFactory.X, theGRBVars);
+			System.arraycopy(x, 0, values, offset, length);
+
+		} catch (Throwable ex) {
+			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
+		}
+	}
+
+	@Override
+	public void getDualPrices(int from, int length, double[] duals, int offset) {
+
+		Object[] theGRBConstrs = grbConstrs.subList(from, from + length).toArray(HandleFactory.newGRBConstrArray(length));
+
+		try {
+
+			// Retrieve the dual prices of all constraints in a single call.
+			double[] pi = (double[]) HandleFactory.MODEL_GET_CONSTRS_DOUBLE.invokeExact(theGRBModel, HandleFactory.PI, theGRBConstrs);
+			System.arraycopy(pi, 0, duals, offset, length);
+
+		} catch (Throwable ex) {
+			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
+		}
+	}
+
+	@Override
+	public LPBasis getBasis() {
+
+		LPBasisStatus[] variableStatus = new LPBasisStatus[grbVars.size()];
+		LPBasisStatus[] constraintStatus = new LPBasisStatus[grbConstrs.size()];
+
+		try {
+
+			// Retrieve the basis attributes of all variables and constraints at once.
+			int[] vStatus = (int[]) HandleFactory.MODEL_GET_VARS_INT.invokeExact(theGRBModel, HandleFactory.V_BASIS, getGRBVars());
+			int[] cStatus = (int[]) HandleFactory.MODEL_GET_CONSTRS_INT.invokeExact(theGRBModel, HandleFactory.C_BASIS, getGRBConstrs());
+
+			for (int j = 0; j < vStatus.length; j++) {
+				switch (vStatus[j]) {
+					case 0:
+						variableStatus[j] = LPBasisStatus.BASIC; break;
+					case -1:
+						variableStatus[j] = LPBasisStatus.AT_LOWER; break;
+					case -2:
+						variableStatus[j] = LPBasisStatus.AT_UPPER; break;
+					default:
+						variableStatus[j] = LPBasisStatus.FREE; break;
+				}
+			}
+
+			// A nonbasic constraint is binding at its right-hand side.
+			for (int i = 0; i < cStatus.length; i++) {
+				if (cStatus[i] == 0) {
+					constraintStatus[i] = LPBasisStatus.BASIC;
+				} else if (constraintTypes.get(i) == LPConstraintType.LESS_EQUAL) {
+					constraintStatus[i] = LPBasisStatus.AT_UPPER;
+				} else {
+					constraintStatus[i] = LPBasisStatus.AT_LOWER;
+				}
+			}
+
+		} catch (Throwable ex) {
+			if (HandleFactory.grbExceptionClass.isInstance(ex)) {
+				// Gurobi does not provide a basis, e.g. if the model has not been solved by simplex.
+				return null;
+			}
+
+			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
+		}
+
+		return new LPBasis(variableStatus, constraintStatus);
+	}
+
+	@Override
+	public void setBasis(LPBasis basis) throws LPException {
+
+		if (basis.getNumVariables() != grbVars.size() || basis.getNumConstraints() != grbConstrs.size()) {
+			throw new LPException("Basis does not match the size of the model");
+		}
+
+		int[] vStatus = new int[grbVars.size()];
+		int[] cStatus = new int[grbConstrs.size()];
+
+		for (int j = 0; j < vStatus.length; j++) {
+			switch (basis.getVariableStatus(j)) {
+				case BASIC:
+					vStatus[j] = 0; break;
+				case AT_LOWER:
+					vStatus[j] = -1; break;
+				case AT_UPPER:
+					vStatus[j] = -2; break;
+				default:
+					vStatus[j] = -3; break;
+			}
+		}
+
+		for (int i = 0; i < cStatus.length; i++) {
+			cStatus[i] = (basis.getConstraintStatus(i) == LPBasisStatus.BASIC) ? 0 : -1;
+		}
+
+		// Update model.
+		update();
+
+		try {
+
+			// Set the basis attributes of all variables and constraints at once.
+			HandleFactory.MODEL_SET_VARS_INT.invokeExact(theGRBModel, HandleFactory.V_BASIS, getGRBVars(), vStatus);
+			HandleFactory.MODEL_SET_CONSTRS_INT.invokeExact(theGRBModel, HandleFactory.C_BASIS, getGRBConstrs(), cStatus);
+
+		} catch (Throwable ex) {
+			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
+		}
+	}
+
+	private Object[] getGRBVars() {
+		return grbVars.toArray(HandleFactory.newGRBVarArray(grbVars.size()));
+	}
+
+	private Object[] getGRBConstrs() {
+		return grbConstrs.toArray(HandleFactory.newGRBConstrArray(grbConstrs.size()));
+	}
+
 	private void update() {
 		try {
 			// Update model.
-			update.invoke(theGRBModel);
-		} catch (Exception ex) {
+			HandleFactory.MODEL_UPDATE.invokeExact(theGRBModel);
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
 	}
@@ -388,8 +658,8 @@ public class HandleGRBModel implements LPModel {
 
 		try {
 			// Call dispose on the model.
-			dispose.invoke(theGRBModel);
-		} catch (Exception ex) {
+			HandleFactory.MODEL_DISPOSE.invokeExact(theGRBModel);
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBModel.", ex);
 		}
 	}
@@ -18,61 +18,30 @@
  *******************************************************************************/
 package lp.gurobi;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-
 import lp.LPVariable;
 
 public class HandleGRBVar extends LPVariable {
 
 	private final Object theGRBVar;
 
-	private Field fieldX;
-
-	private Method getDoubleAttr;
-
-	public HandleGRBVar(Object myGRBVar, 
-						Class<?> grbVarClass,
-						Class<?> doubleAttrClass,
-						int modelID,
-						int varID) {
+	public HandleGRBVar(Object myGRBVar, int modelID, int varID) {
 
 		super(varID, modelID);
 
-		try {
-			
-			// Store the object handle.
-			theGRBVar = myGRBVar;
-	
-			// Extract the required fields.
-			fieldX = doubleAttrClass.getField("X");
-	
-			// Extract the required methods.
-			getDoubleAttr = grbVarClass.getMethod("get", doubleAttrClass);
-			
-		} catch (Exception ex) {
-			throw new RuntimeException("Reflection failed, interface error in GRBVar.", ex);
-		}
+		// Store the object handle.
+		theGRBVar = myGRBVar;
 	}
 
-	public Double getX() {
+	public double getX() {
 
 		try {
-
-			Object doubleAttrX = fieldX.get(null);
-	
-			return getDoubleAttr(doubleAttrX);
-
-		} catch (Exception ex) {
+			return (double) HandleFactory.VAR_GET_DOUBLE.invokeExact(theGRBVar, HandleFactory.X);
+		} catch (Throwable ex) {
 			throw new RuntimeException("Reflection failed, interface error in GRBVar.", ex);
-		}		
+		}
 	}
 
 	protected Object getGRBVar() {
 		return theGRBVar;
 	}
-
-	private Double getDoubleAttr(Object attr) throws Exception {
-		return (Double) getDoubleAttr.invoke(theGRBVar, attr);
-	}
 }
@@ -20,21 +20,32 @@ package lp.gurobi;
 
 import lp.LPModel;
 import lp.LPSolver;
+import util.ConfigFile;
 
+/**
+ * Gurobi solver with its own Gurobi environment. A Gurobi environment is not thread-safe,
+ * so threads solving models in parallel should each use their own instance of this class.
+ */
 public class LPSolverGurobi implements LPSolver {
 
 	private static final double MIP_GAP = 00001;
 	private static final int OUTPUT_FLAG = 0;
 
-	private static HandleGRBEnv environment;
+	private final HandleGRBEnv environment;
 
+	/**
+	 * Creates a solver which uses the number of threads in the config file, where 0 lets Gurobi decide
+	 */
 	public LPSolverGurobi() {
+		this(ConfigFile.getIntProperty("gurobi_threads"));
+	}
+
+	public LPSolverGurobi(int numThreads) {
 
-		if (environment == null) {
-			environment = HandleFactory.getFactory().newGRBEnvironment();
-			environment.setMIPgap(MIP_GAP);
-			environment.setOutputFlag(OUTPUT_FLAG);
-		}
+		environment = HandleFactory.getFactory().newGRBEnvironment();
+		environment.setMIPgap(MIP_GAP);
+		environment.setOutputFlag(OUTPUT_FLAG);
+		environment.setThreads(numThreads);
 	}
 
 	@Override
@@ -46,4 +57,12 @@ public class LPSolverGurobi implements LPSolver {
 	public boolean supportsMILP() {
 		return true;
 	}
+
+	/**
+	 * Releases the Gurobi environment of this solver, after which no models can be created
+	 */
+	@Override
+	public void dispose() {
+		environment.dispose();
+	}
 }
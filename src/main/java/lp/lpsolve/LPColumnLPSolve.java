@@ -21,10 +21,11 @@ package lp.lpsolve;
 import lp.LPColumn;
 import lp.LPConstraint;
 import lp.LPException;
+import lp.SparseTerms;
 
 public class LPColumnLPSolve implements LPColumn {
 	private LPModelLPSolve model;
-	private double[] col;
+	private SparseTerms terms = new SparseTerms();
 	
 	@SuppressWarnings("unused")
 	private LPColumnLPSolve() {
@@ -33,7 +34,6 @@ public class LPColumnLPSolve implements LPColumn {
 	
 	public LPColumnLPSolve(LPModelLPSolve model) {
 		this.model = model;
-		this.col = new double[model.getNumConstraints()+1]; // first row should remain empty
 	}
 	
 	@Override
@@ -42,7 +42,7 @@ public class LPColumnLPSolve implements LPColumn {
 			throw new LPException("Constraint does not belong to this model");
 		}
 		
-		col[constraint.getID()+1] = coefficient; // constraint IDs start at 0, so we add 1
+		terms.add(constraint.getID()+1, coefficient); // constraint IDs start at 0, so we add 1
 	}
 
 	@Override
@@ -50,7 +50,7 @@ public class LPColumnLPSolve implements LPColumn {
 		return model.getModelID();
 	}
 
-	protected double[] getCol() {
-		return col;
+	protected SparseTerms getTerms() {
+		return terms;
 	}
 }
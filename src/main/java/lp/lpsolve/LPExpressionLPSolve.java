@@ -21,11 +21,12 @@ package lp.lpsolve;
 import lp.LPException;
 import lp.LPExpression;
 import lp.LPVariable;
+import lp.SparseTerms;
 
 public class LPExpressionLPSolve implements LPExpression {
 
 	private LPModelLPSolve model;
-	private double[] expr;
+	private SparseTerms terms = new SparseTerms();
 	
 	private final double coefficientTolerance = 0.000000001;
 	
@@ -36,7 +37,6 @@ public class LPExpressionLPSolve implements LPExpression {
 	
 	public LPExpressionLPSolve(LPModelLPSolve model) {
 		this.model = model;
-		this.expr = new double[model.getNumVars()+1]; // lpsolve counts from 1 so first entry remains empty
 	}
 	
 	@Override
@@ -46,8 +46,7 @@ public class LPExpressionLPSolve implements LPExpression {
 		}
 		
 		if(Math.abs(coefficient) > coefficientTolerance) {
-			int id = var.getID();
-			expr[id] = coefficient;
+			terms.add(var.getID(), coefficient); // variable IDs correspond to lpsolve column numbers
 		}
 	}
 
@@ -56,7 +55,7 @@ public class LPExpressionLPSolve implements LPExpression {
 		return model.getModelID();
 	}
 	
-	protected double[] getExpression() {
-		return expr;
+	protected SparseTerms getTerms() {
+		return terms;
 	}
 }
@@ -18,9 +18,10 @@
  *******************************************************************************/
 package lp.lpsolve;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import lp.LPBasis;
+import lp.LPBasisStatus;
 import lp.LPColumn;
 import lp.LPConstraint;
 import lp.LPConstraintType;
@@ -29,22 +30,29 @@ import lp.LPExpression;
 import lp.LPModel;
 import lp.LPVariable;
 import lp.LPVariableType;
+import lp.SparseTerms;
 import lpsolve.LpSolve;
 import lpsolve.LpSolveException;
 
 public class LPModelLPSolve implements LPModel {
-	private static int numModels = 0;
+	private static final AtomicInteger numModels = new AtomicInteger(0);
 	private int modelID = -1;
 	
 	private LpSolve model;
+	private boolean rowMode = false;
+	private boolean solved = false;
 	
-	private List<LPVariable> lpVariables = new ArrayList<LPVariable>();
-	private List<LPConstraint> lpConstraints = new ArrayList<LPConstraint>();
+	private final double coefficientTolerance = 0.000000001;
+	
+	private int numVariables = 0;
+	private int numConstraints = 0;
+	
+	// solution of the last solve, which is retrieved from lpsolve when it is requested for the first time
+	private double[] variableValues = null;
+	private double[] dualPrices = null;
 
 	public static LPModelLPSolve createModel() {
-		LPModelLPSolve model = new LPModelLPSolve(numModels);
-		numModels++;
-		return model;
+		return new LPModelLPSolve(numModels.getAndIncrement());
 	}
 	
 	private LPModelLPSolve(int modelID) {
@@ -81,19 +89,65 @@ public class LPModelLPSolve implements LPModel {
 		LPVariable lpVar = null;
 		
 		try {
-			int id = lpVariables.size()+1;
-			model.addColumn(new double[lpConstraints.size()+1]);
-			lpVar = new LPVariable(id, modelID);
-			lpVariables.add(lpVar);
-			model.setLowbo(id, lowerbound);
-			model.setUpbo(id, upperbound);
-			model.setObj(id, obj);
-			boolean intVar = (type == LPVariableType.INTEGER);
-			model.setInt(id, intVar);
+			setRowMode(false);
+			lpVar = addLpsolveColumn(lowerbound, upperbound, type, 1, new double[] {obj}, new int[] {0});
+		} catch (LpSolveException e) {
+			e.printStackTrace();
+		}
+		
+		return lpVar;
+	}
+	
+	@Override
+	public LPVariable[] addVariables(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types) {
+		int first = addVariableRange(lowerbounds, upperbounds, obj, types);
+		
+		LPVariable[] vars = new LPVariable[obj.length];
+		for(int j=0; j<obj.length; j++) {
+			vars[j] = getVariable(first+j);
+		}
+		
+		return vars;
+	}
+	
+	@Override
+	public int addVariableRange(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types) {
+		int first = numVariables;
+		double[] column = new double[1];
+		int[] rowno = new int[] {0};
+		
+		try {
+			setRowMode(false);
+			
+			for(int j=0; j<obj.length; j++) {
+				column[0] = obj[j];
+				addLpsolveColumn(lowerbounds[j], upperbounds[j], types[j], 1, column, rowno);
+			}
 		} catch (LpSolveException e) {
 			e.printStackTrace();
 		}
 		
+		return first;
+	}
+	
+	/**
+	 * Adds a column with the given nonzeros, in which row 0 corresponds to the objective. Bounds and
+	 * type are only set if they differ from the defaults of lpsolve, which minimizes the number of calls.
+	 */
+	private LPVariable addLpsolveColumn(double lowerbound, double upperbound, LPVariableType type, int count, double[] column, int[] rowno) throws LpSolveException {
+		int id = numVariables+1;
+		model.addColumnex(count, column, rowno);
+		numVariables++;
+		LPVariable lpVar = new LPVariable(id, modelID);
+		
+		if(lowerbound != 0.0 || upperbound < model.getInfinite()) {
+			model.setBounds(id, lowerbound, upperbound);
+		}
+		
+		if(type == LPVariableType.INTEGER) {
+			model.setInt(id, true);
+		}
+		
 		return lpVar;
 	}
 
@@ -119,18 +173,14 @@ public class LPModelLPSolve implements LPModel {
 		LPConstraint lpConstr = null;
 		
 		if(expression instanceof LPExpressionLPSolve) {
-			LPExpressionLPSolve lpSolveExpression = (LPExpressionLPSolve) expression;
-			double[] expr = lpSolveExpression.getExpression();
-			
-			if(expr.length != lpVariables.size()+1) {
-				throw new LPException("Length of the expression does not match number of variables");
-			}
+			SparseTerms terms = ((LPExpressionLPSolve) expression).getTerms();
 			
 			try {
-				model.addConstraint(expr, getConstraintType(type), rhs);
-				int id = lpConstraints.size();
-				lpConstr = new LPConstraint(id, modelID);
-				lpConstraints.add(lpConstr);
+				setRowMode(true);
+				resetBasis();
+				model.addConstraintex(terms.size(), terms.getValues(), terms.getIndices(), getConstraintType(type), rhs);
+				lpConstr = new LPConstraint(numConstraints, modelID);
+				numConstraints++;
 			} catch (LpSolveException e) {
 				e.printStackTrace();
 			}
@@ -138,6 +188,67 @@ public class LPModelLPSolve implements LPModel {
 		
 		return lpConstr;
 	}
+	
+	@Override
+	public LPConstraint[] addConstraints(int[] rowStart, LPVariable[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException {
+		int[] varIndices = new int[rowStart[types.length]];
+		for(int p=0; p<varIndices.length; p++) {
+			if(vars[p].getModelID() != modelID) {
+				throw new LPException("Variable does not belong to this model");
+			}
+			
+			varIndices[p] = vars[p].getID()-1; // variable IDs correspond to lpsolve column numbers, which start at 1
+		}
+		
+		int first = addConstraintRange(rowStart, varIndices, coefficients, types, rhs);
+		
+		LPConstraint[] constraints = new LPConstraint[types.length];
+		for(int r=0; r<types.length; r++) {
+			constraints[r] = getConstraint(first+r);
+		}
+		
+		return constraints;
+	}
+	
+	@Override
+	public int addConstraintRange(int[] rowStart, int[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException {
+		int first = numConstraints;
+		int[] colno = new int[0];
+		double[] row = new double[0];
+		
+		try {
+			setRowMode(true);
+			resetBasis();
+			
+			for(int r=0; r<types.length; r++) {
+				int length = rowStart[r+1] - rowStart[r];
+				if(length > colno.length) {
+					colno = new int[length];
+					row = new double[length];
+				}
+				
+				int count = 0;
+				for(int p=rowStart[r]; p<rowStart[r+1]; p++) {
+					if(vars[p] < 0 || vars[p] >= numVariables) {
+						throw new LPException("Variable does not belong to this model");
+					}
+					
+					if(Math.abs(coefficients[p]) > coefficientTolerance) {
+						colno[count] = vars[p]+1;
+						row[count] = coefficients[p];
+						count++;
+					}
+				}
+				
+				model.addConstraintex(count, row, colno, getConstraintType(types[r]), rhs[r]);
+				numConstraints++;
+			}
+		} catch (LpSolveException e) {
+			e.printStackTrace();
+		}
+		
+		return first;
+	}
 
 	@Override
 	public LPVariable addColumn(double lowerbound, double upperbound, double obj, LPVariableType type, LPColumn column) throws LPException {
@@ -145,17 +256,18 @@ public class LPModelLPSolve implements LPModel {
 		
 		if(column instanceof LPColumnLPSolve) {
 			try {
-				LPColumnLPSolve col = (LPColumnLPSolve) column;
+				SparseTerms terms = ((LPColumnLPSolve) column).getTerms();
+				int count = terms.size();
+				
+				// the objective coefficient is passed as row 0
+				double[] values = new double[count+1];
+				int[] rowno = new int[count+1];
+				values[0] = obj;
+				System.arraycopy(terms.getValues(), 0, values, 1, count);
+				System.arraycopy(terms.getIndices(), 0, rowno, 1, count);
 				
-				int id = lpVariables.size()+1;
-				model.addColumn(col.getCol());
-				lpVar = new LPVariable(id, modelID);
-				lpVariables.add(lpVar);
-				model.setLowbo(id, lowerbound);
-				model.setUpbo(id, upperbound);
-				model.setObj(id, obj);
-				boolean intVar = (type == LPVariableType.INTEGER);
-				model.setInt(id, intVar);
+				setRowMode(false);
+				lpVar = addLpsolveColumn(lowerbound, upperbound, type, count+1, values, rowno);
 			} catch (LpSolveException e) {
 				e.printStackTrace();
 			}
@@ -164,11 +276,47 @@ public class LPModelLPSolve implements LPModel {
 		return lpVar;
 	}
 	
+	@Override
+	public LPVariable[] addColumns(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types, int[] colStart, LPConstraint[] constraints, double[] coefficients) throws LPException {
+		LPVariable[] vars = new LPVariable[obj.length];
+		
+		try {
+			setRowMode(false);
+			
+			for(int j=0; j<obj.length; j++) {
+				int count = colStart[j+1] - colStart[j];
+				double[] values = new double[count+1];
+				int[] rowno = new int[count+1];
+				values[0] = obj[j];
+				
+				for(int p=colStart[j]; p<colStart[j+1]; p++) {
+					if(constraints[p].getModelID() != modelID) {
+						throw new LPException("Constraint does not belong to this model");
+					}
+					
+					values[p-colStart[j]+1] = coefficients[p];
+					rowno[p-colStart[j]+1] = constraints[p].getID()+1; // constraint IDs start at 0, so we add 1
+				}
+				
+				vars[j] = addLpsolveColumn(lowerbounds[j], upperbounds[j], types[j], count+1, values, rowno);
+			}
+		} catch (LpSolveException e) {
+			e.printStackTrace();
+		}
+		
+		return vars;
+	}
+	
 	@Override
 	public void changeConstraintRHS(LPConstraint constraint, double rhs) throws LPException {
-		int constraintID = constraint.getID();
+		changeConstraintRHS(constraint.getID(), rhs);
+	}
+	
+	@Override
+	public void changeConstraintRHS(int constraint, double rhs) throws LPException {
 		try {
-			model.setRh(constraintID+1, rhs);  // +1 because constraint indices in LPsolve start at 1
+			setRowMode(false);
+			model.setRh(constraint+1, rhs);  // +1 because constraint indices in LPsolve start at 1
 		} catch (LpSolveException e) {
 			e.printStackTrace();
 		}
@@ -178,8 +326,13 @@ public class LPModelLPSolve implements LPModel {
 	public boolean solve() {
 		int result = -1;
 		
-		try {			
+		variableValues = null;
+		dualPrices = null;
+		
+		try {
+			setRowMode(false);
 			result = model.solve();
+			solved = true;
 		} catch (LpSolveException e) {
 			e.printStackTrace();
 		}
@@ -202,44 +355,209 @@ public class LPModelLPSolve implements LPModel {
 
 	@Override
 	public double getVariableValue(LPVariable var) {
-		double val = 0.0;
+		// in the array first entry corresponds to first variable, so we subtract 1
+		return getVariableValues()[var.getID()-1];
+	}
+
+	@Override
+	public double getDualPrice(LPConstraint constr) {
+		// our constraint IDs start at 0, and duals start from second entry, so we add 1
+		return getDualPrices()[constr.getID()+1];
+	}
+	
+	@Override
+	public void getVariableValues(int from, int length, double[] values, int offset) {
+		System.arraycopy(getVariableValues(), from, values, offset, length);
+	}
+	
+	@Override
+	public void getDualPrices(int from, int length, double[] duals, int offset) {
+		System.arraycopy(getDualPrices(), from+1, duals, offset, length);
+	}
+	
+	/**
+	 * Returns the variable values of the last solve. Each call of getPtrVariables copies the full
+	 * solution, so it is retrieved once and reused until the model is solved again.
+	 */
+	private double[] getVariableValues() {
+		if(variableValues == null) {
+			try {
+				variableValues = model.getPtrVariables();
+			} catch (LpSolveException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		return variableValues;
+	}
+	
+	private double[] getDualPrices() {
+		if(dualPrices == null) {
+			try {
+				dualPrices = model.getPtrDualSolution();
+			} catch (LpSolveException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		return dualPrices;
+	}
+	
+	@Override
+	public LPVariable getVariable(int index) {
+		assert index >= 0 && index < numVariables;
+		return new LPVariable(index+1, modelID);
+	}
+	
+	@Override
+	public LPConstraint getConstraint(int index) {
+		assert index >= 0 && index < numConstraints;
+		return new LPConstraint(index, modelID);
+	}
+
+	/**
+	 * lpsolve keeps the basis of the last solve itself and reuses it after modifications. In the basis
+	 * of lpsolve rows have index 1 to numRows and columns follow, and a negative sign indicates that
+	 * a nonbasic variable is at its lower bound. For rows, the lower bound corresponds to the
+	 * right-hand side, independent of the constraint type.
+	 */
+	@Override
+	public LPBasis getBasis() {
+		int numRows = numConstraints;
+		int numColumns = numVariables;
+		int[] basis = new int[1+numRows+numColumns];
+		LPBasisStatus[] variableStatus = new LPBasisStatus[numColumns];
+		LPBasisStatus[] constraintStatus = new LPBasisStatus[numRows];
 		
 		try {
-			// in the array first entry corresponds to first variable, so we subtract 1
-			val = model.getPtrVariables()[var.getID()-1];
+			setRowMode(false);
+			model.getBasis(basis, true);
+			
+			for(int k=1; k<basis.length; k++) {
+				int index = Math.abs(basis[k]);
+				boolean atLower = basis[k] < 0;
+				
+				if(index <= numRows) {
+					int row = index - 1;
+					boolean lessEqual = model.getConstrType(index) == LpSolve.LE;
+					
+					if(k <= numRows) {
+						constraintStatus[row] = LPBasisStatus.BASIC;
+					}
+					else {
+						constraintStatus[row] = (atLower == lessEqual) ? LPBasisStatus.AT_UPPER : LPBasisStatus.AT_LOWER;
+					}
+				}
+				else {
+					int col = index - numRows - 1;
+					
+					if(k <= numRows) {
+						variableStatus[col] = LPBasisStatus.BASIC;
+					}
+					else {
+						variableStatus[col] = atLower ? LPBasisStatus.AT_LOWER : LPBasisStatus.AT_UPPER;
+					}
+				}
+			}
 		} catch (LpSolveException e) {
 			e.printStackTrace();
+			return null;
 		}
 		
-		return val;
+		return new LPBasis(variableStatus, constraintStatus);
 	}
-
+	
 	@Override
-	public double getDualPrice(LPConstraint constr) {
-		double val = 0.0;
+	public void setBasis(LPBasis basis) throws LPException {
+		int numRows = numConstraints;
+		int numColumns = numVariables;
+		
+		if(basis.getNumVariables() != numColumns || basis.getNumConstraints() != numRows) {
+			throw new LPException("Basis does not match the size of the model");
+		}
+		
+		int[] basic = new int[1+numRows+numColumns];
+		int numBasic = 0;
+		int numNonbasic = 0;
+		int[] nonbasic = new int[numRows+numColumns];
 		
 		try {
-			double[] dual = model.getPtrDualSolution();
-			// our constraint IDs start at 0, and duals start from second entry, so we add 1
-			val = dual[constr.getID()+1];
+			setRowMode(false);
+			
+			for(int i=0; i<numRows+numColumns; i++) {
+				LPBasisStatus status;
+				boolean atLower;
+				
+				if(i < numRows) {
+					status = basis.getConstraintStatus(i);
+					boolean lessEqual = model.getConstrType(i+1) == LpSolve.LE;
+					atLower = (status == LPBasisStatus.AT_UPPER) == lessEqual;
+				}
+				else {
+					status = basis.getVariableStatus(i-numRows);
+					atLower = (status != LPBasisStatus.AT_UPPER);
+				}
+				
+				if(status == LPBasisStatus.BASIC) {
+					if(numBasic == numRows) {
+						throw new LPException("Basis contains more basic variables than constraints");
+					}
+					
+					numBasic++;
+					basic[numBasic] = -(i+1);
+				}
+				else {
+					nonbasic[numNonbasic] = atLower ? -(i+1) : (i+1);
+					numNonbasic++;
+				}
+			}
+			
+			if(numBasic < numRows) {
+				throw new LPException("Basis contains fewer basic variables than constraints");
+			}
+			
+			System.arraycopy(nonbasic, 0, basic, 1+numRows, numNonbasic);
+			model.setBasis(basic, true);
 		} catch (LpSolveException e) {
 			e.printStackTrace();
 		}
-		
-		return val;
 	}
-
+	
+	/**
+	 * lp_solve can return a wrong optimum when it reoptimizes from the basis of the last solve after rows
+	 * have been added, so in that case the next solve starts from the default basis
+	 */
+	private void resetBasis() throws LpSolveException {
+		if(solved) {
+			model.defaultBasis();
+			solved = false;
+		}
+	}
+	
+	/**
+	 * Switches lpsolve between row entry mode, which is efficient for adding many constraints,
+	 * and column entry mode, which is required for all other operations on the model.
+	 */
+	private void setRowMode(boolean rowMode) {
+		if(this.rowMode != rowMode) {
+			model.setAddRowmode(rowMode);
+			this.rowMode = rowMode;
+		}
+	}
+	
 	@Override
 	public void dispose() {
 		model.deleteLp();
 	}
 	
-	public int getNumVars() {
-		return lpVariables.size();
+	@Override
+	public int getNumVariables() {
+		return numVariables;
 	}
 	
+	@Override
 	public int getNumConstraints() {
-		return lpConstraints.size();
+		return numConstraints;
 	}
 
 	@Override
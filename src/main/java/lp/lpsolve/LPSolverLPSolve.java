@@ -32,4 +32,9 @@ public class LPSolverLPSolve implements LPSolver {
 	public boolean supportsMILP() {
 		return true;
 	}
+	
+	@Override
+	public void dispose() {
+		// the solver does not hold resources
+	}
 }
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp.pdlp;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lp.LPBasis;
+import lp.LPColumn;
+import lp.LPConstraint;
+import lp.LPConstraintType;
+import lp.LPException;
+import lp.LPExpression;
+import lp.LPModelColumnStore;
+import lp.LPVariable;
+import lp.LPVariableType;
+
+public class LPModelPDLP extends LPModelColumnStore {
+	private static final AtomicInteger numModels = new AtomicInteger(0);
+	
+	// last solution found
+	private double objectiveValue;
+	private double[] variableValues;
+	private double[] dualPrices;
+	
+	// last iterate, from which the next solve starts
+	private double[] startPrimal = new double[0];
+	private double[] startDual = new double[0];
+	
+	private final double tolerance;
+	private final int maxIterations;
+	
+	public static LPModelPDLP createModel(double tolerance, int maxIterations) {
+		return new LPModelPDLP(numModels.getAndIncrement(), tolerance, maxIterations);
+	}
+	
+	private LPModelPDLP(int modelID, double tolerance, int maxIterations) {
+		super(modelID, "PDLP solver");
+		this.tolerance = tolerance;
+		this.maxIterations = maxIterations;
+	}
+	
+	@Override
+	public LPExpression createExpression() {
+		return new LPExpressionPDLP(this);
+	}
+	
+	@Override
+	public LPColumn createColumn() {
+		return new LPColumnPDLP(this);
+	}
+	
+	@Override
+	public LPConstraint addConstraint(LPExpression expression, LPConstraintType type, double rhs) throws LPException {
+		LPConstraint lpConstr = null;
+		
+		if(expression instanceof LPExpressionPDLP) {
+			lpConstr = addConstraint(((LPExpressionPDLP) expression).getTerms(), type, rhs);
+		}
+		
+		return lpConstr;
+	}
+	
+	@Override
+	public LPVariable addColumn(double lowerbound, double upperbound, double obj, LPVariableType type, LPColumn column) throws LPException {
+		LPVariable lpVar = null;
+		
+		if(column instanceof LPColumnPDLP) {
+			lpVar = addColumn(lowerbound, upperbound, obj, type, ((LPColumnPDLP) column).getTerms());
+		}
+		
+		return lpVar;
+	}
+	
+	@Override
+	public boolean solve() {
+		// bounds of the variables, in which bounds beyond the infinite value are treated as infinite
+		double[] lower = new double[numVariables];
+		double[] upper = new double[numVariables];
+		getVariableBounds(lower, upper);
+		
+		PrimalDualHybridGradient pdhg = new PrimalDualHybridGradient(numVariables, numConstraints, columnIndices, columnValues, columnLengths, varObjectiveCoefficients, lower, upper, constraintType, constraintRHS, tolerance, maxIterations);
+		pdhg.setStartingPoint(startPrimal, startDual);
+		PrimalDualHybridGradient.Status status = pdhg.solve();
+		
+		if(status == PrimalDualHybridGradient.Status.OPTIMAL) {
+			// the next solve starts from this solution, such that it can be reoptimized after modifications
+			startPrimal = pdhg.getPrimalValues();
+			startDual = pdhg.getDualValues();
+			
+			variableValues = startPrimal;
+			dualPrices = pdhg.getDualPrices();
+			objectiveValue = 0.0;
+			for(int j=0; j<numVariables; j++) {
+				objectiveValue += varObjectiveCoefficients[j] * variableValues[j];
+			}
+			return true;
+		}
+		else {
+			// the iterate may have diverged, so the next solve starts from zero
+			startPrimal = new double[0];
+			startDual = new double[0];
+			
+			variableValues = null;
+			dualPrices = null;
+			return false;
+		}
+	}
+	
+	@Override
+	public double getObjectiveValue() {
+		return objectiveValue;
+	}
+	
+	@Override
+	public double getVariableValue(LPVariable var) {
+		int varID = var.getID();
+		return variableValues[varID];
+	}
+	
+	@Override
+	public double getDualPrice(LPConstraint constr) {
+		int constraintID = constr.getID();
+		return dualPrices[constraintID];
+	}
+	
+	@Override
+	public void getVariableValues(int from, int length, double[] values, int offset) {
+		System.arraycopy(variableValues, from, values, offset, length);
+	}
+	
+	@Override
+	public void getDualPrices(int from, int length, double[] duals, int offset) {
+		System.arraycopy(dualPrices, from, duals, offset, length);
+	}
+	
+	/**
+	 * PDLP does not compute a basis. Re-solving a model starts from the last iterate instead.
+	 */
+	@Override
+	public LPBasis getBasis() {
+		return null;
+	}
+	
+	@Override
+	public void setBasis(LPBasis basis) throws LPException {
+		if(basis.getNumVariables() > numVariables || basis.getNumConstraints() > numConstraints) {
+			throw new LPException("Basis does not match the size of the model");
+		}
+	}
+	
+	@Override
+	public void dispose() {
+		super.dispose();
+		variableValues = null;
+		dualPrices = null;
+		startPrimal = null;
+		startDual = null;
+	}
+}
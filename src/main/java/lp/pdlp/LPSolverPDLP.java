@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp.pdlp;
+
+import lp.LPModel;
+import lp.LPSolver;
+import util.ConfigFile;
+
+/**
+ * First-order LP solver based on the restarted primal-dual hybrid gradient method (PDLP). It does not
+ * factorize the constraint matrix, so it can be applied to LPs which are too large for simplex solvers.
+ * A model is solved if the relative primal residual, dual residual and duality gap are below the
+ * tolerance, which means that the solution is an approximate optimum.
+ */
+public class LPSolverPDLP implements LPSolver {
+	private final double tolerance;
+	private final int maxIterations;
+	
+	/**
+	 * Creates a solver which uses the tolerance and iteration limit in the config file
+	 */
+	public LPSolverPDLP() {
+		this(ConfigFile.getDoubleProperty("pdlp_tolerance"), ConfigFile.getIntProperty("pdlp_max_iterations"));
+	}
+	
+	public LPSolverPDLP(double tolerance, int maxIterations) {
+		this.tolerance = tolerance;
+		this.maxIterations = maxIterations;
+	}
+	
+	@Override
+	public LPModel createModel() {
+		return LPModelPDLP.createModel(tolerance, maxIterations);
+	}
+	
+	@Override
+	public boolean supportsMILP() {
+		return false;
+	}
+	
+	@Override
+	public void dispose() {
+		// the solver does not hold resources
+	}
+}
@@ -0,0 +1,703 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp.pdlp;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import lp.LPConstraintType;
+
+/**
+ * Restarted primal-dual hybrid gradient method (PDLP) for LPs of the form max c^T x subject to
+ * rows of type LE, EQ and GE and bounds on the variables, following Applegate et al. (2021).
+ * The method solves the saddle point problem min_x max_y -c^T x - y^T (b - Ax) and only uses the
+ * constraint matrix in matrix-vector products, such that memory usage is linear in the number of
+ * nonzeros. Diagonal preconditioning (Ruiz equilibration followed by Pock-Chambolle scaling) is
+ * applied implicitly using a step size for each variable and each row. The iterate restarts from
+ * the average iterate when the KKT error has decreased sufficiently, and the primal weight that
+ * balances the primal and dual step sizes is updated at each restart.
+ * 
+ * The matrix-vector products are divided into blocks of consecutive columns and rows with a similar
+ * number of nonzeros, which are processed in parallel. Rows with many nonzeros, such as constraints
+ * coupling all agents, are evaluated during the column pass, such that the row pass only contains
+ * short rows. For LPs with a block structure per agent, each block therefore reads and writes the
+ * variables and constraints of a few agents only.
+ */
+public class PrimalDualHybridGradient {
+	public enum Status { OPTIMAL, ITERATION_LIMIT }
+	
+	private static final int GREATER_EQUAL = 0;
+	private static final int LESS_EQUAL = 1;
+	private static final int EQUAL = 2;
+	
+	private final int evaluationFrequency = 64;
+	private final int numRuizIterations = 10;
+	private final int numPowerIterations = 30;
+	private final int minParallelNonzeros = 100000;
+	
+	private final int n;
+	private final int m;
+	private final int[][] colIndex;
+	private final double[][] colValue;
+	private final int[] colLength;
+	private final double[] cost;  // cost of the minimization problem, indexed by variable
+	private final double[] lower;
+	private final double[] upper;
+	private final int[] rowType;
+	private final double[] rhs;
+	private final double tolerance;
+	private final int maxIterations;
+	
+	// short rows in compressed sparse row format, rows with many nonzeros are handled during the column pass
+	private int[] rowStart;
+	private int[] rowCols;
+	private double[] rowValues;
+	private int[] denseIndex;  // index of a row among the dense rows, or -1
+	private int[] denseRows;
+	private boolean[] hasDenseEntries;
+	
+	// blocks of columns and short rows which are processed in parallel
+	private int[] colBlockStart;
+	private int[] rowBlockStart;
+	private double[][] densePartial;
+	
+	// diagonal scaling, which gives step size tau * colScale[j]^2 for variable j and sigma * rowScale[i]^2 for row i
+	private double[] colScale;
+	private double[] rowScale;
+	
+	private double[] x;
+	private double[] y;
+	private double[] xNew;
+	private double[] yNew;
+	private double[] xBar;
+	private double[] xSum;
+	private double[] ySum;
+	private double[] ax;
+	private double[] aty;
+	
+	private double stepSize;
+	private double primalWeight;
+	private int iterations = 0;
+	
+	public PrimalDualHybridGradient(int n, int m, int[][] colIndex, double[][] colValue, int[] colLength, double[] objective, double[] lower, double[] upper, LPConstraintType[] rowType, double[] rhs, double tolerance, int maxIterations) {
+		this.n = n;
+		this.m = m;
+		this.colIndex = colIndex;
+		this.colValue = colValue;
+		this.colLength = colLength;
+		this.lower = lower;
+		this.upper = upper;
+		this.rhs = rhs;
+		this.tolerance = tolerance;
+		this.maxIterations = maxIterations;
+		
+		this.cost = new double[n];
+		for(int j=0; j<n; j++) {
+			cost[j] = -objective[j];
+		}
+		
+		this.rowType = new int[m];
+		for(int i=0; i<m; i++) {
+			this.rowType[i] = (rowType[i] == LPConstraintType.GREATER_EQUAL) ? GREATER_EQUAL : ((rowType[i] == LPConstraintType.LESS_EQUAL) ? LESS_EQUAL : EQUAL);
+		}
+		
+		x = new double[n];
+		y = new double[m];
+		xNew = new double[n];
+		yNew = new double[m];
+		xBar = new double[n];
+		xSum = new double[n];
+		ySum = new double[m];
+		ax = new double[m];
+		aty = new double[n];
+		
+		for(int j=0; j<n; j++) {
+			x[j] = projectPrimal(j, 0.0);
+		}
+		
+		buildRows();
+		buildBlocks();
+		computeScaling();
+	}
+	
+	/**
+	 * Sets the starting point, which may contain fewer variables and rows than the LP
+	 */
+	public void setStartingPoint(double[] x0, double[] y0) {
+		for(int j=0; j<Math.min(n, x0.length); j++) {
+			x[j] = projectPrimal(j, x0[j]);
+		}
+		
+		for(int i=0; i<Math.min(m, y0.length); i++) {
+			y[i] = projectDual(i, y0[i]);
+		}
+	}
+	
+	private void buildRows() {
+		int[] rowLength = new int[m];
+		int nnz = 0;
+		for(int j=0; j<n; j++) {
+			for(int p=0; p<colLength[j]; p++) {
+				rowLength[colIndex[j][p]]++;
+			}
+			nnz += colLength[j];
+		}
+		
+		// rows with many nonzeros cannot be balanced over the row blocks
+		int denseThreshold = Math.max(1000, nnz / 64);
+		denseIndex = new int[m];
+		int numDense = 0;
+		for(int i=0; i<m; i++) {
+			denseIndex[i] = (rowLength[i] > denseThreshold) ? numDense++ : -1;
+		}
+		
+		denseRows = new int[numDense];
+		rowStart = new int[m+1];
+		for(int i=0; i<m; i++) {
+			if(denseIndex[i] >= 0) {
+				denseRows[denseIndex[i]] = i;
+				rowStart[i+1] = rowStart[i];
+			}
+			else {
+				rowStart[i+1] = rowStart[i] + rowLength[i];
+			}
+		}
+		
+		rowCols = new int[rowStart[m]];
+		rowValues = new double[rowStart[m]];
+		hasDenseEntries = new boolean[n];
+		int[] next = Arrays.copyOf(rowStart, m);
+		for(int j=0; j<n; j++) {
+			for(int p=0; p<colLength[j]; p++) {
+				int i = colIndex[j][p];
+				if(denseIndex[i] >= 0) {
+					hasDenseEntries[j] = true;
+				}
+				else {
+					rowCols[next[i]] = j;
+					rowValues[next[i]] = colValue[j][p];
+					next[i]++;
+				}
+			}
+		}
+	}
+	
+	private void buildBlocks() {
+		int nnz = 0;
+		for(int j=0; j<n; j++) {
+			nnz += colLength[j];
+		}
+		
+		int numBlocks = (nnz < minParallelNonzeros) ? 1 : 4 * ForkJoinPool.getCommonPoolParallelism();
+		
+		int[] colWeight = new int[n];
+		for(int j=0; j<n; j++) {
+			colWeight[j] = colLength[j] + 1;
+		}
+		colBlockStart = getBlocks(colWeight, numBlocks);
+		
+		int[] rowWeight = new int[m];
+		for(int i=0; i<m; i++) {
+			rowWeight[i] = rowStart[i+1] - rowStart[i] + 1;
+		}
+		rowBlockStart = getBlocks(rowWeight, numBlocks);
+		
+		densePartial = new double[colBlockStart.length-1][denseRows.length];
+	}
+	
+	/**
+	 * Divides the items into consecutive blocks with approximately the same total weight
+	 */
+	private static int[] getBlocks(int[] weight, int numBlocks) {
+		long totalWeight = 0;
+		for(int w : weight) {
+			totalWeight += w;
+		}
+		
+		int[] blockStart = new int[numBlocks+1];
+		int block = 1;
+		long cumulativeWeight = 0;
+		for(int k=0; k<weight.length && block<numBlocks; k++) {
+			cumulativeWeight += weight[k];
+			if(cumulativeWeight * numBlocks >= block * totalWeight) {
+				blockStart[block] = k+1;
+				block++;
+			}
+		}
+		for(; block<=numBlocks; block++) {
+			blockStart[block] = weight.length;
+		}
+		
+		return blockStart;
+	}
+	
+	private void forEachBlock(int numBlocks, IntConsumer task) {
+		if(numBlocks == 1) {
+			task.accept(0);
+		}
+		else {
+			IntStream.range(0, numBlocks).parallel().forEach(task);
+		}
+	}
+	
+	/**
+	 * Computes the diagonal scaling using Ruiz equilibration in the infinity norm, followed by a
+	 * Pock-Chambolle scaling, and determines the initial step size and primal weight
+	 */
+	private void computeScaling() {
+		colScale = new double[n];
+		rowScale = new double[m];
+		Arrays.fill(colScale, 1.0);
+		Arrays.fill(rowScale, 1.0);
+		
+		double[] colNorm = new double[n];
+		double[] rowNorm = new double[m];
+		
+		for(int k=0; k<=numRuizIterations; k++) {
+			boolean ruiz = (k < numRuizIterations);
+			Arrays.fill(colNorm, 0.0);
+			Arrays.fill(rowNorm, 0.0);
+			
+			for(int j=0; j<n; j++) {
+				for(int p=0; p<colLength[j]; p++) {
+					int i = colIndex[j][p];
+					double a = Math.abs(colValue[j][p]) * rowScale[i] * colScale[j];
+					
+					if(ruiz) {
+						colNorm[j] = Math.max(colNorm[j], a);
+						rowNorm[i] = Math.max(rowNorm[i], a);
+					}
+					else {
+						colNorm[j] += a;
+						rowNorm[i] += a;
+					}
+				}
+			}
+			
+			for(int j=0; j<n; j++) {
+				if(colNorm[j] > 0.0) {
+					colScale[j] /= Math.sqrt(colNorm[j]);
+				}
+			}
+			for(int i=0; i<m; i++) {
+				if(rowNorm[i] > 0.0) {
+					rowScale[i] /= Math.sqrt(rowNorm[i]);
+				}
+			}
+		}
+		
+		// the step size should satisfy tau * sigma * ||D_r A D_c||^2 < 1, where the norm is estimated by power iteration
+		double[] v = new double[n];
+		double[] w = new double[m];
+		Arrays.fill(v, 1.0 / Math.sqrt(Math.max(1, n)));
+		double norm = 0.0;
+		for(int k=0; k<numPowerIterations && m > 0; k++) {
+			for(int j=0; j<n; j++) {
+				xBar[j] = colScale[j] * v[j];
+			}
+			multiply(xBar, w);
+			for(int i=0; i<m; i++) {
+				w[i] *= rowScale[i] * rowScale[i];
+			}
+			multiplyTranspose(w, v);
+			
+			double vNorm = 0.0;
+			for(int j=0; j<n; j++) {
+				v[j] *= colScale[j];
+				vNorm += v[j] * v[j];
+			}
+			vNorm = Math.sqrt(vNorm);
+			
+			if(vNorm == 0.0) {
+				break;
+			}
+			
+			norm = Math.sqrt(vNorm);
+			for(int j=0; j<n; j++) {
+				v[j] /= vNorm;
+			}
+		}
+		stepSize = (norm > 0.0) ? 0.9 / (1.05 * norm) : 1.0;
+		
+		// the initial primal weight balances the norms of the scaled objective and right-hand side
+		double costNorm = 0.0;
+		for(int j=0; j<n; j++) {
+			costNorm += (cost[j] * colScale[j]) * (cost[j] * colScale[j]);
+		}
+		double rhsNorm = 0.0;
+		for(int i=0; i<m; i++) {
+			rhsNorm += (rhs[i] * rowScale[i]) * (rhs[i] * rowScale[i]);
+		}
+		primalWeight = (costNorm > 1e-12 && rhsNorm > 1e-12) ? Math.sqrt(costNorm / rhsNorm) : 1.0;
+	}
+	
+	private double projectPrimal(int j, double value) {
+		return Math.min(Math.max(value, lower[j]), upper[j]);
+	}
+	
+	private double projectDual(int i, double value) {
+		switch(rowType[i]) {
+			case GREATER_EQUAL:
+				return Math.max(value, 0.0);
+			case LESS_EQUAL:
+				return Math.min(value, 0.0);
+			default:
+				return value;
+		}
+	}
+	
+	/**
+	 * Computes out = Ax
+	 */
+	private void multiply(double[] x, double[] out) {
+		forEachBlock(colBlockStart.length-1, b -> {
+			double[] partial = densePartial[b];
+			Arrays.fill(partial, 0.0);
+			
+			for(int j=colBlockStart[b]; j<colBlockStart[b+1]; j++) {
+				if(hasDenseEntries[j] && x[j] != 0.0) {
+					for(int p=0; p<colLength[j]; p++) {
+						int k = denseIndex[colIndex[j][p]];
+						if(k >= 0) {
+							partial[k] += colValue[j][p] * x[j];
+						}
+					}
+				}
+			}
+		});
+		
+		forEachBlock(rowBlockStart.length-1, b -> {
+			for(int i=rowBlockStart[b]; i<rowBlockStart[b+1]; i++) {
+				double sum = 0.0;
+				for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+					sum += rowValues[p] * x[rowCols[p]];
+				}
+				out[i] = sum;
+			}
+		});
+		
+		for(int k=0; k<denseRows.length; k++) {
+			out[denseRows[k]] = sumDensePartial(k);
+		}
+	}
+	
+	/**
+	 * Computes out = A^T y
+	 */
+	private void multiplyTranspose(double[] y, double[] out) {
+		forEachBlock(colBlockStart.length-1, b -> {
+			for(int j=colBlockStart[b]; j<colBlockStart[b+1]; j++) {
+				double sum = 0.0;
+				for(int p=0; p<colLength[j]; p++) {
+					sum += colValue[j][p] * y[colIndex[j][p]];
+				}
+				out[j] = sum;
+			}
+		});
+	}
+	
+	private double sumDensePartial(int k) {
+		double sum = 0.0;
+		for(int b=0; b<densePartial.length; b++) {
+			sum += densePartial[b][k];
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Performs one iteration, in which the primal update and the products with the extrapolated primal
+	 * iterate for the dense rows are computed in the column pass, and the dual update in the row pass
+	 */
+	private void step() {
+		double tau = stepSize / primalWeight;
+		double sigma = stepSize * primalWeight;
+		
+		forEachBlock(colBlockStart.length-1, b -> {
+			double[] partial = densePartial[b];
+			Arrays.fill(partial, 0.0);
+			
+			for(int j=colBlockStart[b]; j<colBlockStart[b+1]; j++) {
+				double d = cost[j];
+				for(int p=0; p<colLength[j]; p++) {
+					d -= colValue[j][p] * y[colIndex[j][p]];
+				}
+				
+				double value = projectPrimal(j, x[j] - tau * colScale[j] * colScale[j] * d);
+				double extrapolated = 2.0 * value - x[j];
+				xNew[j] = value;
+				xBar[j] = extrapolated;
+				xSum[j] += value;
+				
+				if(hasDenseEntries[j] && extrapolated != 0.0) {
+					for(int p=0; p<colLength[j]; p++) {
+						int k = denseIndex[colIndex[j][p]];
+						if(k >= 0) {
+							partial[k] += colValue[j][p] * extrapolated;
+						}
+					}
+				}
+			}
+		});
+		
+		forEachBlock(rowBlockStart.length-1, b -> {
+			for(int i=rowBlockStart[b]; i<rowBlockStart[b+1]; i++) {
+				if(denseIndex[i] < 0) {
+					double sum = 0.0;
+					for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+						sum += rowValues[p] * xBar[rowCols[p]];
+					}
+					updateDual(i, sum, sigma);
+				}
+			}
+		});
+		
+		for(int k=0; k<denseRows.length; k++) {
+			updateDual(denseRows[k], sumDensePartial(k), sigma);
+		}
+		
+		double[] swap = x;
+		x = xNew;
+		xNew = swap;
+		swap = y;
+		y = yNew;
+		yNew = swap;
+	}
+	
+	private void updateDual(int i, double activity, double sigma) {
+		double value = projectDual(i, y[i] + sigma * rowScale[i] * rowScale[i] * (rhs[i] - activity));
+		yNew[i] = value;
+		ySum[i] += value;
+	}
+	
+	/**
+	 * Computes the residuals and objective values of a primal-dual pair, where index 0-1 contain the unscaled
+	 * primal and dual residuals, 2-3 the primal and dual objective and 4-5 the residuals of the scaled problem
+	 */
+	private double[] evaluate(double[] x, double[] y) {
+		multiply(x, ax);
+		multiplyTranspose(y, aty);
+		
+		double primalResidual = 0.0;
+		double scaledPrimalResidual = 0.0;
+		double dualObjective = 0.0;
+		for(int i=0; i<m; i++) {
+			double violation = rhs[i] - ax[i];
+			if(rowType[i] == GREATER_EQUAL) {
+				violation = Math.max(violation, 0.0);
+			}
+			else if(rowType[i] == LESS_EQUAL) {
+				violation = Math.min(violation, 0.0);
+			}
+			
+			primalResidual += violation * violation;
+			scaledPrimalResidual += (rowScale[i] * violation) * (rowScale[i] * violation);
+			dualObjective += rhs[i] * y[i];
+		}
+		
+		// the part of the reduced costs which is not explained by a finite bound is a dual residual
+		double dualResidual = 0.0;
+		double scaledDualResidual = 0.0;
+		double primalObjective = 0.0;
+		for(int j=0; j<n; j++) {
+			double reducedCost = cost[j] - aty[j];
+			double residual = 0.0;
+			
+			if(reducedCost > 0.0) {
+				if(lower[j] > Double.NEGATIVE_INFINITY) {
+					dualObjective += reducedCost * lower[j];
+				}
+				else {
+					residual = reducedCost;
+				}
+			}
+			else if(reducedCost < 0.0) {
+				if(upper[j] < Double.POSITIVE_INFINITY) {
+					dualObjective += reducedCost * upper[j];
+				}
+				else {
+					residual = reducedCost;
+				}
+			}
+			
+			dualResidual += residual * residual;
+			scaledDualResidual += (colScale[j] * residual) * (colScale[j] * residual);
+			primalObjective += cost[j] * x[j];
+		}
+		
+		return new double[]{Math.sqrt(primalResidual), Math.sqrt(dualResidual), primalObjective, dualObjective, Math.sqrt(scaledPrimalResidual), Math.sqrt(scaledDualResidual)};
+	}
+	
+	private double getKKTError(double[] evaluation) {
+		double gap = evaluation[2] - evaluation[3];
+		double primal = primalWeight * evaluation[4];
+		double dual = evaluation[5] / primalWeight;
+		return Math.sqrt(primal * primal + dual * dual + gap * gap);
+	}
+	
+	private boolean isConverged(double[] evaluation, double rhsNorm, double costNorm) {
+		double gap = Math.abs(evaluation[2] - evaluation[3]);
+		
+		return evaluation[0] <= tolerance * (1.0 + rhsNorm) && evaluation[1] <= tolerance * (1.0 + costNorm) && gap <= tolerance * (1.0 + Math.abs(evaluation[2]) + Math.abs(evaluation[3]));
+	}
+	
+	public Status solve() {
+		double rhsNorm = 0.0;
+		for(int i=0; i<m; i++) {
+			rhsNorm += rhs[i] * rhs[i];
+		}
+		rhsNorm = Math.sqrt(rhsNorm);
+		
+		double costNorm = 0.0;
+		for(int j=0; j<n; j++) {
+			costNorm += cost[j] * cost[j];
+		}
+		costNorm = Math.sqrt(costNorm);
+		
+		double[] xAverage = new double[n];
+		double[] yAverage = new double[m];
+		double[] xRestart = Arrays.copyOf(x, n);
+		double[] yRestart = Arrays.copyOf(y, m);
+		
+		double[] evaluation = evaluate(x, y);
+		if(isConverged(evaluation, rhsNorm, costNorm)) {
+			return Status.OPTIMAL;
+		}
+		
+		double restartKKTError = getKKTError(evaluation);
+		double previousKKTError = Double.POSITIVE_INFINITY;
+		int restartIteration = 0;
+		
+		while(iterations < maxIterations) {
+			step();
+			iterations++;
+			
+			if(iterations % evaluationFrequency != 0) {
+				continue;
+			}
+			
+			int numAveraged = iterations - restartIteration;
+			for(int j=0; j<n; j++) {
+				xAverage[j] = xSum[j] / numAveraged;
+			}
+			for(int i=0; i<m; i++) {
+				yAverage[i] = ySum[i] / numAveraged;
+			}
+			
+			double[] currentEvaluation = evaluate(x, y);
+			double[] averageEvaluation = evaluate(xAverage, yAverage);
+			
+			if(isConverged(averageEvaluation, rhsNorm, costNorm)) {
+				System.arraycopy(xAverage, 0, x, 0, n);
+				System.arraycopy(yAverage, 0, y, 0, m);
+				return Status.OPTIMAL;
+			}
+			
+			if(isConverged(currentEvaluation, rhsNorm, costNorm)) {
+				return Status.OPTIMAL;
+			}
+			
+			// restart from the iterate with the lowest KKT error if it has decreased sufficiently since the last restart
+			boolean useAverage = getKKTError(averageEvaluation) < getKKTError(currentEvaluation);
+			double[] candidateEvaluation = useAverage ? averageEvaluation : currentEvaluation;
+			double kktError = getKKTError(candidateEvaluation);
+			
+			boolean sufficientDecay = kktError <= 0.2 * restartKKTError;
+			boolean noProgress = kktError <= 0.8 * restartKKTError && kktError > previousKKTError;
+			boolean longCycle = numAveraged >= 0.36 * iterations;
+			
+			if(sufficientDecay || noProgress || longCycle) {
+				if(useAverage) {
+					System.arraycopy(xAverage, 0, x, 0, n);
+					System.arraycopy(yAverage, 0, y, 0, m);
+				}
+				
+				updatePrimalWeight(xRestart, yRestart);
+				System.arraycopy(x, 0, xRestart, 0, n);
+				System.arraycopy(y, 0, yRestart, 0, m);
+				Arrays.fill(xSum, 0.0);
+				Arrays.fill(ySum, 0.0);
+				
+				restartKKTError = getKKTError(candidateEvaluation);
+				previousKKTError = Double.POSITIVE_INFINITY;
+				restartIteration = iterations;
+			}
+			else {
+				previousKKTError = kktError;
+			}
+		}
+		
+		return Status.ITERATION_LIMIT;
+	}
+	
+	/**
+	 * Updates the primal weight based on the distance travelled by the scaled primal and dual iterates since the last restart
+	 */
+	private void updatePrimalWeight(double[] xRestart, double[] yRestart) {
+		double primalDistance = 0.0;
+		for(int j=0; j<n; j++) {
+			double delta = (x[j] - xRestart[j]) / colScale[j];
+			primalDistance += delta * delta;
+		}
+		
+		double dualDistance = 0.0;
+		for(int i=0; i<m; i++) {
+			double delta = (y[i] - yRestart[i]) / rowScale[i];
+			dualDistance += delta * delta;
+		}
+		
+		if(primalDistance > 1e-20 && dualDistance > 1e-20) {
+			double smoothing = 0.5;
+			primalWeight = Math.exp(smoothing * 0.5 * Math.log(dualDistance / primalDistance) + (1.0 - smoothing) * Math.log(primalWeight));
+		}
+	}
+	
+	public int getIterations() {
+		return iterations;
+	}
+	
+	/**
+	 * Returns the values of the variables
+	 */
+	public double[] getPrimalValues() {
+		return Arrays.copyOf(x, n);
+	}
+	
+	/**
+	 * Returns the dual prices of the rows for the maximization problem, which are the derivatives of
+	 * the objective value with respect to the right-hand sides
+	 */
+	public double[] getDualPrices() {
+		double[] dualPrices = new double[m];
+		for(int i=0; i<m; i++) {
+			dualPrices[i] = -y[i];
+		}
+		
+		return dualPrices;
+	}
+	
+	/**
+	 * Returns the dual values in the form used by setStartingPoint
+	 */
+	public double[] getDualValues() {
+		return Arrays.copyOf(y, m);
+	}
+}
@@ -0,0 +1,667 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp.presolve;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lp.LPBasis;
+import lp.LPBasisStatus;
+import lp.LPColumn;
+import lp.LPConstraint;
+import lp.LPConstraintType;
+import lp.LPException;
+import lp.LPExpression;
+import lp.LPModel;
+import lp.LPSolver;
+import lp.LPVariable;
+import lp.LPVariableType;
+import lp.SparseTerms;
+
+/**
+ * Model which stores the original LP, and solves a presolved version of it using another solver.
+ * The reduced model is kept between solves: right-hand side changes of remaining constraints, and
+ * variables and constraints which only refer to the reduced model, are passed on directly. Other
+ * modifications cause presolve to be executed again in the next solve.
+ */
+public class LPModelPresolve implements LPModel {
+	private static final AtomicInteger numModels = new AtomicInteger(0);
+	private int modelID = -1;
+	
+	private LPSolver solver;
+	private double infinite;
+	
+	private int numVariables = 0;
+	private int numConstraints = 0;
+	
+	// variable data, including the sparse columns of the constraint matrix
+	private double[] varLowerBounds = new double[16];
+	private double[] varUpperBounds = new double[16];
+	private double[] varObjectiveCoefficients = new double[16];
+	private LPVariableType[] varTypes = new LPVariableType[16];
+	private int[][] columnIndices = new int[16][];
+	private double[][] columnValues = new double[16][];
+	private int[] columnLengths = new int[16];
+	
+	// constraint data
+	private LPConstraintType[] constraintType = new LPConstraintType[16];
+	private double[] constraintRHS = new double[16];
+	
+	// reduced model, and the indices of the original variables and constraints in it (-1 if removed)
+	private Presolve presolve = null;
+	private LPModel reducedModel;
+	private boolean presolveRequired = true;
+	private int[] varMap = new int[16];
+	private int[] constraintMap = new int[16];
+	private LPBasis basis = null;
+	
+	// last solution found
+	private double objectiveValue;
+	private double[] variableValues;
+	private double[] dualPrices;
+	
+	private final double coefficientTolerance = 0.000000001;
+	
+	public static LPModelPresolve createModel(LPSolver solver) {
+		return new LPModelPresolve(numModels.getAndIncrement(), solver);
+	}
+	
+	private LPModelPresolve(int modelID, LPSolver solver) {
+		this.modelID = modelID;
+		this.solver = solver;
+		this.reducedModel = solver.createModel();
+		this.infinite = reducedModel.getInfinite();
+	}
+	
+	@Override
+	public int getModelID() {
+		return modelID;
+	}
+	
+	@Override
+	public LPExpression createExpression() {
+		return new LPExpressionPresolve(this);
+	}
+	
+	@Override
+	public LPColumn createColumn() {
+		return new LPColumnPresolve(this);
+	}
+	
+	/**
+	 * Returns true if modifications can be passed on to the reduced model
+	 */
+	private boolean isReduced() {
+		return !presolveRequired && reducedModel != null;
+	}
+	
+	@Override
+	public LPVariable addVariable(double lowerbound, double upperbound, double obj, LPVariableType type) throws LPException {
+		int first = addVariableRange(new double[]{lowerbound}, new double[]{upperbound}, new double[]{obj}, new LPVariableType[]{type});
+		return new LPVariable(first, modelID);
+	}
+	
+	@Override
+	public LPVariable[] addVariables(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types) throws LPException {
+		int first = addVariableRange(lowerbounds, upperbounds, obj, types);
+		
+		LPVariable[] lpVars = new LPVariable[obj.length];
+		for(int j=0; j<obj.length; j++) {
+			lpVars[j] = new LPVariable(first+j, modelID);
+		}
+		
+		return lpVars;
+	}
+	
+	@Override
+	public int addVariableRange(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types) throws LPException {
+		checkVariableTypes(types);
+		
+		int first = numVariables;
+		for(int j=0; j<obj.length; j++) {
+			addVariableIndex(lowerbounds[j], upperbounds[j], obj[j], types[j]);
+		}
+		
+		if(isReduced()) {
+			int reducedFirst = reducedModel.addVariableRange(lowerbounds, upperbounds, obj, types);
+			for(int j=0; j<obj.length; j++) {
+				varMap[first+j] = reducedFirst + j;
+			}
+		}
+		else {
+			presolveRequired = true;
+		}
+		
+		return first;
+	}
+	
+	private void checkVariableTypes(LPVariableType[] types) throws LPException {
+		if(!solver.supportsMILP()) {
+			for(LPVariableType type : types) {
+				if(type == LPVariableType.INTEGER) {
+					throw new LPException("Integer variables not supported by the solver");
+				}
+			}
+		}
+	}
+	
+	private int addVariableIndex(double lowerbound, double upperbound, double obj, LPVariableType type) {
+		if(numVariables == varLowerBounds.length) {
+			int newLength = 2 * numVariables;
+			varLowerBounds = Arrays.copyOf(varLowerBounds, newLength);
+			varUpperBounds = Arrays.copyOf(varUpperBounds, newLength);
+			varObjectiveCoefficients = Arrays.copyOf(varObjectiveCoefficients, newLength);
+			varTypes = Arrays.copyOf(varTypes, newLength);
+			columnIndices = Arrays.copyOf(columnIndices, newLength);
+			columnValues = Arrays.copyOf(columnValues, newLength);
+			columnLengths = Arrays.copyOf(columnLengths, newLength);
+			varMap = Arrays.copyOf(varMap, newLength);
+		}
+		
+		varLowerBounds[numVariables] = lowerbound;
+		varUpperBounds[numVariables] = upperbound;
+		varObjectiveCoefficients[numVariables] = obj;
+		varTypes[numVariables] = type;
+		columnIndices[numVariables] = new int[4];
+		columnValues[numVariables] = new double[4];
+		columnLengths[numVariables] = 0;
+		varMap[numVariables] = -1;
+		numVariables++;
+		
+		return numVariables-1;
+	}
+	
+	@Override
+	public LPConstraint addConstraint(LPExpression expression, LPConstraintType type, double rhs) throws LPException {
+		LPConstraint lpConstr = null;
+		
+		if(expression instanceof LPExpressionPresolve) {
+			SparseTerms terms = ((LPExpressionPresolve) expression).getTerms();
+			int first = addConstraintRange(new int[]{0, terms.size()}, terms.getIndices(), terms.getValues(), new LPConstraintType[]{type}, new double[]{rhs});
+			lpConstr = new LPConstraint(first, modelID);
+		}
+		
+		return lpConstr;
+	}
+	
+	@Override
+	public LPConstraint[] addConstraints(int[] rowStart, LPVariable[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException {
+		int[] varIndices = new int[rowStart[types.length]];
+		for(int p=0; p<varIndices.length; p++) {
+			if(vars[p].getModelID() != modelID) {
+				throw new LPException("Variable does not belong to this model");
+			}
+			
+			varIndices[p] = vars[p].getID();
+		}
+		
+		int first = addConstraintRange(rowStart, varIndices, coefficients, types, rhs);
+		
+		LPConstraint[] lpConstraints = new LPConstraint[types.length];
+		for(int r=0; r<types.length; r++) {
+			lpConstraints[r] = new LPConstraint(first+r, modelID);
+		}
+		
+		return lpConstraints;
+	}
+	
+	@Override
+	public int addConstraintRange(int[] rowStart, int[] vars, double[] coefficients, LPConstraintType[] types, double[] rhs) throws LPException {
+		int nnz = rowStart[types.length];
+		boolean forward = isReduced();
+		
+		for(int p=0; p<nnz; p++) {
+			if(vars[p] < 0 || vars[p] >= numVariables) {
+				throw new LPException("Variable does not belong to this model");
+			}
+			
+			// constraints can only be passed on if the bounds of their variables have not been changed by presolve
+			if(forward && Math.abs(coefficients[p]) > coefficientTolerance) {
+				int j = vars[p];
+				forward = varMap[j] >= 0 && (j >= presolve.getNumVariables() || !presolve.isBoundTightened(j));
+			}
+		}
+		
+		int first = numConstraints;
+		
+		for(int r=0; r<types.length; r++) {
+			if(numConstraints == constraintType.length) {
+				int newLength = 2 * numConstraints;
+				constraintType = Arrays.copyOf(constraintType, newLength);
+				constraintRHS = Arrays.copyOf(constraintRHS, newLength);
+				constraintMap = Arrays.copyOf(constraintMap, newLength);
+			}
+			
+			int id = numConstraints;
+			for(int p=rowStart[r]; p<rowStart[r+1]; p++) {
+				if(Math.abs(coefficients[p]) > coefficientTolerance) {
+					addEntry(vars[p], id, coefficients[p]);
+				}
+			}
+			constraintType[id] = types[r];
+			constraintRHS[id] = rhs[r];
+			constraintMap[id] = -1;
+			numConstraints++;
+		}
+		
+		if(forward) {
+			int[] reducedVars = new int[nnz];
+			for(int p=0; p<nnz; p++) {
+				reducedVars[p] = varMap[vars[p]];
+			}
+			
+			int reducedFirst = reducedModel.addConstraintRange(rowStart, reducedVars, coefficients, types, rhs);
+			for(int r=0; r<types.length; r++) {
+				constraintMap[first+r] = reducedFirst + r;
+			}
+		}
+		else {
+			presolveRequired = true;
+		}
+		
+		return first;
+	}
+	
+	@Override
+	public LPVariable addColumn(double lowerbound, double upperbound, double obj, LPVariableType type, LPColumn column) throws LPException {
+		LPVariable lpVar = null;
+		
+		if(column instanceof LPColumnPresolve) {
+			SparseTerms terms = ((LPColumnPresolve) column).getTerms();
+			int[] indices = terms.getIndices();
+			
+			LPConstraint[] constraints = new LPConstraint[terms.size()];
+			for(int k=0; k<terms.size(); k++) {
+				assert indices[k] < numConstraints;
+				constraints[k] = new LPConstraint(indices[k], modelID);
+			}
+			
+			lpVar = addColumns(new double[]{lowerbound}, new double[]{upperbound}, new double[]{obj}, new LPVariableType[]{type}, new int[]{0, terms.size()}, constraints, terms.getValues())[0];
+		}
+		
+		return lpVar;
+	}
+	
+	@Override
+	public LPVariable[] addColumns(double[] lowerbounds, double[] upperbounds, double[] obj, LPVariableType[] types, int[] colStart, LPConstraint[] constraints, double[] coefficients) throws LPException {
+		checkVariableTypes(types);
+		
+		int nnz = colStart[obj.length];
+		boolean forward = isReduced();
+		
+		for(int p=0; p<nnz; p++) {
+			if(constraints[p].getModelID() != modelID) {
+				throw new LPException("Constraint does not belong to this model");
+			}
+			
+			forward = forward && constraintMap[constraints[p].getID()] >= 0;
+		}
+		
+		int first = numVariables;
+		LPVariable[] lpVars = new LPVariable[obj.length];
+		
+		for(int j=0; j<obj.length; j++) {
+			addVariableIndex(lowerbounds[j], upperbounds[j], obj[j], types[j]);
+			lpVars[j] = new LPVariable(first+j, modelID);
+			
+			for(int p=colStart[j]; p<colStart[j+1]; p++) {
+				addEntry(first+j, constraints[p].getID(), coefficients[p]);
+			}
+		}
+		
+		if(forward) {
+			LPConstraint[] reducedConstraints = new LPConstraint[nnz];
+			for(int p=0; p<nnz; p++) {
+				reducedConstraints[p] = reducedModel.getConstraint(constraintMap[constraints[p].getID()]);
+			}
+			
+			int reducedFirst = reducedModel.getNumVariables();
+			reducedModel.addColumns(lowerbounds, upperbounds, obj, types, colStart, reducedConstraints, coefficients);
+			for(int j=0; j<obj.length; j++) {
+				varMap[first+j] = reducedFirst + j;
+			}
+		}
+		else {
+			presolveRequired = true;
+		}
+		
+		return lpVars;
+	}
+	
+	private void addEntry(int varID, int constraintID, double value) {
+		int length = columnLengths[varID];
+		
+		if(length == columnIndices[varID].length) {
+			columnIndices[varID] = Arrays.copyOf(columnIndices[varID], 2 * length);
+			columnValues[varID] = Arrays.copyOf(columnValues[varID], 2 * length);
+		}
+		
+		columnIndices[varID][length] = constraintID;
+		columnValues[varID][length] = value;
+		columnLengths[varID]++;
+	}
+	
+	@Override
+	public void changeConstraintRHS(LPConstraint constraint, double rhs) throws LPException {
+		if(constraint.getModelID() != modelID) {
+			throw new LPException("Expression has not been created for this model");
+		}
+		
+		changeConstraintRHS(constraint.getID(), rhs);
+	}
+	
+	@Override
+	public void changeConstraintRHS(int constraint, double rhs) throws LPException {
+		if(constraint < 0 || constraint >= numConstraints) {
+			throw new LPException("Constraint does not belong to this model");
+		}
+		
+		if(isReduced() && constraintMap[constraint] >= 0) {
+			double shift = (constraint < presolve.getNumConstraints()) ? presolve.getRHSShift(constraint) : 0.0;
+			reducedModel.changeConstraintRHS(constraintMap[constraint], rhs - shift);
+		}
+		else {
+			// the reduced model is rebuilt, and starts from the basis of the last solve unless another basis has been set
+			if(isReduced() && basis == null) {
+				basis = getBasis();
+			}
+			
+			presolveRequired = true;
+		}
+		
+		constraintRHS[constraint] = rhs;
+	}
+	
+	/**
+	 * Presolves the current model and creates the reduced model, which starts from the basis set by setBasis if available
+	 */
+	private void runPresolve() {
+		LPBasis startBasis = basis;
+		basis = null;
+		
+		if(reducedModel != null) {
+			reducedModel.dispose();
+			reducedModel = null;
+		}
+		
+		variableValues = null;
+		dualPrices = null;
+		presolveRequired = false;
+		Arrays.fill(varMap, -1);
+		Arrays.fill(constraintMap, -1);
+		
+		boolean[] integer = new boolean[numVariables];
+		for(int j=0; j<numVariables; j++) {
+			integer[j] = (varTypes[j] == LPVariableType.INTEGER);
+		}
+		
+		presolve = new Presolve(numVariables, varLowerBounds, varUpperBounds, varObjectiveCoefficients, integer, columnIndices, columnValues, columnLengths, numConstraints, constraintType, constraintRHS, infinite);
+		if(!presolve.run()) {
+			return;
+		}
+		
+		int numReducedVars = presolve.getNumReducedVariables();
+		double[] lowerbounds = new double[numReducedVars];
+		double[] upperbounds = new double[numReducedVars];
+		double[] obj = new double[numReducedVars];
+		LPVariableType[] types = new LPVariableType[numReducedVars];
+		for(int j=0; j<numVariables; j++) {
+			int k = presolve.getReducedVariable(j);
+			varMap[j] = k;
+			
+			if(k >= 0) {
+				lowerbounds[k] = presolve.getLowerBound(j);
+				upperbounds[k] = presolve.getUpperBound(j);
+				obj[k] = varObjectiveCoefficients[j];
+				types[k] = varTypes[j];
+			}
+		}
+		
+		int numReducedConstraints = presolve.getNumReducedConstraints();
+		int[] rowStart = new int[numReducedConstraints+1];
+		int[] vars = new int[presolve.getNumReducedNonzeros()];
+		double[] coefficients = new double[vars.length];
+		LPConstraintType[] constraintTypes = new LPConstraintType[numReducedConstraints];
+		double[] rhs = new double[numReducedConstraints];
+		presolve.getReducedRows(rowStart, vars, coefficients, constraintTypes, rhs);
+		for(int i=0; i<numConstraints; i++) {
+			constraintMap[i] = presolve.getReducedConstraint(i);
+		}
+		
+		try {
+			reducedModel = solver.createModel();
+			reducedModel.addVariableRange(lowerbounds, upperbounds, obj, types);
+			reducedModel.addConstraintRange(rowStart, vars, coefficients, constraintTypes, rhs);
+		} catch (LPException e) {
+			e.printStackTrace();
+		}
+		
+		if(startBasis != null) {
+			setReducedBasis(startBasis);
+		}
+	}
+	
+	/**
+	 * Passes a basis on to the reduced model, if its restriction to the reduced model is a basis
+	 */
+	private void setReducedBasis(LPBasis basis) {
+		LPBasisStatus[] variableStatus = new LPBasisStatus[reducedModel.getNumVariables()];
+		LPBasisStatus[] constraintStatus = new LPBasisStatus[reducedModel.getNumConstraints()];
+		Arrays.fill(variableStatus, LPBasisStatus.AT_LOWER);
+		Arrays.fill(constraintStatus, LPBasisStatus.BASIC);
+		
+		for(int j=0; j<Math.min(numVariables, basis.getNumVariables()); j++) {
+			if(varMap[j] >= 0) {
+				variableStatus[varMap[j]] = basis.getVariableStatus(j);
+			}
+		}
+		
+		for(int i=0; i<Math.min(numConstraints, basis.getNumConstraints()); i++) {
+			if(constraintMap[i] >= 0) {
+				constraintStatus[constraintMap[i]] = basis.getConstraintStatus(i);
+			}
+		}
+		
+		int numBasic = 0;
+		for(LPBasisStatus status : variableStatus) {
+			numBasic += (status == LPBasisStatus.BASIC) ? 1 : 0;
+		}
+		for(LPBasisStatus status : constraintStatus) {
+			numBasic += (status == LPBasisStatus.BASIC) ? 1 : 0;
+		}
+		
+		if(numBasic == constraintStatus.length) {
+			try {
+				reducedModel.setBasis(new LPBasis(variableStatus, constraintStatus));
+			} catch (LPException e) {
+				// the reduced model is solved without a starting basis
+			}
+		}
+	}
+	
+	@Override
+	public boolean solve() {
+		if(presolveRequired) {
+			runPresolve();
+		}
+		
+		if(reducedModel == null) {
+			// presolve has found that the model is infeasible or unbounded
+			return false;
+		}
+		
+		int numReducedVars = reducedModel.getNumVariables();
+		int numReducedConstraints = reducedModel.getNumConstraints();
+		boolean empty = (numReducedVars == 0 && numReducedConstraints == 0);
+		
+		if(!empty && !reducedModel.solve()) {
+			variableValues = null;
+			dualPrices = null;
+			return false;
+		}
+		
+		double[] reducedValues = new double[numReducedVars];
+		double[] reducedDuals = new double[numReducedConstraints];
+		if(!empty) {
+			reducedModel.getVariableValues(0, numReducedVars, reducedValues, 0);
+			reducedModel.getDualPrices(0, numReducedConstraints, reducedDuals, 0);
+		}
+		
+		variableValues = new double[numVariables];
+		dualPrices = new double[numConstraints];
+		presolve.postsolve(reducedValues, reducedDuals, variableValues, dualPrices);
+		
+		// variables and constraints which have been added to the reduced model after presolve
+		for(int j=presolve.getNumVariables(); j<numVariables; j++) {
+			variableValues[j] = reducedValues[varMap[j]];
+		}
+		for(int i=presolve.getNumConstraints(); i<numConstraints; i++) {
+			dualPrices[i] = reducedDuals[constraintMap[i]];
+		}
+		
+		objectiveValue = 0.0;
+		for(int j=0; j<numVariables; j++) {
+			objectiveValue += varObjectiveCoefficients[j] * variableValues[j];
+		}
+		
+		return true;
+	}
+	
+	@Override
+	public double getObjectiveValue() {
+		return objectiveValue;
+	}
+	
+	@Override
+	public double getVariableValue(LPVariable var) {
+		int varID = var.getID();
+		return variableValues[varID];
+	}
+	
+	@Override
+	public double getDualPrice(LPConstraint constr) {
+		int constraintID = constr.getID();
+		return dualPrices[constraintID];
+	}
+	
+	@Override
+	public void getVariableValues(int from, int length, double[] values, int offset) {
+		System.arraycopy(variableValues, from, values, offset, length);
+	}
+	
+	@Override
+	public void getDualPrices(int from, int length, double[] duals, int offset) {
+		System.arraycopy(dualPrices, from, duals, offset, length);
+	}
+	
+	@Override
+	public LPVariable getVariable(int index) {
+		assert index >= 0 && index < numVariables;
+		return new LPVariable(index, modelID);
+	}
+	
+	@Override
+	public LPConstraint getConstraint(int index) {
+		assert index >= 0 && index < numConstraints;
+		return new LPConstraint(index, modelID);
+	}
+	
+	@Override
+	public LPBasis getBasis() {
+		if(presolve == null || reducedModel == null || variableValues == null) {
+			return null;
+		}
+		
+		// a reduced model without variables and constraints has not been passed to the solver
+		boolean empty = (reducedModel.getNumVariables() == 0 && reducedModel.getNumConstraints() == 0);
+		LPBasis reducedBasis = empty ? new LPBasis(new LPBasisStatus[0], new LPBasisStatus[0]) : reducedModel.getBasis();
+		if(reducedBasis == null) {
+			return null;
+		}
+		
+		LPBasisStatus[] variableStatus = new LPBasisStatus[numVariables];
+		LPBasisStatus[] constraintStatus = new LPBasisStatus[numConstraints];
+		presolve.postsolveBasis(reducedBasis, variableValues, variableStatus, constraintStatus);
+		
+		// variables and constraints added after the last solve are not part of the basis of the reduced model
+		for(int j=presolve.getNumVariables(); j<numVariables; j++) {
+			boolean inBasis = varMap[j] >= 0 && varMap[j] < reducedBasis.getNumVariables();
+			variableStatus[j] = inBasis ? reducedBasis.getVariableStatus(varMap[j]) : LPBasisStatus.AT_LOWER;
+		}
+		for(int i=presolve.getNumConstraints(); i<numConstraints; i++) {
+			boolean inBasis = constraintMap[i] >= 0 && constraintMap[i] < reducedBasis.getNumConstraints();
+			constraintStatus[i] = inBasis ? reducedBasis.getConstraintStatus(constraintMap[i]) : LPBasisStatus.BASIC;
+		}
+		
+		return new LPBasis(variableStatus, constraintStatus);
+	}
+	
+	@Override
+	public void setBasis(LPBasis basis) throws LPException {
+		if(basis.getNumVariables() > numVariables || basis.getNumConstraints() > numConstraints) {
+			throw new LPException("Basis does not match the size of the model");
+		}
+		
+		if(isReduced()) {
+			setReducedBasis(basis);
+		}
+		else {
+			this.basis = basis;
+		}
+	}
+	
+	@Override
+	public double getInfinite() {
+		return infinite;
+	}
+	
+	@Override
+	public void dispose() {
+		if(reducedModel != null) {
+			reducedModel.dispose();
+		}
+		
+		reducedModel = null;
+		presolve = null;
+		varLowerBounds = null;
+		varUpperBounds = null;
+		varObjectiveCoefficients = null;
+		varTypes = null;
+		columnIndices = null;
+		columnValues = null;
+		columnLengths = null;
+		constraintType = null;
+		constraintRHS = null;
+		varMap = null;
+		constraintMap = null;
+		variableValues = null;
+		dualPrices = null;
+		basis = null;
+	}
+	
+	@Override
+	public int getNumVariables() {
+		return numVariables;
+	}
+	
+	@Override
+	public int getNumConstraints() {
+		return numConstraints;
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp.presolve;
+
+import lp.LPModel;
+import lp.LPSolver;
+
+/**
+ * Solver which presolves each model before passing it to another solver. Presolve removes rows and
+ * columns which can be eliminated without solving the LP, and maps the solution of the reduced model
+ * back to the original model, including the dual prices. The models are created by the other solver,
+ * so they are thread-safe if that solver is thread-safe.
+ */
+public class LPSolverPresolve implements LPSolver {
+	private LPSolver solver;
+	
+	public LPSolverPresolve(LPSolver solver) {
+		this.solver = solver;
+	}
+	
+	@Override
+	public LPModel createModel() {
+		return LPModelPresolve.createModel(solver);
+	}
+	
+	@Override
+	public boolean supportsMILP() {
+		return solver.supportsMILP();
+	}
+	
+	@Override
+	public void dispose() {
+		// the other solver is owned by the caller, which disposes it
+	}
+	
+}
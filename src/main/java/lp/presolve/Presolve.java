@@ -0,0 +1,715 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp.presolve;
+
+import java.util.Arrays;
+
+import lp.LPBasis;
+import lp.LPBasisStatus;
+import lp.LPConstraintType;
+
+/**
+ * Presolve of an LP max c^T x subject to rows of type LE, EQ and GE and bounds on the variables.
+ * The following reductions are applied until none of them applies anymore:
+ * <ul>
+ * <li>empty rows and rows which are satisfied by all values within the bounds are removed</li>
+ * <li>fixed columns, and columns without coefficients in the remaining rows, are fixed at a bound and removed</li>
+ * <li>singleton equality rows fix their variable, and singleton inequality rows are replaced by a bound</li>
+ * <li>forcing rows, which can only be satisfied if all their variables are at a bound, fix these variables</li>
+ * </ul>
+ * Each reduction is recorded, such that the primal values and dual prices of the original LP can be
+ * recovered from an optimal solution of the reduced LP. The reductions are undone in reverse order, and
+ * the dual price of a removed row is chosen such that the reduced costs of its variables remain optimal.
+ */
+class Presolve {
+	private static final int EMPTY_ROW = 0;
+	private static final int REDUNDANT_ROW = 1;
+	private static final int SINGLETON_EQUALITY = 2;
+	private static final int SINGLETON_INEQUALITY = 3;
+	private static final int FORCING_ROW = 4;
+	
+	private static final int SIDE_NONE = 0;
+	private static final int SIDE_LOWER = 1;
+	private static final int SIDE_UPPER = 2;
+	
+	private final double coefficientTolerance = 0.000000001;
+	private final double feasibilityTolerance = 0.000000001;
+	
+	private final int numVars;
+	private final int numRows;
+	private final double infinity;
+	
+	// original problem, in which the columns only contain coefficients above the tolerance
+	private final double[] obj;
+	private final double[] originalLower;
+	private final double[] originalUpper;
+	private final boolean[] integer;
+	private final int[][] colIndices;
+	private final double[][] colValues;
+	private final int[] colLengths;
+	private final LPConstraintType[] rowType;
+	private final double[] originalRHS;
+	
+	// rows in compressed sparse row format
+	private final int[] rowStart;
+	private final int[] rowCols;
+	private final double[] rowValues;
+	
+	// state of the reduced problem
+	private final double[] lower;
+	private final double[] upper;
+	private final double[] rhs;
+	private final boolean[] colActive;
+	private final boolean[] rowActive;
+	private final int[] colCount;
+	private final int[] rowCount;
+	private final double[] value; // value of removed columns
+	private boolean unsolvable = false;
+	
+	// worklists of rows and columns which need to be checked
+	private final int[] rowStack;
+	private final boolean[] rowQueued;
+	private int rowStackSize = 0;
+	private final int[] colStack;
+	private final boolean[] colQueued;
+	private int colStackSize = 0;
+	
+	// recorded reductions, in which forcing rows store their fixed columns in opColumns
+	private int numOps = 0;
+	private int[] opType = new int[16];
+	private int[] opRow = new int[16];
+	private int[] opCol = new int[16];
+	private int[] opSide = new int[16];
+	private double[] opBound = new double[16];
+	private int[] opColumnsStart = new int[17];
+	private int[] opColumns = new int[16];
+	
+	// mapping between the original and the reduced problem
+	private int[] varMap;
+	private int[] rowMap;
+	private int numReducedVars;
+	private int[] reducedRows;
+	
+	Presolve(int numVars, double[] lowerbounds, double[] upperbounds, double[] obj, boolean[] integer,
+			int[][] colIndices, double[][] colValues, int[] colLengths,
+			int numRows, LPConstraintType[] rowType, double[] rhs, double infinity) {
+		this.numVars = numVars;
+		this.numRows = numRows;
+		this.infinity = infinity;
+		this.obj = Arrays.copyOf(obj, numVars);
+		this.integer = Arrays.copyOf(integer, numVars);
+		this.rowType = Arrays.copyOf(rowType, numRows);
+		this.originalRHS = Arrays.copyOf(rhs, numRows);
+		this.rhs = Arrays.copyOf(rhs, numRows);
+		
+		// bounds beyond the infinite value are treated as infinite
+		this.originalLower = new double[numVars];
+		this.originalUpper = new double[numVars];
+		for(int j=0; j<numVars; j++) {
+			originalLower[j] = (lowerbounds[j] <= -infinity) ? Double.NEGATIVE_INFINITY : lowerbounds[j];
+			originalUpper[j] = (upperbounds[j] >= infinity) ? Double.POSITIVE_INFINITY : upperbounds[j];
+		}
+		this.lower = Arrays.copyOf(originalLower, numVars);
+		this.upper = Arrays.copyOf(originalUpper, numVars);
+		
+		// copy the columns without coefficients below the tolerance
+		this.colIndices = new int[numVars][];
+		this.colValues = new double[numVars][];
+		this.colLengths = new int[numVars];
+		this.rowCount = new int[numRows];
+		for(int j=0; j<numVars; j++) {
+			int[] indices = new int[colLengths[j]];
+			double[] values = new double[colLengths[j]];
+			int length = 0;
+			for(int p=0; p<colLengths[j]; p++) {
+				if(Math.abs(colValues[j][p]) > coefficientTolerance) {
+					indices[length] = colIndices[j][p];
+					values[length] = colValues[j][p];
+					rowCount[indices[length]]++;
+					length++;
+				}
+			}
+			this.colIndices[j] = indices;
+			this.colValues[j] = values;
+			this.colLengths[j] = length;
+		}
+		
+		// transpose the columns into rows
+		this.rowStart = new int[numRows+1];
+		for(int i=0; i<numRows; i++) {
+			rowStart[i+1] = rowStart[i] + rowCount[i];
+		}
+		this.rowCols = new int[rowStart[numRows]];
+		this.rowValues = new double[rowStart[numRows]];
+		int[] next = Arrays.copyOf(rowStart, numRows);
+		for(int j=0; j<numVars; j++) {
+			for(int p=0; p<this.colLengths[j]; p++) {
+				int i = this.colIndices[j][p];
+				rowCols[next[i]] = j;
+				rowValues[next[i]] = this.colValues[j][p];
+				next[i]++;
+			}
+		}
+		
+		this.colActive = new boolean[numVars];
+		this.rowActive = new boolean[numRows];
+		this.colCount = Arrays.copyOf(this.colLengths, numVars);
+		this.value = new double[numVars];
+		Arrays.fill(colActive, true);
+		Arrays.fill(rowActive, true);
+		
+		this.rowStack = new int[numRows];
+		this.rowQueued = new boolean[numRows];
+		this.colStack = new int[numVars];
+		this.colQueued = new boolean[numVars];
+	}
+	
+	/**
+	 * Applies the reductions, and returns false if the LP has been found to be infeasible or unbounded
+	 */
+	boolean run() {
+		for(int j=0; j<numVars; j++) {
+			if(lower[j] > upper[j] + feasibilityTolerance) {
+				unsolvable = true;
+				return false;
+			}
+			
+			pushColumn(j);
+		}
+		
+		for(int i=0; i<numRows; i++) {
+			pushRow(i);
+		}
+		
+		while(!unsolvable && (rowStackSize > 0 || colStackSize > 0)) {
+			while(!unsolvable && colStackSize > 0) {
+				colStackSize--;
+				int j = colStack[colStackSize];
+				colQueued[j] = false;
+				
+				if(colActive[j]) {
+					checkColumn(j);
+				}
+			}
+			
+			while(!unsolvable && rowStackSize > 0) {
+				rowStackSize--;
+				int i = rowStack[rowStackSize];
+				rowQueued[i] = false;
+				
+				if(rowActive[i]) {
+					checkRow(i);
+				}
+			}
+		}
+		
+		if(unsolvable) {
+			return false;
+		}
+		
+		// number the remaining columns and rows
+		varMap = new int[numVars];
+		numReducedVars = 0;
+		for(int j=0; j<numVars; j++) {
+			varMap[j] = colActive[j] ? numReducedVars++ : -1;
+		}
+		
+		rowMap = new int[numRows];
+		int numReducedRows = 0;
+		for(int i=0; i<numRows; i++) {
+			rowMap[i] = rowActive[i] ? numReducedRows++ : -1;
+		}
+		reducedRows = new int[numReducedRows];
+		for(int i=0; i<numRows; i++) {
+			if(rowActive[i]) {
+				reducedRows[rowMap[i]] = i;
+			}
+		}
+		
+		return true;
+	}
+	
+	private void checkColumn(int j) {
+		if(upper[j] - lower[j] <= feasibilityTolerance) {
+			fixColumn(j, lower[j]);
+		}
+		else if(colCount[j] == 0) {
+			// the column only contributes to the objective, so it is set to its best bound
+			double val;
+			if(obj[j] > 0.0) {
+				val = upper[j];
+			}
+			else if(obj[j] < 0.0) {
+				val = lower[j];
+			}
+			else {
+				val = Math.min(Math.max(0.0, lower[j]), upper[j]);
+			}
+			
+			// the LP is unbounded if it is feasible, so it cannot be solved in both cases
+			if(Double.isInfinite(val)) {
+				unsolvable = true;
+			}
+			else {
+				fixColumn(j, val);
+			}
+		}
+	}
+	
+	private void checkRow(int i) {
+		double tolerance = feasibilityTolerance * (1.0 + Math.abs(rhs[i]));
+		
+		if(rowCount[i] == 0) {
+			boolean feasible;
+			switch(rowType[i]) {
+				case LESS_EQUAL:
+					feasible = rhs[i] >= -tolerance; break;
+				case GREATER_EQUAL:
+					feasible = rhs[i] <= tolerance; break;
+				default:
+					feasible = Math.abs(rhs[i]) <= tolerance; break;
+			}
+			
+			if(!feasible) {
+				unsolvable = true;
+				return;
+			}
+			
+			addOp(EMPTY_ROW, i, -1, SIDE_NONE, 0.0);
+			removeRow(i);
+		}
+		else if(rowCount[i] == 1) {
+			int j = -1;
+			double a = 0.0;
+			for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+				if(colActive[rowCols[p]]) {
+					j = rowCols[p];
+					a = rowValues[p];
+				}
+			}
+			
+			if(rowType[i] == LPConstraintType.EQUAL) {
+				double val = rhs[i] / a;
+				if(val < lower[j] - tolerance || val > upper[j] + tolerance || (integer[j] && Math.abs(val - Math.rint(val)) > tolerance)) {
+					unsolvable = true;
+					return;
+				}
+				
+				addOp(SINGLETON_EQUALITY, i, j, SIDE_NONE, 0.0);
+				removeRow(i);
+				fixColumn(j, Math.min(Math.max(val, lower[j]), upper[j]));
+			}
+			else {
+				double bound = rhs[i] / a;
+				boolean upperSide = (rowType[i] == LPConstraintType.LESS_EQUAL) == (a > 0.0);
+				int side = SIDE_NONE;
+				
+				if(upperSide) {
+					if(integer[j]) {
+						bound = Math.floor(bound + tolerance);
+					}
+					
+					if(bound < upper[j] - tolerance) {
+						if(bound < lower[j] - tolerance) {
+							unsolvable = true;
+							return;
+						}
+						
+						upper[j] = Math.max(bound, lower[j]);
+						side = SIDE_UPPER;
+					}
+				}
+				else {
+					if(integer[j]) {
+						bound = Math.ceil(bound - tolerance);
+					}
+					
+					if(bound > lower[j] + tolerance) {
+						if(bound > upper[j] + tolerance) {
+							unsolvable = true;
+							return;
+						}
+						
+						lower[j] = Math.min(bound, upper[j]);
+						side = SIDE_LOWER;
+					}
+				}
+				
+				addOp(SINGLETON_INEQUALITY, i, j, side, side == SIDE_UPPER ? upper[j] : lower[j]);
+				removeRow(i);
+				
+				// the activity bounds of the other rows of the column have changed
+				for(int p=0; p<colLengths[j]; p++) {
+					if(rowActive[colIndices[j][p]]) {
+						pushRow(colIndices[j][p]);
+					}
+				}
+			}
+		}
+		else {
+			// bounds on the activity of the row, in which infinite contributions are counted separately
+			double minActivity = 0.0;
+			double maxActivity = 0.0;
+			int minInfinite = 0;
+			int maxInfinite = 0;
+			for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+				int j = rowCols[p];
+				if(colActive[j]) {
+					double a = rowValues[p];
+					double minBound = (a > 0.0) ? lower[j] : upper[j];
+					double maxBound = (a > 0.0) ? upper[j] : lower[j];
+					
+					if(Double.isInfinite(minBound)) {
+						minInfinite++;
+					}
+					else {
+						minActivity += a * minBound;
+					}
+					
+					if(Double.isInfinite(maxBound)) {
+						maxInfinite++;
+					}
+					else {
+						maxActivity += a * maxBound;
+					}
+				}
+			}
+			
+			boolean minFinite = (minInfinite == 0);
+			boolean maxFinite = (maxInfinite == 0);
+			boolean checkLower = (rowType[i] != LPConstraintType.LESS_EQUAL);
+			boolean checkUpper = (rowType[i] != LPConstraintType.GREATER_EQUAL);
+			
+			if((checkUpper && minFinite && minActivity > rhs[i] + tolerance) || (checkLower && maxFinite && maxActivity < rhs[i] - tolerance)) {
+				unsolvable = true;
+			}
+			else if(checkUpper && minFinite && minActivity >= rhs[i] - tolerance) {
+				forceRow(i, SIDE_LOWER);
+			}
+			else if(checkLower && maxFinite && maxActivity <= rhs[i] + tolerance) {
+				forceRow(i, SIDE_UPPER);
+			}
+			else if((!checkUpper || (maxFinite && maxActivity <= rhs[i] + tolerance)) && (!checkLower || (minFinite && minActivity >= rhs[i] - tolerance))) {
+				addOp(REDUNDANT_ROW, i, -1, SIDE_NONE, 0.0);
+				removeRow(i);
+			}
+		}
+	}
+	
+	/**
+	 * Fixes all columns of the row at the bound which minimizes (SIDE_LOWER) or maximizes (SIDE_UPPER) the activity
+	 */
+	private void forceRow(int i, int side) {
+		addOp(FORCING_ROW, i, -1, side, 0.0);
+		removeRow(i);
+		
+		for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+			int j = rowCols[p];
+			if(colActive[j]) {
+				addOpColumn(j);
+				boolean atLower = (side == SIDE_LOWER) == (rowValues[p] > 0.0);
+				fixColumn(j, atLower ? lower[j] : upper[j]);
+			}
+		}
+	}
+	
+	private void fixColumn(int j, double val) {
+		colActive[j] = false;
+		value[j] = val;
+		
+		for(int p=0; p<colLengths[j]; p++) {
+			int i = colIndices[j][p];
+			if(rowActive[i]) {
+				rhs[i] -= colValues[j][p] * val;
+				rowCount[i]--;
+				pushRow(i);
+			}
+		}
+	}
+	
+	private void removeRow(int i) {
+		rowActive[i] = false;
+		
+		for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+			int j = rowCols[p];
+			if(colActive[j]) {
+				colCount[j]--;
+				pushColumn(j);
+			}
+		}
+	}
+	
+	private void pushRow(int i) {
+		if(!rowQueued[i]) {
+			rowQueued[i] = true;
+			rowStack[rowStackSize] = i;
+			rowStackSize++;
+		}
+	}
+	
+	private void pushColumn(int j) {
+		if(!colQueued[j]) {
+			colQueued[j] = true;
+			colStack[colStackSize] = j;
+			colStackSize++;
+		}
+	}
+	
+	private void addOp(int type, int row, int col, int side, double bound) {
+		if(numOps == opType.length) {
+			int newLength = 2 * numOps;
+			opType = Arrays.copyOf(opType, newLength);
+			opRow = Arrays.copyOf(opRow, newLength);
+			opCol = Arrays.copyOf(opCol, newLength);
+			opSide = Arrays.copyOf(opSide, newLength);
+			opBound = Arrays.copyOf(opBound, newLength);
+			opColumnsStart = Arrays.copyOf(opColumnsStart, newLength+1);
+		}
+		
+		opType[numOps] = type;
+		opRow[numOps] = row;
+		opCol[numOps] = col;
+		opSide[numOps] = side;
+		opBound[numOps] = bound;
+		opColumnsStart[numOps+1] = opColumnsStart[numOps];
+		numOps++;
+	}
+	
+	private void addOpColumn(int j) {
+		int end = opColumnsStart[numOps];
+		if(end == opColumns.length) {
+			opColumns = Arrays.copyOf(opColumns, 2 * end);
+		}
+		
+		opColumns[end] = j;
+		opColumnsStart[numOps]++;
+	}
+	
+	int getNumVariables() {
+		return numVars;
+	}
+	
+	int getNumConstraints() {
+		return numRows;
+	}
+	
+	int getNumReducedVariables() {
+		return numReducedVars;
+	}
+	
+	int getNumReducedConstraints() {
+		return reducedRows.length;
+	}
+	
+	/**
+	 * Returns the index of the variable in the reduced problem, or -1 if it has been removed
+	 */
+	int getReducedVariable(int j) {
+		return varMap[j];
+	}
+	
+	/**
+	 * Returns the index of the constraint in the reduced problem, or -1 if it has been removed
+	 */
+	int getReducedConstraint(int i) {
+		return rowMap[i];
+	}
+	
+	/**
+	 * Returns the bound of a variable in the reduced problem, which may be tighter than the original bound
+	 */
+	double getLowerBound(int j) {
+		return Double.isInfinite(lower[j]) ? -infinity : lower[j];
+	}
+	
+	double getUpperBound(int j) {
+		return Double.isInfinite(upper[j]) ? infinity : upper[j];
+	}
+	
+	/**
+	 * Returns true if a singleton row has tightened a bound of the variable
+	 */
+	boolean isBoundTightened(int j) {
+		return lower[j] != originalLower[j] || upper[j] != originalUpper[j];
+	}
+	
+	/**
+	 * Returns the contribution of the removed variables to a remaining constraint, which has been
+	 * subtracted from its right-hand side
+	 */
+	double getRHSShift(int i) {
+		return originalRHS[i] - rhs[i];
+	}
+	
+	int getNumReducedNonzeros() {
+		int nnz = 0;
+		for(int i : reducedRows) {
+			for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+				nnz += colActive[rowCols[p]] ? 1 : 0;
+			}
+		}
+		
+		return nnz;
+	}
+	
+	/**
+	 * Writes the rows of the reduced problem in compressed sparse row format, using reduced variable indices
+	 */
+	void getReducedRows(int[] reducedRowStart, int[] vars, double[] coefficients, LPConstraintType[] types, double[] reducedRHS) {
+		int nnz = 0;
+		for(int r=0; r<reducedRows.length; r++) {
+			int i = reducedRows[r];
+			reducedRowStart[r] = nnz;
+			for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+				if(colActive[rowCols[p]]) {
+					vars[nnz] = varMap[rowCols[p]];
+					coefficients[nnz] = rowValues[p];
+					nnz++;
+				}
+			}
+			types[r] = rowType[i];
+			reducedRHS[r] = rhs[i];
+		}
+		reducedRowStart[reducedRows.length] = nnz;
+	}
+	
+	/**
+	 * Computes the primal values and dual prices of the original problem from the reduced problem
+	 */
+	void postsolve(double[] reducedX, double[] reducedY, double[] x, double[] y) {
+		for(int j=0; j<numVars; j++) {
+			x[j] = colActive[j] ? reducedX[varMap[j]] : value[j];
+		}
+		
+		boolean[] active = Arrays.copyOf(rowActive, numRows);
+		for(int i=0; i<numRows; i++) {
+			y[i] = rowActive[i] ? reducedY[rowMap[i]] : 0.0;
+		}
+		
+		for(int k=numOps-1; k>=0; k--) {
+			int i = opRow[k];
+			int j = opCol[k];
+			
+			switch(opType[k]) {
+				case SINGLETON_EQUALITY:
+					y[i] = getReducedCost(j, active, y) / getCoefficient(i, j);
+					break;
+				case SINGLETON_INEQUALITY:
+					// the row takes over the multiplier of the bound it has imposed, if that bound is binding
+					if(opSide[k] != SIDE_NONE && Math.abs(x[j] - opBound[k]) <= feasibilityTolerance * (1.0 + Math.abs(opBound[k]))) {
+						double d = getReducedCost(j, active, y);
+						if((opSide[k] == SIDE_UPPER && d > 0.0) || (opSide[k] == SIDE_LOWER && d < 0.0)) {
+							y[i] = d / getCoefficient(i, j);
+						}
+					}
+					break;
+				case FORCING_ROW:
+					// the dual price is chosen such that the reduced costs of the fixed columns have the correct sign
+					double price = (opSide[k] == SIDE_LOWER) ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+					for(int p=opColumnsStart[k]; p<opColumnsStart[k+1]; p++) {
+						int col = opColumns[p];
+						if(originalUpper[col] - originalLower[col] > feasibilityTolerance) {
+							double ratio = getReducedCost(col, active, y) / getCoefficient(i, col);
+							price = (opSide[k] == SIDE_LOWER) ? Math.max(price, ratio) : Math.min(price, ratio);
+						}
+					}
+					
+					if(rowType[i] == LPConstraintType.LESS_EQUAL) {
+						price = Math.max(price, 0.0);
+					}
+					else if(rowType[i] == LPConstraintType.GREATER_EQUAL) {
+						price = Math.min(price, 0.0);
+					}
+					
+					y[i] = Double.isInfinite(price) ? 0.0 : price;
+					break;
+				default:
+					y[i] = 0.0;
+					break;
+			}
+			
+			active[i] = true;
+		}
+	}
+	
+	/**
+	 * Computes the statuses of the original variables and constraints from a basis of the reduced problem.
+	 * Each removed row contributes one basic variable, which is either the row itself or the column it has
+	 * fixed or bounded.
+	 */
+	void postsolveBasis(LPBasis reducedBasis, double[] x, LPBasisStatus[] variableStatus, LPBasisStatus[] constraintStatus) {
+		for(int j=0; j<numVars; j++) {
+			if(colActive[j]) {
+				variableStatus[j] = reducedBasis.getVariableStatus(varMap[j]);
+			}
+			else if(x[j] <= lower[j] + feasibilityTolerance) {
+				variableStatus[j] = LPBasisStatus.AT_LOWER;
+			}
+			else if(x[j] >= upper[j] - feasibilityTolerance) {
+				variableStatus[j] = LPBasisStatus.AT_UPPER;
+			}
+			else {
+				variableStatus[j] = LPBasisStatus.FREE;
+			}
+		}
+		
+		for(int i=0; i<numRows; i++) {
+			constraintStatus[i] = rowActive[i] ? reducedBasis.getConstraintStatus(rowMap[i]) : LPBasisStatus.BASIC;
+		}
+		
+		for(int k=numOps-1; k>=0; k--) {
+			int i = opRow[k];
+			int j = opCol[k];
+			
+			boolean swap = (opType[k] == SINGLETON_EQUALITY);
+			if(opType[k] == SINGLETON_INEQUALITY && opSide[k] != SIDE_NONE) {
+				// a column at a bound imposed by the row is basic in the original problem
+				LPBasisStatus boundStatus = (opSide[k] == SIDE_UPPER) ? LPBasisStatus.AT_UPPER : LPBasisStatus.AT_LOWER;
+				double originalBound = (opSide[k] == SIDE_UPPER) ? originalUpper[j] : originalLower[j];
+				swap = variableStatus[j] == boundStatus && opBound[k] != originalBound;
+			}
+			
+			if(swap) {
+				variableStatus[j] = LPBasisStatus.BASIC;
+				constraintStatus[i] = (rowType[i] == LPConstraintType.LESS_EQUAL) ? LPBasisStatus.AT_UPPER : LPBasisStatus.AT_LOWER;
+			}
+		}
+	}
+	
+	private double getReducedCost(int j, boolean[] active, double[] y) {
+		double d = obj[j];
+		for(int p=0; p<colLengths[j]; p++) {
+			if(active[colIndices[j][p]]) {
+				d -= colValues[j][p] * y[colIndices[j][p]];
+			}
+		}
+		
+		return d;
+	}
+	
+	private double getCoefficient(int i, int j) {
+		for(int p=0; p<colLengths[j]; p++) {
+			if(colIndices[j][p] == i) {
+				return colValues[j][p];
+			}
+		}
+		
+		return 0.0;
+	}
+}
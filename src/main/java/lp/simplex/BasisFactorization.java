@@ -0,0 +1,426 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp.simplex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Factorization of the basis matrix of the revised simplex method. The inverse of the basis is
+ * stored in product form as a sequence of elementary eta matrices. A refactorization permutes the
+ * basis towards triangular form using singletons, such that the triangular part does not create
+ * any fill-in, and applies threshold pivoting to the remaining nucleus. Each basis change of the
+ * simplex method appends one additional eta matrix.
+ * 
+ * Columns j < n of the basis refer to the structural columns of the constraint matrix, whereas
+ * column n+i refers to the logical variable of row i, which has coefficient -1 in row i.
+ */
+public class BasisFactorization {
+	private final int m;
+	
+	// eta k has pivot row etaRow[k], diagonal entry etaPivot[k] and off-diagonal entries at positions etaStart[k] to etaStart[k+1]-1
+	private int numEtas = 0;
+	private int[] etaRow;
+	private double[] etaPivot;
+	private int[] etaStart;
+	private int[] etaIndex;
+	private double[] etaValue;
+	private int numUpdates = 0;
+	
+	private final double dropTolerance = 1e-14;
+	private final double singularTolerance = 1e-9;
+	private final double thresholdPivoting = 0.1;
+	
+	public BasisFactorization(int m) {
+		this.m = m;
+		this.etaRow = new int[Math.max(16, 2*m)];
+		this.etaPivot = new double[etaRow.length];
+		this.etaStart = new int[etaRow.length+1];
+		this.etaIndex = new int[Math.max(16, 4*m)];
+		this.etaValue = new double[etaIndex.length];
+	}
+	
+	/**
+	 * Returns the number of basis changes since the last refactorization
+	 */
+	public int getNumUpdates() {
+		return numUpdates;
+	}
+	
+	/**
+	 * Solves B x = v, and overwrites v with x
+	 */
+	public void ftran(double[] v) {
+		for(int k=0; k<numEtas; k++) {
+			int r = etaRow[k];
+			double t = v[r];
+			
+			if(t != 0.0) {
+				v[r] = t * etaPivot[k];
+				for(int p=etaStart[k]; p<etaStart[k+1]; p++) {
+					v[etaIndex[p]] += etaValue[p] * t;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Solves y^T B = v^T, and overwrites v with y
+	 */
+	public void btran(double[] v) {
+		for(int k=numEtas-1; k>=0; k--) {
+			int r = etaRow[k];
+			double s = v[r] * etaPivot[k];
+			
+			for(int p=etaStart[k]; p<etaStart[k+1]; p++) {
+				s += etaValue[p] * v[etaIndex[p]];
+			}
+			
+			v[r] = s;
+		}
+	}
+	
+	/**
+	 * Replaces the basic variable in row r by the variable with column alpha = B^{-1} a
+	 */
+	public void update(double[] alpha, int r) {
+		addEta(alpha, r);
+		numUpdates++;
+	}
+	
+	/**
+	 * Computes a new factorization of the basis given by the variables in head. The rows in which the
+	 * variables are pivoted may change, and the new assignment of variables to rows is returned. If
+	 * the basis is singular, then the dependent columns are replaced by logical variables.
+	 */
+	public int[] factorize(int[] head, int n, int[][] colIndex, double[][] colValue, int[] colLength) {
+		assert head.length == m;
+		
+		numEtas = 0;
+		numUpdates = 0;
+		etaStart[0] = 0;
+		
+		int[] newHead = new int[m];
+		Arrays.fill(newHead, -1);
+		boolean[] rowDone = new boolean[m];
+		
+		// logical columns can be pivoted immediately in their own row
+		int[] structural = new int[m];
+		int k = 0;
+		for(int j : head) {
+			if(j >= n) {
+				int i = j - n;
+				addLogicalEta(i);
+				newHead[i] = j;
+				rowDone[i] = true;
+			}
+			else {
+				structural[k] = j;
+				k++;
+			}
+		}
+		
+		// row-wise structure of the structural part, restricted to the remaining rows
+		int[] colCount = new int[k];
+		int[] rowCount = new int[m];
+		for(int c=0; c<k; c++) {
+			int j = structural[c];
+			for(int p=0; p<colLength[j]; p++) {
+				int i = colIndex[j][p];
+				if(!rowDone[i]) {
+					colCount[c]++;
+					rowCount[i]++;
+				}
+			}
+		}
+		
+		int[] rowStart = new int[m+1];
+		for(int i=0; i<m; i++) {
+			rowStart[i+1] = rowStart[i] + rowCount[i];
+		}
+		
+		int[] rowCols = new int[rowStart[m]];
+		int[] rowFill = Arrays.copyOf(rowStart, m);
+		for(int c=0; c<k; c++) {
+			int j = structural[c];
+			for(int p=0; p<colLength[j]; p++) {
+				int i = colIndex[j][p];
+				if(!rowDone[i]) {
+					rowCols[rowFill[i]] = c;
+					rowFill[i]++;
+				}
+			}
+		}
+		
+		// find row singletons, which are pivoted first, and column singletons, which are pivoted last
+		boolean[] colDone = new boolean[k];
+		int[] frontCols = new int[k];
+		int[] frontRows = new int[k];
+		int numFront = 0;
+		int[] backCols = new int[k];
+		int[] backRows = new int[k];
+		int numBack = 0;
+		
+		int[] rowQueue = new int[m];
+		int rowQueueSize = 0;
+		for(int i=0; i<m; i++) {
+			if(!rowDone[i] && rowCount[i] == 1) {
+				rowQueue[rowQueueSize] = i;
+				rowQueueSize++;
+			}
+		}
+		
+		int[] colQueue = new int[k];
+		int colQueueSize = 0;
+		for(int c=0; c<k; c++) {
+			if(colCount[c] == 1) {
+				colQueue[colQueueSize] = c;
+				colQueueSize++;
+			}
+		}
+		
+		while(rowQueueSize > 0 || colQueueSize > 0) {
+			int pivotRow = -1;
+			int pivotCol = -1;
+			boolean front = rowQueueSize > 0;
+			
+			if(front) {
+				rowQueueSize--;
+				int i = rowQueue[rowQueueSize];
+				if(rowDone[i] || rowCount[i] != 1) {
+					continue;
+				}
+				
+				for(int p=rowStart[i]; p<rowStart[i+1]; p++) {
+					if(!colDone[rowCols[p]]) {
+						pivotCol = rowCols[p];
+					}
+				}
+				pivotRow = i;
+			}
+			else {
+				colQueueSize--;
+				int c = colQueue[colQueueSize];
+				if(colDone[c] || colCount[c] != 1) {
+					continue;
+				}
+				
+				int j = structural[c];
+				for(int p=0; p<colLength[j]; p++) {
+					if(!rowDone[colIndex[j][p]]) {
+						pivotRow = colIndex[j][p];
+					}
+				}
+				pivotCol = c;
+			}
+			
+			// remove the pivot column and the pivot row from the remaining structure
+			colDone[pivotCol] = true;
+			int j = structural[pivotCol];
+			for(int p=0; p<colLength[j]; p++) {
+				int i = colIndex[j][p];
+				if(!rowDone[i]) {
+					rowCount[i]--;
+					if(rowCount[i] == 1) {
+						rowQueue[rowQueueSize] = i;
+						rowQueueSize++;
+					}
+				}
+			}
+			
+			rowDone[pivotRow] = true;
+			for(int p=rowStart[pivotRow]; p<rowStart[pivotRow+1]; p++) {
+				int c = rowCols[p];
+				if(!colDone[c]) {
+					colCount[c]--;
+					if(colCount[c] == 1) {
+						colQueue[colQueueSize] = c;
+						colQueueSize++;
+					}
+				}
+			}
+			
+			if(front) {
+				frontCols[numFront] = pivotCol;
+				frontRows[numFront] = pivotRow;
+				numFront++;
+			}
+			else {
+				backCols[numBack] = pivotCol;
+				backRows[numBack] = pivotRow;
+				numBack++;
+			}
+		}
+		
+		boolean[] pivoted = new boolean[m];
+		for(int i=0; i<m; i++) {
+			pivoted[i] = newHead[i] != -1;
+		}
+		double[] v = new double[m];
+		
+		// the triangular front does not change when applying the previous etas, except for sign changes in logical rows
+		for(int f=0; f<numFront; f++) {
+			int j = structural[frontCols[f]];
+			int r = frontRows[f];
+			
+			double pivot = 0.0;
+			for(int p=0; p<colLength[j]; p++) {
+				if(colIndex[j][p] == r) {
+					pivot = colValue[j][p];
+				}
+			}
+			
+			if(Math.abs(pivot) > singularTolerance) {
+				ensureEtaCapacity(colLength[j]);
+				int pos = etaStart[numEtas];
+				for(int p=0; p<colLength[j]; p++) {
+					int i = colIndex[j][p];
+					if(i != r) {
+						double value = (newHead[i] >= n) ? -colValue[j][p] : colValue[j][p];
+						etaIndex[pos] = i;
+						etaValue[pos] = -value / pivot;
+						pos++;
+					}
+				}
+				
+				etaRow[numEtas] = r;
+				etaPivot[numEtas] = 1.0 / pivot;
+				etaStart[numEtas+1] = pos;
+				numEtas++;
+				pivoted[r] = true;
+				newHead[r] = j;
+			}
+		}
+		
+		// nucleus, in which columns are processed in order of increasing count
+		ArrayList<Integer> nucleus = new ArrayList<Integer>();
+		for(int c=0; c<k; c++) {
+			if(!colDone[c]) {
+				nucleus.add(c);
+			}
+		}
+		final int[] nucleusCount = colCount;
+		nucleus.sort((c1, c2) -> Integer.compare(nucleusCount[c1], nucleusCount[c2]));
+		
+		for(int c : nucleus) {
+			int j = structural[c];
+			loadColumn(j, colIndex, colValue, colLength, v);
+			ftran(v);
+			
+			double maxValue = 0.0;
+			for(int i=0; i<m; i++) {
+				if(!rowDone[i] && !pivoted[i]) {
+					maxValue = Math.max(maxValue, Math.abs(v[i]));
+				}
+			}
+			
+			int r = -1;
+			if(maxValue > singularTolerance) {
+				for(int i=0; i<m; i++) {
+					if(!rowDone[i] && !pivoted[i] && Math.abs(v[i]) >= thresholdPivoting * maxValue) {
+						if(r == -1 || rowCount[i] < rowCount[r]) {
+							r = i;
+						}
+					}
+				}
+				
+				addEta(v, r);
+				pivoted[r] = true;
+				newHead[r] = j;
+			}
+			
+			Arrays.fill(v, 0.0);
+		}
+		
+		// column singletons, in reverse order of discovery
+		for(int b=numBack-1; b>=0; b--) {
+			int j = structural[backCols[b]];
+			int r = backRows[b];
+			loadColumn(j, colIndex, colValue, colLength, v);
+			ftran(v);
+			
+			if(Math.abs(v[r]) > singularTolerance) {
+				addEta(v, r);
+				pivoted[r] = true;
+				newHead[r] = j;
+			}
+			
+			Arrays.fill(v, 0.0);
+		}
+		
+		// rows without pivot receive their logical variable
+		for(int i=0; i<m; i++) {
+			if(!pivoted[i]) {
+				addLogicalEta(i);
+				newHead[i] = n + i;
+			}
+		}
+		
+		return newHead;
+	}
+	
+	private void loadColumn(int j, int[][] colIndex, double[][] colValue, int[] colLength, double[] v) {
+		for(int p=0; p<colLength[j]; p++) {
+			v[colIndex[j][p]] = colValue[j][p];
+		}
+	}
+	
+	private void addLogicalEta(int i) {
+		ensureEtaCapacity(0);
+		etaRow[numEtas] = i;
+		etaPivot[numEtas] = -1.0;
+		etaStart[numEtas+1] = etaStart[numEtas];
+		numEtas++;
+	}
+	
+	private void addEta(double[] alpha, int r) {
+		ensureEtaCapacity(m);
+		
+		double pivot = alpha[r];
+		int pos = etaStart[numEtas];
+		for(int i=0; i<m; i++) {
+			if(i != r && Math.abs(alpha[i]) > dropTolerance) {
+				etaIndex[pos] = i;
+				etaValue[pos] = -alpha[i] / pivot;
+				pos++;
+			}
+		}
+		
+		etaRow[numEtas] = r;
+		etaPivot[numEtas] = 1.0 / pivot;
+		etaStart[numEtas+1] = pos;
+		numEtas++;
+	}
+	
+	private void ensureEtaCapacity(int maxEntries) {
+		if(numEtas+1 == etaRow.length) {
+			int newLength = 2 * etaRow.length;
+			etaRow = Arrays.copyOf(etaRow, newLength);
+			etaPivot = Arrays.copyOf(etaPivot, newLength);
+			etaStart = Arrays.copyOf(etaStart, newLength+1);
+		}
+		
+		int required = etaStart[numEtas] + maxEntries;
+		if(required > etaIndex.length) {
+			int newLength = Math.max(required, 2 * etaIndex.length);
+			etaIndex = Arrays.copyOf(etaIndex, newLength);
+			etaValue = Arrays.copyOf(etaValue, newLength);
+		}
+	}
+}
@@ -21,10 +21,11 @@ package lp.simplex;
 import lp.LPColumn;
 import lp.LPConstraint;
 import lp.LPException;
+import lp.SparseTerms;
 
 public class LPColumnSimplex implements LPColumn {
 	private LPModelSimplex model;
-	private double[] col;
+	private SparseTerms terms = new SparseTerms();
 	
 	@SuppressWarnings("unused")
 	private LPColumnSimplex() {
@@ -33,7 +34,6 @@ public class LPColumnSimplex implements LPColumn {
 	
 	public LPColumnSimplex(LPModelSimplex model) {
 		this.model = model;
-		this.col = new double[model.getNumConstraints()];
 	}
 	
 	@Override
@@ -42,7 +42,7 @@ public class LPColumnSimplex implements LPColumn {
 			throw new LPException("Constraint does not belong to this model");
 		}
 		
-		col[constraint.getID()] = coefficient;
+		terms.add(constraint.getID(), coefficient);
 	}
 
 	@Override
@@ -50,7 +50,7 @@ public class LPColumnSimplex implements LPColumn {
 		return model.getModelID();
 	}
 
-	protected double[] getCol() {
-		return col;
+	protected SparseTerms getTerms() {
+		return terms;
 	}
 }
@@ -18,17 +18,15 @@
  *******************************************************************************/
 package lp.simplex;
 
-import org.apache.commons.math3.linear.ArrayRealVector;
-import org.apache.commons.math3.linear.RealVector;
-
 import lp.LPException;
 import lp.LPExpression;
 import lp.LPVariable;
+import lp.SparseTerms;
 
 public class LPExpressionSimplex implements LPExpression {
 
 	private LPModelSimplex model;
-	private RealVector expr;
+	private SparseTerms terms = new SparseTerms();
 	
 	private final double coefficientTolerance = 0.000000001;
 	
@@ -39,11 +37,6 @@ public class LPExpressionSimplex implements LPExpression {
 	
 	public LPExpressionSimplex(LPModelSimplex model) {
 		this.model = model;
-		this.expr = new ArrayRealVector();
-		
-		for(int i=0; i<model.getNumVars(); i++) {
-			this.expr = this.expr.append(0.0);
-		}
 	}
 	
 	@Override
@@ -53,8 +46,7 @@ public class LPExpressionSimplex implements LPExpression {
 		}
 		
 		if(Math.abs(coefficient) > coefficientTolerance) {
-			int id = var.getID();
-			expr.setEntry(id, coefficient);
+			terms.add(var.getID(), coefficient);
 		}
 	}
 
@@ -63,7 +55,7 @@ public class LPExpressionSimplex implements LPExpression {
 		return model.getModelID();
 	}
 	
-	protected RealVector getExpression() {
-		return expr;
+	protected SparseTerms getTerms() {
+		return terms;
 	}
 }
@@ -33,4 +33,8 @@ public class LPSolverSimplex implements LPSolver {
 		return false;
 	}
 	
+	@Override
+	public void dispose() {
+		// the solver does not hold resources
+	}
 }
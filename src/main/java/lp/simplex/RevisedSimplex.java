@@ -0,0 +1,778 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package lp.simplex;
+
+import java.util.Arrays;
+
+import lp.LPBasis;
+import lp.LPBasisStatus;
+
+/**
+ * Bounded-variable revised simplex method for problems of the form
+ * 
+ *   max c^T x  subject to  A x - r = 0,  l <= x <= u,  rl <= r <= ru
+ * 
+ * in which the logical variables r represent the rows of the constraint matrix A. Infinite bounds
+ * are represented by Double.POSITIVE_INFINITY and Double.NEGATIVE_INFINITY. The method starts from
+ * the basis consisting of all logical variables, or from a given basis. The primal simplex uses a
+ * composite phase 1 which minimizes the sum of infeasibilities, after which phase 2 optimizes the
+ * objective. Pricing uses the largest reduced cost and switches to Bland's rule in case of a long
+ * sequence of degenerate steps. A given basis which is dual feasible but primal infeasible, which
+ * is typical after changing right-hand sides, is first reoptimized using the dual simplex.
+ */
+public class RevisedSimplex {
+	public enum Status { OPTIMAL, INFEASIBLE, UNBOUNDED, ITERATION_LIMIT, NUMERICAL_FAILURE }
+	
+	private static final int BASIC = 0;
+	private static final int AT_LOWER = 1;
+	private static final int AT_UPPER = 2;
+	private static final int FREE = 3;
+	
+	private final int n;
+	private final int m;
+	private final int[][] colIndex;
+	private final double[][] colValue;
+	private final int[] colLength;
+	
+	private final double[] cost;  // cost of minimization problem, indexed by variable
+	private final double[] lower; // indexed by variable, logical variable of row i has index n+i
+	private final double[] upper;
+	
+	private final int[] head;     // head[i] = basic variable in row position i
+	private final int[] status;
+	private final double[] x;
+	private final double[] y;
+	private BasisFactorization factorization;
+	private LPBasis startingBasis = null;
+	private int iterations = 0;
+	
+	private final double primalTolerance = 1e-9;
+	private final double dualTolerance = 1e-9;
+	private final double pivotTolerance = 1e-9;
+	private final int refactorizationFrequency = 100;
+	private final int maxDegenerateSteps = 50;
+	private final int maxIterations;
+	
+	// result of the last ratio test
+	private double step;
+	private boolean leavingAtUpper;
+	
+	/**
+	 * Creates a problem with n structural variables and m rows. Column j of the constraint matrix
+	 * consists of the entries colValue[j][p] in rows colIndex[j][p] for p < colLength[j].
+	 */
+	public RevisedSimplex(int n, int m, int[][] colIndex, double[][] colValue, int[] colLength, double[] objective, double[] varLower, double[] varUpper, double[] rowLower, double[] rowUpper) {
+		this.n = n;
+		this.m = m;
+		this.colIndex = colIndex;
+		this.colValue = colValue;
+		this.colLength = colLength;
+		
+		this.cost = new double[n+m];
+		this.lower = new double[n+m];
+		this.upper = new double[n+m];
+		for(int j=0; j<n; j++) {
+			cost[j] = -objective[j];
+			lower[j] = varLower[j];
+			upper[j] = varUpper[j];
+		}
+		for(int i=0; i<m; i++) {
+			lower[n+i] = rowLower[i];
+			upper[n+i] = rowUpper[i];
+		}
+		
+		this.head = new int[m];
+		this.status = new int[n+m];
+		this.x = new double[n+m];
+		this.y = new double[m];
+		this.maxIterations = 100000 + 20 * (n+m);
+	}
+	
+	/**
+	 * Sets the basis from which the next solve starts. Variables and rows which are not covered by
+	 * the basis are nonbasic and basic respectively, and an invalid basis is repaired.
+	 */
+	public void setBasis(LPBasis basis) {
+		this.startingBasis = basis;
+	}
+	
+	public Status solve() {
+		if(startingBasis == null) {
+			for(int j=0; j<n; j++) {
+				setNonbasic(j);
+			}
+			for(int i=0; i<m; i++) {
+				head[i] = n + i;
+				status[n+i] = BASIC;
+			}
+		}
+		else {
+			loadBasis(startingBasis);
+		}
+		
+		factorization = new BasisFactorization(m);
+		refactorize();
+		
+		// after changes of the right-hand side a previous basis typically remains dual feasible
+		if(!isPrimalFeasible() && makeDualFeasible()) {
+			Status dualStatus = runDualSimplex();
+			
+			if(dualStatus == Status.INFEASIBLE) {
+				return dualStatus;
+			}
+		}
+		
+		return runPrimalSimplex();
+	}
+	
+	private Status runPrimalSimplex() {
+		double[] alpha = new double[m];
+		int degenerateSteps = 0;
+		
+		while(iterations < maxIterations) {
+			if(factorization.getNumUpdates() >= refactorizationFrequency) {
+				refactorize();
+			}
+			
+			boolean phase1 = computeDuals();
+			int q = price(phase1, degenerateSteps > maxDegenerateSteps);
+			
+			if(q == -1) {
+				if(factorization.getNumUpdates() > 0) {
+					// confirm the final basis using a fresh factorization
+					refactorize();
+					continue;
+				}
+				
+				return phase1 ? Status.INFEASIBLE : Status.OPTIMAL;
+			}
+			
+			double d = getReducedCost(q, phase1);
+			int dir = (d < 0.0) ? 1 : -1;
+			
+			loadColumn(q, alpha);
+			factorization.ftran(alpha);
+			
+			int r = phase1 ? ratioTestPhase1(q, alpha, dir) : ratioTestPhase2(q, alpha, dir, degenerateSteps > maxDegenerateSteps);
+			
+			if(r == -1 && step == Double.POSITIVE_INFINITY) {
+				if(factorization.getNumUpdates() > 0) {
+					refactorize();
+					continue;
+				}
+				
+				return phase1 ? Status.NUMERICAL_FAILURE : Status.UNBOUNDED;
+			}
+			
+			// move along the edge
+			if(step > 0.0) {
+				x[q] += dir * step;
+				for(int i=0; i<m; i++) {
+					if(alpha[i] != 0.0) {
+						x[head[i]] -= dir * step * alpha[i];
+					}
+				}
+			}
+			
+			degenerateSteps = (step > primalTolerance) ? 0 : degenerateSteps + 1;
+			
+			if(r == -1) {
+				// bound flip of the entering variable
+				status[q] = (dir > 0) ? AT_UPPER : AT_LOWER;
+				x[q] = (dir > 0) ? upper[q] : lower[q];
+			}
+			else {
+				int p = head[r];
+				status[p] = (leavingAtUpper && lower[p] != upper[p]) ? AT_UPPER : AT_LOWER;
+				x[p] = leavingAtUpper ? upper[p] : lower[p];
+				
+				head[r] = q;
+				status[q] = BASIC;
+				factorization.update(alpha, r);
+			}
+			
+			iterations++;
+		}
+		
+		return Status.ITERATION_LIMIT;
+	}
+	
+	public int getIterations() {
+		return iterations;
+	}
+	
+	/**
+	 * Returns the values of the structural variables
+	 */
+	public double[] getPrimalValues() {
+		double[] values = new double[n];
+		System.arraycopy(x, 0, values, 0, n);
+		return values;
+	}
+	
+	/**
+	 * Returns the objective value of the maximization problem
+	 */
+	public double getObjectiveValue() {
+		double obj = 0.0;
+		for(int j=0; j<n; j++) {
+			obj -= cost[j] * x[j];
+		}
+		return obj;
+	}
+	
+	/**
+	 * Returns the dual prices of the rows, defined as the rate at which the objective of the
+	 * maximization problem changes when the right-hand side of the row increases
+	 */
+	public double[] getDualPrices() {
+		double[] duals = new double[m];
+		for(int i=0; i<m; i++) {
+			duals[i] = -y[i];
+		}
+		return duals;
+	}
+	
+	/**
+	 * Returns the final basis, in which the status of row i refers to its logical variable
+	 */
+	public LPBasis getBasis() {
+		LPBasisStatus[] variableStatus = new LPBasisStatus[n];
+		LPBasisStatus[] constraintStatus = new LPBasisStatus[m];
+		for(int j=0; j<n+m; j++) {
+			LPBasisStatus s;
+			switch(status[j]) {
+				case BASIC:
+					s = LPBasisStatus.BASIC; break;
+				case AT_LOWER:
+					s = LPBasisStatus.AT_LOWER; break;
+				case AT_UPPER:
+					s = LPBasisStatus.AT_UPPER; break;
+				default:
+					s = LPBasisStatus.FREE; break;
+			}
+			
+			if(j < n) {
+				variableStatus[j] = s;
+			}
+			else {
+				constraintStatus[j-n] = s;
+			}
+		}
+		
+		return new LPBasis(variableStatus, constraintStatus);
+	}
+	
+	private void loadBasis(LPBasis basis) {
+		int numBasic = 0;
+		for(int j=0; j<n+m; j++) {
+			LPBasisStatus s;
+			if(j < n) {
+				s = (j < basis.getNumVariables()) ? basis.getVariableStatus(j) : LPBasisStatus.AT_LOWER;
+			}
+			else {
+				s = (j-n < basis.getNumConstraints()) ? basis.getConstraintStatus(j-n) : LPBasisStatus.BASIC;
+			}
+			
+			if(s == LPBasisStatus.BASIC && numBasic < m) {
+				head[numBasic] = j;
+				status[j] = BASIC;
+				numBasic++;
+			}
+			else if(s == LPBasisStatus.AT_LOWER && lower[j] > Double.NEGATIVE_INFINITY) {
+				status[j] = AT_LOWER;
+				x[j] = lower[j];
+			}
+			else if(s == LPBasisStatus.AT_UPPER && upper[j] < Double.POSITIVE_INFINITY) {
+				status[j] = AT_UPPER;
+				x[j] = upper[j];
+			}
+			else {
+				setNonbasic(j);
+			}
+		}
+		
+		// complete the basis using logical variables, the factorization replaces dependent columns
+		for(int i=0; i<m && numBasic<m; i++) {
+			if(status[n+i] != BASIC) {
+				head[numBasic] = n + i;
+				status[n+i] = BASIC;
+				numBasic++;
+			}
+		}
+	}
+	
+	private void setNonbasic(int j) {
+		if(lower[j] > Double.NEGATIVE_INFINITY) {
+			status[j] = AT_LOWER;
+			x[j] = lower[j];
+		}
+		else if(upper[j] < Double.POSITIVE_INFINITY) {
+			status[j] = AT_UPPER;
+			x[j] = upper[j];
+		}
+		else {
+			status[j] = FREE;
+			x[j] = 0.0;
+		}
+	}
+	
+	/**
+	 * Computes a new factorization and recomputes the values of the basic variables
+	 */
+	private void refactorize() {
+		int[] newHead = factorization.factorize(head, n, colIndex, colValue, colLength);
+		
+		for(int i=0; i<m; i++) {
+			status[head[i]] = -1;
+		}
+		for(int i=0; i<m; i++) {
+			head[i] = newHead[i];
+			status[head[i]] = BASIC;
+		}
+		for(int j=0; j<n+m; j++) {
+			if(status[j] == -1) {
+				// variable removed from a singular basis
+				setNonbasic(j);
+			}
+		}
+		
+		computePrimal();
+	}
+	
+	/**
+	 * Computes the values of the basic variables given the values of the nonbasic variables
+	 */
+	private void computePrimal() {
+		double[] rhs = new double[m];
+		for(int j=0; j<n+m; j++) {
+			if(status[j] != BASIC && x[j] != 0.0) {
+				if(j < n) {
+					for(int p=0; p<colLength[j]; p++) {
+						rhs[colIndex[j][p]] -= colValue[j][p] * x[j];
+					}
+				}
+				else {
+					rhs[j-n] += x[j];
+				}
+			}
+		}
+		
+		factorization.ftran(rhs);
+		for(int i=0; i<m; i++) {
+			x[head[i]] = rhs[i];
+		}
+	}
+	
+	/**
+	 * Computes the duals for the current phase, and returns true if the basis is primal infeasible
+	 */
+	private boolean computeDuals() {
+		boolean infeasible = false;
+		for(int i=0; i<m; i++) {
+			int j = head[i];
+			if(x[j] < lower[j] - primalTolerance) {
+				y[i] = -1.0;
+				infeasible = true;
+			}
+			else if(x[j] > upper[j] + primalTolerance) {
+				y[i] = 1.0;
+				infeasible = true;
+			}
+			else {
+				y[i] = 0.0;
+			}
+		}
+		
+		if(!infeasible) {
+			for(int i=0; i<m; i++) {
+				y[i] = cost[head[i]];
+			}
+		}
+		
+		factorization.btran(y);
+		
+		return infeasible;
+	}
+	
+	private boolean isPrimalFeasible() {
+		for(int i=0; i<m; i++) {
+			int j = head[i];
+			if(x[j] < lower[j] - primalTolerance || x[j] > upper[j] + primalTolerance) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Checks whether the reduced costs of the current basis are dual feasible, where boxed variables
+	 * with a reduced cost of the wrong sign are moved to their opposite bound
+	 */
+	private boolean makeDualFeasible() {
+		for(int i=0; i<m; i++) {
+			y[i] = cost[head[i]];
+		}
+		factorization.btran(y);
+		
+		// the basis is only modified if all reduced costs with the wrong sign can be corrected by a bound flip
+		for(int j=0; j<n+m; j++) {
+			if(status[j] == BASIC || lower[j] == upper[j]) {
+				continue;
+			}
+			
+			double d = getReducedCost(j, false);
+			if((status[j] == AT_LOWER && d < -dualTolerance && upper[j] == Double.POSITIVE_INFINITY) || (status[j] == AT_UPPER && d > dualTolerance && lower[j] == Double.NEGATIVE_INFINITY) || (status[j] == FREE && Math.abs(d) > dualTolerance)) {
+				return false;
+			}
+		}
+		
+		boolean flipped = false;
+		for(int j=0; j<n+m; j++) {
+			if(status[j] == BASIC || lower[j] == upper[j]) {
+				continue;
+			}
+			
+			double d = getReducedCost(j, false);
+			if(status[j] == AT_LOWER && d < -dualTolerance) {
+				status[j] = AT_UPPER;
+				x[j] = upper[j];
+				flipped = true;
+			}
+			else if(status[j] == AT_UPPER && d > dualTolerance) {
+				status[j] = AT_LOWER;
+				x[j] = lower[j];
+				flipped = true;
+			}
+		}
+		
+		if(flipped) {
+			computePrimal();
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Dual simplex method, which starts from a dual feasible basis and selects the leaving variable
+	 * with the largest primal infeasibility. Returns INFEASIBLE if the dual is unbounded.
+	 */
+	private Status runDualSimplex() {
+		double[] rho = new double[m];
+		double[] alpha = new double[m];
+		double[] pivotRow = new double[n+m];
+		
+		while(iterations < maxIterations) {
+			if(factorization.getNumUpdates() >= refactorizationFrequency) {
+				refactorize();
+			}
+			
+			// leaving variable
+			int r = -1;
+			double maxInfeasibility = primalTolerance;
+			for(int i=0; i<m; i++) {
+				int j = head[i];
+				double infeasibility = Math.max(lower[j] - x[j], x[j] - upper[j]);
+				if(infeasibility > maxInfeasibility) {
+					r = i;
+					maxInfeasibility = infeasibility;
+				}
+			}
+			
+			if(r == -1) {
+				return Status.OPTIMAL;
+			}
+			
+			int p = head[r];
+			boolean toLower = x[p] < lower[p];
+			double delta = (toLower ? lower[p] : upper[p]) - x[p];
+			
+			for(int i=0; i<m; i++) {
+				y[i] = cost[head[i]];
+			}
+			factorization.btran(y);
+			
+			Arrays.fill(rho, 0.0);
+			rho[r] = 1.0;
+			factorization.btran(rho);
+			
+			// first pass of the ratio test, in which x_p changes by -pivotRow[j] times the change of x_j
+			double maxRatio = Double.POSITIVE_INFINITY;
+			for(int j=0; j<n+m; j++) {
+				pivotRow[j] = 0.0;
+				if(status[j] == BASIC || lower[j] == upper[j]) {
+					continue;
+				}
+				
+				double a = (j < n) ? dot(rho, j) : -rho[j-n];
+				int direction = ((a < 0.0) == (delta > 0.0)) ? 1 : -1;
+				if(Math.abs(a) < pivotTolerance || (status[j] == AT_LOWER && direction < 0) || (status[j] == AT_UPPER && direction > 0)) {
+					continue;
+				}
+				
+				pivotRow[j] = a;
+				double d = Math.max(0.0, direction * getReducedCost(j, false));
+				maxRatio = Math.min(maxRatio, (d + dualTolerance) / Math.abs(a));
+			}
+			
+			// second pass: largest pivot element among the candidates within the maximum ratio
+			int q = -1;
+			double bestAlpha = 0.0;
+			for(int j=0; j<n+m; j++) {
+				double a = pivotRow[j];
+				if(a == 0.0) {
+					continue;
+				}
+				
+				int direction = ((a < 0.0) == (delta > 0.0)) ? 1 : -1;
+				double d = Math.max(0.0, direction * getReducedCost(j, false));
+				if(d / Math.abs(a) <= maxRatio && Math.abs(a) > bestAlpha) {
+					q = j;
+					bestAlpha = Math.abs(a);
+				}
+			}
+			
+			loadColumn(Math.max(q, 0), alpha);
+			factorization.ftran(alpha);
+			
+			if(q == -1 || Math.abs(alpha[r]) < pivotTolerance) {
+				if(factorization.getNumUpdates() > 0) {
+					refactorize();
+					continue;
+				}
+				
+				return (q == -1) ? Status.INFEASIBLE : Status.NUMERICAL_FAILURE;
+			}
+			
+			double change = -delta / alpha[r];
+			x[q] += change;
+			for(int i=0; i<m; i++) {
+				if(alpha[i] != 0.0) {
+					x[head[i]] -= alpha[i] * change;
+				}
+			}
+			
+			status[p] = (!toLower && lower[p] != upper[p]) ? AT_UPPER : AT_LOWER;
+			x[p] = toLower ? lower[p] : upper[p];
+			head[r] = q;
+			status[q] = BASIC;
+			factorization.update(alpha, r);
+			
+			iterations++;
+		}
+		
+		return Status.ITERATION_LIMIT;
+	}
+	
+	private double dot(double[] v, int j) {
+		double sum = 0.0;
+		for(int p=0; p<colLength[j]; p++) {
+			sum += v[colIndex[j][p]] * colValue[j][p];
+		}
+		return sum;
+	}
+	
+	private double getReducedCost(int j, boolean phase1) {
+		if(j >= n) {
+			return y[j-n];
+		}
+		
+		double d = phase1 ? 0.0 : cost[j];
+		for(int p=0; p<colLength[j]; p++) {
+			d -= y[colIndex[j][p]] * colValue[j][p];
+		}
+		
+		return d;
+	}
+	
+	/**
+	 * Selects the entering variable, or returns -1 if the current basis is optimal for the phase
+	 */
+	private int price(boolean phase1, boolean bland) {
+		int best = -1;
+		double bestValue = 0.0;
+		
+		for(int j=0; j<n+m; j++) {
+			if(status[j] == BASIC || lower[j] == upper[j]) {
+				continue;
+			}
+			
+			double d = getReducedCost(j, phase1);
+			boolean eligible = (status[j] == AT_LOWER && d < -dualTolerance) || (status[j] == AT_UPPER && d > dualTolerance) || (status[j] == FREE && Math.abs(d) > dualTolerance);
+			
+			if(eligible) {
+				if(bland) {
+					return j;
+				}
+				
+				if(Math.abs(d) > bestValue) {
+					best = j;
+					bestValue = Math.abs(d);
+				}
+			}
+		}
+		
+		return best;
+	}
+	
+	/**
+	 * Ratio test of phase 1, which stops at the first breakpoint of the sum of infeasibilities.
+	 * Returns the row of the leaving variable, or -1 in case of a bound flip or an unbounded step.
+	 */
+	private int ratioTestPhase1(int q, double[] alpha, int dir) {
+		step = upper[q] - lower[q];
+		int r = -1;
+		double bestAlpha = 0.0;
+		
+		for(int i=0; i<m; i++) {
+			double a = alpha[i];
+			if(Math.abs(a) < pivotTolerance) {
+				continue;
+			}
+			
+			int j = head[i];
+			double delta = -dir * a;
+			double ratio;
+			boolean atUpper;
+			
+			if(delta < 0.0) {
+				if(x[j] > upper[j] + primalTolerance) {
+					ratio = (x[j] - upper[j]) / -delta;
+					atUpper = true;
+				}
+				else if(x[j] >= lower[j] - primalTolerance && lower[j] > Double.NEGATIVE_INFINITY) {
+					ratio = Math.max(0.0, x[j] - lower[j]) / -delta;
+					atUpper = false;
+				}
+				else {
+					continue;
+				}
+			}
+			else {
+				if(x[j] < lower[j] - primalTolerance) {
+					ratio = (lower[j] - x[j]) / delta;
+					atUpper = false;
+				}
+				else if(x[j] <= upper[j] + primalTolerance && upper[j] < Double.POSITIVE_INFINITY) {
+					ratio = Math.max(0.0, upper[j] - x[j]) / delta;
+					atUpper = true;
+				}
+				else {
+					continue;
+				}
+			}
+			
+			if(ratio < step || (ratio == step && r != -1 && Math.abs(a) > bestAlpha)) {
+				step = ratio;
+				r = i;
+				bestAlpha = Math.abs(a);
+				leavingAtUpper = atUpper;
+			}
+		}
+		
+		return r;
+	}
+	
+	/**
+	 * Ratio test of phase 2 using the two passes of Harris, which prefers large pivot elements among
+	 * the rows that limit the step within the feasibility tolerance. Returns the row of the leaving
+	 * variable, or -1 in case of a bound flip or an unbounded step.
+	 */
+	private int ratioTestPhase2(int q, double[] alpha, int dir, boolean bland) {
+		double flip = upper[q] - lower[q];
+		
+		// first pass: maximum step if bounds are relaxed by the tolerance
+		double maxStep = Double.POSITIVE_INFINITY;
+		for(int i=0; i<m; i++) {
+			double a = alpha[i];
+			if(Math.abs(a) < pivotTolerance) {
+				continue;
+			}
+			
+			int j = head[i];
+			double delta = -dir * a;
+			if(delta < 0.0 && lower[j] > Double.NEGATIVE_INFINITY) {
+				maxStep = Math.min(maxStep, (x[j] - lower[j] + (bland ? 0.0 : primalTolerance)) / -delta);
+			}
+			else if(delta > 0.0 && upper[j] < Double.POSITIVE_INFINITY) {
+				maxStep = Math.min(maxStep, (upper[j] - x[j] + (bland ? 0.0 : primalTolerance)) / delta);
+			}
+		}
+		
+		if(flip <= maxStep) {
+			step = flip;
+			return -1;
+		}
+		
+		// second pass: among the rows with a ratio below the maximum step, choose the largest pivot
+		int r = -1;
+		double bestAlpha = 0.0;
+		step = Double.POSITIVE_INFINITY;
+		for(int i=0; i<m; i++) {
+			double a = alpha[i];
+			if(Math.abs(a) < pivotTolerance) {
+				continue;
+			}
+			
+			int j = head[i];
+			double delta = -dir * a;
+			double ratio;
+			boolean atUpper;
+			
+			if(delta < 0.0 && lower[j] > Double.NEGATIVE_INFINITY) {
+				ratio = Math.max(0.0, x[j] - lower[j]) / -delta;
+				atUpper = false;
+			}
+			else if(delta > 0.0 && upper[j] < Double.POSITIVE_INFINITY) {
+				ratio = Math.max(0.0, upper[j] - x[j]) / delta;
+				atUpper = true;
+			}
+			else {
+				continue;
+			}
+			
+			if(ratio <= maxStep) {
+				boolean better = bland ? (r == -1 || ratio < step || (ratio == step && j < head[r])) : Math.abs(a) > bestAlpha;
+				
+				if(better) {
+					r = i;
+					step = ratio;
+					bestAlpha = Math.abs(a);
+					leavingAtUpper = atUpper;
+				}
+			}
+		}
+		
+		return r;
+	}
+	
+	private void loadColumn(int j, double[] v) {
+		Arrays.fill(v, 0.0);
+		
+		if(j < n) {
+			for(int p=0; p<colLength[j]; p++) {
+				v[colIndex[j][p]] = colValue[j][p];
+			}
+		}
+		else {
+			v[j-n] = -1.0;
+		}
+	}
+}
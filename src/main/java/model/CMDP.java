@@ -18,9 +18,12 @@
  *******************************************************************************/
 package model;
 
+import java.util.Arrays;
 import java.util.List;
 
 public class CMDP extends MDP {	
+	private static final long serialVersionUID = 1L;
+	
 	private List<double[][]> costFunctions;
 	private double[] minCost;
 	private double[] maxCost;
@@ -97,4 +100,90 @@ public class CMDP extends MDP {
 	public List<double[][]> getCostFunctions() {
 		return costFunctions;
 	}
+	
+	/**
+	 * Get fingerprint of the initial state, feasible actions, rewards, transitions and costs.
+	 * CMDPs which are equivalent have the same fingerprint.
+	 * @return fingerprint
+	 */
+	public long getFingerprint() {
+		long h = 17;
+		h = 31 * h + getNumStates();
+		h = 31 * h + getNumActions();
+		h = 31 * h + getNumDecisions();
+		h = 31 * h + getInitialState();
+		h = 31 * h + getNumCostFunctions();
+		
+		for(int t=0; t<getNumDecisions(); t++) {
+			for(int s=0; s<getNumStates(); s++) {
+				for(int a : getFeasibleActions(t, s)) {
+					h = 31 * h + a;
+					h = 31 * h + Double.doubleToLongBits(getReward(t, s, a));
+					
+					int[] destinations = getTransitionDestinations(t, s, a);
+					double[] probabilities = getTransitionProbabilities(t, s, a);
+					for(int j=0; j<destinations.length; j++) {
+						h = 31 * h + destinations[j];
+						h = 31 * h + Double.doubleToLongBits(probabilities[j]);
+					}
+					
+					for(int k=0; k<getNumCostFunctions(); k++) {
+						h = 31 * h + Double.doubleToLongBits(getCost(k, s, a));
+					}
+				}
+			}
+		}
+		
+		return h;
+	}
+	
+	/**
+	 * Checks whether this CMDP has the same initial state, feasible actions, rewards, transitions and costs as another CMDP
+	 * @param other other CMDP
+	 * @return true if the CMDPs are equivalent
+	 */
+	public boolean isEquivalent(CMDP other) {
+		if(this == other) {
+			return true;
+		}
+		
+		if(getNumStates() != other.getNumStates() || getNumActions() != other.getNumActions() || getNumDecisions() != other.getNumDecisions()) {
+			return false;
+		}
+		
+		if(getInitialState() != other.getInitialState() || getNumCostFunctions() != other.getNumCostFunctions()) {
+			return false;
+		}
+		
+		for(int t=0; t<getNumDecisions(); t++) {
+			for(int s=0; s<getNumStates(); s++) {
+				int[] actions = getFeasibleActions(t, s);
+				if(!Arrays.equals(actions, other.getFeasibleActions(t, s))) {
+					return false;
+				}
+				
+				for(int a : actions) {
+					if(getReward(t, s, a) != other.getReward(t, s, a)) {
+						return false;
+					}
+					
+					if(!Arrays.equals(getTransitionDestinations(t, s, a), other.getTransitionDestinations(t, s, a))) {
+						return false;
+					}
+					
+					if(!Arrays.equals(getTransitionProbabilities(t, s, a), other.getTransitionProbabilities(t, s, a))) {
+						return false;
+					}
+					
+					for(int k=0; k<getNumCostFunctions(); k++) {
+						if(getCost(k, s, a) != other.getCost(k, s, a)) {
+							return false;
+						}
+					}
+				}
+			}
+		}
+		
+		return true;
+	}
 }
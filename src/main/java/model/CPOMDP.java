@@ -21,6 +21,7 @@ package model;
 import java.util.List;
 
 public class CPOMDP extends POMDP {	
+	private static final long serialVersionUID = 1L;
 	private List<double[][]> costFunctions;
 	private double[] minCost;
 	private double[] maxCost;
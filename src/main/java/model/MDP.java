@@ -18,8 +18,11 @@
  *******************************************************************************/
 package model;
 
+import java.io.Serializable;
 
-public class MDP {
+public class MDP implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
 	private int nStates;
 	private int nActions;
 	private int initialState;
@@ -41,6 +44,9 @@ public class MDP {
 	private int[][][][] timeTransitionDestinations;
 	private double[][][][] timeTransitionProbabilities;
 	
+	private transient volatile int[][] reachableStates;
+	private transient boolean[][] reachable;
+	
 	
 	public MDP(int nStates, int nActions, int initialState, int nDecisions) {
 		this.nStates = nStates;
@@ -221,6 +227,7 @@ public class MDP {
 		this.transitionProbabilities = transitionProbabilities;
 		this.timeTransitionDestinations = null;
 		this.timeTransitionProbabilities = null;
+		this.reachableStates = null;
 	}
 	
 	/**
@@ -235,6 +242,7 @@ public class MDP {
 		this.transitionProbabilities = null;
 		this.timeTransitionDestinations = transitionDestinations;
 		this.timeTransitionProbabilities = transitionProbabilities;
+		this.reachableStates = null;
 	}
 	
 	/**
@@ -357,6 +365,7 @@ public class MDP {
 	 */
 	public void setFeasibleActions(int[][][] feasibleActions) {
 		this.feasibleActions = feasibleActions;
+		this.reachableStates = null;
 	}
 	
 	/**
@@ -376,4 +385,83 @@ public class MDP {
 	public int[][][] getFeasibleActions() {
 		return feasibleActions;
 	}
+	
+	/**
+	 * Get states which can be reached from the initial state at time t, in increasing order.
+	 * A state is reachable if it is a transition destination of a feasible action in a state
+	 * which is reachable at time t-1. The result is computed once and cached.
+	 * @param t time
+	 * @return array with reachable states
+	 */
+	public int[] getReachableStates(int t) {
+		assert t >= 0 && t < nDecisions;
+		int[][] states = reachableStates;
+		
+		if(states == null) {
+			states = initReachableStates();
+		}
+		
+		return states[t];
+	}
+	
+	/**
+	 * Checks whether state s can be reached from the initial state at time t
+	 * @param t time
+	 * @param s state
+	 * @return true if s is reachable at time t
+	 */
+	public boolean isReachable(int t, int s) {
+		assert t >= 0 && t < nDecisions && s >= 0 && s < nStates;
+		
+		if(reachableStates == null) {
+			initReachableStates();
+		}
+		
+		return reachable[t][s];
+	}
+	
+	/**
+	 * Computes the reachable states at each time step by propagating forward from the initial state
+	 * @return array containing the reachable states for each time step
+	 */
+	private synchronized int[][] initReachableStates() {
+		if(reachableStates != null) {
+			return reachableStates;
+		}
+		
+		boolean[][] isReachable = new boolean[nDecisions][nStates];
+		int[][] states = new int[nDecisions][];
+		
+		isReachable[0][initialState] = true;
+		states[0] = new int[]{initialState};
+		
+		for(int t=0; t<nDecisions-1; t++) {
+			int numReachable = 0;
+			
+			for(int s : states[t]) {
+				for(int a : getFeasibleActions(t, s)) {
+					for(int sPrime : getTransitionDestinations(t, s, a)) {
+						if(!isReachable[t+1][sPrime]) {
+							isReachable[t+1][sPrime] = true;
+							numReachable++;
+						}
+					}
+				}
+			}
+			
+			states[t+1] = new int[numReachable];
+			int i = 0;
+			for(int sPrime=0; sPrime<nStates; sPrime++) {
+				if(isReachable[t+1][sPrime]) {
+					states[t+1][i] = sPrime;
+					i++;
+				}
+			}
+		}
+		
+		reachable = isReachable;
+		reachableStates = states;
+		
+		return states;
+	}
 }
@@ -19,6 +19,7 @@
 package model;
 
 public class POMDP extends MDP {
+	private static final long serialVersionUID = 1L;
 	private int nObservations;
 	private double[][][] observationFunction;
 	private BeliefPoint b0;
@@ -32,6 +32,10 @@ public class CMDPSolutionPolicyBased implements CMDPSolution, Serializable {
 		this.solutions = solutions;
 	}
 	
+	public MDPAgentSolutionPolicyBased[] getAgentSolutions() {
+		return solutions;
+	}
+	
 	@Override
 	public int[] getActions(int t, int[] jointState) {
 		// new run starts if t=0, so we select new policy for this run
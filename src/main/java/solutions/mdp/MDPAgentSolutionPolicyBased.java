@@ -18,13 +18,17 @@
  *******************************************************************************/
 package solutions.mdp;
 
+import java.util.Random;
+
 /**
  * This interface represents a solution, which is a policy or a set of policies.
  * The method getPolicy() should return the single policy, or a policy sampled from a distribution.
+ * The method getPolicy(rnd) does the same using the given random number generator.
  */
 
 public interface MDPAgentSolutionPolicyBased {	
 	public MDPPolicy getPolicy();
+	public MDPPolicy getPolicy(Random rnd);
 	public double getExpectedReward();
 	
 	public double getExpectedInstantaneousCost(int k, int t);
@@ -18,6 +18,10 @@
  *******************************************************************************/
 package solutions.mdp;
 
+import java.util.Random;
+
 public interface MDPPolicy {
 	public int getAction(int t, int s);
+	public int getAction(int t, int s, Random rnd);
+	public double getActionProbability(int t, int s, int a);
 }
@@ -19,6 +19,7 @@
 package solutions.mdp;
 
 import java.io.Serializable;
+import java.util.Random;
 
 public class MDPPolicyDeterministic implements MDPPolicy, MDPAgentSolutionPolicyBased, Serializable {
 	private static final long serialVersionUID = 1L;
@@ -37,10 +38,22 @@ public class MDPPolicyDeterministic implements MDPPolicy, MDPAgentSolutionPolicy
 	public int getAction(int t, int s) {
 		return pi[t][s];
 	}
+	
+	public int getAction(int t, int s, Random rnd) {
+		return pi[t][s];
+	}
+	
+	public double getActionProbability(int t, int s, int a) {
+		return (pi[t][s] == a) ? 1.0 : 0.0;
+	}
 
 	public MDPPolicy getPolicy() {
 		return this;
 	}
+	
+	public MDPPolicy getPolicy(Random rnd) {
+		return this;
+	}
 
 	@Override
 	public double getExpectedReward() {
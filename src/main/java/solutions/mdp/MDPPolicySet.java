@@ -22,7 +22,6 @@ import java.io.Serializable;
 import java.util.List;
 import java.util.Random;
 
-import util.ProbabilitySample;
 
 public class MDPPolicySet implements MDPAgentSolutionPolicyBased, Serializable {
 	private static final long serialVersionUID = 1L;
@@ -44,17 +43,43 @@ public class MDPPolicySet implements MDPAgentSolutionPolicyBased, Serializable {
 	
 	@Override
 	public MDPPolicy getPolicy() {
-		ProbabilitySample ps = new ProbabilitySample(rnd);
+		return getPolicy(rnd);
+	}
+	
+	@Override
+	public MDPPolicy getPolicy(Random rnd) {
+		// samples in the same way as ProbabilitySample, without creating objects for each sample
+		double randomNumber = rnd.nextDouble();
+		double cumulative = 0.0;
+		int lastIndex = -1;
+		
 		for(int i=0; i<policies.size(); i++) {
 			double prob = probabilities.get(i);
 			if(prob > 1.0) prob = 1.0;
 			if(prob < 0.0) prob = 0.0;
 			
-			ps.addItem(i, prob);
+			if(prob > 0.0) {
+				cumulative += prob;
+				lastIndex = i;
+				
+				if(randomNumber <= cumulative) {
+					return policies.get(i);
+				}
+			}
 		}
-		return policies.get(ps.sampleItem());
+		
+		assert lastIndex >= 0 : "No policy with positive probability";
+		return policies.get(lastIndex);
 	}
 
+	public List<MDPPolicy> getPolicies() {
+		return policies;
+	}
+	
+	public List<Double> getProbabilities() {
+		return probabilities;
+	}
+	
 	@Override
 	public double getExpectedReward() {
 		return expectedReward;
@@ -36,6 +36,10 @@ public class MDPPolicyStochastic implements MDPPolicy, MDPAgentSolutionPolicyBas
 	}
 	
 	public int getAction(int t, int s) {
+		return getAction(t, s, rnd);
+	}
+	
+	public int getAction(int t, int s, Random rnd) {
 		ProbabilitySample ps = new ProbabilitySample(rnd);
 		int nActions = x[t][s].length;
 		
@@ -58,9 +62,26 @@ public class MDPPolicyStochastic implements MDPPolicy, MDPAgentSolutionPolicyBas
 		return ps.sampleItem();
 	}
 
+	public double getActionProbability(int t, int s, int a) {
+		double probSum = 0.0;
+		for(int aPrime=0; aPrime<x[t][s].length; aPrime++) {
+			probSum += x[t][s][aPrime];
+		}
+		
+		if(probSum <= 0.0 || x[t][s][a] <= 0.0) {
+			return 0.0;
+		}
+		
+		return Math.min(1.0, x[t][s][a] / probSum);
+	}
+	
 	public MDPPolicy getPolicy() {
 		return this;
 	}
+	
+	public MDPPolicy getPolicy(Random rnd) {
+		return this;
+	}
 
 	public double getExpectedReward() {
 		return expectedReward;
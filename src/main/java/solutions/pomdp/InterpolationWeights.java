@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package solutions.pomdp;
+
+import java.io.Serializable;
+import java.util.Random;
+
+import util.ProbabilitySample;
+
+/**
+ * Sparse representation of the interpolation weights w(b', b^{a,o}) used by CALP.
+ * For each combination of node b, action a and observation o only the nodes b' with
+ * a nonzero weight are stored, in increasing order. Combinations which have not been
+ * assigned represent a uniform distribution over all nodes.
+ */
+public class InterpolationWeights implements Serializable {
+	private static final long serialVersionUID = 1L;
+	
+	private int numNodes;
+	private int numActions;
+	private int numObservations;
+	private int[][][][] nodes; // nodes[b][a][o] = nodes b' with nonzero weight, null if uniform
+	private double[][][][] values; // values[b][a][o][i] = w(nodes[b][a][o][i], b^{a,o})
+	
+	public InterpolationWeights(int numNodes, int numActions, int numObservations) {
+		assert numNodes > 0;
+		this.numNodes = numNodes;
+		this.numActions = numActions;
+		this.numObservations = numObservations;
+		this.nodes = new int[numNodes][numActions][numObservations][];
+		this.values = new double[numNodes][numActions][numObservations][];
+	}
+	
+	public int getNumNodes() {
+		return numNodes;
+	}
+	
+	public int getNumActions() {
+		return numActions;
+	}
+	
+	public int getNumObservations() {
+		return numObservations;
+	}
+	
+	/**
+	 * Stores the nonzero entries of a dense weight vector, indexed by b'
+	 */
+	public void setWeights(int b, int a, int o, double[] weights) {
+		assert weights.length == numNodes;
+		
+		int nnz = 0;
+		for(int bPrime=0; bPrime<numNodes; bPrime++) {
+			if(weights[bPrime] != 0.0) {
+				nnz++;
+			}
+		}
+		
+		int[] bNodes = new int[nnz];
+		double[] bValues = new double[nnz];
+		int i = 0;
+		for(int bPrime=0; bPrime<numNodes; bPrime++) {
+			if(weights[bPrime] != 0.0) {
+				bNodes[i] = bPrime;
+				bValues[i] = weights[bPrime];
+				i++;
+			}
+		}
+		
+		nodes[b][a][o] = bNodes;
+		values[b][a][o] = bValues;
+	}
+	
+	public void setUniform(int b, int a, int o) {
+		nodes[b][a][o] = null;
+		values[b][a][o] = null;
+	}
+	
+	public boolean isUniform(int b, int a, int o) {
+		return nodes[b][a][o] == null;
+	}
+	
+	/**
+	 * Returns the nodes with nonzero weight in increasing order, or null if the weights are uniform
+	 */
+	public int[] getNodes(int b, int a, int o) {
+		return nodes[b][a][o];
+	}
+	
+	/**
+	 * Returns the weights corresponding to getNodes, or null if the weights are uniform
+	 */
+	public double[] getValues(int b, int a, int o) {
+		return values[b][a][o];
+	}
+	
+	public double getWeight(int bPrime, int b, int a, int o) {
+		assert bPrime >= 0 && bPrime < numNodes;
+		
+		if(nodes[b][a][o] == null) {
+			return 1.0 / ((double) numNodes);
+		}
+		
+		int[] bNodes = nodes[b][a][o];
+		int lo = 0;
+		int hi = bNodes.length - 1;
+		while(lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			
+			if(bNodes[mid] < bPrime) {
+				lo = mid + 1;
+			}
+			else if(bNodes[mid] > bPrime) {
+				hi = mid - 1;
+			}
+			else {
+				return values[b][a][o][mid];
+			}
+		}
+		
+		return 0.0;
+	}
+	
+	public double getWeightSum(int b, int a, int o) {
+		if(nodes[b][a][o] == null) {
+			return 1.0;
+		}
+		
+		double sum = 0.0;
+		for(double w : values[b][a][o]) {
+			sum += w;
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Samples the next node after executing action a in node b and observing o
+	 */
+	public int sampleNode(int b, int a, int o, Random rnd) {
+		ProbabilitySample ps = new ProbabilitySample(rnd);
+		
+		if(nodes[b][a][o] == null) {
+			double prob = 1.0 / ((double) numNodes);
+			for(int bPrime=0; bPrime<numNodes; bPrime++) {
+				ps.addItem(bPrime, prob);
+			}
+		}
+		else {
+			int[] bNodes = nodes[b][a][o];
+			double[] bValues = values[b][a][o];
+			
+			for(int i=0; i<bNodes.length; i++) {
+				double prob = bValues[i];
+				assert prob >= -0.01 && prob <= 1.01;
+				
+				if(prob < 0.0) prob = 0.0;
+				if(prob > 1.0) prob = 1.0;
+				
+				ps.addItem(bNodes[i], prob);
+			}
+		}
+		
+		return ps.sampleItem();
+	}
+}
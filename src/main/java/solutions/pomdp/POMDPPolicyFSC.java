@@ -32,7 +32,7 @@ public class POMDPPolicyFSC implements POMDPAgentSolutionPolicyBased, POMDPPolic
 	private int numActions;
 	private int numObservations;
 	private double[][][] policy; // policy[b][a] = probability to select a in node b
-	private double[][][][] weights; // w[bPrime][b][a][o] = w(b', b^{a,o})
+	private InterpolationWeights weights; // w(b', b^{a,o})
 	private double expectedReward;
 	private double expectedCost;
 	private double expectedValue;
@@ -42,7 +42,7 @@ public class POMDPPolicyFSC implements POMDPAgentSolutionPolicyBased, POMDPPolic
 	private int currentNode;
 	private int currentTime;
 	
-	public POMDPPolicyFSC(int numNodes, int numActions, int numObservations, double[][][] policy, double[][][][] weights, int startNode, double expectedValue, double expectedReward, double expectedCost, Random rnd) {
+	public POMDPPolicyFSC(int numNodes, int numActions, int numObservations, double[][][] policy, InterpolationWeights weights, int startNode, double expectedValue, double expectedReward, double expectedCost, Random rnd) {
 		this.numNodes = numNodes;
 		this.numActions = numActions;
 		this.numObservations = numObservations;
@@ -62,12 +62,7 @@ public class POMDPPolicyFSC implements POMDPAgentSolutionPolicyBased, POMDPPolic
 			for(int a=0; a<numActions; a++) {
 				for(int o=0; o<numObservations; o++) {					
 
-					double sum = 0.0;
-					
-					for(int nextB=0; nextB<numNodes; nextB++) {
-						sum += weights[nextB][bIndex][a][o];
-					}
-					
+					double sum = weights.getWeightSum(bIndex, a, o);
 					assert Math.abs(sum-1.0) < 0.0001 : "Weights do not sum to 1: "+sum;
 				}
 			}
@@ -109,18 +104,7 @@ public class POMDPPolicyFSC implements POMDPAgentSolutionPolicyBased, POMDPPolic
 	public void update(int a, int o) {
 		assert a >= 0 && a < numActions && o >= 0 && o < numObservations;
 		
-		ProbabilitySample ps = new ProbabilitySample(rnd);
-		for(int node=0; node<numNodes; node++) {
-			double prob = weights[node][currentNode][a][o];
-			assert prob >= -0.01 && prob <= 1.01;
-			
-			if(prob < 0.0) prob = 0.0;
-			if(prob > 1.0) prob = 1.0;
-			
-			ps.addItem(node, prob);
-		}
-		
-		currentNode = ps.sampleItem();
+		currentNode = weights.sampleNode(currentNode, a, o, rnd);
 		currentTime++;
 	}
 
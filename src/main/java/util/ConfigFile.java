@@ -42,39 +42,31 @@ public class ConfigFile {
 		}
 	}
 	
+	private static synchronized ConfigFile getInstance() {
+		if(instance == null) {
+			instance = new ConfigFile();
+		}
+		
+		return instance;
+	}
+	
 	public String getPropertyFromFile(String property) {
 		return properties.getProperty(property);
 	}
 	
 	public static String getStringProperty(String property) {
-		if(instance == null) {
-			instance = new ConfigFile();
-		}
-		
-		return instance.getPropertyFromFile(property);
+		return getInstance().getPropertyFromFile(property);
     }
 	
 	public static boolean getBooleanProperty(String property) {
-		if(instance == null) {
-			instance = new ConfigFile();
-		}
-		
-		return Boolean.parseBoolean(instance.getPropertyFromFile(property));
+		return Boolean.parseBoolean(getInstance().getPropertyFromFile(property));
     }
 	
 	public static double getDoubleProperty(String property) {
-		if(instance == null) {
-			instance = new ConfigFile();
-		}
-		
-		return Double.parseDouble(instance.getPropertyFromFile(property));
+		return Double.parseDouble(getInstance().getPropertyFromFile(property));
     }
 	
 	public static int getIntProperty(String property) {
-		if(instance == null) {
-			instance = new ConfigFile();
-		}
-		
-		return Integer.parseInt(instance.getPropertyFromFile(property));
+		return Integer.parseInt(getInstance().getPropertyFromFile(property));
     }
 }
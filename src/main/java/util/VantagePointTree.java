@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * ConstrainedPlanningToolbox
+ * Copyright (C) 2019 Algorithmics group, Delft University of Technology
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ *******************************************************************************/
+package util;
+
+import java.util.List;
+
+/**
+ * Vantage-point tree for nearest neighbor queries using the Euclidean distance
+ */
+public class VantagePointTree {
+	private double[][] points;
+	
+	// node i stores point pointIndex[i], the radius, and the children containing points inside and outside the radius
+	private int[] pointIndex;
+	private double[] radius;
+	private int[] inside;
+	private int[] outside;
+	private int numNodes = 0;
+	private int root;
+	
+	public VantagePointTree(List<double[]> pointList) {
+		int n = pointList.size();
+		this.points = pointList.toArray(new double[n][]);
+		this.pointIndex = new int[n];
+		this.radius = new double[n];
+		this.inside = new int[n];
+		this.outside = new int[n];
+		
+		int[] indices = new int[n];
+		for(int i=0; i<n; i++) {
+			indices[i] = i;
+		}
+		
+		this.root = build(indices, new double[n], 0, n);
+	}
+	
+	private int build(int[] indices, double[] dist, int from, int to) {
+		if(from >= to) {
+			return -1;
+		}
+		
+		int node = numNodes;
+		numNodes++;
+		
+		// the first point in the range is used as vantage point
+		int vp = indices[from];
+		pointIndex[node] = vp;
+		
+		if(to - from == 1) {
+			radius[node] = 0.0;
+			inside[node] = -1;
+			outside[node] = -1;
+			return node;
+		}
+		
+		for(int i=from+1; i<to; i++) {
+			dist[indices[i]] = getDistance(points[vp], points[indices[i]]);
+		}
+		
+		// partition the remaining points around the median distance
+		int median = (from + 1 + to) / 2;
+		select(indices, dist, from+1, to-1, median);
+		radius[node] = dist[indices[median]];
+		
+		inside[node] = build(indices, dist, from+1, median);
+		outside[node] = build(indices, dist, median, to);
+		
+		return node;
+	}
+	
+	private void select(int[] indices, double[] dist, int lo, int hi, int k) {
+		while(lo < hi) {
+			double pivot = dist[indices[(lo + hi) >>> 1]];
+			int i = lo;
+			int j = hi;
+			
+			while(i <= j) {
+				while(dist[indices[i]] < pivot) i++;
+				while(dist[indices[j]] > pivot) j--;
+				
+				if(i <= j) {
+					int tmp = indices[i];
+					indices[i] = indices[j];
+					indices[j] = tmp;
+					i++;
+					j--;
+				}
+			}
+			
+			if(k <= j) {
+				hi = j;
+			}
+			else if(k >= i) {
+				lo = i;
+			}
+			else {
+				return;
+			}
+		}
+	}
+	
+	public static double getDistance(double[] p, double[] q) {
+		assert p.length == q.length;
+		
+		double sum = 0.0;
+		for(int i=0; i<p.length; i++) {
+			double d = p[i] - q[i];
+			sum += d * d;
+		}
+		
+		return Math.sqrt(sum);
+	}
+	
+	/**
+	 * Get the distance between the query point and the nearest point in the tree
+	 * @param query query point
+	 * @return distance to nearest point, or infinity if the tree is empty
+	 */
+	public double getNearestDistance(double[] query) {
+		double best = Double.POSITIVE_INFINITY;
+		
+		int[] stack = new int[Math.max(1, numNodes)];
+		int stackSize = 0;
+		
+		if(root != -1) {
+			stack[stackSize++] = root;
+		}
+		
+		while(stackSize > 0) {
+			int node = stack[--stackSize];
+			double d = getDistance(query, points[pointIndex[node]]);
+			
+			if(d < best) {
+				best = d;
+			}
+			
+			// visit the side containing the query last, such that it is explored first
+			if(d < radius[node]) {
+				if(outside[node] != -1 && d + best >= radius[node]) stack[stackSize++] = outside[node];
+				if(inside[node] != -1 && d - best <= radius[node]) stack[stackSize++] = inside[node];
+			}
+			else {
+				if(inside[node] != -1 && d - best <= radius[node]) stack[stackSize++] = inside[node];
+				if(outside[node] != -1 && d + best >= radius[node]) stack[stackSize++] = outside[node];
+			}
+		}
+		
+		return best;
+	}
+}